@@ -14,6 +14,12 @@ public interface AppActions {
     void hideToTray();
 
     void requestExit();
+
+    /**
+     * Shows a short desktop notification (tray balloon). Does nothing where there is no tray.
+     */
+    default void showNotification(String caption, String text) {
+    }
 }
 
 
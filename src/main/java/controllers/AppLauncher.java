@@ -0,0 +1,49 @@
+/*
+ *
+ *  Copyright (C) 2022 - 2025.  Reda ELFARISSI aka FoKss-LTS
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+
+package controllers;
+
+import javafx.application.Application;
+import services.headless.HeadlessLauncher;
+import services.headless.HeadlessOptions;
+
+/**
+ * Main class of the application. It does not extend {@link Application}, so the Java
+ * launcher does not start the JavaFX toolkit before {@link #main} runs: {@code --headless}
+ * hands over to {@link HeadlessLauncher} without loading any JavaFX class and works where no
+ * display exists. Any other invocation launches {@link WidgetApplication}.
+ */
+public final class AppLauncher {
+
+    private AppLauncher() {
+        throw new UnsupportedOperationException("This is a utility class and cannot be instantiated");
+    }
+
+    public static void main(String[] args) {
+        if (HeadlessOptions.isRequested(args)) {
+            HeadlessLauncher.main(args);
+            return;
+        }
+        launchWidget(args);
+    }
+
+    // Kept out of main so the headless path never resolves a JavaFX type
+    private static void launchWidget(String[] args) {
+        Application.launch(WidgetApplication.class, args);
+    }
+}
@@ -18,6 +18,8 @@
 
 package controllers;
 
+import domain.configuration.AnomalyAlerts;
+import domain.configuration.BlockedPercentWindow;
 import domain.configuration.DnsBlockerConfig;
 import domain.configuration.DnsBlockerType;
 import domain.configuration.WidgetConfig;
@@ -28,6 +30,7 @@ import javafx.fxml.Initializable;
 import javafx.scene.control.Accordion;
 import javafx.scene.control.Alert;
 import javafx.scene.control.Button;
+import javafx.scene.control.CheckBox;
 import javafx.scene.control.ComboBox;
 import javafx.scene.control.Label;
 import javafx.scene.control.TextField;
@@ -37,6 +40,8 @@ import services.configuration.ConfigurationService;
 
 import java.net.URI;
 import java.net.URL;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.ResourceBundle;
 import java.util.logging.Level;
@@ -115,6 +120,24 @@ public class ConfigurationController implements Initializable {
     @FXML
     private TextField tfTopXCount;
     @FXML
+    private CheckBox cbShowLive;
+    @FXML
+    private CheckBox cbShowStatus;
+    @FXML
+    private CheckBox cbShowFluid;
+    @FXML
+    private CheckBox cbShowTopX;
+    @FXML
+    private CheckBox cbShowTrend;
+    @FXML
+    private CheckBox cbShowTopClients;
+    @FXML
+    private CheckBox cbShowUpstreams;
+    @FXML
+    private CheckBox cbAlerts1;
+    @FXML
+    private CheckBox cbAlerts2;
+    @FXML
     private TextField tfIp2;
     @FXML
     private TextField tfPort2;
@@ -130,6 +153,8 @@ public class ConfigurationController implements Initializable {
     @FXML
     private ComboBox<String> comboBoxTheme;
     @FXML
+    private ComboBox<String> comboBoxFluidWindow;
+    @FXML
     private ComboBox<String> comboBoxScheme1;
     @FXML
     private ComboBox<String> comboBoxPlatform1;
@@ -304,6 +329,13 @@ public class ConfigurationController implements Initializable {
             comboBoxTheme.setValue(DEFAULT_THEME);
         }
 
+        // Blocked % tile period
+        if (comboBoxFluidWindow != null) {
+            comboBoxFluidWindow.setItems(FXCollections.observableArrayList(
+                    Arrays.stream(BlockedPercentWindow.values()).map(BlockedPercentWindow::getDisplayName).toList()));
+            comboBoxFluidWindow.setValue(BlockedPercentWindow.TODAY.getDisplayName());
+        }
+
         // Scheme options for DNS1
         if (comboBoxScheme1 != null) {
             comboBoxScheme1.setItems(FXCollections.observableArrayList(SCHEMES));
@@ -525,12 +557,32 @@ public class ConfigurationController implements Initializable {
         DnsBlockerType platform2 = DnsBlockerType.fromDisplayName(platformStr2);
         String username2 = getTextOrEmpty(tfUsername2);
 
-        configService.writeConfigFile(
-                platform1, scheme1, ip1, port1, username1, getTextOrEmpty(tfAuth1),
-                platform2, scheme2, ip2, port2, username2, getTextOrEmpty(tfAuth2),
-                size, layout, theme, true, true, true,
-                topXCount,
-                updateStatusSec, updateFluidSec, updateActiveSec, updateTopXSec);
+        WidgetConfig newWidgetConfig = new WidgetConfig(size, layout, theme,
+                isCheckedOrDefault(cbShowLive), isCheckedOrDefault(cbShowStatus), isCheckedOrDefault(cbShowFluid),
+                updateStatusSec, updateFluidSec, updateActiveSec, updateTopXSec, topXCount)
+                .withShowTopX(isCheckedOrDefault(cbShowTopX))
+                .withShowTrend(isChecked(cbShowTrend))
+                .withFluidWindow(BlockedPercentWindow.fromString(
+                        getSelectedOrDefault(comboBoxFluidWindow, BlockedPercentWindow.TODAY.getDisplayName())))
+                .withShowTopClients(isChecked(cbShowTopClients))
+                .withShowUpstreams(isChecked(cbShowUpstreams));
+        if (newWidgetConfig.visibleTileCount() == 0) {
+            showInfoAlert("No Tile Selected", "Select at least one tile to show.");
+            return;
+        }
+
+        // The form edits the first two instances; any further ones from settings.json are kept as-is.
+        List<DnsBlockerConfig> instances = new ArrayList<>();
+        instances.add(new DnsBlockerConfig(platform1, ip1, port1, scheme1, username1, getTextOrEmpty(tfAuth1),
+                alertsFrom(cbAlerts1, configDNS1)));
+        instances.add(new DnsBlockerConfig(platform2, ip2, port2, scheme2, username2, getTextOrEmpty(tfAuth2),
+                alertsFrom(cbAlerts2, configDNS2)));
+        configService.readConfiguration();
+        List<DnsBlockerConfig> current = configService.getInstances();
+        if (current.size() > 2) {
+            instances.addAll(current.subList(2, current.size()));
+        }
+        configService.writeConfigFile(instances, newWidgetConfig);
 
         log("Configuration saved");
     }
@@ -562,6 +614,7 @@ public class ConfigurationController implements Initializable {
             setTextFieldValue(tfPort1, String.valueOf(configDNS1.getPort()));
             setTextFieldValue(tfUsername1, configDNS1.username() != null ? configDNS1.username() : "");
             setTextFieldValue(tfAuth1, configDNS1.password());
+            setCheckBoxValue(cbAlerts1, configDNS1.alerts().enabled());
         } else {
             log("DNS1 config is null, using defaults");
             setComboBoxValue(comboBoxPlatform1, DnsBlockerType.PIHOLE.getDisplayName(),
@@ -587,6 +640,7 @@ public class ConfigurationController implements Initializable {
             setTextFieldValue(tfPort2, String.valueOf(configDNS2.getPort()));
             setTextFieldValue(tfUsername2, configDNS2.username() != null ? configDNS2.username() : "");
             setTextFieldValue(tfAuth2, configDNS2.password());
+            setCheckBoxValue(cbAlerts2, configDNS2.alerts().enabled());
         } else {
             log("DNS2 config is null, using defaults");
             setComboBoxValue(comboBoxPlatform2, DnsBlockerType.PIHOLE.getDisplayName(),
@@ -603,17 +657,33 @@ public class ConfigurationController implements Initializable {
             setComboBoxValue(comboBoxSize, widgetConfig.getSize(), DEFAULT_SIZE);
             setComboBoxValue(comboBoxLayout, widgetConfig.getLayout(), DEFAULT_LAYOUT);
             setComboBoxValue(comboBoxTheme, widgetConfig.getTheme(), DEFAULT_THEME);
+            setComboBoxValue(comboBoxFluidWindow, widgetConfig.fluidWindow().getDisplayName(),
+                    BlockedPercentWindow.TODAY.getDisplayName());
             setTextFieldValue(tfUpdateStatus, String.valueOf(widgetConfig.getUpdate_status_sec()));
             setTextFieldValue(tfUpdateFluid, String.valueOf(widgetConfig.getUpdate_fluid_sec()));
             setTextFieldValue(tfUpdateActive, String.valueOf(widgetConfig.getUpdate_active_sec()));
             setTextFieldValue(tfUpdateTopX, String.valueOf(widgetConfig.getUpdate_topx_sec()));
             setTextFieldValue(tfTopXCount, String.valueOf(widgetConfig.topX()));
+            setCheckBoxValue(cbShowLive, widgetConfig.showLive());
+            setCheckBoxValue(cbShowStatus, widgetConfig.showStatus());
+            setCheckBoxValue(cbShowFluid, widgetConfig.showFluid());
+            setCheckBoxValue(cbShowTopX, widgetConfig.showTopX());
+            setCheckBoxValue(cbShowTrend, widgetConfig.showTrend());
+            setCheckBoxValue(cbShowTopClients, widgetConfig.showTopClients());
+            setCheckBoxValue(cbShowUpstreams, widgetConfig.showUpstreams());
         } else {
             setTextFieldValue(tfUpdateStatus, String.valueOf(DEFAULT_UPDATE_STATUS_SEC));
             setTextFieldValue(tfUpdateFluid, String.valueOf(DEFAULT_UPDATE_FLUID_SEC));
             setTextFieldValue(tfUpdateActive, String.valueOf(DEFAULT_UPDATE_ACTIVE_SEC));
             setTextFieldValue(tfUpdateTopX, String.valueOf(DEFAULT_UPDATE_TOPX_SEC));
             setTextFieldValue(tfTopXCount, String.valueOf(DEFAULT_TOPX_COUNT));
+            setCheckBoxValue(cbShowLive, true);
+            setCheckBoxValue(cbShowStatus, true);
+            setCheckBoxValue(cbShowFluid, true);
+            setCheckBoxValue(cbShowTopX, true);
+            setCheckBoxValue(cbShowTrend, false);
+            setCheckBoxValue(cbShowTopClients, false);
+            setCheckBoxValue(cbShowUpstreams, false);
         }
 
         log("Configuration loaded");
@@ -711,6 +781,27 @@ public class ConfigurationController implements Initializable {
         }
     }
 
+    // Missing checkboxes (e.g. an older FXML) mean "shown", matching the settings default.
+    private boolean isCheckedOrDefault(CheckBox checkBox) {
+        return checkBox == null || checkBox.isSelected();
+    }
+
+    // The threshold is only editable in settings.json; keep whatever was loaded.
+    private static AnomalyAlerts alertsFrom(CheckBox checkBox, DnsBlockerConfig loaded) {
+        double threshold = loaded != null ? loaded.alerts().threshold() : AnomalyAlerts.DEFAULT_THRESHOLD;
+        return new AnomalyAlerts(checkBox == null || checkBox.isSelected(), threshold);
+    }
+
+    private boolean isChecked(CheckBox checkBox) {
+        return checkBox != null && checkBox.isSelected();
+    }
+
+    private void setCheckBoxValue(CheckBox checkBox, boolean value) {
+        if (checkBox != null) {
+            checkBox.setSelected(value);
+        }
+    }
+
     private record ParsedHostInput(boolean valid, String host, Integer port, String scheme, String errorMessage) {
     }
 
@@ -0,0 +1,209 @@
+/*
+ *
+ *  Copyright (C) 2022 - 2025.  Reda ELFARISSI aka FoKss-LTS
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+
+package controllers;
+
+import helpers.HelperService;
+import javafx.geometry.Bounds;
+import javafx.geometry.Insets;
+import javafx.scene.Node;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.control.Label;
+import javafx.scene.layout.Background;
+import javafx.scene.layout.BackgroundFill;
+import javafx.scene.layout.CornerRadii;
+import javafx.scene.layout.VBox;
+import javafx.scene.paint.Color;
+import javafx.scene.text.Font;
+import javafx.scene.text.FontWeight;
+import javafx.stage.Popup;
+import services.history.HistoryBucket;
+import services.queries.DomainSummary;
+
+import java.util.List;
+
+/**
+ * Popup shown when a Top X domain is clicked: who queried the domain over the last 24h,
+ * an hourly timeline and the lists that blocked it. It is created once and reused; each
+ * {@link #update(DomainSummary)} only touches what changed, so pages arriving while the
+ * popup is open render progressively.
+ * <p>
+ * Must only be used from the JavaFX Application Thread.
+ */
+final class DomainDrillDownPopup {
+
+    private static final double WIDTH = 260;
+    private static final double TIMELINE_HEIGHT = 56;
+    private static final double BAR_GAP = 1;
+    private static final int LIST_ROWS = 5;
+    private static final double ANCHOR_OFFSET = 24;
+
+    private final Popup popup = new Popup();
+    private final VBox root;
+    private final Label domainLabel;
+    private final Label totalsLabel;
+    private final Label statusLabel;
+    private final Canvas timeline;
+    private final TopXListView clientsView;
+    private final TopXListView listsView;
+
+    private String domain;
+    private DomainSummary shown;
+    private Color textColor;
+    private Color blockedColor;
+
+    DomainDrillDownPopup(Color background, Color textColor, Color blockedColor) {
+        this.textColor = textColor;
+        this.blockedColor = blockedColor;
+
+        domainLabel = new Label();
+        domainLabel.setFont(Font.font(null, FontWeight.BOLD, 13));
+        domainLabel.setMaxWidth(WIDTH);
+        totalsLabel = new Label();
+        statusLabel = new Label();
+        timeline = new Canvas(WIDTH, TIMELINE_HEIGHT);
+        clientsView = new TopXListView("Client", "Queries", DomainSummary.MAX_ROWS, textColor);
+        listsView = new TopXListView("Blocked by", "Blocks", LIST_ROWS, textColor);
+
+        root = new VBox(6, domainLabel, totalsLabel, timeline, clientsView.getNode(), listsView.getNode(),
+                statusLabel);
+        root.setPadding(new Insets(8));
+        root.setPrefWidth(WIDTH + 16);
+        setColors(background, textColor, blockedColor);
+
+        popup.getContent().add(root);
+        popup.setAutoHide(true);
+        popup.setHideOnEscape(true);
+    }
+
+    /**
+     * Clears the previous domain and shows the popup over {@code anchor}, waiting for data.
+     */
+    void showLoading(String newDomain, Node anchor) {
+        domain = newDomain;
+        shown = null;
+        domainLabel.setText(newDomain);
+        totalsLabel.setText("");
+        statusLabel.setText("Loading...");
+        clientsView.update(List.of());
+        listsView.update(List.of());
+        drawTimeline(List.of());
+        if (!popup.isShowing() && anchor != null && anchor.getScene() != null) {
+            Bounds bounds = anchor.localToScreen(anchor.getBoundsInLocal());
+            popup.show(anchor, bounds.getMinX() + ANCHOR_OFFSET, bounds.getMinY() + ANCHOR_OFFSET);
+        }
+    }
+
+    /**
+     * Renders a (possibly partial) summary. Summaries of another domain than the one
+     * currently shown are late results of a cancelled load and are ignored.
+     */
+    void update(DomainSummary summary) {
+        if (summary == null || !summary.domain().equals(domain) || summary.equals(shown)) {
+            return;
+        }
+        shown = summary;
+        totalsLabel.setText(HelperService.getHumanReadablePriceFromNumber(summary.total()) + " queries, "
+                + HelperService.getHumanReadablePriceFromNumber(summary.blocked()) + " blocked, "
+                + summary.clientCount() + (summary.clientCount() == 1 ? " client" : " clients"));
+        statusLabel.setText(statusText(summary.status()));
+        clientsView.update(summary.clients().stream()
+                .map(c -> new TopXListView.Entry(c.name(), c.count()))
+                .toList());
+        listsView.update(summary.lists().stream()
+                .limit(LIST_ROWS)
+                .map(c -> new TopXListView.Entry(c.name(), c.count()))
+                .toList());
+        drawTimeline(summary.timeline());
+    }
+
+    String getDomain() {
+        return domain;
+    }
+
+    boolean isShowing() {
+        return popup.isShowing();
+    }
+
+    void hide() {
+        popup.hide();
+    }
+
+    /**
+     * Called when the popup closes, whether by auto-hide, Escape or {@link #hide()}.
+     */
+    void setOnHidden(Runnable action) {
+        popup.setOnHidden(_ -> {
+            if (action != null) {
+                action.run();
+            }
+        });
+    }
+
+    void setColors(Color background, Color newTextColor, Color newBlockedColor) {
+        textColor = newTextColor;
+        blockedColor = newBlockedColor;
+        root.setBackground(new Background(new BackgroundFill(background, new CornerRadii(4), Insets.EMPTY)));
+        domainLabel.setTextFill(newTextColor);
+        totalsLabel.setTextFill(newTextColor);
+        statusLabel.setTextFill(newTextColor);
+        clientsView.setTextColor(newTextColor);
+        listsView.setTextColor(newTextColor);
+        drawTimeline(shown != null ? shown.timeline() : List.of());
+    }
+
+    static String statusText(DomainSummary.Status status) {
+        return switch (status) {
+            case LOADING -> "Loading...";
+            case COMPLETE -> "Last 24 hours";
+            case TRUNCATED -> "Last 24 hours (most recent queries only)";
+            case FAILED -> "Query log unavailable";
+        };
+    }
+
+    /**
+     * One bar per hour: total queries, with the blocked part overlaid from the bottom.
+     */
+    private void drawTimeline(List<HistoryBucket> buckets) {
+        GraphicsContext g = timeline.getGraphicsContext2D();
+        double width = timeline.getWidth();
+        double height = timeline.getHeight();
+        g.clearRect(0, 0, width, height);
+        g.setStroke(textColor.deriveColor(0, 1, 1, 0.3));
+        g.strokeLine(0, height - 0.5, width, height - 0.5);
+        if (buckets.isEmpty()) {
+            return;
+        }
+        long max = 1L;
+        for (HistoryBucket bucket : buckets) {
+            max = Math.max(max, bucket.queries());
+        }
+        double barWidth = width / buckets.size();
+        for (int i = 0; i < buckets.size(); i++) {
+            HistoryBucket bucket = buckets.get(i);
+            double x = i * barWidth;
+            double totalHeight = (height - 1) * bucket.queries() / max;
+            double blockedHeight = (height - 1) * bucket.blocked() / max;
+            g.setFill(textColor.deriveColor(0, 1, 1, 0.6));
+            g.fillRect(x, height - 1 - totalHeight, barWidth - BAR_GAP, totalHeight);
+            g.setFill(blockedColor);
+            g.fillRect(x, height - 1 - blockedHeight, barWidth - BAR_GAP, blockedHeight);
+        }
+    }
+}
@@ -0,0 +1,277 @@
+/*
+ *
+ *  Copyright (C) 2022 - 2025.  Reda ELFARISSI aka FoKss-LTS
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+
+package controllers;
+
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.layout.Pane;
+import javafx.scene.paint.Color;
+import services.metrics.ColumnDecimator;
+import services.metrics.RingSeries;
+
+import java.util.Objects;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Sparkline of queries/s and blocked/s drawn on a single {@link Canvas}.
+ * Samples are read from two {@link RingSeries} filled by the poll thread and decimated
+ * to one min/max column per pixel, so the cost of a frame depends on the tile width,
+ * not on how many samples the window holds. A refresh only repaints the columns that
+ * received new samples; the whole canvas is repainted when the window advances by a
+ * column, the vertical scale changes or the tile is resized.
+ * <p>
+ * Must only be used from the JavaFX Application Thread.
+ */
+final class SparklineView {
+
+    private static final Logger LOGGER = Logger.getLogger(SparklineView.class.getName());
+    private static final boolean VERBOSE = Boolean.parseBoolean(System.getProperty("dnsbloquer.verbose", "false"));
+
+    private static final double PADDING = 4;
+    private static final double LINE_WIDTH = 1.0;
+    private static final double GRID_OPACITY = 0.25;
+
+    private final RingSeries queries;
+    private final RingSeries blocked;
+    private final long windowMillis;
+    private final Canvas canvas;
+    private final Pane root;
+
+    private final ColumnDecimator queryColumns;
+    private final ColumnDecimator blockedColumns;
+    private long lastQueryTime = Long.MIN_VALUE;
+    private long lastBlockedTime = Long.MIN_VALUE;
+    private double scale = Double.NaN;
+    private boolean rebuildPending = true;
+
+    private Color queryColor;
+    private Color blockedColor;
+    private Color gridColor;
+
+    // Repaint counters (diagnostics/tests)
+    private long fullRedrawCount;
+    private long columnRedrawCount;
+
+    SparklineView(RingSeries queries, RingSeries blocked, long windowMillis,
+            Color queryColor, Color blockedColor, Color gridColor) {
+        this.queries = Objects.requireNonNull(queries, "queries");
+        this.blocked = Objects.requireNonNull(blocked, "blocked");
+        this.windowMillis = windowMillis;
+        this.queryColor = queryColor;
+        this.blockedColor = blockedColor;
+        this.gridColor = gridColor;
+
+        queryColumns = new ColumnDecimator(windowMillis, 1);
+        blockedColumns = new ColumnDecimator(windowMillis, 1);
+
+        canvas = new Canvas();
+        root = new Pane(canvas);
+        root.setMinSize(0, 0);
+        root.setMaxSize(Double.MAX_VALUE, Double.MAX_VALUE);
+        // The canvas follows the space the tile skin gives the graphic; a resize re-decimates.
+        canvas.widthProperty().bind(root.widthProperty());
+        canvas.heightProperty().bind(root.heightProperty());
+        canvas.widthProperty().addListener((_, _, _) -> invalidate());
+        canvas.heightProperty().addListener((_, _, _) -> invalidate());
+    }
+
+    private static void log(String message) {
+        if (VERBOSE) {
+            LOGGER.log(Level.FINE, () -> "[Sparkline] " + message);
+        }
+    }
+
+    /**
+     * The node to embed in a tile.
+     */
+    Pane getNode() {
+        return root;
+    }
+
+    long getFullRedrawCount() {
+        return fullRedrawCount;
+    }
+
+    long getColumnRedrawCount() {
+        return columnRedrawCount;
+    }
+
+    void setColors(Color newQueryColor, Color newBlockedColor, Color newGridColor) {
+        queryColor = newQueryColor;
+        blockedColor = newBlockedColor;
+        gridColor = newGridColor;
+        redrawAll();
+    }
+
+    /**
+     * Pulls the samples appended since the last refresh and repaints what they touched.
+     */
+    void refresh() {
+        if (rebuildPending || queries.latestTime() < lastQueryTime || blocked.latestTime() < lastBlockedTime) {
+            rebuild();
+            return;
+        }
+        long origin = queryColumns.originMillis();
+        int[] dirtyFrom = { Integer.MAX_VALUE };
+        queries.forEach(lastQueryTime + 1, (time, value) -> {
+            dirtyFrom[0] = Math.min(dirtyFrom[0], addColumn(queryColumns, time, value));
+            lastQueryTime = time;
+        });
+        blocked.forEach(lastBlockedTime + 1, (time, value) -> {
+            dirtyFrom[0] = Math.min(dirtyFrom[0], addColumn(blockedColumns, time, value));
+            lastBlockedTime = time;
+        });
+        if (dirtyFrom[0] == Integer.MAX_VALUE) {
+            return;
+        }
+        // Both series share the columns: move the one that has not seen the newest sample yet.
+        long latest = Math.max(lastQueryTime, lastBlockedTime);
+        queryColumns.advanceTo(latest);
+        blockedColumns.advanceTo(latest);
+        boolean shifted = queryColumns.originMillis() != origin;
+        if (shifted || Double.compare(scale, currentScale()) != 0) {
+            redrawAll();
+        } else {
+            redrawColumns(dirtyFrom[0]);
+        }
+    }
+
+    private static int addColumn(ColumnDecimator columns, long time, double value) {
+        int column = columns.add(time, value);
+        return column == ColumnDecimator.OUTSIDE ? Integer.MAX_VALUE : column;
+    }
+
+    private void invalidate() {
+        rebuildPending = true;
+        refresh();
+    }
+
+    // Re-decimates the visible window from the series (resize, cleared series).
+    private void rebuild() {
+        rebuildPending = false;
+        int columns = Math.max(1, (int) Math.floor(plotWidth()));
+        queryColumns.resize(columns);
+        blockedColumns.resize(columns);
+        lastQueryTime = queries.latestTime();
+        lastBlockedTime = blocked.latestTime();
+        long latest = Math.max(lastQueryTime, lastBlockedTime);
+        if (latest != Long.MIN_VALUE) {
+            // Anchor both windows on the same right edge so their columns line up.
+            queryColumns.advanceTo(latest);
+            blockedColumns.advanceTo(latest);
+            long from = queryColumns.originMillis();
+            queries.forEach(from, queryColumns::add);
+            blocked.forEach(from, blockedColumns::add);
+        }
+        log("Rebuilt " + columns + " column(s)");
+        redrawAll();
+    }
+
+    private double currentScale() {
+        double peak = Math.max(nonNaN(queryColumns.max()), nonNaN(blockedColumns.max()));
+        return niceCeiling(peak);
+    }
+
+    private static double nonNaN(double value) {
+        return Double.isNaN(value) ? 0.0 : value;
+    }
+
+    /**
+     * Rounds a positive value up to 1, 2 or 5 times a power of ten so the scale only
+     * changes when the data moves by a meaningful amount.
+     */
+    static double niceCeiling(double value) {
+        if (!(value > 0) || Double.isInfinite(value)) {
+            return 1.0;
+        }
+        double magnitude = Math.pow(10, Math.floor(Math.log10(value)));
+        double normalized = value / magnitude;
+        double nice = normalized <= 1 ? 1 : normalized <= 2 ? 2 : normalized <= 5 ? 5 : 10;
+        return nice * magnitude;
+    }
+
+    private double plotWidth() {
+        return Math.max(0, canvas.getWidth() - 2 * PADDING);
+    }
+
+    private double plotHeight() {
+        return Math.max(0, canvas.getHeight() - 2 * PADDING);
+    }
+
+    private void redrawAll() {
+        fullRedrawCount++;
+        scale = currentScale();
+        GraphicsContext g = canvas.getGraphicsContext2D();
+        g.clearRect(0, 0, canvas.getWidth(), canvas.getHeight());
+        if (plotWidth() <= 0 || plotHeight() <= 0) {
+            return;
+        }
+        g.setGlobalAlpha(GRID_OPACITY);
+        g.setStroke(gridColor);
+        g.setLineWidth(LINE_WIDTH);
+        double baseline = snap(PADDING + plotHeight());
+        g.strokeLine(PADDING, baseline, PADDING + plotWidth(), baseline);
+        g.setGlobalAlpha(1.0);
+        for (int column = 0; column < queryColumns.columns(); column++) {
+            drawColumn(g, column);
+        }
+    }
+
+    private void redrawColumns(int fromColumn) {
+        GraphicsContext g = canvas.getGraphicsContext2D();
+        double left = PADDING + fromColumn;
+        // Keep the baseline pixel row, clear the plot area right of the first dirty column.
+        g.clearRect(left, 0, canvas.getWidth() - left, PADDING + plotHeight());
+        for (int column = fromColumn; column < queryColumns.columns(); column++) {
+            drawColumn(g, column);
+            columnRedrawCount++;
+        }
+    }
+
+    private void drawColumn(GraphicsContext g, int column) {
+        g.setLineWidth(LINE_WIDTH);
+        g.setStroke(queryColor);
+        strokeColumn(g, queryColumns, column);
+        g.setStroke(blockedColor);
+        strokeColumn(g, blockedColumns, column);
+    }
+
+    // One vertical min..max stroke per column, joined to the previous column's last value.
+    private void strokeColumn(GraphicsContext g, ColumnDecimator columns, int column) {
+        if (!columns.hasData(column)) {
+            return;
+        }
+        double x = snap(PADDING + column);
+        if (column > 0 && columns.hasData(column - 1)) {
+            g.strokeLine(x - 1, y(columns.last(column - 1)), x, y(columns.first(column)));
+        }
+        g.strokeLine(x, y(columns.min(column)), x, y(columns.max(column)));
+    }
+
+    private double y(double value) {
+        double ratio = scale > 0 ? Math.min(1.0, Math.max(0.0, value / scale)) : 0.0;
+        return snap(PADDING + plotHeight() * (1.0 - ratio));
+    }
+
+    // Centres 1px strokes on the pixel grid so they are not blurred over two pixels.
+    private static double snap(double position) {
+        return Math.floor(position) + 0.5;
+    }
+}
@@ -0,0 +1,143 @@
+/*
+ *
+ *  Copyright (C) 2022 - 2025.  Reda ELFARISSI aka FoKss-LTS
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+
+package controllers;
+
+import eu.hansolo.tilesfx.Tile;
+import javafx.scene.paint.Color;
+
+import java.util.Objects;
+
+/**
+ * Diff-aware view model in front of a {@link Tile}.
+ * Remembers the last value pushed for each property and only calls the
+ * corresponding Tile setter when the new value differs, so an unchanged poll
+ * result does not trigger property listeners, skin updates or animations.
+ * <p>
+ * Must only be used from the JavaFX Application Thread.
+ */
+final class TileView {
+
+    private final Tile tile;
+
+    private String title;
+    private String text;
+    private String description;
+    private String tooltipText;
+    private Color activeColor;
+    private Boolean active;
+    private double value = Double.NaN;
+    private double leftValue = Double.NaN;
+    private double middleValue = Double.NaN;
+    private double rightValue = Double.NaN;
+
+    // Number of setter calls actually forwarded to the tile (diagnostics/tests)
+    private long appliedCount;
+
+    TileView(Tile tile) {
+        this.tile = Objects.requireNonNull(tile, "tile");
+    }
+
+    Tile getTile() {
+        return tile;
+    }
+
+    long getAppliedCount() {
+        return appliedCount;
+    }
+
+    void setTitle(String newTitle) {
+        if (!Objects.equals(title, newTitle)) {
+            title = newTitle;
+            tile.setTitle(newTitle);
+            appliedCount++;
+        }
+    }
+
+    void setText(String newText) {
+        if (!Objects.equals(text, newText)) {
+            text = newText;
+            tile.setText(newText);
+            appliedCount++;
+        }
+    }
+
+    void setDescription(String newDescription) {
+        if (!Objects.equals(description, newDescription)) {
+            description = newDescription;
+            tile.setDescription(newDescription);
+            appliedCount++;
+        }
+    }
+
+    void setTooltipText(String newTooltipText) {
+        if (!Objects.equals(tooltipText, newTooltipText)) {
+            tooltipText = newTooltipText;
+            tile.setTooltipText(newTooltipText);
+            appliedCount++;
+        }
+    }
+
+    void setActiveColor(Color newColor) {
+        if (!Objects.equals(activeColor, newColor)) {
+            activeColor = newColor;
+            tile.setActiveColor(newColor);
+            appliedCount++;
+        }
+    }
+
+    void setActive(boolean newActive) {
+        if (active == null || active != newActive) {
+            active = newActive;
+            tile.setActive(newActive);
+            appliedCount++;
+        }
+    }
+
+    void setValue(double newValue) {
+        if (Double.compare(value, newValue) != 0) {
+            value = newValue;
+            tile.setValue(newValue);
+            appliedCount++;
+        }
+    }
+
+    void setLeftValue(double newValue) {
+        if (Double.compare(leftValue, newValue) != 0) {
+            leftValue = newValue;
+            tile.setLeftValue(newValue);
+            appliedCount++;
+        }
+    }
+
+    void setMiddleValue(double newValue) {
+        if (Double.compare(middleValue, newValue) != 0) {
+            middleValue = newValue;
+            tile.setMiddleValue(newValue);
+            appliedCount++;
+        }
+    }
+
+    void setRightValue(double newValue) {
+        if (Double.compare(rightValue, newValue) != 0) {
+            rightValue = newValue;
+            tile.setRightValue(newValue);
+            appliedCount++;
+        }
+    }
+}
@@ -0,0 +1,301 @@
+/*
+ *
+ *  Copyright (C) 2022 - 2025.  Reda ELFARISSI aka FoKss-LTS
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+
+package controllers;
+
+import helpers.HelperService;
+import javafx.geometry.Insets;
+import javafx.geometry.Pos;
+import javafx.scene.Cursor;
+import javafx.scene.control.Label;
+import javafx.scene.control.Tooltip;
+import javafx.scene.image.Image;
+import javafx.scene.image.ImageView;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.Priority;
+import javafx.scene.layout.Region;
+import javafx.scene.layout.VBox;
+import javafx.scene.paint.Color;
+import javafx.util.Duration;
+
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Retained-mode view for ranked "name / count" lists (e.g. the Top X Blocked tile).
+ * The header and a fixed pool of row nodes are created once; refreshes only update
+ * the text of rows whose data actually changed, so a stable list costs no allocation
+ * and no layout pass on the FX thread.
+ * <p>
+ * Must only be used from the JavaFX Application Thread.
+ */
+final class TopXListView {
+
+    private static final Logger LOGGER = Logger.getLogger(TopXListView.class.getName());
+    private static final boolean VERBOSE = Boolean.parseBoolean(System.getProperty("dnsbloquer.verbose", "false"));
+
+    private static final String RANK_ICON_PATH_PATTERN = "/media/images/%d.png";
+    private static final double RANK_ICON_SIZE = 10;
+    private static final int NAME_TRUNCATE_LENGTH = 20;
+    private static final String TRUNCATION_SUFFIX = "..";
+    private static final int TOOLTIP_DELAY_MS = 200;
+
+    // Rank icons are shared by every list and loaded from the classpath at most once.
+    private static final Map<Integer, Optional<Image>> RANK_ICONS = new ConcurrentHashMap<>();
+
+    /**
+     * One ranked entry.
+     *
+     * @param name  full name (domain, client...), shown truncated with a tooltip
+     * @param count the value displayed on the right-hand side
+     */
+    record Entry(String name, long count) {
+    }
+
+    private final VBox root;
+    private final Label nameHeader;
+    private final Label valueHeader;
+    private final List<Row> rows = new ArrayList<>();
+    private Color textColor;
+    private Consumer<String> onEntryClicked;
+
+    TopXListView(String nameHeaderText, String valueHeaderText, int capacity, Color textColor) {
+        this.textColor = textColor;
+
+        root = new VBox();
+        root.setFillWidth(true);
+        // Pin header + items to the top of the tile.
+        root.setAlignment(Pos.TOP_LEFT);
+        root.setSpacing(2);
+        root.setPadding(new Insets(0, 6, 0, 6));
+        root.setMaxSize(Double.MAX_VALUE, Double.MAX_VALUE);
+
+        nameHeader = new Label(nameHeaderText);
+        nameHeader.setTextFill(textColor);
+        nameHeader.setAlignment(Pos.CENTER_LEFT);
+        HBox.setHgrow(nameHeader, Priority.NEVER);
+
+        valueHeader = new Label(valueHeaderText);
+        valueHeader.setTextFill(textColor);
+        valueHeader.setAlignment(Pos.CENTER_RIGHT);
+        HBox.setHgrow(valueHeader, Priority.NEVER);
+
+        Region headerSpacer = new Region();
+        HBox.setHgrow(headerSpacer, Priority.ALWAYS);
+
+        HBox header = new HBox(5, nameHeader, headerSpacer, valueHeader);
+        header.setAlignment(Pos.CENTER_LEFT);
+        header.setFillHeight(true);
+
+        Region gap = new Region();
+        gap.setPrefSize(5, 5);
+        HBox.setHgrow(gap, Priority.ALWAYS);
+        HBox spacerRow = new HBox(5, gap);
+        spacerRow.setAlignment(Pos.CENTER_LEFT);
+        spacerRow.setFillHeight(true);
+
+        root.getChildren().addAll(header, spacerRow);
+        setCapacity(capacity);
+    }
+
+    private static void log(String message) {
+        if (VERBOSE) {
+            LOGGER.log(Level.FINE, () -> "[TopXList] " + message);
+        }
+    }
+
+    /**
+     * The node to embed in a tile.
+     */
+    VBox getNode() {
+        return root;
+    }
+
+    /**
+     * Grows or shrinks the row pool. Only called when the configured count changes.
+     */
+    void setCapacity(int capacity) {
+        int target = Math.max(1, capacity);
+        while (rows.size() < target) {
+            Row row = new Row(rows.size() + 1);
+            rows.add(row);
+            root.getChildren().add(row.box);
+        }
+        while (rows.size() > target) {
+            Row row = rows.remove(rows.size() - 1);
+            root.getChildren().remove(row.box);
+        }
+    }
+
+    /**
+     * Updates the rows in place. Rows whose entry is unchanged are not touched;
+     * unused rows are hidden rather than removed.
+     */
+    void update(List<Entry> entries) {
+        int size = entries == null ? 0 : entries.size();
+        for (int i = 0; i < rows.size(); i++) {
+            Row row = rows.get(i);
+            if (i < size) {
+                row.show(entries.get(i));
+            } else {
+                row.hide();
+            }
+        }
+    }
+
+    void setTextColor(Color color) {
+        if (color == null || color.equals(textColor)) {
+            return;
+        }
+        textColor = color;
+        nameHeader.setTextFill(color);
+        valueHeader.setTextFill(color);
+        for (Row row : rows) {
+            row.nameLabel.setTextFill(color);
+            row.valueLabel.setTextFill(color);
+        }
+    }
+
+    /**
+     * Makes rows clickable: {@code action} receives the full name of the clicked entry.
+     * Pass null to make them inert again.
+     */
+    void setOnEntryClicked(Consumer<String> action) {
+        onEntryClicked = action;
+        for (Row row : rows) {
+            row.box.setCursor(action != null ? Cursor.HAND : Cursor.DEFAULT);
+        }
+    }
+
+    static String truncate(String name) {
+        if (name == null) {
+            return "";
+        }
+        return name.length() <= NAME_TRUNCATE_LENGTH
+                ? name
+                : name.substring(0, NAME_TRUNCATE_LENGTH) + TRUNCATION_SUFFIX;
+    }
+
+    private static Image rankIcon(int rank) {
+        return RANK_ICONS.computeIfAbsent(rank, TopXListView::loadRankIcon).orElse(null);
+    }
+
+    private static Optional<Image> loadRankIcon(int rank) {
+        String resourcePath = RANK_ICON_PATH_PATTERN.formatted(rank);
+        URL url = TopXListView.class.getResource(resourcePath);
+        if (url == null) {
+            log("Icon resource not found: " + resourcePath);
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(new Image(url.toExternalForm()));
+        } catch (Exception e) {
+            log("Failed to load image " + resourcePath + ": " + e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * A pooled row. Its rank (and therefore its icon) never changes.
+     */
+    private final class Row {
+        private final HBox box;
+        private final Label nameLabel;
+        private final Label valueLabel;
+        private final Tooltip tooltip;
+
+        private String shownName;
+        private long shownCount = -1L;
+        private boolean visible = true;
+
+        private Row(int rank) {
+            nameLabel = new Label();
+            nameLabel.setTextFill(textColor);
+            nameLabel.setAlignment(Pos.CENTER_LEFT);
+            HBox.setHgrow(nameLabel, Priority.NEVER);
+
+            Region spacer = new Region();
+            spacer.setPrefSize(5, 5);
+            HBox.setHgrow(spacer, Priority.ALWAYS);
+
+            valueLabel = new Label();
+            valueLabel.setTextFill(textColor);
+            valueLabel.setAlignment(Pos.CENTER_RIGHT);
+            HBox.setHgrow(valueLabel, Priority.NEVER);
+
+            // Tooltip with the full name; its text is swapped in place on change.
+            tooltip = new Tooltip();
+            tooltip.setShowDelay(Duration.millis(TOOLTIP_DELAY_MS));
+            Tooltip.install(nameLabel, tooltip);
+
+            Image icon = rankIcon(rank);
+            if (icon != null) {
+                ImageView iconView = new ImageView(icon);
+                iconView.setFitHeight(RANK_ICON_SIZE);
+                iconView.setFitWidth(RANK_ICON_SIZE);
+                box = new HBox(5, iconView, nameLabel, spacer, valueLabel);
+            } else {
+                box = new HBox(5, nameLabel, spacer, valueLabel);
+            }
+            box.setAlignment(Pos.CENTER_LEFT);
+            box.setFillHeight(true);
+            box.setCursor(onEntryClicked != null ? Cursor.HAND : Cursor.DEFAULT);
+            box.setOnMouseClicked(_ -> {
+                if (onEntryClicked != null && visible && shownName != null && !shownName.isEmpty()) {
+                    onEntryClicked.accept(shownName);
+                }
+            });
+            hide();
+        }
+
+        private void show(Entry entry) {
+            String name = entry.name() == null ? "" : entry.name();
+            if (!Objects.equals(name, shownName)) {
+                shownName = name;
+                nameLabel.setText(truncate(name));
+                tooltip.setText(name);
+            }
+            if (entry.count() != shownCount) {
+                shownCount = entry.count();
+                valueLabel.setText(HelperService.getHumanReadablePriceFromNumber(shownCount));
+            }
+            setVisible(true);
+        }
+
+        private void hide() {
+            setVisible(false);
+        }
+
+        private void setVisible(boolean value) {
+            if (visible == value) {
+                return;
+            }
+            visible = value;
+            box.setVisible(value);
+            box.setManaged(value);
+        }
+    }
+}
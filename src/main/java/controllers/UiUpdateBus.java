@@ -0,0 +1,197 @@
+/*
+ *
+ *  Copyright (C) 2022 - 2025.  Reda ELFARISSI aka FoKss-LTS
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+
+
+package controllers;
+
+import javafx.animation.AnimationTimer;
+import javafx.application.Platform;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Multi-producer / single-consumer bus carrying UI updates from background refresh
+ * tasks to the JavaFX Application Thread.
+ * <p>
+ * Producers never block: updates go into a lock-free queue. The FX thread drains it
+ * once per pulse from an {@link AnimationTimer} that only runs while work is queued,
+ * applying at most {@code maxUpdatesPerFrame} updates per frame.
+ * <p>
+ * Each update carries a sequence number taken (via {@link #nextSequence()}) when the
+ * work that produced it <em>started</em>. For a given key, an update older than the
+ * one already applied is dropped, so a slow poll can never overwrite a newer result;
+ * within a frame only the newest update per key is applied.
+ */
+final class UiUpdateBus {
+
+    private static final Logger LOGGER = Logger.getLogger(UiUpdateBus.class.getName());
+    private static final boolean VERBOSE = Boolean.parseBoolean(System.getProperty("dnsbloquer.verbose", "false"));
+
+    static final int DEFAULT_MAX_UPDATES_PER_FRAME = 32;
+
+    private record Update(Object key, long sequence, Runnable action) {
+    }
+
+    private final Queue<Update> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicLong sequence = new AtomicLong();
+    private final AtomicBoolean pulsing = new AtomicBoolean(false);
+    private final Executor fxExecutor;
+    private final int maxUpdatesPerFrame;
+
+    // Consumer-side state: only touched on the FX thread
+    private final Map<Object, Long> lastApplied = new HashMap<>();
+    private final Map<Object, Update> frame = new LinkedHashMap<>();
+    private AnimationTimer timer;
+    private long droppedCount;
+
+    UiUpdateBus() {
+        this(DEFAULT_MAX_UPDATES_PER_FRAME, Platform::runLater);
+    }
+
+    // Package-private for tests: the executor receives the "start pulsing" hop.
+    UiUpdateBus(int maxUpdatesPerFrame, Executor fxExecutor) {
+        if (maxUpdatesPerFrame <= 0) {
+            throw new IllegalArgumentException("maxUpdatesPerFrame must be > 0");
+        }
+        this.maxUpdatesPerFrame = maxUpdatesPerFrame;
+        this.fxExecutor = Objects.requireNonNull(fxExecutor, "fxExecutor");
+    }
+
+    private static void log(String message) {
+        if (VERBOSE) {
+            LOGGER.log(Level.FINE, () -> "[UiBus] " + message);
+        }
+    }
+
+    /**
+     * Reserves a sequence number. Call it when a refresh starts, before any I/O.
+     */
+    long nextSequence() {
+        return sequence.incrementAndGet();
+    }
+
+    /**
+     * Queues an update produced by work that started at {@code sequence}. Safe from any thread.
+     */
+    void publish(Object key, long sequence, Runnable action) {
+        if (key == null || action == null) {
+            return;
+        }
+        queue.offer(new Update(key, sequence, action));
+        if (pulsing.compareAndSet(false, true)) {
+            fxExecutor.execute(this::startPulses);
+        }
+    }
+
+    /**
+     * Number of updates waiting in the queue (approximate while producers are active).
+     */
+    int pendingCount() {
+        return queue.size();
+    }
+
+    /**
+     * Number of updates dropped because a newer one for the same key was applied first.
+     */
+    long getDroppedCount() {
+        return droppedCount;
+    }
+
+    /**
+     * Applies up to {@code maxUpdatesPerFrame} queued updates. FX thread only.
+     *
+     * @return the number of updates taken from the queue
+     */
+    int drain() {
+        int taken = 0;
+        Update update;
+        while (taken < maxUpdatesPerFrame && (update = queue.poll()) != null) {
+            taken++;
+            Update newer = frame.get(update.key());
+            if (newer != null && newer.sequence() >= update.sequence()) {
+                droppedCount++;
+                continue;
+            }
+            if (newer != null) {
+                droppedCount++;
+            }
+            frame.put(update.key(), update);
+        }
+
+        for (Update u : frame.values()) {
+            Long applied = lastApplied.get(u.key());
+            if (applied != null && applied >= u.sequence()) {
+                droppedCount++;
+                log("Dropping stale update for " + u.key() + " (seq " + u.sequence() + " <= " + applied + ")");
+                continue;
+            }
+            lastApplied.put(u.key(), u.sequence());
+            try {
+                u.action().run();
+            } catch (Exception e) {
+                LOGGER.log(Level.WARNING, "UI update failed", e);
+            }
+        }
+        frame.clear();
+        return taken;
+    }
+
+    /**
+     * One pulse: drains a bounded batch and stops the timer once the queue is empty.
+     */
+    void onPulse() {
+        drain();
+        if (!queue.isEmpty()) {
+            return;
+        }
+        stopPulses();
+        pulsing.set(false);
+        // A producer may have published between the isEmpty check and the reset above.
+        if (!queue.isEmpty() && pulsing.compareAndSet(false, true)) {
+            startPulses();
+        }
+    }
+
+    private void startPulses() {
+        if (timer == null) {
+            timer = new AnimationTimer() {
+                @Override
+                public void handle(long now) {
+                    onPulse();
+                }
+            };
+        }
+        timer.start();
+    }
+
+    private void stopPulses() {
+        if (timer != null) {
+            timer.stop();
+        }
+    }
+}
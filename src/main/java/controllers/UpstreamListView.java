@@ -0,0 +1,230 @@
+/*
+ *
+ *  Copyright (C) 2022 - 2025.  Reda ELFARISSI aka FoKss-LTS
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+
+package controllers;
+
+import javafx.geometry.Insets;
+import javafx.geometry.Pos;
+import javafx.scene.control.Label;
+import javafx.scene.control.Tooltip;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.Priority;
+import javafx.scene.layout.Region;
+import javafx.scene.layout.StackPane;
+import javafx.scene.layout.VBox;
+import javafx.scene.paint.Color;
+import javafx.scene.shape.Rectangle;
+import javafx.util.Duration;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+
+/**
+ * Retained-mode view for the upstream resolvers: one pooled row per upstream with its
+ * name, average response time and share of the forwarded queries, the share also drawn
+ * as a thin bar under the row. Like {@link TopXListView}, rows are created once and only
+ * the text and bar width of rows whose data changed are touched on refresh.
+ * <p>
+ * Must only be used from the JavaFX Application Thread.
+ */
+final class UpstreamListView {
+
+    private static final int NAME_TRUNCATE_LENGTH = 18;
+    private static final double BAR_HEIGHT = 2;
+    private static final double BAR_WIDTH = 170;
+    private static final int TOOLTIP_DELAY_MS = 200;
+
+    /**
+     * One upstream row.
+     *
+     * @param name         resolver name
+     * @param responseMs   average response time in milliseconds, NaN if unknown
+     * @param sharePercent share of the forwarded queries, in percent
+     */
+    record Entry(String name, double responseMs, double sharePercent) {
+    }
+
+    private final VBox root;
+    private final Label nameHeader;
+    private final Label valueHeader;
+    private final List<Row> rows = new ArrayList<>();
+    private Color textColor;
+    private Color barColor;
+
+    UpstreamListView(int capacity, Color textColor, Color barColor) {
+        this.textColor = textColor;
+        this.barColor = barColor;
+
+        root = new VBox();
+        root.setFillWidth(true);
+        root.setAlignment(Pos.TOP_LEFT);
+        root.setSpacing(2);
+        root.setPadding(new Insets(0, 6, 0, 6));
+        root.setMaxSize(Double.MAX_VALUE, Double.MAX_VALUE);
+
+        nameHeader = new Label("Upstream");
+        nameHeader.setTextFill(textColor);
+        valueHeader = new Label("ms / share");
+        valueHeader.setTextFill(textColor);
+        Region headerSpacer = new Region();
+        HBox.setHgrow(headerSpacer, Priority.ALWAYS);
+        HBox header = new HBox(5, nameHeader, headerSpacer, valueHeader);
+        header.setAlignment(Pos.CENTER_LEFT);
+
+        root.getChildren().add(header);
+        setCapacity(capacity);
+    }
+
+    /**
+     * The node to embed in a tile.
+     */
+    VBox getNode() {
+        return root;
+    }
+
+    /**
+     * Grows or shrinks the row pool.
+     */
+    void setCapacity(int capacity) {
+        int target = Math.max(1, capacity);
+        while (rows.size() < target) {
+            Row row = new Row();
+            rows.add(row);
+            root.getChildren().add(row.box);
+        }
+        while (rows.size() > target) {
+            Row row = rows.remove(rows.size() - 1);
+            root.getChildren().remove(row.box);
+        }
+    }
+
+    /**
+     * Updates the rows in place; unused rows are hidden rather than removed.
+     */
+    void update(List<Entry> entries) {
+        int size = entries == null ? 0 : entries.size();
+        for (int i = 0; i < rows.size(); i++) {
+            Row row = rows.get(i);
+            if (i < size) {
+                row.show(entries.get(i));
+            } else {
+                row.setVisible(false);
+            }
+        }
+    }
+
+    void setColors(Color text, Color bar) {
+        if (text != null && !text.equals(textColor)) {
+            textColor = text;
+            nameHeader.setTextFill(text);
+            valueHeader.setTextFill(text);
+            for (Row row : rows) {
+                row.nameLabel.setTextFill(text);
+                row.valueLabel.setTextFill(text);
+            }
+        }
+        if (bar != null && !bar.equals(barColor)) {
+            barColor = bar;
+            for (Row row : rows) {
+                row.bar.setFill(bar);
+            }
+        }
+    }
+
+    static String valueText(Entry entry) {
+        String latency = Double.isNaN(entry.responseMs())
+                ? "-"
+                : String.format(Locale.ROOT, entry.responseMs() < 10 ? "%.1f" : "%.0f", entry.responseMs());
+        return latency + " ms  " + String.format(Locale.ROOT, "%.0f%%", entry.sharePercent());
+    }
+
+    static String truncate(String name) {
+        if (name == null) {
+            return "";
+        }
+        return name.length() <= NAME_TRUNCATE_LENGTH ? name : name.substring(0, NAME_TRUNCATE_LENGTH) + "..";
+    }
+
+    /**
+     * A pooled row: name and value on one line, the share bar below.
+     */
+    private final class Row {
+        private final VBox box;
+        private final Label nameLabel;
+        private final Label valueLabel;
+        private final Rectangle bar;
+        private final Tooltip tooltip;
+
+        private String shownName;
+        private String shownValue;
+        private double shownShare = Double.NaN;
+        private boolean visible = true;
+
+        private Row() {
+            nameLabel = new Label();
+            nameLabel.setTextFill(textColor);
+            valueLabel = new Label();
+            valueLabel.setTextFill(textColor);
+            Region spacer = new Region();
+            HBox.setHgrow(spacer, Priority.ALWAYS);
+            HBox line = new HBox(5, nameLabel, spacer, valueLabel);
+            line.setAlignment(Pos.CENTER_LEFT);
+
+            tooltip = new Tooltip();
+            tooltip.setShowDelay(Duration.millis(TOOLTIP_DELAY_MS));
+            Tooltip.install(nameLabel, tooltip);
+
+            bar = new Rectangle(0, BAR_HEIGHT, barColor);
+            StackPane barTrack = new StackPane(bar);
+            barTrack.setAlignment(Pos.CENTER_LEFT);
+
+            box = new VBox(1, line, barTrack);
+            setVisible(false);
+        }
+
+        private void show(Entry entry) {
+            String name = entry.name() == null ? "" : entry.name();
+            if (!Objects.equals(name, shownName)) {
+                shownName = name;
+                nameLabel.setText(truncate(name));
+                tooltip.setText(name);
+            }
+            String value = valueText(entry);
+            if (!value.equals(shownValue)) {
+                shownValue = value;
+                valueLabel.setText(value);
+            }
+            if (Double.compare(entry.sharePercent(), shownShare) != 0) {
+                shownShare = entry.sharePercent();
+                bar.setWidth(BAR_WIDTH * Math.clamp(shownShare, 0.0, 100.0) / 100.0);
+            }
+            setVisible(true);
+        }
+
+        private void setVisible(boolean value) {
+            if (visible == value) {
+                return;
+            }
+            visible = value;
+            box.setVisible(value);
+            box.setManaged(value);
+        }
+    }
+}
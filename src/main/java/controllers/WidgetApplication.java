@@ -31,11 +31,16 @@ import javafx.stage.Stage;
 import javafx.stage.StageStyle;
 import javafx.stage.WindowEvent;
 import services.configuration.ConfigurationService;
+import services.history.HistoryStore;
+import services.metrics.ClientMetrics;
+import services.metrics.MetricsExporter;
 
 import java.awt.AWTException;
 import java.awt.Color;
+import java.awt.EventQueue;
 import java.awt.Graphics2D;
 import java.awt.Image;
+import java.awt.Menu;
 import java.awt.MenuItem;
 import java.awt.PopupMenu;
 import java.awt.SystemTray;
@@ -44,6 +49,9 @@ import java.awt.image.BufferedImage;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URL;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -81,8 +89,9 @@ public class WidgetApplication extends Application {
 
     // ==================== Application State (instance-owned) ====================
 
+    // Configured instances, primary first; configDNS1 is the primary one
+    private List<DnsBlockerConfig> instanceConfigs = List.of();
     private DnsBlockerConfig configDNS1;
-    private DnsBlockerConfig configDNS2;
     private WidgetConfig widgetConfig;
 
     private Parent configurationRoot;
@@ -90,6 +99,8 @@ public class WidgetApplication extends Application {
     private Stage configurationStage;
     private Stage widgetStage;
     private WidgetController widgetController;
+    private HistoryStore historyStore;
+    private MetricsExporter metricsExporter;
     private SystemTray systemTray;
     private TrayIcon trayIcon;
     private final AtomicBoolean exiting = new AtomicBoolean(false);
@@ -119,6 +130,11 @@ public class WidgetApplication extends Application {
         public void requestExit() {
             WidgetApplication.this.requestExit();
         }
+
+        @Override
+        public void showNotification(String caption, String text) {
+            WidgetApplication.this.showNotification(caption, text);
+        }
     };
 
     // ==================== Application Lifecycle ====================
@@ -149,21 +165,26 @@ public class WidgetApplication extends Application {
         configService = new ConfigurationService();
         configService.readConfiguration();
 
+        instanceConfigs = configService.getInstances();
         configDNS1 = configService.getConfigDNS1();
-        configDNS2 = configService.getConfigDNS2();
         widgetConfig = configService.getWidgetConfig();
-        log("Configuration loaded - DNS1: " + (configDNS1 != null ? configDNS1.getIPAddress() : "null"));
-        log("Configuration loaded - DNS2: " + (configDNS2 != null ? configDNS2.getIPAddress() : "null"));
+        log("Configuration loaded - " + instanceConfigs.size() + " instance(s), primary: "
+                + (configDNS1 != null ? configDNS1.getIPAddress() : "null"));
 
         // Initialize configuration controller and view
-        ConfigurationController configurationController = new ConfigurationController(configDNS1, configDNS2, widgetConfig, appActions);
+        ConfigurationController configurationController = new ConfigurationController(configDNS1,
+                configService.getConfigDNS2(), widgetConfig, appActions);
         FXMLLoader configLoader = new FXMLLoader(getClass().getResource("Configuration.fxml"));
         configLoader.setController(configurationController);
         configurationRoot = configLoader.load();
         log("Configuration view loaded");
 
         // Initialize widget controller and view
-        widgetController = new WidgetController(configDNS1, configDNS2, widgetConfig, appActions);
+        widgetController = new WidgetController(instanceConfigs, widgetConfig, appActions);
+        historyStore = openHistoryStore();
+        widgetController.setHistoryStore(historyStore);
+        metricsExporter = startMetricsExporter();
+        widgetController.setMetricsExporter(metricsExporter);
         FXMLLoader widgetLoader = new FXMLLoader(getClass().getResource("WidgetContainer.fxml"));
         widgetLoader.setController(widgetController);
         Parent widgetRoot = widgetLoader.load();
@@ -213,11 +234,44 @@ public class WidgetApplication extends Application {
         log("=== WidgetApplication started ===");
     }
 
+    /**
+     * Opens the persistent stats history; the widget still works without it.
+     */
+    /**
+     * Starts the local metrics endpoint when {@code -Ddnsbloquer.metrics=[HOST:]PORT} is set.
+     * The widget runs without it if the address is invalid or taken.
+     */
+    private static MetricsExporter startMetricsExporter() {
+        String address = System.getProperty(MetricsExporter.PROPERTY);
+        if (address == null || address.isBlank()) {
+            return null;
+        }
+        try {
+            MetricsExporter exporter = MetricsExporter.start(MetricsExporter.parseAddress(address),
+                    ClientMetrics.shared());
+            log("Metrics served on " + exporter.address() + MetricsExporter.PATH);
+            return exporter;
+        } catch (IOException | IllegalArgumentException e) {
+            LOGGER.log(Level.WARNING, "Metrics endpoint disabled: cannot serve on " + address, e);
+            return null;
+        }
+    }
+
+    private static HistoryStore openHistoryStore() {
+        Path directory = ConfigurationService.getConfigDirectory().resolve(HistoryStore.DIRECTORY_NAME);
+        try {
+            HistoryStore store = HistoryStore.open(directory);
+            log("History store opened at " + directory);
+            return store;
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Stats history disabled: cannot open " + directory, e);
+            return null;
+        }
+    }
+
     private boolean hasValidDnsConfig() {
-        // Check if DNS1 or DNS2 has both valid address AND password
-        boolean dns1Valid = configDNS1 != null && configDNS1.isFullyValid();
-        boolean dns2Valid = configDNS2 != null && configDNS2.isFullyValid();
-        return dns1Valid || dns2Valid;
+        // Check if any instance has both valid address AND password
+        return instanceConfigs.stream().anyMatch(config -> config != null && config.isFullyValid());
     }
 
     private void showConfigurationRequiredAlert() {
@@ -325,8 +379,8 @@ public class WidgetApplication extends Application {
 
         // Reload configuration
         configService.readConfiguration();
+        instanceConfigs = configService.getInstances();
         configDNS1 = configService.getConfigDNS1();
-        configDNS2 = configService.getConfigDNS2();
         widgetConfig = configService.getWidgetConfig();
 
         // Apply theme to both scenes
@@ -340,7 +394,7 @@ public class WidgetApplication extends Application {
 
         // Update widget controller
         if (widgetController != null) {
-            widgetController.applyConfiguration(configDNS1, configDNS2, widgetConfig);
+            widgetController.applyConfiguration(instanceConfigs, widgetConfig);
         }
 
         log("Configuration applied with theme: " + theme);
@@ -556,6 +610,28 @@ public class WidgetApplication extends Application {
 
         popup.addSeparator();
 
+        Menu disableMenu = new Menu("Disable Blocking For");
+        for (Duration duration : WidgetController.DISABLE_DURATIONS) {
+            MenuItem item = new MenuItem(WidgetController.durationLabel(duration));
+            item.addActionListener(_ -> {
+                if (widgetController != null) {
+                    widgetController.disableBlockingFor(duration);
+                }
+            });
+            disableMenu.add(item);
+        }
+        popup.add(disableMenu);
+
+        MenuItem resumeItem = new MenuItem("Resume Blocking");
+        resumeItem.addActionListener(_ -> {
+            if (widgetController != null) {
+                widgetController.resumeBlocking();
+            }
+        });
+        popup.add(resumeItem);
+
+        popup.addSeparator();
+
         MenuItem settingsItem = new MenuItem("Settings");
         settingsItem.addActionListener(_ -> Platform.runLater(this::openConfigurationWindow));
         popup.add(settingsItem);
@@ -569,6 +645,18 @@ public class WidgetApplication extends Application {
         return popup;
     }
 
+    /**
+     * Shows a warning balloon on the tray icon; without a tray the message is only logged.
+     */
+    public void showNotification(String caption, String text) {
+        TrayIcon icon = trayIcon;
+        if (icon == null) {
+            logInfo(caption + ": " + text);
+            return;
+        }
+        EventQueue.invokeLater(() -> icon.displayMessage(caption, text, TrayIcon.MessageType.WARNING));
+    }
+
     public void hideToTray() {
         log("Hiding to tray");
         if (widgetStage != null) {
@@ -624,6 +712,17 @@ public class WidgetApplication extends Application {
             widgetController.shutdown();
         }
 
+        // Close the history once no poll can write to it anymore
+        if (historyStore != null) {
+            historyStore.close();
+            historyStore = null;
+        }
+
+        if (metricsExporter != null) {
+            metricsExporter.close();
+            metricsExporter = null;
+        }
+
         // Remove tray icon
         if (systemTray != null && trayIcon != null) {
             systemTray.remove(trayIcon);
@@ -662,7 +761,11 @@ public class WidgetApplication extends Application {
 
     // ==================== Main Entry Point ====================
 
+    /**
+     * Starts the widget directly. The application's main class is {@link AppLauncher}, which
+     * also handles {@code --headless}.
+     */
     public static void main(String[] args) {
-        launch();
+        launch(args);
     }
 }
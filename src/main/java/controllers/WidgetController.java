@@ -18,8 +18,8 @@
 
 package controllers;
 
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import domain.configuration.AnomalyAlerts;
+import domain.configuration.BlockedPercentWindow;
 import domain.configuration.DnsBlockerConfig;
 import domain.configuration.WidgetConfig;
 import eu.hansolo.tilesfx.Tile;
@@ -27,8 +27,8 @@ import eu.hansolo.tilesfx.TileBuilder;
 import eu.hansolo.tilesfx.addons.Indicator;
 import eu.hansolo.tilesfx.tools.FlowGridPane;
 import helpers.HelperService;
+import helpers.HostLimiter;
 import helpers.ThemeManager;
-import javafx.application.Platform;
 import javafx.fxml.FXML;
 import javafx.fxml.Initializable;
 import javafx.geometry.Insets;
@@ -36,44 +36,84 @@ import javafx.geometry.Pos;
 import javafx.scene.Node;
 import javafx.scene.control.ContextMenu;
 import javafx.scene.control.Label;
+import javafx.scene.control.Menu;
 import javafx.scene.control.MenuItem;
-import javafx.scene.control.Tooltip;
-import javafx.scene.image.Image;
-import javafx.scene.image.ImageView;
+import javafx.scene.control.SeparatorMenuItem;
 import javafx.scene.input.MouseButton;
 import javafx.scene.input.MouseEvent;
 import javafx.scene.layout.Background;
 import javafx.scene.layout.BackgroundFill;
 import javafx.scene.layout.CornerRadii;
 import javafx.scene.layout.BorderPane;
-import javafx.scene.layout.HBox;
 import javafx.scene.layout.Pane;
-import javafx.scene.layout.Priority;
-import javafx.scene.layout.Region;
-import javafx.scene.layout.VBox;
 import javafx.scene.paint.Color;
 import javafx.stage.Screen;
-import javafx.util.Duration;
 import services.DnsBlockerHandler;
 import services.DnsBlockerHandlerFactory;
+import services.clients.ClientNameResolver;
+import services.fleet.BlockingCountdown;
+import services.fleet.BlockingState;
+import services.fleet.BlockingWriteQueue;
+import services.fleet.BlockingWriter;
+import services.fleet.FanOut;
+import services.fleet.FleetAggregator;
+import services.fleet.FleetSnapshot;
+import services.fleet.InstanceRegistry;
+import services.history.HistoryPayload;
+import services.history.HistoryStore;
+import services.history.Resolution;
+import services.metrics.ClientMetrics;
+import services.metrics.InstanceSnapshot;
+import services.metrics.MetricsExporter;
+import services.metrics.MetricsHistory;
+import services.metrics.RateAnomaly;
+import services.metrics.RingSeries;
+import services.polling.DataRequirement;
+import services.polling.Endpoint;
+import services.polling.EndpointCache;
+import services.polling.EndpointKey;
+import services.polling.Metric;
+import services.polling.PollGroup;
+import services.polling.PollPlan;
+import services.polling.RequestPlanner;
+import services.polling.StatsParser;
+import services.polling.SummaryStats;
+import services.polling.TileRequirements;
+import services.polling.TopClient;
+import services.polling.TopDomain;
+import services.polling.UpstreamStats;
+import services.queries.DomainQueryLoader;
 
 import java.net.URL;
+import java.time.Duration;
 import java.time.Instant;
 import java.time.ZoneId;
 import java.time.Year;
 import java.time.format.DateTimeFormatter;
 import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Properties;
 import java.util.ResourceBundle;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -88,18 +128,49 @@ public class WidgetController implements Initializable {
     // ==================== Constants ====================
 
     private static final String WIDGET_VERSION = loadVersion();
-    private static final int DOMAIN_TRUNCATE_LENGTH = 20;
-    private static final String TRUNCATION_SUFFIX = "..";
-    private static final String RANK_ICON_PATH_PATTERN = "/media/images/%d.png";
-    private static final int TOOLTIP_DELAY_MS = 200;
     private static final DateTimeFormatter STATS_TIME_FORMATTER = DateTimeFormatter.ofPattern("HH:mm:ss");
 
+    // Tile identifiers used by the request planner
+    private static final String TILE_STATUS = "status";
+    private static final String TILE_FLUID = "fluid";
+    private static final String TILE_LED = "led";
+    private static final String TILE_TOPX = "topx";
+    private static final String TILE_TREND = "trend";
+    private static final String TILE_CLIENTS = "clients";
+    private static final String TILE_UPSTREAMS = "upstreams";
+
     // Scheduler defaults in seconds (aligned with legacy behaviour)
     private static final long DEFAULT_STATUS_REFRESH_INTERVAL = WidgetConfig.DEFAULT_STATUS_UPDATE_SEC;
     private static final long DEFAULT_FLUID_REFRESH_INTERVAL = WidgetConfig.DEFAULT_FLUID_UPDATE_SEC;
     private static final long DEFAULT_ACTIVE_REFRESH_INTERVAL = WidgetConfig.DEFAULT_ACTIVE_UPDATE_SEC;
     private static final long DEFAULT_TOPX_REFRESH_INTERVAL = WidgetConfig.DEFAULT_TOPX_UPDATE_SEC;
 
+    // Local history newer than this is not worth a backfill request
+    private static final long HISTORY_BACKFILL_MIN_GAP_MS = 10 * 60_000L;
+
+    // Trend tile: 24h window, sized for the fastest default poll (5 s)
+    private static final long TREND_WINDOW_MS = 24 * 3_600_000L;
+    private static final int TREND_CAPACITY = 17_280;
+
+    // The blocker's client/network table changes rarely: refresh it on a slow schedule
+    private static final long CLIENT_NAMES_REFRESH_INTERVAL = 300;
+
+    // Upstream averages move slowly and AdGuard reads them from its full stats payload
+    private static final long UPSTREAMS_REFRESH_INTERVAL = 60;
+    private static final int UPSTREAM_ROWS = 5;
+    private static final long UPSTREAM_AVERAGE_WINDOW_MS = 3_600_000L;
+
+    // Instances polled (and handlers created) at the same time; the rest wait for a free slot
+    private static final int MAX_PARALLEL_INSTANCES = 8;
+    // Hosts listed on the LED tile before the rest are summarised as "+N more"
+    private static final int LED_MAX_HOSTS = 2;
+    // Writes per instance before a toggle gives up on it, and the pause between them
+    private static final int TOGGLE_MAX_ATTEMPTS = 3;
+    private static final Duration TOGGLE_RETRY_DELAY = Duration.ofMillis(750);
+    // Timed disable choices offered on the LED tile and in the tray menu
+    static final List<Duration> DISABLE_DURATIONS =
+            List.of(Duration.ofSeconds(30), Duration.ofMinutes(5), Duration.ofHours(1));
+
     // Default tile dimensions
     private static final double DEFAULT_TILE_WIDTH = 200;
     private static final double DEFAULT_TILE_HEIGHT = 200;
@@ -120,7 +191,6 @@ public class WidgetController implements Initializable {
 
     private static final Logger LOGGER = Logger.getLogger(WidgetController.class.getName());
     private static final boolean VERBOSE = Boolean.parseBoolean(System.getProperty("dnsbloquer.verbose", "false"));
-    private static final ObjectMapper JSON = new ObjectMapper();
 
     private static void log(String message) {
         if (VERBOSE) {
@@ -146,17 +216,29 @@ public class WidgetController implements Initializable {
     private Tile ledTile;
     private Tile fluidTile;
     private Tile topXTile;
-    private VBox dataTable;
+    private Tile trendTile;
+    private Tile topClientsTile;
+    private Tile upstreamsTile;
+    private TileView statusView;
+    private TileView ledView;
+    private TileView fluidView;
+    private TopXListView topXView;
+    private TileView trendTileView;
+    private SparklineView trendView;
+    private TopXListView topClientsView;
+    private TileView upstreamsTileView;
+    private UpstreamListView upstreamsView;
     private BorderPane topXGraphicRoot;
     private FlowGridPane gridPane;
 
-    // DNS blocker handlers (supports both Pi-hole and AdGuard Home)
-    private volatile DnsBlockerHandler dnsBlockerHandler;
-    private volatile DnsBlockerHandler dnsBlocker2;
+    // Configured DNS blockers (Pi-hole or AdGuard Home), primary first, and the registry of
+    // their handlers. The registry is rebuilt off the FX thread and swapped in one write.
+    private volatile List<DnsBlockerConfig> instanceConfigs;
+    private volatile InstanceRegistry instances = InstanceRegistry.empty();
+    private final AtomicLong registryGeneration = new AtomicLong();
+    private volatile boolean disposed;
 
     // Configuration
-    private volatile DnsBlockerConfig configDNS1;
-    private volatile DnsBlockerConfig configDNS2;
     private volatile WidgetConfig widgetConfig;
     private long statusRefreshIntervalSec = DEFAULT_STATUS_REFRESH_INTERVAL;
     private long fluidRefreshIntervalSec = DEFAULT_FLUID_REFRESH_INTERVAL;
@@ -167,22 +249,55 @@ public class WidgetController implements Initializable {
     private ScheduledExecutorService scheduler;
     private ExecutorService ioExecutor;
 
-    private ScheduledFuture<?> statusFuture;
-    private ScheduledFuture<?> fluidFuture;
-    private ScheduledFuture<?> activeFuture;
-    private ScheduledFuture<?> topXFuture;
-
-    // Single-flight guards to avoid overlapping refresh work under slow networks
-    private final AtomicBoolean statusInFlight = new AtomicBoolean(false);
-    private final AtomicBoolean fluidInFlight = new AtomicBoolean(false);
-    private final AtomicBoolean activeInFlight = new AtomicBoolean(false);
-    private final AtomicBoolean topXInFlight = new AtomicBoolean(false);
-
-    private enum BlockingState {
-        ENABLED, DISABLED, MIXED, UNKNOWN
-    }
+    private final List<ScheduledFuture<?>> pollFutures = new ArrayList<>();
+
+    // Deduplicated endpoint polls derived from the tiles' data requirements; each group
+    // carries its own single-flight guard to avoid overlapping work under slow networks
+    private volatile List<ActivePollGroup> pollPlan;
+    private final Map<String, AtomicBoolean> tileRefreshInFlight = new ConcurrentHashMap<>();
+    private final EndpointCache endpointCache = new EndpointCache();
+
+    // Every successful stats poll is appended here (per instance, primitive ring buffers)
+    private final MetricsHistory metricsHistory = new MetricsHistory();
+    // Fleet totals, updated with each instance's stats poll; tiles read its published view
+    private final FleetAggregator fleetStats = new FleetAggregator();
+    // ...and, when the application provides one, to the persistent history on disk
+    private volatile HistoryStore historyStore;
+    // ...and, when enabled, the local metrics endpoint is re-rendered after each poll group
+    private volatile MetricsExporter metricsExporter;
+    // Summed queries/s and blocked/s across instances, drawn by the trend tile
+    private final RingSeries trendQueries = new RingSeries(TREND_CAPACITY);
+    private final RingSeries trendBlocked = new RingSeries(TREND_CAPACITY);
+    // Current rate anomaly per instance id (absent = none)
+    private final Map<String, RateAnomaly> anomalies = new ConcurrentHashMap<>();
+    // Instances whose server-side history was already merged this session
+    private final Set<String> backfilledInstances = ConcurrentHashMap.newKeySet();
+
+    // Results from the refresh tasks are applied on the FX pulse; stale results are dropped
+    private final UiUpdateBus uiUpdates = new UiUpdateBus();
+
+    // Query log summaries behind the Top X drill-down, fetched only when a row is clicked
+    private final DomainQueryLoader domainQueries = new DomainQueryLoader(this::runAsync);
+    private DomainDrillDownPopup drillDownPopup;
+    private Future<?> drillDownLoad;
+
+    // Names for the Top Clients tile; lookups run off the poll and FX threads
+    private final ClientNameResolver clientNames = new ClientNameResolver(this::runAsync);
 
     private volatile BlockingState blockingState = BlockingState.UNKNOWN;
+    // Per-instance result of the last toggle, listed in the LED tooltip
+    private volatile List<BlockingWriter.Outcome> toggleOutcomes = List.of();
+    // One write at a time per instance; rapid clicks collapse into the last requested state
+    private final BlockingWriteQueue blockingWrites = new BlockingWriteQueue(
+            new BlockingWriter(MAX_PARALLEL_INSTANCES, TOGGLE_MAX_ATTEMPTS, TOGGLE_RETRY_DELAY),
+            MAX_PARALLEL_INSTANCES, this::onBlockingWritten);
+    // Deciding a toggle's target and queueing it happen together, so two clicks cannot pick the same one
+    private final Object toggleLock = new Object();
+    // Timed disable: counted down locally, the blocking status is not polled meanwhile
+    private final BlockingCountdown disableCountdown = new BlockingCountdown();
+    // Instances that accepted a timed disable without reporting a timer; resumed by the widget
+    private final Set<Integer> untimedDisables = ConcurrentHashMap.newKeySet();
+    private volatile ScheduledFuture<?> countdownTicker;
     private volatile boolean fallbackToggleFlag = false;
 
     // ==================== FXML Injected Fields ====================
@@ -200,27 +315,44 @@ public class WidgetController implements Initializable {
     }
 
     public WidgetController(DnsBlockerConfig configDNS1, DnsBlockerConfig configDNS2, WidgetConfig widgetConfig, AppActions appActions) {
+        this(instanceList(configDNS1, configDNS2), widgetConfig, appActions);
+    }
+
+    /**
+     * @param instanceConfigs the DNS blockers to show, primary first
+     */
+    public WidgetController(List<DnsBlockerConfig> instanceConfigs, WidgetConfig widgetConfig, AppActions appActions) {
         log("=== WidgetController constructor called ===");
-        log("ConfigDNS1: " + formatConfig(configDNS1));
-        log("ConfigDNS2: " + formatConfig(configDNS2));
+        this.instanceConfigs = instanceConfigs == null
+                ? List.of()
+                : Collections.unmodifiableList(new ArrayList<>(instanceConfigs));
+        log("Instances: " + this.instanceConfigs.stream().map(this::formatConfig).toList());
         log("WidgetConfig: " + formatWidgetConfig(widgetConfig));
 
-        this.configDNS1 = configDNS1;
-        this.configDNS2 = configDNS2;
         this.widgetConfig = widgetConfig;
         this.appActions = appActions;
     }
 
+    // Legacy pair to list: a missing primary is kept as null so getConfigDNS1() still reports it
+    private static List<DnsBlockerConfig> instanceList(DnsBlockerConfig first, DnsBlockerConfig second) {
+        List<DnsBlockerConfig> list = new ArrayList<>();
+        list.add(first);
+        if (second != null) {
+            list.add(second);
+        }
+        return list;
+    }
+
     // ==================== Initialization ====================
 
     @Override
     public void initialize(URL location, ResourceBundle resources) {
         log("=== initialize() called ===");
         log("Location: " + location);
-        log("ConfigDNS1 present: " + (configDNS1 != null));
+        log("Primary instance present: " + (getConfigDNS1() != null));
 
-        if (configDNS1 == null) {
-            log("ERROR: DNS1 configuration is null!");
+        if (getConfigDNS1() == null) {
+            log("ERROR: primary instance configuration is null!");
             logInfo("configurations are empty");
             return;
         }
@@ -243,14 +375,13 @@ public class WidgetController implements Initializable {
         log("Initializing context menu...");
         initializeContextMenu();
 
-        // Create handler + do an initial refresh only AFTER tiles are built to avoid NPE races.
+        // Intervals drive the poll plan, so they must be known before the first refresh.
+        applyIntervalsFromConfig();
+
+        // Create the handlers only AFTER tiles are built to avoid NPE races. The schedulers
+        // start once the instance registry is connected.
         log("Calling refreshPihole()...");
         refreshPihole();
-
-        log("Starting schedulers...");
-        applyIntervalsFromConfig();
-        initializeSchedulers();
-        log("All schedulers started");
         log("=== Widget initialization complete ===");
     }
 
@@ -305,25 +436,74 @@ public class WidgetController implements Initializable {
 
         log("Widget config layout: " + widgetConfig.getLayout());
 
+        // Grid shape follows the number of tiles actually shown (4 -> 4x1 or 2x2, 1 -> 1x1).
+        int tiles = visibleTileCount();
         switch (widgetConfig.getLayout()) {
             case "Horizontal" -> {
-                cols = 4;
+                cols = tiles;
                 rows = 1;
-                log("Setting layout: Horizontal (4x1)");
+                log("Setting layout: Horizontal (" + cols + "x" + rows + ")");
             }
             case "Square" -> {
-                cols = 2;
-                rows = 2;
-                log("Setting layout: Square (2x2)");
+                cols = (int) Math.ceil(Math.sqrt(tiles));
+                rows = (int) Math.ceil(tiles / (double) cols);
+                log("Setting layout: Square (" + cols + "x" + rows + ")");
             }
             default -> {
-                cols = 2;
-                rows = 2;
-                log("Setting layout: Default (2x2)");
+                cols = (int) Math.ceil(Math.sqrt(tiles));
+                rows = (int) Math.ceil(tiles / (double) cols);
+                log("Setting layout: Default (" + cols + "x" + rows + ")");
             }
         }
     }
 
+    /**
+     * Whether a tile is enabled in the widget settings. A configuration with every tile
+     * disabled is treated as the default set so the widget never comes up empty.
+     */
+    private boolean isTileEnabled(String tileId) {
+        WidgetConfig config = effectiveTileConfig();
+        return switch (tileId) {
+            case TILE_LED -> config.showLive();
+            case TILE_STATUS -> config.showStatus();
+            case TILE_FLUID -> config.showFluid();
+            case TILE_TOPX -> config.showTopX();
+            case TILE_TREND -> config.showTrend();
+            case TILE_CLIENTS -> config.showTopClients();
+            case TILE_UPSTREAMS -> config.showUpstreams();
+            default -> false;
+        };
+    }
+
+    private int visibleTileCount() {
+        return effectiveTileConfig().visibleTileCount();
+    }
+
+    // "Show all" means the default tile set; opt-in tiles stay hidden.
+    private WidgetConfig effectiveTileConfig() {
+        WidgetConfig config = widgetConfig;
+        if (config == null || config.visibleTileCount() == 0) {
+            return WidgetConfig.defaultConfig();
+        }
+        return config;
+    }
+
+    /**
+     * Whether a tile was built at startup (visibility changes apply after a restart).
+     */
+    private boolean isTileBuilt(String tileId) {
+        return switch (tileId) {
+            case TILE_LED -> ledView != null;
+            case TILE_STATUS -> statusView != null;
+            case TILE_FLUID -> fluidView != null;
+            case TILE_TOPX -> topXView != null;
+            case TILE_TREND -> trendView != null;
+            case TILE_CLIENTS -> topClientsView != null;
+            case TILE_UPSTREAMS -> upstreamsView != null;
+            default -> false;
+        };
+    }
+
     private void setupCopyrightLabel() {
         String copyright = "Copyright (C) " + Year.now().getValue() + ".  Reda ELFARISSI aka FoKss-LTS";
         dakLabel.setText(copyright);
@@ -338,9 +518,15 @@ public class WidgetController implements Initializable {
 
     private void setupGridPane() {
         log("Creating FlowGridPane with " + cols + " cols x " + rows + " rows");
-        log("Adding tiles: ledTile, fluidTile, statusTile, topXTile");
+        List<Node> tiles = new ArrayList<>();
+        for (Tile tile : new Tile[] { ledTile, fluidTile, statusTile, topXTile, trendTile, topClientsTile, upstreamsTile }) {
+            if (tile != null) {
+                tiles.add(tile);
+            }
+        }
+        log("Adding " + tiles.size() + " visible tile(s)");
 
-        gridPane = new FlowGridPane(cols, rows, ledTile, fluidTile, statusTile, topXTile);
+        gridPane = new FlowGridPane(cols, rows, tiles.toArray(Node[]::new));
         gridPane.setHgap(5);
         gridPane.setVgap(5);
         gridPane.setAlignment(Pos.CENTER);
@@ -358,6 +544,8 @@ public class WidgetController implements Initializable {
     // ==================== Scheduler Management ====================
 
     private void applyIntervalsFromConfig() {
+        // Intervals are the tiles' freshness requirements: the poll plan must be rebuilt.
+        pollPlan = null;
         if (widgetConfig == null) {
             statusRefreshIntervalSec = DEFAULT_STATUS_REFRESH_INTERVAL;
             fluidRefreshIntervalSec = DEFAULT_FLUID_REFRESH_INTERVAL;
@@ -388,7 +576,7 @@ public class WidgetController implements Initializable {
         return candidate > 0 ? candidate : defaultValue;
     }
 
-    private void initializeSchedulers() {
+    private synchronized void initializeSchedulers() {
         log("Initializing scheduler triggers + IO executor (virtual threads)...");
 
         // Scheduler only triggers; actual IO/parsing runs on ioExecutor to avoid
@@ -400,14 +588,19 @@ public class WidgetController implements Initializable {
                 .name("dnsblocker-io-", 0)
                 .factory());
 
-        statusFuture = scheduler.scheduleAtFixedRate(() -> triggerInflate(statusInFlight, this::inflateStatusDataOnce),
-                0, statusRefreshIntervalSec, TimeUnit.SECONDS);
-        activeFuture = scheduler.scheduleAtFixedRate(() -> triggerInflate(activeInFlight, this::inflateActiveDataOnce),
-                0, activeRefreshIntervalSec, TimeUnit.SECONDS);
-        fluidFuture = scheduler.scheduleAtFixedRate(() -> triggerInflate(fluidInFlight, this::inflateFluidDataOnce),
-                0, fluidRefreshIntervalSec, TimeUnit.SECONDS);
-        topXFuture = scheduler.scheduleAtFixedRate(() -> triggerInflate(topXInFlight, this::inflateTopXDataOnce),
-                0, topXRefreshIntervalSec, TimeUnit.SECONDS);
+        // One trigger per poll group: each endpoint is fetched once, at the tightest
+        // freshness any visible tile asked for.
+        for (ActivePollGroup active : activePollGroups()) {
+            long intervalMs = active.group().interval().toMillis();
+            pollFutures.add(scheduler.scheduleAtFixedRate(
+                    () -> triggerInflate(active.inFlight(), () -> pollGroupOnce(active.group())),
+                    0, intervalMs, TimeUnit.MILLISECONDS));
+            log("Scheduled poll group every " + intervalMs + "ms - endpoints: " + active.group().endpoints()
+                    + ", tiles: " + active.group().tileIds());
+        }
+        if (disableCountdown.isRunning()) {
+            startCountdownTicker();
+        }
 
         log("Schedulers initialized - Status: " + statusRefreshIntervalSec + "s, " +
                 "Active: " + activeRefreshIntervalSec + "s, " +
@@ -428,17 +621,21 @@ public class WidgetController implements Initializable {
     private void triggerInflate(AtomicBoolean inFlight, Runnable job) {
         if (job == null || inFlight == null)
             return;
-        if (!inFlight.compareAndSet(false, true)) {
+        boolean guarded = inFlight.compareAndSet(false, true);
+        if (!guarded && !HostLimiter.isInteractive()) {
             // Previous run still executing; skip to prevent overlap/backlog.
             return;
         }
+        // A user action is never skipped: it must show its own effect, not the poll in flight.
         runAsync(() -> {
             try {
                 job.run();
             } catch (Exception e) {
                 LOGGER.log(Level.WARNING, "Periodic refresh task failed", e);
             } finally {
-                inFlight.set(false);
+                if (guarded) {
+                    inFlight.set(false);
+                }
             }
         });
     }
@@ -448,39 +645,41 @@ public class WidgetController implements Initializable {
      * closed.
      */
     public void shutdown() {
+        disposed = true;
+        stopSchedulers();
+    }
+
+    private synchronized void stopSchedulers() {
         log("Shutting down schedulers...");
-        resetInFlightFlags();
         cancelScheduledFutures();
         shutdownExecutor(scheduler);
         shutdownExecutor(ioExecutor);
+        resetInFlightFlags();
 
         log("Schedulers shut down");
         scheduler = null;
         ioExecutor = null;
     }
 
-    private void restartSchedulers() {
-        shutdown();
+    private synchronized void restartSchedulers() {
+        if (disposed) {
+            return;
+        }
+        stopSchedulers();
+        // Groups are scheduled with no initial delay, so this also refreshes every tile.
         initializeSchedulers();
-        inflateAllData();
     }
 
     private void resetInFlightFlags() {
-        statusInFlight.set(false);
-        activeInFlight.set(false);
-        fluidInFlight.set(false);
-        topXInFlight.set(false);
+        // Dropping the plan also drops its in-flight guards; it is rebuilt on next use.
+        pollPlan = null;
+        tileRefreshInFlight.clear();
     }
 
     private void cancelScheduledFutures() {
-        cancelFuture(statusFuture);
-        cancelFuture(activeFuture);
-        cancelFuture(fluidFuture);
-        cancelFuture(topXFuture);
-        statusFuture = null;
-        activeFuture = null;
-        fluidFuture = null;
-        topXFuture = null;
+        pollFutures.forEach(this::cancelFuture);
+        pollFutures.clear();
+        cancelFuture(countdownTicker);
     }
 
     private void cancelFuture(ScheduledFuture<?> f) {
@@ -503,46 +702,381 @@ public class WidgetController implements Initializable {
         }
     }
 
-    // ==================== Pi-hole Data Management ====================
+    // ==================== Request Planning ====================
 
-    public void refreshPihole() {
-        log("=== refreshPihole() called ===");
+    private record ActivePollGroup(PollGroup group, AtomicBoolean inFlight) {
+    }
 
-        if (configDNS1 != null) {
-            log("Creating DNS blocker handler for: " + configDNS1.platform() + " at " +
-                    configDNS1.getIPAddress() + ":" + configDNS1.getPort());
-            dnsBlockerHandler = DnsBlockerHandlerFactory.createHandler(configDNS1);
-            logInfo("DNS Blocker (" + configDNS1.platform() + ") version: " + dnsBlockerHandler.getVersion());
-            log("DNS blocker handler created");
-        } else {
-            log("ConfigDNS1 is null, skipping DNS handler creation");
+    /**
+     * Declares, per tile, which metrics it renders and how fresh they must be.
+     * Freshness comes from the per-tile update intervals in the widget settings.
+     */
+    private List<TileRequirements> tileRequirements() {
+        // Only built tiles take part: endpoints needed solely by hidden tiles are never polled.
+        return Stream.of(TILE_LED, TILE_FLUID, TILE_STATUS, TILE_TOPX, TILE_TREND, TILE_CLIENTS, TILE_UPSTREAMS)
+                .filter(this::isTileBuilt)
+                .map(this::tileRequirements)
+                .toList();
+    }
+
+    private TileRequirements tileRequirements(String tileId) {
+        return switch (tileId) {
+            case TILE_STATUS -> TileRequirements.of(TILE_STATUS,
+                    DataRequirement.of(Metric.TOTAL_QUERIES, statusRefreshIntervalSec),
+                    DataRequirement.of(Metric.BLOCKED_QUERIES, statusRefreshIntervalSec),
+                    DataRequirement.of(Metric.DOMAINS_ON_LISTS, statusRefreshIntervalSec),
+                    DataRequirement.of(Metric.LAST_BLOCKED_DOMAIN, statusRefreshIntervalSec));
+            case TILE_FLUID -> TileRequirements.of(TILE_FLUID,
+                    DataRequirement.of(Metric.PERCENT_BLOCKED, fluidRefreshIntervalSec));
+            case TILE_LED -> TileRequirements.of(TILE_LED,
+                    DataRequirement.of(Metric.INSTANCE_REACHABLE, activeRefreshIntervalSec),
+                    DataRequirement.of(Metric.BLOCKING_ENABLED, activeRefreshIntervalSec),
+                    DataRequirement.of(Metric.API_VERSION, activeRefreshIntervalSec),
+                    DataRequirement.of(Metric.GRAVITY_LAST_UPDATE, activeRefreshIntervalSec));
+            case TILE_TOPX -> TileRequirements.of(TILE_TOPX,
+                    DataRequirement.of(Metric.TOP_BLOCKED_DOMAINS, topXRefreshIntervalSec));
+            // Rates come from consecutive stats polls, so the trend follows the status cadence.
+            case TILE_TREND -> TileRequirements.of(TILE_TREND,
+                    DataRequirement.of(Metric.TOTAL_QUERIES, statusRefreshIntervalSec),
+                    DataRequirement.of(Metric.BLOCKED_QUERIES, statusRefreshIntervalSec));
+            case TILE_CLIENTS -> TileRequirements.of(TILE_CLIENTS,
+                    DataRequirement.of(Metric.TOP_CLIENTS, topXRefreshIntervalSec),
+                    DataRequirement.of(Metric.CLIENT_NAMES,
+                            Math.max(CLIENT_NAMES_REFRESH_INTERVAL, topXRefreshIntervalSec)));
+            case TILE_UPSTREAMS -> TileRequirements.of(TILE_UPSTREAMS,
+                    DataRequirement.of(Metric.UPSTREAM_LATENCY, UPSTREAMS_REFRESH_INTERVAL));
+            default -> throw new IllegalArgumentException("Unknown tile: " + tileId);
+        };
+    }
+
+    private int instanceCount() {
+        return Math.max(1, instances.size());
+    }
+
+    private DnsBlockerHandler handlerFor(int instance) {
+        return instances.handler(instance);
+    }
+
+    private List<ActivePollGroup> activePollGroups() {
+        List<ActivePollGroup> groups = pollPlan;
+        if (groups == null) {
+            PollPlan plan = RequestPlanner.plan(tileRequirements(), instanceCount(),
+                    (instance, endpoint) -> endpoint.resource(handlerFor(instance)));
+            groups = plan.groups().stream()
+                    .map(g -> new ActivePollGroup(g, new AtomicBoolean(false)))
+                    .toList();
+            pollPlan = groups;
+            log("Poll plan: " + plan.endpointCount() + " endpoint(s) in " + groups.size() + " group(s)");
+        }
+        return groups;
+    }
+
+    private void pollGroupOnce(PollGroup group) {
+        final long sequence = uiUpdates.nextSequence();
+        fetchEndpoints(group.endpoints());
+        recordTrendSample();
+        for (String tileId : group.tileIds()) {
+            renderTile(tileId, sequence);
+        }
+        publishMetrics();
+    }
+
+    private void publishMetrics() {
+        MetricsExporter exporter = metricsExporter;
+        if (exporter == null) {
+            return;
+        }
+        exporter.publish(FleetSnapshot.capture(Instant.now(), instances, endpointCache, fleetStats.view()));
+    }
+
+    private void refreshTileNow(String tileId) {
+        if (!isTileBuilt(tileId)) {
+            return;
+        }
+        AtomicBoolean inFlight = tileRefreshInFlight.computeIfAbsent(tileId, _ -> new AtomicBoolean(false));
+        triggerInflate(inFlight, () -> {
+            final long sequence = uiUpdates.nextSequence();
+            fetchEndpoints(RequestPlanner.endpointsFor(tileRequirements(tileId), instanceCount()));
+            recordTrendSample();
+            renderTile(tileId, sequence);
+        });
+    }
+
+    /**
+     * Fetches the endpoints, instances in parallel (at most {@link #MAX_PARALLEL_INSTANCES}
+     * at a time) and the upstream resources of one instance in order, each with a single
+     * request, and returns once all are cached.
+     */
+    private void fetchEndpoints(List<EndpointKey> endpoints) {
+        final int count = Math.max(1, topX);
+        // During a timed disable the state is known until expiry; only the expiry check reads it
+        final boolean skipBlockingStatus = disableCountdown.isRunning();
+        Map<Integer, List<Endpoint>> byInstance = new LinkedHashMap<>();
+        for (EndpointKey key : endpoints) {
+            if (skipBlockingStatus && key.endpoint() == Endpoint.BLOCKING_STATUS) {
+                continue;
+            }
+            byInstance.computeIfAbsent(key.instance(), _ -> new ArrayList<>()).add(key.endpoint());
+        }
+        FanOut.forEach(byInstance.entrySet(), MAX_PARALLEL_INSTANCES, entry -> {
+            int instance = entry.getKey();
+            DnsBlockerHandler handler = handlerFor(instance);
+            for (List<Endpoint> sameResource : Endpoint.byResource(handler, entry.getValue())) {
+                long writeVersion = blockingWrites.latestVersion();
+                long start = System.nanoTime();
+                Map<Endpoint, String> results = Endpoint.fetchAll(handler, sameResource, count);
+                long elapsed = System.nanoTime() - start;
+                for (Endpoint endpoint : sameResource) {
+                    String body = results.get(endpoint);
+                    ClientMetrics.shared().recordFetch(endpoint, elapsed, body);
+                    if (endpoint == Endpoint.BLOCKING_STATUS && !blockingWrites.isSettledSince(writeVersion)) {
+                        // Sent before (or during) a blocking write: it must not undo the newer state
+                        log("Dropping blocking status of instance " + instance + " read across a write");
+                        continue;
+                    }
+                    endpointCache.put(new EndpointKey(instance, endpoint), body);
+                    if (endpoint == Endpoint.STATS) {
+                        recordStats(instance);
+                    } else if (endpoint == Endpoint.UPSTREAMS) {
+                        recordUpstreams(instance);
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * Applies a fresh stats poll of one instance to the fleet totals, the history and the
+     * anomaly detector. A failed poll only withdraws the instance from the totals.
+     */
+    private void recordStats(int instance) {
+        EndpointCache.Entry entry = endpointCache.entry(instance, Endpoint.STATS);
+        String id = instanceId(instance);
+        if (entry == null || entry.body().isBlank()) {
+            fleetStats.remove(id);
+            return;
         }
+        long time = entry.fetchedAt().toEpochMilli();
+        SummaryStats stats = StatsParser.parseSummaryStats(entry.body());
+        fleetStats.update(id, stats);
+        metricsHistory.record(id, time, stats);
+        HistoryStore store = historyStore;
+        if (store != null) {
+            store.record(id, time, stats);
+        }
+        evaluateAnomaly(instance, id);
+    }
 
-        if (configDNS2 != null && configDNS2.hasValidAddress()) {
-            log("Creating DNS blocker handler for DNS2: " + configDNS2.platform() + " at " +
-                    configDNS2.getIPAddress() + ":" + configDNS2.getPort());
-            dnsBlocker2 = DnsBlockerHandlerFactory.createHandler(configDNS2);
-            logInfo("DNS Blocker 2 (" + configDNS2.platform() + ") version: " + dnsBlocker2.getVersion());
-            log("DNS blocker handler DNS2 created");
+    private void recordUpstreams(int instance) {
+        EndpointCache.Entry entry = endpointCache.entry(instance, Endpoint.UPSTREAMS);
+        if (entry == null || entry.body().isBlank()) {
+            return;
+        }
+        metricsHistory.recordUpstreams(instanceId(instance), entry.fetchedAt().toEpochMilli(),
+                StatsParser.parseUpstreams(entry.body()));
+    }
+
+    /**
+     * Updates the alert state of an instance from the anomaly scores of its latest rates.
+     * A change is shown on the LED tile (re-rendered from the cache, no request) and a
+     * newly raised alert is also sent as a tray notification.
+     */
+    private void evaluateAnomaly(int instance, String id) {
+        InstanceSnapshot snapshot = metricsHistory.snapshot(id);
+        if (snapshot == null) {
+            return;
+        }
+        DnsBlockerConfig config = configFor(instance);
+        AnomalyAlerts alerts = config != null ? config.alerts() : AnomalyAlerts.defaults();
+        RateAnomaly previous = anomalies.getOrDefault(id, RateAnomaly.NONE);
+        RateAnomaly current = alerts.enabled()
+                ? RateAnomaly.evaluate(previous, snapshot.queryRateZ(), snapshot.blockShareZ(), alerts.threshold())
+                : RateAnomaly.NONE;
+        if (current == previous) {
+            return;
+        }
+        if (current == RateAnomaly.NONE) {
+            anomalies.remove(id);
+            logInfo("Anomaly cleared on " + id);
         } else {
-            log("ConfigDNS2 is null or invalid, skipping DNS2 handler creation");
-            dnsBlocker2 = null;
+            anomalies.put(id, current);
+            String detail = anomalyDetail(current, snapshot);
+            logInfo(current.label() + " on " + id + " (" + detail + ")");
+            if (appActions != null) {
+                appActions.showNotification(current.label(), hostOf(instance) + ": " + detail);
+            }
+        }
+        if (ledView != null) {
+            renderActiveTile(uiUpdates.nextSequence());
+        }
+    }
+
+    private static String anomalyDetail(RateAnomaly anomaly, InstanceSnapshot snapshot) {
+        return switch (anomaly) {
+            case QUERY_SPIKE -> formatRate(snapshot.queriesPerSecond()) + " q/s";
+            case BLOCK_RATE_DROP -> formatRate(snapshot.blocksPerSecond()) + " blocked/s of "
+                    + formatRate(snapshot.queriesPerSecond()) + " q/s";
+            case NONE -> "";
+        };
+    }
+
+    // Tooltip lines for the active alerts, or null if there are none
+    private String activeAnomalyText() {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < instanceCount(); i++) {
+            RateAnomaly anomaly = anomalies.get(instanceId(i));
+            if (anomaly != null) {
+                text.append(anomaly.label()).append(" on ").append(hostOf(i)).append('\n');
+            }
+        }
+        return text.isEmpty() ? null : text.toString();
+    }
+
+    private String hostOf(int instance) {
+        DnsBlockerConfig config = configFor(instance);
+        return config != null ? config.getIPAddress() : instanceId(instance);
+    }
+
+    /**
+     * Merges each instance's server-side history (last 24h) into the persistent history,
+     * once per session and only when the local history has a gap worth filling. Live polls
+     * of the instance are held back from the history until its backfill is done.
+     */
+    private void backfillHistory() {
+        final HistoryStore store = historyStore;
+        if (store == null) {
+            return;
         }
+        for (int i = 0; i < instanceCount(); i++) {
+            final DnsBlockerHandler handler = handlerFor(i);
+            final String id = instanceId(i);
+            if (handler == null || !backfilledInstances.add(id)) {
+                continue;
+            }
+            store.holdLiveSamples(id);
+            runAsync(() -> {
+                try {
+                    long now = System.currentTimeMillis();
+                    long last = store.lastRecordedTime(id);
+                    if (last != Long.MIN_VALUE && now - last < HISTORY_BACKFILL_MIN_GAP_MS) {
+                        log("History of " + id + " is recent, no backfill needed");
+                        return;
+                    }
+                    int merged = store.backfill(id, HistoryPayload.parse(handler.getHistory()), now);
+                    log("Backfilled " + merged + " history bucket(s) for " + id);
+                } finally {
+                    store.releaseLiveSamples(id);
+                }
+            });
+        }
+    }
 
-        log("Calling inflateAllData()...");
-        inflateAllData();
+    /**
+     * Fills the empty trend series with the last 24h of per-minute history, summed across
+     * instances, so the trend tile does not start blank. Live samples follow the seed.
+     */
+    private void seedTrendFromHistory(List<String> instanceIds) {
+        final HistoryStore store = historyStore;
+        if (trendView == null || store == null || !trendQueries.isEmpty()) {
+            return;
+        }
+        long from = System.currentTimeMillis() - TREND_WINDOW_MS;
+        TreeMap<Long, long[]> minutes = new TreeMap<>();
+        for (String id : instanceIds) {
+            store.read(id, Resolution.MINUTE, from, Long.MAX_VALUE, (time, queries, blocked) -> {
+                long[] sums = minutes.computeIfAbsent(time, _ -> new long[2]);
+                sums[0] += queries;
+                sums[1] += blocked;
+            });
+        }
+        double seconds = Resolution.MINUTE.bucketMillis() / 1000.0;
+        minutes.forEach((time, sums) -> trendQueries.appendIfNewer(time, sums[0] / seconds,
+                trendBlocked, sums[1] / seconds));
+        log("Seeded trend with " + minutes.size() + " minute(s) of history");
+    }
+
+    /**
+     * Stable identifier of an instance for history keys: its base URL.
+     */
+    private String instanceId(int instance) {
+        InstanceRegistry.Instance entry = instances.get(instance);
+        return entry != null ? entry.id() : "instance-" + instance;
+    }
+
+    private DnsBlockerConfig configFor(int instance) {
+        return instances.config(instance);
+    }
+
+    private List<String> instanceIds() {
+        InstanceRegistry registry = instances;
+        return registry.isEmpty() ? List.of(instanceId(0)) : registry.ids();
+    }
+
+    private void renderTile(String tileId, long sequence) {
+        switch (tileId) {
+            case TILE_STATUS -> renderStatusTile(sequence);
+            case TILE_FLUID -> renderFluidTile(sequence);
+            case TILE_LED -> renderActiveTile(sequence);
+            case TILE_TOPX -> renderTopXTile(sequence);
+            case TILE_TREND -> renderTrendTile(sequence);
+            case TILE_CLIENTS -> renderTopClientsTile(sequence);
+            case TILE_UPSTREAMS -> renderUpstreamsTile(sequence);
+            default -> log("renderTile() - unknown tile " + tileId);
+        }
+    }
+
+    // ==================== Pi-hole Data Management ====================
+
+    /**
+     * Rebuilds the instance registry from the current configuration and restarts polling.
+     * Creating a handler may authenticate, so the registry is connected on its own virtual
+     * thread (not the FX thread, not the IO executor the restart shuts down). If the
+     * configuration changes again meanwhile, the older registry is discarded.
+     */
+    public void refreshPihole() {
+        log("=== refreshPihole() called ===");
+        final long generation = registryGeneration.incrementAndGet();
+        final List<DnsBlockerConfig> configs = instanceConfigs;
+        Thread.ofVirtual().name("dnsblocker-registry-", generation).start(() -> {
+            InstanceRegistry registry = InstanceRegistry.connect(configs, DnsBlockerHandlerFactory::createHandler,
+                    MAX_PARALLEL_INSTANCES);
+            applyRegistry(generation, registry);
+        });
+    }
+
+    private synchronized void applyRegistry(long generation, InstanceRegistry registry) {
+        if (disposed || generation != registryGeneration.get()) {
+            log("Discarding stale instance registry #" + generation);
+            return;
+        }
+        // Polls of the previous instances must not land in the caches reset below.
+        stopSchedulers();
+        instances = registry;
+        logInfo("Connected " + registry.size() + " DNS blocker instance(s)");
+
+        // Instances may have changed: forget their cached results and re-plan.
+        endpointCache.clear();
+        fleetStats.clear();
+        disableCountdown.cancel();
+        untimedDisables.clear();
+        domainQueries.invalidate();
+        clientNames.clear();
+        List<String> instanceIds = instanceIds();
+        metricsHistory.retainInstances(instanceIds);
+        anomalies.keySet().retainAll(Set.copyOf(instanceIds));
+        seedTrendFromHistory(instanceIds);
+        // Before polling starts, so the live polls of a backfilled instance are held back
+        backfillHistory();
+        // Groups are scheduled with no initial delay, so this also refreshes every tile.
+        log("Re-planning polls for the new instances...");
+        initializeSchedulers();
     }
 
     private void inflateAllData() {
         log("=== inflateAllData() called ===");
-        log("Inflating active data...");
-        inflateActiveData();
-        log("Inflating fluid data...");
-        inflateFluidData();
-        log("Inflating status data...");
-        inflateStatusData();
-        log("Inflating topX data...");
-        inflateTopXData();
+        for (ActivePollGroup active : activePollGroups()) {
+            triggerInflate(active.inFlight(), () -> pollGroupOnce(active.group()));
+        }
         log("inflateAllData() complete");
     }
 
@@ -558,140 +1092,187 @@ public class WidgetController implements Initializable {
         return time;
     }
 
+    private static String formatRate(double perSecond) {
+        return perSecond < 10.0
+                ? String.format(Locale.ROOT, "%.1f", perSecond)
+                : String.format(Locale.ROOT, "%.0f", perSecond);
+    }
+
+    private static String formatPercent(double percent) {
+        return Double.isNaN(percent) ? "n/a" : String.format(Locale.ROOT, "%.1f %%", percent);
+    }
+
     public void inflateStatusData() {
         log("=== inflateStatusData() called ===");
-        triggerInflate(statusInFlight, this::inflateStatusDataOnce);
+        refreshTileNow(TILE_STATUS);
     }
 
     public void inflateFluidData() {
         log("=== inflateFluidData() called ===");
-        triggerInflate(fluidInFlight, this::inflateFluidDataOnce);
+        refreshTileNow(TILE_FLUID);
     }
 
     public void inflateActiveData() {
         log("=== inflateActiveData() called ===");
-        triggerInflate(activeInFlight, this::inflateActiveDataOnce);
+        refreshTileNow(TILE_LED);
     }
 
     public void inflateTopXData() {
         log("=== inflateTopXData() called ===");
-        triggerInflate(topXInFlight, this::inflateTopXDataOnce);
+        refreshTileNow(TILE_TOPX);
     }
 
-    private void inflateStatusDataOnce() {
-        final DnsBlockerHandler handler = this.dnsBlockerHandler;
-        final DnsBlockerHandler handler2 = this.dnsBlocker2;
-        final Tile tile = this.statusTile;
-        if (tile == null) {
+    private void renderStatusTile(long sequence) {
+        final TileView view = this.statusView;
+        if (view == null) {
             return;
         }
 
-        String statsJson = (handler != null) ? handler.getStats() : "";
-        SummaryStats s1 = parseSummaryStats(statsJson);
-
-        String statsJson2 = (handler2 != null) ? handler2.getStats() : "";
-        SummaryStats s2 = parseSummaryStats(statsJson2);
-
-        CombinedStats combined = combineStats(s1, s2);
+        FleetAggregator.View combined = fleetStats.view();
 
-        String lastBlocked = (handler != null) ? handler.getLastBlocked() : "";
-        String finalLastBlocked = lastBlocked == null ? "" : lastBlocked;
+        String finalLastBlocked = endpointCache.get(0, Endpoint.LAST_BLOCKED);
 
-        Platform.runLater(() -> {
-            if (statusTile == null) {
-                return;
+        // Live load next to the since-midnight totals
+        double queriesPerSecond = 0.0;
+        double blocksPerSecond = 0.0;
+        boolean ratesKnown = false;
+        for (InstanceSnapshot snapshot : getSnapshot()) {
+            if (!Double.isNaN(snapshot.queriesPerSecond())) {
+                queriesPerSecond += snapshot.queriesPerSecond();
+                blocksPerSecond += Double.isNaN(snapshot.blocksPerSecond()) ? 0.0 : snapshot.blocksPerSecond();
+                ratesKnown = true;
             }
-            statusTile.setLeftValue(combined.totalQueries());
-            statusTile.setMiddleValue(combined.blockedQueries());
-            statusTile.setRightValue(combined.acceptedQueries());
-            statusTile.setDescription(HelperService.getHumanReadablePriceFromNumber(combined.domainsBlocked()));
-            statusTile.setText(finalLastBlocked);
+        }
+        final String title = ratesKnown
+                ? "Lists  " + formatRate(queriesPerSecond) + " q/s, " + formatRate(blocksPerSecond) + " blocked/s"
+                : "Lists ";
+        StringBuilder tooltipText = new StringBuilder();
+        if (ratesKnown) {
+            tooltipText.append("Queries/s: ").append(formatRate(queriesPerSecond))
+                    .append("\nBlocked/s: ").append(formatRate(blocksPerSecond))
+                    .append("\n(smoothed over ~1 min)");
+        }
+        // Block lists of a fleet drift apart when one gravity update fails
+        if (combined.minDomainsBlocked() != combined.maxDomainsBlocked()) {
+            tooltipText.append(tooltipText.isEmpty() ? "" : "\n")
+                    .append("Block lists: ")
+                    .append(HelperService.getHumanReadablePriceFromNumber(combined.minDomainsBlocked()))
+                    .append(" to ").append(HelperService.getHumanReadablePriceFromNumber(combined.maxDomainsBlocked()))
+                    .append(" domains");
+        }
+        final String tooltip = tooltipText.isEmpty() ? null : tooltipText.toString();
+
+        uiUpdates.publish(view, sequence, () -> {
+            view.setTitle(title);
+            view.setTooltipText(tooltip);
+            view.setLeftValue(combined.totalQueries());
+            view.setMiddleValue(combined.blockedQueries());
+            view.setRightValue(combined.acceptedQueries());
+            view.setDescription(HelperService.getHumanReadablePriceFromNumber(combined.maxDomainsBlocked()));
+            view.setText(finalLastBlocked);
         });
     }
 
-    private void inflateFluidDataOnce() {
-        final DnsBlockerHandler handler = this.dnsBlockerHandler;
-        final DnsBlockerHandler handler2 = this.dnsBlocker2;
-        if (fluidTile == null) {
+    private void renderFluidTile(long sequence) {
+        final TileView view = this.fluidView;
+        if (view == null) {
             return;
         }
 
-        String statsJson = (handler != null) ? handler.getStats() : "";
-        String statsJson2 = (handler2 != null) ? handler2.getStats() : "";
-
-        // If both are empty, return early
-        if ((statsJson == null || statsJson.isBlank()) && (statsJson2 == null || statsJson2.isBlank())) {
+        // Stamp with the first instance that answered; nothing to show if none did
+        Instant fetchedAt = null;
+        for (int i = 0; i < instanceCount() && fetchedAt == null; i++) {
+            EndpointCache.Entry stats = endpointCache.entry(i, Endpoint.STATS);
+            if (stats != null && !stats.body().isBlank()) {
+                fetchedAt = stats.fetchedAt();
+            }
+        }
+        if (fetchedAt == null) {
             return;
         }
-        final Instant fetchedAt = Instant.now();
 
-        SummaryStats s1 = parseSummaryStats(statsJson);
-        SummaryStats s2 = parseSummaryStats(statsJson2);
-        CombinedStats combined = combineStats(s1, s2);
+        FleetAggregator.View combined = fleetStats.view();
 
-        double adsPercentage = combined.percentBlocked();
         String statsFetchedText = formatStatsFetchedAt(fetchedAt);
 
-        Platform.runLater(() -> {
-            if (fluidTile == null) {
-                return;
+        // Sliding windows come from the counter increases of the polls; the daily figure
+        // is shown until the chosen window has seen queries.
+        BlockedPercentWindow window = widgetConfig != null ? widgetConfig.fluidWindow() : BlockedPercentWindow.TODAY;
+        List<String> ids = instanceIds();
+        long now = System.currentTimeMillis();
+        double windowed = window.isSliding()
+                ? metricsHistory.percentBlocked(ids, window.windowMillis(), now)
+                : Double.NaN;
+        double adsPercentage = Double.isNaN(windowed) ? combined.percentBlocked() : windowed;
+        String text = window.isSliding()
+                ? window.getDisplayName() + (Double.isNaN(windowed) ? " (collecting), " : ", ") + statsFetchedText
+                : "Stats fetched at " + statsFetchedText;
+
+        StringBuilder tooltip = new StringBuilder("Blocked today: " + formatPercent(combined.percentBlocked()));
+        for (BlockedPercentWindow option : BlockedPercentWindow.values()) {
+            if (option.isSliding()) {
+                tooltip.append('\n').append(option.getDisplayName()).append(": ")
+                        .append(formatPercent(metricsHistory.percentBlocked(ids, option.windowMillis(), now)));
             }
-            fluidTile.setValue(adsPercentage);
-            fluidTile.setTitle("Widget Version: " + WIDGET_VERSION);
-            fluidTile.setText("Stats fetched at " + statsFetchedText);
+        }
+        final String tooltipText = tooltip.toString();
+
+        uiUpdates.publish(view, sequence, () -> {
+            view.setValue(adsPercentage);
+            view.setTitle("Widget Version: " + WIDGET_VERSION);
+            view.setText(text);
+            view.setTooltipText(tooltipText);
         });
     }
 
-    private void inflateActiveDataOnce() {
-        final DnsBlockerHandler handler = this.dnsBlockerHandler;
-        final DnsBlockerHandler handler2 = this.dnsBlocker2;
-
-        // Build description showing active DNS blockers
-        StringBuilder ipsText = new StringBuilder();
-        if (handler != null && configDNS1 != null && configDNS1.hasValidAddress()) {
-            ipsText.append(configDNS1.getIPAddress());
-        }
-        if (handler2 != null && configDNS2 != null && configDNS2.hasValidAddress()) {
-            if (ipsText.length() > 0) {
-                ipsText.append(", ");
-            }
-            ipsText.append(configDNS2.getIPAddress());
-        }
-        final String finalIpsText = ipsText.toString();
-
-        if (ledTile == null) {
+    private void renderActiveTile(long sequence) {
+        final InstanceRegistry registry = this.instances;
+        final TileView view = this.ledView;
+        if (view == null) {
             return;
         }
 
-        String statsJson = (handler != null) ? handler.getStats() : "";
-        SummaryStats s1 = parseSummaryStats(statsJson);
-
-        String statsJson2 = (handler2 != null) ? handler2.getStats() : "";
-        SummaryStats s2 = parseSummaryStats(statsJson2);
-
-        Boolean enabled1 = (handler != null && statsJson != null && !statsJson.isBlank())
-                ? fetchDnsBlockingEnabled(handler)
-                : null;
-        Boolean enabled2 = (handler2 != null && statsJson2 != null && !statsJson2.isBlank())
-                ? fetchDnsBlockingEnabled(handler2)
-                : null;
+        // One pass over the fleet: hosts that answered and their blocking state
+        List<String> hosts = new ArrayList<>();
+        List<Boolean> states = new ArrayList<>();
+        for (InstanceRegistry.Instance instance : registry.instances()) {
+            if (instance.handler() == null) {
+                continue;
+            }
+            SummaryStats summary = StatsParser.parseSummaryStats(endpointCache.get(instance.index(), Endpoint.STATS));
+            if (summary == null || !summary.active()) {
+                continue;
+            }
+            hosts.add(instance.config().getIPAddress());
+            // Fall back to summary stats if status endpoint didn't return blocking state
+            Boolean enabled = cachedDnsBlockingEnabled(instance.index());
+            states.add(enabled != null ? enabled : summary.dnsBlockingEnabled());
+        }
+        final String finalIpsText = hostsText(hosts);
 
-        BlockingState state = computeBlockingState(enabled1, enabled2, s1, s2);
+        // A toggle in flight is shown right away; the read-back replaces it when it is done
+        final Boolean pending = blockingWrites.pendingTarget();
+        BlockingState state = pending != null
+                ? (pending ? BlockingState.ENABLED : BlockingState.DISABLED)
+                : BlockingState.of(states);
         this.blockingState = state;
+        final String outcomeText = pending != null
+                ? "\nApplying to " + states.size() + " instance(s)..."
+                : toggleOutcomeText(toggleOutcomes);
+        final String countdownText = state == BlockingState.DISABLED && disableCountdown.isRunning()
+                ? BlockingCountdown.format(disableCountdown.remaining())
+                : null;
+        long enabledCount = states.stream().filter(Boolean.TRUE::equals).count();
+        final String mixedText = "DNS blocking is MIXED (" + enabledCount + " of " + states.size()
+                + " enabled) - click to sync";
 
-        String apiVersion = (handler != null) ? handler.getVersion() : "";
-        String gravityUpdate = (handler != null) ? handler.getGravityLastUpdate() : "";
-
-        String finalApiVersion = apiVersion == null ? "" : apiVersion;
-        String finalGravityUpdate = gravityUpdate == null ? "" : gravityUpdate;
+        String finalApiVersion = endpointCache.get(0, Endpoint.VERSION);
+        String finalGravityUpdate = endpointCache.get(0, Endpoint.GRAVITY_LAST_UPDATE);
 
-        boolean hasAnyStats = (statsJson != null && !statsJson.isBlank()) || (statsJson2 != null && !statsJson2.isBlank());
-
-        Platform.runLater(() -> {
-            if (ledTile == null) {
-                return;
-            }
+        boolean hasAnyStats = !hosts.isEmpty();
+        final String anomalyText = activeAnomalyText();
 
+        uiUpdates.publish(view, sequence, () -> {
             var apiTitle = finalApiVersion.isBlank()
                     ? "API Version: N/A"
                     : "API Version: " + finalApiVersion;
@@ -699,194 +1280,217 @@ public class WidgetController implements Initializable {
                     ? "Gravity Last Update: N/A"
                     : finalGravityUpdate;
 
-            ledTile.setTitle(apiTitle);
-            ledTile.setDescription(!hasAnyStats ? "No active DNS blocker" : finalIpsText);
+            view.setTitle(apiTitle);
+            view.setDescription(!hasAnyStats ? "No active DNS blocker" : finalIpsText);
+            view.setText(countdownText != null ? "Blocking resumes in " + countdownText : gravityLabel);
 
             if (!hasAnyStats) {
-                ledTile.setActiveColor(Color.RED);
-                ledTile.setActive(false);
-                ledTile.setText(gravityLabel);
-                ledTile.setTooltipText("No active DNS blocker");
+                view.setActiveColor(Color.RED);
+                view.setActive(false);
+                view.setTooltipText("No active DNS blocker");
                 return;
             }
 
-            switch (state) {
-                case ENABLED -> {
-                    ledTile.setActiveColor(Color.LIGHTGREEN);
-                    ledTile.setActive(true);
-                    ledTile.setText(gravityLabel);
-                    ledTile.setTooltipText("DNS blocking is ENABLED (click LED circle to disable)");
-                }
-                case DISABLED -> {
-                    ledTile.setActiveColor(Color.RED);
-                    ledTile.setActive(false);
-                    ledTile.setText(gravityLabel);
-                    ledTile.setTooltipText("DNS blocking is DISABLED (click LED circle to enable)");
-                }
-                case MIXED -> {
-                    ledTile.setActiveColor(Color.ORANGE);
-                    ledTile.setActive(true);
-                    ledTile.setText(gravityLabel);
-                    ledTile.setTooltipText("DNS blocking is MIXED (one enabled, one disabled) - click to sync");
-                }
-                case UNKNOWN -> {
-                    ledTile.setActiveColor(Color.LIGHTGREEN);
-                    ledTile.setActive(true);
-                    ledTile.setText(gravityLabel);
-                    ledTile.setTooltipText("Click LED circle to toggle DNS blocking");
-                }
+            Color color = switch (state) {
+                case ENABLED, UNKNOWN -> Color.LIGHTGREEN;
+                case DISABLED -> Color.RED;
+                case MIXED -> Color.ORANGE;
+            };
+            String tooltip = switch (state) {
+                case ENABLED -> "DNS blocking is ENABLED (click LED circle to disable)";
+                case DISABLED -> countdownText != null
+                        ? "DNS blocking is DISABLED for " + countdownText + " (click LED circle to enable now)"
+                        : "DNS blocking is DISABLED (click LED circle to enable)";
+                case MIXED -> mixedText;
+                case UNKNOWN -> "Click LED circle to toggle DNS blocking";
+            };
+            // An active rate alert takes over the LED colour; the blocking state stays in the tooltip.
+            if (anomalyText != null) {
+                color = Color.MAGENTA;
+                tooltip = anomalyText + tooltip;
             }
+            tooltip = tooltip + outcomeText;
+            view.setActiveColor(color);
+            view.setActive(state != BlockingState.DISABLED);
+            view.setTooltipText(tooltip);
         });
     }
 
-    private void inflateTopXDataOnce() {
-        final DnsBlockerHandler handler = this.dnsBlockerHandler;
-        if (handler == null) {
+    private void renderTopXTile(long sequence) {
+        if (handlerFor(0) == null) {
             return;
         }
-        if (dataTable == null || topXTile == null) {
+        if (topXView == null || topXTile == null) {
             return;
         }
 
         final int count = Math.max(1, topX);
-        String topBlockedJson = handler.getTopXBlocked(count);
-        List<TopDomain> domains = parseTopBlockedDomains(topBlockedJson).stream()
+        String topBlockedJson = endpointCache.get(0, Endpoint.TOP_BLOCKED);
+        List<TopXListView.Entry> entries = StatsParser.parseTopBlockedDomains(topBlockedJson).stream()
                 .sorted(Comparator.comparingLong(TopDomain::count).reversed())
                 .limit(count)
+                .map(d -> new TopXListView.Entry(d.domain(), d.count()))
                 .toList();
 
-        Platform.runLater(() -> {
-            if (dataTable == null || topXTile == null) {
+        final TopXListView view = this.topXView;
+        uiUpdates.publish(view, sequence, () -> {
+            if (topXTile == null) {
                 return;
             }
-
-            HBox header = createTopXHeader();
-            HBox spacerRow = createSpacerRow();
-
-            List<Node> rows = new ArrayList<>();
-            rows.add(header);
-            rows.add(spacerRow);
-
-            int rank = 1;
-            for (TopDomain d : domains) {
-                String full = d.domain();
-                String truncated = truncateDomain(full);
-                String countText = HelperService.getHumanReadablePriceFromNumber(d.count());
-                rows.add(createTopBlockedItem(rank, full, truncated, countText));
-                rank++;
-            }
-
-            dataTable.getChildren().setAll(rows);
+            // Rows are pooled: only entries that changed since the last refresh are touched.
+            view.setCapacity(count);
+            view.update(entries);
             topXTile.setTitle("Top " + topX + " Blocked");
         });
     }
 
-    // ==================== UI Component Creation ====================
-
-    private HBox createTopXHeader() {
-        String theme = widgetConfig != null ? widgetConfig.getTheme() : ThemeManager.DEFAULT_THEME;
-        Color textColor = ThemeManager.getTextColor(theme);
-
-        Label nameLabel = new Label("Domain");
-        nameLabel.setTextFill(textColor);
-        nameLabel.setAlignment(Pos.CENTER_LEFT);
-        HBox.setHgrow(nameLabel, Priority.NEVER);
-
-        Label blocksLabel = new Label("Nbr Blocks");
-        blocksLabel.setTextFill(textColor);
-        blocksLabel.setAlignment(Pos.CENTER_RIGHT);
-        HBox.setHgrow(blocksLabel, Priority.NEVER);
-
-        Region spacer = new Region();
-        HBox.setHgrow(spacer, Priority.ALWAYS);
+    private void renderTopClientsTile(long sequence) {
+        final TopXListView view = this.topClientsView;
+        if (view == null || topClientsTile == null) {
+            return;
+        }
 
-        HBox header = new HBox(5, nameLabel, spacer, blocksLabel);
-        header.setAlignment(Pos.CENTER_LEFT);
-        header.setFillHeight(true);
+        // Names the blocker knows replace cached lookups; the rest resolve in the background
+        // and re-render this tile when they arrive.
+        clientNames.learn(StatsParser.parseClientNames(endpointCache.get(0, Endpoint.CLIENT_NAMES)));
+        final int count = Math.max(1, topX);
+        List<TopXListView.Entry> entries = StatsParser.parseTopClients(endpointCache.get(0, Endpoint.TOP_CLIENTS))
+                .stream()
+                .sorted(Comparator.comparingLong(TopClient::count).reversed())
+                .limit(count)
+                .map(c -> new TopXListView.Entry(clientLabel(c), c.count()))
+                .toList();
 
-        return header;
+        uiUpdates.publish(view, sequence, () -> {
+            view.setCapacity(count);
+            view.update(entries);
+            topClientsTile.setTitle("Top " + count + " Clients");
+        });
     }
 
-    private HBox createSpacerRow() {
-        Region spacer = new Region();
-        spacer.setPrefSize(5, 5);
-        HBox.setHgrow(spacer, Priority.ALWAYS);
+    private void renderUpstreamsTile(long sequence) {
+        final UpstreamListView view = this.upstreamsView;
+        final TileView tileView = this.upstreamsTileView;
+        if (view == null || tileView == null) {
+            return;
+        }
 
-        HBox spacerRow = new HBox(5, spacer);
-        spacerRow.setAlignment(Pos.CENTER_LEFT);
-        spacerRow.setFillHeight(true);
+        // Instances forwarding to the same resolver are combined into one row.
+        List<UpstreamStats> perInstance = new ArrayList<>();
+        for (int i = 0; i < instanceCount(); i++) {
+            perInstance.add(StatsParser.parseUpstreams(endpointCache.get(i, Endpoint.UPSTREAMS)));
+        }
+        UpstreamStats merged = UpstreamStats.merge(perInstance);
+        List<UpstreamListView.Entry> entries = merged.upstreams().stream()
+                .limit(UPSTREAM_ROWS)
+                .map(u -> new UpstreamListView.Entry(u.name(), u.responseMs(), merged.sharePercent(u)))
+                .toList();
 
-        return spacerRow;
+        double hourAverage = metricsHistory.upstreamResponseMs(instanceIds(), UPSTREAM_AVERAGE_WINDOW_MS,
+                System.currentTimeMillis());
+        final String text = merged.isEmpty()
+                ? "No upstream data"
+                : "Avg " + formatMillis(merged.responseMs()) + ", 1h " + formatMillis(hourAverage);
+        final String tooltip = Double.isNaN(merged.processingMs())
+                ? "Average response time and share of forwarded queries per upstream"
+                : "Average response time and share of forwarded queries per upstream\n"
+                        + "Blocker processing time: " + formatMillis(merged.processingMs());
+
+        uiUpdates.publish(view, sequence, () -> {
+            view.update(entries);
+            tileView.setText(text);
+            tileView.setTooltipText(tooltip);
+        });
     }
 
-    private HBox createTopBlockedItem(int rank, String fullDomain, String truncatedDomain, String blockCount) {
-        log("createTopBlockedItem() - Creating item #" + rank + ": " + truncatedDomain + " (" + blockCount
-                + " blocks)");
-
-        String theme = widgetConfig != null ? widgetConfig.getTheme() : ThemeManager.DEFAULT_THEME;
-        Color textColor = ThemeManager.getTextColor(theme);
-
-        // Try to load rank icon from classpath resources
-        ImageView iconView = loadRankIcon(rank);
-
-        Label domainLabel = new Label(truncatedDomain);
-        domainLabel.setTextFill(textColor);
-        domainLabel.setAlignment(Pos.CENTER_LEFT);
-        HBox.setHgrow(domainLabel, Priority.NEVER);
-
-        Region spacer = new Region();
-        spacer.setPrefSize(5, 5);
-        HBox.setHgrow(spacer, Priority.ALWAYS);
+    private static String formatMillis(double millis) {
+        if (Double.isNaN(millis)) {
+            return "-";
+        }
+        return String.format(Locale.ROOT, millis < 10 ? "%.1f ms" : "%.0f ms", millis);
+    }
 
-        Label valueLabel = new Label(blockCount);
-        valueLabel.setTextFill(textColor);
-        valueLabel.setAlignment(Pos.CENTER_RIGHT);
-        HBox.setHgrow(valueLabel, Priority.NEVER);
+    private String clientLabel(TopClient client) {
+        if (!client.name().isBlank() && !client.name().equals(client.ip())) {
+            clientNames.learn(client.ip(), client.name());
+            return client.name();
+        }
+        String name = clientNames.nameFor(client.ip());
+        return name != null ? name : client.ip();
+    }
 
-        // Add tooltip with full domain name
-        Tooltip tooltip = new Tooltip(fullDomain);
-        tooltip.setShowDelay(Duration.millis(TOOLTIP_DELAY_MS));
-        Tooltip.install(domainLabel, tooltip);
+    /**
+     * Opens the drill-down popup for a Top X domain and loads its query log page by page.
+     * Called on the FX thread; the fetch runs on the IO executor and every page is
+     * applied through the UI update bus.
+     */
+    private void showDomainDrillDown(String domain) {
+        cancelDrillDown();
+        if (drillDownPopup == null) {
+            String theme = widgetConfig != null ? widgetConfig.getTheme() : ThemeManager.DEFAULT_THEME;
+            drillDownPopup = new DomainDrillDownPopup(ThemeManager.getTileBackgroundColor(theme),
+                    ThemeManager.getTextColor(theme), Tile.RED);
+            drillDownPopup.setOnHidden(this::cancelDrillDown);
+        }
+        final DomainDrillDownPopup popup = drillDownPopup;
+        popup.showLoading(domain, topXTile);
 
-        HBox row;
-        if (iconView != null) {
-            row = new HBox(5, iconView, domainLabel, spacer, valueLabel);
-        } else {
-            row = new HBox(5, domainLabel, spacer, valueLabel);
+        List<DnsBlockerHandler> handlers = new ArrayList<>();
+        for (int i = 0; i < instanceCount(); i++) {
+            handlers.add(handlerFor(i));
         }
-        row.setAlignment(Pos.CENTER_LEFT);
-        row.setFillHeight(true);
+        log("Drill-down requested for " + domain);
+        drillDownLoad = domainQueries.load(domain, handlers,
+                summary -> uiUpdates.publish(popup, uiUpdates.nextSequence(), () -> popup.update(summary)));
+    }
 
-        log("createTopBlockedItem() - Item #" + rank + " created");
-        return row;
+    private void cancelDrillDown() {
+        Future<?> load = drillDownLoad;
+        drillDownLoad = null;
+        if (load != null) {
+            load.cancel(true);
+        }
     }
 
     /**
-     * Loads a rank icon from classpath resources.
-     * 
-     * @param rank the rank number (1-5)
-     * @return ImageView with the icon, or null if not found
+     * Appends the fleet rates of the latest stats polls to the trend series. Called by every
+     * poll run, possibly concurrently: the series pair is only extended by a newer sample.
      */
-    private ImageView loadRankIcon(int rank) {
-        String resourcePath = RANK_ICON_PATH_PATTERN.formatted(rank);
-        URL url = getClass().getResource(resourcePath);
-
-        if (url != null) {
-            try {
-                Image image = new Image(url.toExternalForm());
-                ImageView imageView = new ImageView(image);
-                imageView.setFitHeight(10);
-                imageView.setFitWidth(10);
-                log("loadRankIcon() - Image loaded successfully from " + resourcePath);
-                return imageView;
-            } catch (Exception e) {
-                log("loadRankIcon() - WARNING: Failed to load image: " + e.getMessage());
+    private void recordTrendSample() {
+        if (trendView == null) {
+            return;
+        }
+        long time = Long.MIN_VALUE;
+        double queriesPerSecond = 0.0;
+        double blocksPerSecond = 0.0;
+        for (InstanceSnapshot snapshot : getSnapshot()) {
+            if (!Double.isNaN(snapshot.queriesPerSecond())) {
+                queriesPerSecond += snapshot.queriesPerSecond();
+                blocksPerSecond += Double.isNaN(snapshot.blocksPerSecond()) ? 0.0 : snapshot.blocksPerSecond();
+                time = Math.max(time, snapshot.timeMillis());
             }
-        } else {
-            log("loadRankIcon() - WARNING: Icon resource not found: " + resourcePath);
+        }
+        // Runs without a new stats poll (or before the first rate) add nothing.
+        if (time != Long.MIN_VALUE) {
+            trendQueries.appendIfNewer(time, queriesPerSecond, trendBlocked, blocksPerSecond);
+        }
+    }
+
+    private void renderTrendTile(long sequence) {
+        final SparklineView view = this.trendView;
+        final TileView tileView = this.trendTileView;
+        if (view == null || tileView == null) {
+            return;
         }
 
-        return null;
+        double peak = trendQueries.max(trendQueries.latestTime() - TREND_WINDOW_MS);
+        final String text = Double.isNaN(peak) ? "Collecting data..." : "Peak " + formatRate(peak) + " q/s";
+
+        uiUpdates.publish(view, sequence, () -> {
+            // The canvas pulls only the samples appended since its last refresh.
+            view.refresh();
+            tileView.setText(text);
+        });
     }
 
     // ==================== Tile Initialization ====================
@@ -894,21 +1498,48 @@ public class WidgetController implements Initializable {
     private void initTiles() {
         log("=== initTiles() called ===");
 
-        log("Creating Fluid tile...");
-        initFluidTile();
-        log("Fluid tile created");
+        // Hidden tiles are never built: no nodes, no scheduler work, no endpoints polled.
+        if (isTileEnabled(TILE_FLUID)) {
+            log("Creating Fluid tile...");
+            initFluidTile();
+            log("Fluid tile created");
+        }
+
+        if (isTileEnabled(TILE_LED)) {
+            log("Creating LED tile...");
+            initLEDTile();
+            log("LED tile created");
+        }
+
+        if (isTileEnabled(TILE_STATUS)) {
+            log("Creating Status tile...");
+            initStatusTile();
+            log("Status tile created");
+        }
 
-        log("Creating LED tile...");
-        initLEDTile();
-        log("LED tile created");
+        if (isTileEnabled(TILE_TOPX)) {
+            log("Creating Custom tile (TopX)...");
+            initCustomTile();
+            log("Custom tile created");
+        }
 
-        log("Creating Status tile...");
-        initStatusTile();
-        log("Status tile created");
+        if (isTileEnabled(TILE_TREND)) {
+            log("Creating Trend tile...");
+            initTrendTile();
+            log("Trend tile created");
+        }
 
-        log("Creating Custom tile (TopX)...");
-        initCustomTile();
-        log("Custom tile created");
+        if (isTileEnabled(TILE_CLIENTS)) {
+            log("Creating Top Clients tile...");
+            initTopClientsTile();
+            log("Top Clients tile created");
+        }
+
+        if (isTileEnabled(TILE_UPSTREAMS)) {
+            log("Creating Upstreams tile...");
+            initUpstreamsTile();
+            log("Upstreams tile created");
+        }
 
         log("=== initTiles() complete ===");
     }
@@ -936,6 +1567,7 @@ public class WidgetController implements Initializable {
                 .build();
 
         fluidTile.setValue(0);
+        fluidView = new TileView(fluidTile);
         log("initFluidTile() - Fluid tile built, initial value set to 0");
     }
 
@@ -958,6 +1590,7 @@ public class WidgetController implements Initializable {
                 .build();
 
         ledTile.setActive(true);
+        ledView = new TileView(ledTile);
         log("initLEDTile() - LED tile built, active set to true");
     }
 
@@ -1009,346 +1642,264 @@ public class WidgetController implements Initializable {
 
     private void toggleDnsBlocking() {
         log("toggleDnsBlocking() called");
-        runAsync(() -> {
-            // Determine target state based on last-known state; if uncertain, re-check via
-            // summary JSON.
-            Boolean currentEnabled = switch (blockingState) {
-                case ENABLED -> true;
-                case DISABLED -> false;
-                case MIXED, UNKNOWN -> null;
-            };
-
-            if (currentEnabled == null) {
-                // Best-effort refresh from status endpoint (preferred) then summary fallback
-                if (dnsBlockerHandler != null)
-                    currentEnabled = fetchDnsBlockingEnabled(dnsBlockerHandler);
-            }
+        // Runs as a user action: its requests jump the per-host queues and preempt the polls
+        runAsync(() -> HostLimiter.runInteractive(() -> {
+            CompletableFuture<BlockingWriteQueue.Batch> request;
+            synchronized (toggleLock) {
+                // A write still in flight is the newest state: a second click reverses it
+                Boolean currentEnabled = blockingWrites.pendingTarget();
+                if (currentEnabled == null) {
+                    // Otherwise the last-known state; if uncertain, re-check via summary JSON.
+                    currentEnabled = switch (blockingState) {
+                        case ENABLED -> true;
+                        case DISABLED -> false;
+                        case MIXED, UNKNOWN -> null;
+                    };
+                }
 
-            // Toggle: if still unknown, alternate locally so clicks still toggle
-            boolean targetEnable;
-            if (currentEnabled != null) {
-                targetEnable = !currentEnabled;
-            } else {
-                fallbackToggleFlag = !fallbackToggleFlag;
-                targetEnable = fallbackToggleFlag;
-            }
+                if (currentEnabled == null) {
+                    // Best-effort refresh from status endpoint (preferred) then summary fallback
+                    currentEnabled = fetchDnsBlockingEnabled(handlerFor(0));
+                }
 
-            log("Toggling DNS blocking -> " + (targetEnable ? "ENABLED" : "DISABLED"));
+                // Toggle: if still unknown, alternate locally so clicks still toggle
+                boolean targetEnable;
+                if (currentEnabled != null) {
+                    targetEnable = !currentEnabled;
+                } else {
+                    fallbackToggleFlag = !fallbackToggleFlag;
+                    targetEnable = fallbackToggleFlag;
+                }
 
-            // Apply to all configured instances (best effort)
-            if (dnsBlockerHandler != null)
-                dnsBlockerHandler.setDnsBlocking(targetEnable, null);
-            if (dnsBlocker2 != null)
-                dnsBlocker2.setDnsBlocking(targetEnable, null);
+                log("Toggling DNS blocking -> " + (targetEnable ? "ENABLED" : "DISABLED"));
+                // A plain toggle ends any timed disable
+                stopCountdown();
+                request = submitBlocking(instances.instances(), targetEnable, null);
+            }
+            awaitBlocking(request);
 
             // Refresh LED/status immediately after change
             inflateActiveData();
             inflateStatusData();
-        });
+        }));
     }
 
-    // ==================== JSON Parsing ====================
-
-    private record SummaryStats(boolean active, long totalQueries, long blockedQueries, double percentBlocked,
-            long domainsBlocked, Boolean dnsBlockingEnabled) {
-        static SummaryStats inactive() {
-            return new SummaryStats(false, 0L, 0L, 0.0, 0L, null);
-        }
-    }
-
-    private record CombinedStats(long totalQueries, long blockedQueries, long acceptedQueries, double percentBlocked,
-            long domainsBlocked) {
-    }
-
-    private record TopDomain(String domain, long count) {
+    /**
+     * Disables blocking on every instance for {@code duration}. The servers re-enable it by
+     * themselves; the widget counts the time down locally and checks the state once at expiry.
+     */
+    public void disableBlockingFor(Duration duration) {
+        final int seconds = (int) Math.max(1L, duration.toSeconds());
+        log("disableBlockingFor(" + seconds + "s) called");
+        runAsync(() -> HostLimiter.runInteractive(() -> {
+            CompletableFuture<BlockingWriteQueue.Batch> request;
+            synchronized (toggleLock) {
+                stopCountdown();
+                request = submitBlocking(instances.instances(), false, seconds);
+            }
+            BlockingWriteQueue.Batch batch = awaitBlocking(request);
+            // Overtaken by a later click: its outcomes are not those of this disable
+            if (batch != null && batch.version() == blockingWrites.latestVersion()) {
+                startCountdown(batch.outcomes(), seconds);
+            }
+            inflateActiveData();
+            inflateStatusData();
+        }));
     }
 
-    private SummaryStats parseSummaryStats(String json) {
-        if (json == null || json.isBlank())
-            return SummaryStats.inactive();
-        try {
-            JsonNode root = JSON.readTree(json);
-
-            long total = firstLong(root,
-                    // Generic schema (dnsblocker.stats.v1) and other nested formats
-                    path("num_dns_queries"),
-                    path("queries", "total"),
-                    path("queries", "total_queries"),
-                    path("dns_queries_today"));
-
-            long blocked = firstLong(root,
-                    // Generic schema (dnsblocker.stats.v1) and other nested formats
-                    path("num_blocked_filtering"),
-                    path("queries", "blocked"),
-                    path("queries", "blocked_queries"),
-                    path("ads_blocked_today"));
-
-            double percent = firstDouble(root,
-                    path("queries", "percent_blocked"),
-                    path("ads_percentage_today"));
-            if ((percent <= 0.0) && total > 0L && blocked >= 0L) {
-                percent = (blocked / (double) total) * 100.0;
+    /**
+     * Re-enables blocking on every instance now, ending a timed disable.
+     */
+    public void resumeBlocking() {
+        log("resumeBlocking() called");
+        runAsync(() -> HostLimiter.runInteractive(() -> {
+            CompletableFuture<BlockingWriteQueue.Batch> request;
+            synchronized (toggleLock) {
+                stopCountdown();
+                request = submitBlocking(instances.instances(), true, null);
             }
-
-            long domainsBlocked = firstLong(root,
-                    // Generic schema (dnsblocker.stats.v1)
-                    path("blocklist", "size"),
-                    path("domains", "blocked"),
-                    path("domains_being_blocked"),
-                    path("gravity", "domains_being_blocked"));
-
-            Boolean dnsEnabled = parseDnsBlockingEnabled(root);
-
-            return new SummaryStats(true, total, blocked, percent, domainsBlocked, dnsEnabled);
-        } catch (Exception e) {
-            log("WARNING: Failed to parse summary stats JSON: " + e.getMessage());
-            return SummaryStats.inactive();
-        }
+            awaitBlocking(request);
+            inflateActiveData();
+            inflateStatusData();
+        }));
     }
 
-    private CombinedStats combineStats(SummaryStats s1, SummaryStats s2) {
-        long total = 0L;
-        long blocked = 0L;
-        long domainsBlocked = 0L;
-
-        if (s1 != null && s1.active()) {
-            total += s1.totalQueries();
-            blocked += s1.blockedQueries();
-            domainsBlocked = Math.max(domainsBlocked, s1.domainsBlocked());
-        }
-        if (s2 != null && s2.active()) {
-            total += s2.totalQueries();
-            blocked += s2.blockedQueries();
-            domainsBlocked = Math.max(domainsBlocked, s2.domainsBlocked());
+    /**
+     * Queues {@code enable} for the instances and shows it on the LED right away. Each instance
+     * is written in its own lane, read back and retried until it converges.
+     */
+    private CompletableFuture<BlockingWriteQueue.Batch> submitBlocking(List<InstanceRegistry.Instance> targets,
+            boolean enable, Integer timerSeconds) {
+        CompletableFuture<BlockingWriteQueue.Batch> request = blockingWrites.submit(targets, enable, timerSeconds);
+        // Optimistic: the LED flips before any instance has answered
+        if (ledView != null) {
+            renderActiveTile(uiUpdates.nextSequence());
         }
-
-        long accepted = Math.max(0L, total - blocked);
-        double percent = (total > 0L) ? (blocked / (double) total) * 100.0 : 0.0;
-
-        return new CombinedStats(total, blocked, accepted, percent, domainsBlocked);
+        return request;
     }
 
-    /*
-     * DNS2 support intentionally disabled.
-     * User request:
-     * "no need for 2 DNS management, comment all code related to 2 DNSs"
-     *
-     * private BlockingState computeBlockingState(PiholeStats stats, Boolean b1,
-     * Boolean b2, SummaryStats s1, SummaryStats s2) {
-     * if (stats == null || stats.bothInactive()) return BlockingState.UNKNOWN;
-     * // If status endpoint failed, fall back to any info we might have found in
-     * summary
-     * if (b1 == null && stats.isActive1() && s1 != null) b1 =
-     * s1.dnsBlockingEnabled();
-     * if (b2 == null && stats.isActive2() && s2 != null) b2 =
-     * s2.dnsBlockingEnabled();
+    /**
+     * Waits for a queued request. Only the latest request updates the tooltip outcomes.
      *
-     * if (b1 == null && b2 == null) return BlockingState.UNKNOWN;
-     * if (b1 != null && b2 == null) return b1 ? BlockingState.ENABLED :
-     * BlockingState.DISABLED;
-     * if (b1 == null) return b2 ? BlockingState.ENABLED : BlockingState.DISABLED;
-     * if (b1.equals(b2)) return b1 ? BlockingState.ENABLED :
-     * BlockingState.DISABLED;
-     * return BlockingState.MIXED;
-     * }
+     * @return the request's outcomes, or null if the wait was interrupted
      */
-
-    private BlockingState computeBlockingStateSingle(Boolean enabled, SummaryStats summary) {
-        // If status endpoint failed, fall back to any info we might have found in
-        // summary JSON.
-        if (enabled == null && summary != null)
-            enabled = summary.dnsBlockingEnabled();
-        if (enabled == null)
-            return BlockingState.UNKNOWN;
-        return enabled ? BlockingState.ENABLED : BlockingState.DISABLED;
-    }
-
-    private BlockingState computeBlockingState(Boolean b1, Boolean b2, SummaryStats s1, SummaryStats s2) {
-        // Fall back to summary stats if status endpoint didn't return blocking state
-        if (b1 == null && s1 != null && s1.active())
-            b1 = s1.dnsBlockingEnabled();
-        if (b2 == null && s2 != null && s2.active())
-            b2 = s2.dnsBlockingEnabled();
-
-        // Check if we have any active handlers
-        boolean has1 = s1 != null && s1.active();
-        boolean has2 = s2 != null && s2.active();
-
-        if (!has1 && !has2)
-            return BlockingState.UNKNOWN;
-        if (has1 && !has2)
-            return computeBlockingStateSingle(b1, s1);
-        if (!has1 && has2)
-            return computeBlockingStateSingle(b2, s2);
-
-        // Both active
-        if (b1 == null && b2 == null)
-            return BlockingState.UNKNOWN;
-        if (b1 == null)
-            return b2 ? BlockingState.ENABLED : BlockingState.DISABLED;
-        if (b2 == null)
-            return b1 ? BlockingState.ENABLED : BlockingState.DISABLED;
-        if (b1.equals(b2))
-            return b1 ? BlockingState.ENABLED : BlockingState.DISABLED;
-        return BlockingState.MIXED;
-    }
-
-    private Boolean fetchDnsBlockingEnabled(DnsBlockerHandler handler) {
-        if (handler == null)
-            return null;
-
-        // Preferred: dedicated endpoint
-        String statusJson = handler.getDnsBlockingStatus();
-        Boolean enabled = parseDnsBlockingEnabledSafe(statusJson);
-        if (enabled != null)
-            return enabled;
-
-        // Fallback: summary (some versions include status info there)
-        String summaryJson = handler.getStats();
-        return parseDnsBlockingEnabledSafe(summaryJson);
-    }
-
-    private Boolean parseDnsBlockingEnabledSafe(String json) {
-        if (json == null || json.isBlank())
-            return null;
+    private BlockingWriteQueue.Batch awaitBlocking(CompletableFuture<BlockingWriteQueue.Batch> request) {
+        BlockingWriteQueue.Batch batch;
         try {
-            JsonNode root = JSON.readTree(json);
-            return parseDnsBlockingEnabled(root);
-        } catch (Exception ignored) {
+            batch = request.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
             return null;
+        } catch (ExecutionException e) {
+            LOGGER.log(Level.WARNING, "Blocking write failed", e.getCause());
+            return null;
+        }
+        if (batch.version() == blockingWrites.latestVersion()) {
+            toggleOutcomes = batch.outcomes();
         }
+        batch.outcomes().stream().filter(outcome -> !outcome.converged()).forEach(outcome ->
+                logInfo("DNS blocking not applied on " + outcome.instance().id() + ": " + outcome.status()));
+        return batch;
     }
 
-    private Boolean parseDnsBlockingEnabled(JsonNode root) {
-        if (root == null)
-            return null;
-
-        // Generic + common patterns:
-        // - blocking.enabled: true/false (generic schema)
-        // - status: "enabled" / "disabled"
-        // - blocking: "enabled" / "disabled"
-        // - blocking: true/false
-        JsonNode statusNode = firstNode(root,
-                path("blocking", "enabled"),
-                path("status"),
-                path("blocking"),
-                path("dns", "blocking"),
-                path("dns", "status"));
-
-        if (statusNode == null || statusNode.isMissingNode() || statusNode.isNull())
-            return null;
-
-        if (statusNode.isBoolean()) {
-            return statusNode.asBoolean();
+    /**
+     * Called by the write lanes, in order, after each write. The read-back status replaces the
+     * cached one, which rolls the LED back for instances that did not converge.
+     */
+    private void onBlockingWritten(BlockingWriter.Outcome outcome) {
+        InstanceRegistry.Instance instance = outcome.instance();
+        // Writes to instances of a replaced registry do not touch the new caches
+        if (instances.get(instance.index()) != instance || outcome.statusJson().isBlank()) {
+            return;
         }
-
-        String txt = statusNode.asText("");
-        if (txt.equalsIgnoreCase("enabled"))
-            return true;
-        if (txt.equalsIgnoreCase("disabled"))
-            return false;
-        if (txt.equalsIgnoreCase("true"))
-            return true;
-        if (txt.equalsIgnoreCase("false"))
-            return false;
-
-        return null;
+        endpointCache.put(new EndpointKey(instance.index(), Endpoint.BLOCKING_STATUS), outcome.statusJson());
     }
 
-    private List<TopDomain> parseTopBlockedDomains(String json) {
-        if (json == null || json.isBlank())
-            return List.of();
-        try {
-            JsonNode root = JSON.readTree(json);
-            List<TopDomain> result = new ArrayList<>();
-
-            // Try Pi-hole v6 format: {"domains": [{"domain": "...", "count": 123}]}
-            JsonNode domains = root.path("domains");
-            if (domains.isArray() && domains.size() > 0) {
-                for (JsonNode item : domains) {
-                    String domain = item.path("domain").asText("");
-                    long count = item.path("count").asLong(0L);
-                    if (domain != null && !domain.isBlank()) {
-                        result.add(new TopDomain(domain, Math.max(0L, count)));
-                    }
-                }
-                return result;
+    /**
+     * Starts the countdown from the longest timer the disabled instances reported. An instance
+     * that accepted the disable without a timer (it cannot revert by itself) counts as the
+     * requested duration and is re-enabled by the widget at expiry.
+     */
+    private void startCountdown(List<BlockingWriter.Outcome> outcomes, int requestedSeconds) {
+        double longest = 0;
+        for (BlockingWriter.Outcome outcome : outcomes) {
+            if (!outcome.converged()) {
+                continue;
             }
-
-            // Try AdGuard Home format: {"top_ads": {"domain1.com": 123, "domain2.com":
-            // 456}}
-            JsonNode topAds = root.path("top_ads");
-            if (topAds.isObject() && topAds.size() > 0) {
-                var fields = topAds.fields();
-                while (fields.hasNext()) {
-                    var entry = fields.next();
-                    String domain = entry.getKey();
-                    long count = entry.getValue().asLong(0L);
-                    if (domain != null && !domain.isBlank()) {
-                        result.add(new TopDomain(domain, Math.max(0L, count)));
-                    }
-                }
-                return result;
+            Double timer = StatsParser.parseBlockingTimer(outcome.statusJson());
+            if (timer == null) {
+                untimedDisables.add(outcome.instance().index());
+                timer = (double) requestedSeconds;
             }
-
-            return List.of();
-        } catch (Exception e) {
-            LOGGER.log(Level.WARNING, "Failed to parse top domains JSON", e);
-            return List.of();
+            longest = Math.max(longest, timer);
+        }
+        if (disableCountdown.start(longest)) {
+            logInfo("DNS blocking disabled for " + BlockingCountdown.format(disableCountdown.remaining()));
+            startCountdownTicker();
         }
     }
 
-    private static String[] path(String... parts) {
-        return parts;
+    private void stopCountdown() {
+        disableCountdown.cancel();
+        untimedDisables.clear();
+        cancelFuture(countdownTicker);
     }
 
-    private static JsonNode nodeAt(JsonNode root, String[] path) {
-        JsonNode n = root;
-        for (String p : path) {
-            if (n == null)
-                return null;
-            n = n.path(p);
+    // Once a second: redraws the LED from the local countdown, and checks the real state at expiry
+    private synchronized void startCountdownTicker() {
+        cancelFuture(countdownTicker);
+        if (scheduler == null || scheduler.isShutdown()) {
+            return;
         }
-        return n;
+        countdownTicker = scheduler.scheduleAtFixedRate(this::countdownTick, 0, 1, TimeUnit.SECONDS);
     }
 
-    private static JsonNode firstNode(JsonNode root, String[]... paths) {
-        if (root == null || paths == null)
-            return null;
-        for (String[] p : paths) {
-            JsonNode n = nodeAt(root, p);
-            if (n != null && !n.isMissingNode() && !n.isNull())
-                return n;
+    private void countdownTick() {
+        if (!disableCountdown.isExpired()) {
+            if (ledView != null) {
+                renderActiveTile(uiUpdates.nextSequence());
+            }
+            return;
         }
-        return null;
+        // Not synchronized: stopSchedulers() may be waiting for this thread under the lock
+        disableCountdown.cancel();
+        cancelFuture(countdownTicker);
+        runAsync(() -> HostLimiter.runInteractive(this::verifyCountdownExpiry));
+    }
+
+    private void verifyCountdownExpiry() {
+        final InstanceRegistry registry = this.instances;
+        List<InstanceRegistry.Instance> untimed = new ArrayList<>();
+        for (Integer index : Set.copyOf(untimedDisables)) {
+            InstanceRegistry.Instance instance = registry.get(index);
+            if (instance != null) {
+                untimed.add(instance);
+            }
+        }
+        untimedDisables.clear();
+        if (!untimed.isEmpty()) {
+            log("Resuming " + untimed.size() + " instance(s) without a server-side timer");
+            awaitBlocking(blockingWrites.submit(untimed, true, null));
+        }
+        // The one status poll of the countdown
+        inflateActiveData();
+        inflateStatusData();
     }
 
-    private static long firstLong(JsonNode root, String[]... paths) {
-        JsonNode n = firstNode(root, paths);
-        if (n == null)
-            return 0L;
-        if (n.isNumber())
-            return n.asLong(0L);
-        String txt = n.asText("");
-        try {
-            return Long.parseLong(txt);
-        } catch (Exception ignored) {
-            return 0L;
+    /**
+     * One tooltip line per instance written by the last toggle, e.g. "10.0.0.2: retried (2 writes)".
+     */
+    static String toggleOutcomeText(List<BlockingWriter.Outcome> outcomes) {
+        if (outcomes == null || outcomes.isEmpty()) {
+            return "";
+        }
+        StringBuilder text = new StringBuilder("\nLast toggle:");
+        for (BlockingWriter.Outcome outcome : outcomes) {
+            DnsBlockerConfig config = outcome.instance().config();
+            String host = config != null ? config.getIPAddress() : outcome.instance().id();
+            text.append('\n').append(host).append(": ").append(switch (outcome.status()) {
+                case CONFIRMED -> "confirmed";
+                case RETRIED -> "retried (" + outcome.attempts() + " writes)";
+                case FAILED -> "failed, still " + (Boolean.TRUE.equals(outcome.actual()) ? "enabled" : "disabled");
+                case UNREACHABLE -> "unreachable";
+            });
         }
+        return text.toString();
     }
 
-    private static double firstDouble(JsonNode root, String[]... paths) {
-        JsonNode n = firstNode(root, paths);
-        if (n == null)
-            return 0.0;
-        if (n.isNumber())
-            return n.asDouble(0.0);
-        String txt = n.asText("");
-        try {
-            return Double.parseDouble(txt);
-        } catch (Exception ignored) {
-            return 0.0;
+    // ==================== JSON Parsing ====================
+
+    // "a, b, +N more": the LED tile has room for a couple of hosts only
+    static String hostsText(List<String> hosts) {
+        if (hosts.size() <= LED_MAX_HOSTS + 1) {
+            return String.join(", ", hosts);
         }
+        return String.join(", ", hosts.subList(0, LED_MAX_HOSTS)) + ", +" + (hosts.size() - LED_MAX_HOSTS) + " more";
+    }
+
+    private Boolean fetchDnsBlockingEnabled(DnsBlockerHandler handler) {
+        if (handler == null)
+            return null;
+
+        // Preferred: dedicated endpoint
+        String statusJson = handler.getDnsBlockingStatus();
+        Boolean enabled = StatsParser.parseDnsBlockingEnabled(statusJson);
+        if (enabled != null)
+            return enabled;
+
+        // Fallback: summary (some versions include status info there)
+        String summaryJson = handler.getStats();
+        return StatsParser.parseDnsBlockingEnabled(summaryJson);
+    }
+
+    /**
+     * Blocking state from the cached status endpoint, falling back to the cached summary.
+     */
+    private Boolean cachedDnsBlockingEnabled(int instance) {
+        Boolean enabled = StatsParser.parseDnsBlockingEnabled(endpointCache.get(instance, Endpoint.BLOCKING_STATUS));
+        if (enabled != null)
+            return enabled;
+        return StatsParser.parseDnsBlockingEnabled(endpointCache.get(instance, Endpoint.STATS));
     }
 
     private void initStatusTile() {
@@ -1388,6 +1939,7 @@ public class WidgetController implements Initializable {
         statusTile.setLeftValue(0);
         statusTile.setMiddleValue(0);
         statusTile.setRightValue(0);
+        statusView = new TileView(statusTile);
 
         log("initStatusTile() - Status tile built, initial values set to 0");
     }
@@ -1397,22 +1949,17 @@ public class WidgetController implements Initializable {
 
         String theme = widgetConfig != null ? widgetConfig.getTheme() : ThemeManager.DEFAULT_THEME;
 
-        dataTable = new VBox();
-        dataTable.setFillWidth(true);
-        // Pin header + items to the top of the tile.
-        dataTable.setAlignment(Pos.TOP_LEFT);
-        dataTable.setSpacing(2);
-        dataTable.setPadding(new Insets(0, 6, 0, 6));
-        dataTable.setMaxSize(Double.MAX_VALUE, Double.MAX_VALUE);
-        log("initCustomTile() - DataTable VBox created");
+        topXView = new TopXListView("Domain", "Nbr Blocks", topX, ThemeManager.getTextColor(theme));
+        topXView.setOnEntryClicked(this::showDomainDrillDown);
+        log("initCustomTile() - TopX row pool created");
 
         String copyright = "Copyright (C) " + Year.now().getValue() + ".  Reda ELFARISSI aka FoKss-LTS";
 
-        // Wrap the VBox in a root container that can expand, so the Tile skin doesn't
+        // Wrap the row pool in a root container that can expand, so the Tile skin doesn't
         // vertically center the content.
         topXGraphicRoot = new BorderPane();
-        topXGraphicRoot.setTop(dataTable);
-        BorderPane.setAlignment(dataTable, Pos.TOP_LEFT);
+        topXGraphicRoot.setTop(topXView.getNode());
+        BorderPane.setAlignment(topXView.getNode(), Pos.TOP_LEFT);
         topXGraphicRoot.setMaxSize(Double.MAX_VALUE, Double.MAX_VALUE);
 
         topXTile = TileBuilder.create()
@@ -1430,6 +1977,87 @@ public class WidgetController implements Initializable {
         log("initCustomTile() - TopX tile built with title 'Top " + topX + " Blocked'");
     }
 
+    private void initTopClientsTile() {
+        log("initTopClientsTile() - Building CUSTOM tile for Top " + topX + " Clients");
+
+        String theme = widgetConfig != null ? widgetConfig.getTheme() : ThemeManager.DEFAULT_THEME;
+
+        topClientsView = new TopXListView("Client", "Queries", topX, ThemeManager.getTextColor(theme));
+        clientNames.setOnResolved(() -> renderTopClientsTile(uiUpdates.nextSequence()));
+
+        BorderPane root = new BorderPane();
+        root.setTop(topClientsView.getNode());
+        BorderPane.setAlignment(topClientsView.getNode(), Pos.TOP_LEFT);
+        root.setMaxSize(Double.MAX_VALUE, Double.MAX_VALUE);
+
+        topClientsTile = TileBuilder.create()
+                .skinType(Tile.SkinType.CUSTOM)
+                .prefSize(tileWidth, tileHeight)
+                .title("Top " + topX + " Clients")
+                .graphic(root)
+                .backgroundColor(ThemeManager.getTileBackgroundColor(theme))
+                .foregroundColor(ThemeManager.getForegroundColor(theme))
+                .titleColor(ThemeManager.getTitleColor(theme))
+                .textColor(ThemeManager.getTextColor(theme))
+                .build();
+
+        log("initTopClientsTile() - Top Clients tile built");
+    }
+
+    private void initUpstreamsTile() {
+        log("initUpstreamsTile() - Building CUSTOM tile for upstream latency");
+
+        String theme = widgetConfig != null ? widgetConfig.getTheme() : ThemeManager.DEFAULT_THEME;
+
+        upstreamsView = new UpstreamListView(UPSTREAM_ROWS, ThemeManager.getTextColor(theme),
+                ThemeManager.getValueColor(theme));
+
+        BorderPane root = new BorderPane();
+        root.setTop(upstreamsView.getNode());
+        BorderPane.setAlignment(upstreamsView.getNode(), Pos.TOP_LEFT);
+        root.setMaxSize(Double.MAX_VALUE, Double.MAX_VALUE);
+
+        upstreamsTile = TileBuilder.create()
+                .skinType(Tile.SkinType.CUSTOM)
+                .prefSize(tileWidth, tileHeight)
+                .title("Upstreams")
+                .text("Collecting data...")
+                .graphic(root)
+                .backgroundColor(ThemeManager.getTileBackgroundColor(theme))
+                .foregroundColor(ThemeManager.getForegroundColor(theme))
+                .titleColor(ThemeManager.getTitleColor(theme))
+                .textColor(ThemeManager.getTextColor(theme))
+                .build();
+        upstreamsTileView = new TileView(upstreamsTile);
+
+        log("initUpstreamsTile() - Upstreams tile built");
+    }
+
+    private void initTrendTile() {
+        log("initTrendTile() - Building CUSTOM tile with a sparkline canvas");
+
+        String theme = widgetConfig != null ? widgetConfig.getTheme() : ThemeManager.DEFAULT_THEME;
+
+        trendView = new SparklineView(trendQueries, trendBlocked, TREND_WINDOW_MS,
+                ThemeManager.getValueColor(theme), Tile.RED, ThemeManager.getMutedTextColor(theme));
+
+        trendTile = TileBuilder.create()
+                .skinType(Tile.SkinType.CUSTOM)
+                .prefSize(tileWidth, tileHeight)
+                .title("Queries / Blocked (24h)")
+                .text("Collecting data...")
+                .graphic(trendView.getNode())
+                .backgroundColor(ThemeManager.getTileBackgroundColor(theme))
+                .foregroundColor(ThemeManager.getForegroundColor(theme))
+                .titleColor(ThemeManager.getTitleColor(theme))
+                .textColor(ThemeManager.getTextColor(theme))
+                .build();
+        trendTile.setTooltipText("Queries/s (blue) and blocked/s (red) over the last 24 hours");
+        trendTileView = new TileView(trendTile);
+
+        log("initTrendTile() - Trend tile built");
+    }
+
     // ==================== Context Menu ====================
 
     private void initializeContextMenu() {
@@ -1449,6 +2077,22 @@ public class WidgetController implements Initializable {
             inflateAllData();
         });
 
+        Menu disableMenu = new Menu("Disable Blocking For");
+        for (Duration duration : DISABLE_DURATIONS) {
+            MenuItem item = new MenuItem(durationLabel(duration));
+            item.setOnAction(_ -> {
+                log("Context menu: 'Disable Blocking For " + durationLabel(duration) + "' clicked");
+                disableBlockingFor(duration);
+            });
+            disableMenu.getItems().add(item);
+        }
+
+        MenuItem resumeItem = new MenuItem("Resume Blocking");
+        resumeItem.setOnAction(_ -> {
+            log("Context menu: 'Resume Blocking' clicked");
+            resumeBlocking();
+        });
+
         MenuItem configItem = new MenuItem("Settings");
         configItem.setOnAction(_ -> {
             log("Context menu: 'Settings' clicked");
@@ -1468,9 +2112,10 @@ public class WidgetController implements Initializable {
             }
         });
 
-        log("Menu items created: Hide to Tray, Refresh All Now, Settings, Exit");
+        log("Menu items created: Hide to Tray, Refresh All Now, Disable Blocking For, Resume Blocking, Settings, Exit");
 
-        final ContextMenu contextMenu = new ContextMenu(hideToTrayItem, refreshItem, configItem, exitItem);
+        final ContextMenu contextMenu = new ContextMenu(hideToTrayItem, refreshItem, new SeparatorMenuItem(),
+                disableMenu, resumeItem, new SeparatorMenuItem(), configItem, exitItem);
 
         // Attach context menu handler
         log("Attaching context menu to gridPane...");
@@ -1497,13 +2142,20 @@ public class WidgetController implements Initializable {
 
     // ==================== Utility Methods ====================
 
-    private String truncateDomain(String domain) {
-        if (domain == null) {
-            return "";
+    // "30 seconds", "5 minutes", "1 hour"
+    static String durationLabel(Duration duration) {
+        long seconds = duration.toSeconds();
+        if (seconds % 3600 == 0) {
+            return plural(seconds / 3600, "hour");
+        }
+        if (seconds % 60 == 0) {
+            return plural(seconds / 60, "minute");
         }
-        return domain.length() <= DOMAIN_TRUNCATE_LENGTH
-                ? domain
-                : domain.substring(0, DOMAIN_TRUNCATE_LENGTH) + TRUNCATION_SUFFIX;
+        return plural(seconds, "second");
+    }
+
+    private static String plural(long count, String unit) {
+        return count + " " + unit + (count == 1 ? "" : "s");
     }
 
     private String formatConfig(DnsBlockerConfig config) {
@@ -1533,24 +2185,89 @@ public class WidgetController implements Initializable {
         return gridPane;
     }
 
+    /**
+     * Per-instance history of the polled stats (total, blocked, percent).
+     */
+    public MetricsHistory getMetricsHistory() {
+        return metricsHistory;
+    }
+
+    public HistoryStore getHistoryStore() {
+        return historyStore;
+    }
+
+    /**
+     * Sets the persistent history that stats polls are appended to (null disables it).
+     * The caller keeps ownership and closes it.
+     */
+    public void setHistoryStore(HistoryStore historyStore) {
+        this.historyStore = historyStore;
+    }
+
+    /**
+     * Sets the metrics endpoint each poll group publishes its snapshot to (null disables it).
+     * The caller keeps ownership and closes it.
+     */
+    public void setMetricsExporter(MetricsExporter metricsExporter) {
+        this.metricsExporter = metricsExporter;
+    }
+
+    /**
+     * Latest counters and smoothed query/block rates of each configured instance.
+     * Instances that have not answered a stats poll yet are omitted.
+     */
+    public List<InstanceSnapshot> getSnapshot() {
+        List<InstanceSnapshot> snapshots = new ArrayList<>();
+        for (int i = 0; i < instanceCount(); i++) {
+            InstanceSnapshot snapshot = metricsHistory.snapshot(instanceId(i));
+            if (snapshot != null) {
+                snapshots.add(snapshot);
+            }
+        }
+        return snapshots;
+    }
+
     public DnsBlockerConfig getConfigDNS1() {
-        log("getConfigDNS1() - returning: " + formatConfig(configDNS1));
-        return configDNS1;
+        return instanceConfig(0);
     }
 
     public void setConfigDNS1(DnsBlockerConfig configDNS1) {
         log("setConfigDNS1() - setting to: " + formatConfig(configDNS1));
-        this.configDNS1 = configDNS1;
+        setInstanceConfig(0, configDNS1);
     }
 
     public DnsBlockerConfig getConfigDNS2() {
-        log("getConfigDNS2() - returning: " + formatConfig(configDNS2));
-        return configDNS2;
+        return instanceConfig(1);
     }
 
     public void setConfigDNS2(DnsBlockerConfig configDNS2) {
         log("setConfigDNS2() - setting to: " + formatConfig(configDNS2));
-        this.configDNS2 = configDNS2;
+        setInstanceConfig(1, configDNS2);
+    }
+
+    /**
+     * @return the configured instances, primary first (may contain a null primary)
+     */
+    public List<DnsBlockerConfig> getInstanceConfigs() {
+        return instanceConfigs;
+    }
+
+    private DnsBlockerConfig instanceConfig(int index) {
+        List<DnsBlockerConfig> configs = instanceConfigs;
+        return index < configs.size() ? configs.get(index) : null;
+    }
+
+    // Replaces one slot; a null secondary is dropped rather than kept as a gap
+    private synchronized void setInstanceConfig(int index, DnsBlockerConfig config) {
+        List<DnsBlockerConfig> configs = new ArrayList<>(instanceConfigs);
+        while (configs.size() <= index) {
+            configs.add(null);
+        }
+        configs.set(index, config);
+        while (configs.size() > 1 && configs.getLast() == null) {
+            configs.removeLast();
+        }
+        instanceConfigs = Collections.unmodifiableList(configs);
     }
 
     public WidgetConfig getWidgetConfig() {
@@ -1575,8 +2292,16 @@ public class WidgetController implements Initializable {
      * Applies new DNS and widget configuration values and refreshes the UI.
      */
     public void applyConfiguration(DnsBlockerConfig newConfigDNS1, DnsBlockerConfig newConfigDNS2, WidgetConfig newWidgetConfig) {
-        setConfigDNS1(newConfigDNS1);
-        setConfigDNS2(newConfigDNS2);
+        applyConfiguration(instanceList(newConfigDNS1, newConfigDNS2), newWidgetConfig);
+    }
+
+    /**
+     * Applies a new instance list and widget configuration and refreshes the UI.
+     */
+    public void applyConfiguration(List<DnsBlockerConfig> newInstanceConfigs, WidgetConfig newWidgetConfig) {
+        instanceConfigs = newInstanceConfigs == null
+                ? List.of()
+                : Collections.unmodifiableList(new ArrayList<>(newInstanceConfigs));
         setWidgetConfig(newWidgetConfig);
         refreshPihole();
         String theme = newWidgetConfig != null ? newWidgetConfig.getTheme() : ThemeManager.DEFAULT_THEME;
@@ -1589,7 +2314,7 @@ public class WidgetController implements Initializable {
      */
     public void refreshAllTiles() {
         log("refreshAllTiles() called");
-        inflateAllData();
+        HostLimiter.runInteractive(this::inflateAllData);
     }
 
     /**
@@ -1652,27 +2377,48 @@ public class WidgetController implements Initializable {
             topXTile.setTextColor(textColor);
         }
 
-        // Update dataTable text colors for TopX tile
-        if (dataTable != null) {
-            updateDataTableTheme(theme);
+        // Update pooled row text colors for TopX tile
+        if (topXView != null) {
+            topXView.setTextColor(textColor);
         }
 
-        log("Tile colors updated for theme: " + theme);
-    }
+        if (trendTile != null) {
+            trendTile.setBackgroundColor(tileBg);
+            trendTile.setForegroundColor(tileFg);
+            trendTile.setTitleColor(titleColor);
+            trendTile.setTextColor(textColor);
+        }
 
-    /**
-     * Updates the TopX data table labels with theme-appropriate colors.
-     */
-    private void updateDataTableTheme(String theme) {
-        Color textColor = ThemeManager.getTextColor(theme);
-        for (Node node : dataTable.getChildren()) {
-            if (node instanceof HBox row) {
-                for (Node child : row.getChildren()) {
-                    if (child instanceof Label label) {
-                        label.setTextFill(textColor);
-                    }
-                }
-            }
+        if (trendView != null) {
+            trendView.setColors(valueColor, Tile.RED, ThemeManager.getMutedTextColor(theme));
+        }
+
+        if (topClientsTile != null) {
+            topClientsTile.setBackgroundColor(tileBg);
+            topClientsTile.setForegroundColor(tileFg);
+            topClientsTile.setTitleColor(titleColor);
+            topClientsTile.setTextColor(textColor);
+        }
+
+        if (topClientsView != null) {
+            topClientsView.setTextColor(textColor);
+        }
+
+        if (upstreamsTile != null) {
+            upstreamsTile.setBackgroundColor(tileBg);
+            upstreamsTile.setForegroundColor(tileFg);
+            upstreamsTile.setTitleColor(titleColor);
+            upstreamsTile.setTextColor(textColor);
+        }
+
+        if (upstreamsView != null) {
+            upstreamsView.setColors(textColor, valueColor);
         }
+
+        if (drillDownPopup != null) {
+            drillDownPopup.setColors(tileBg, textColor, Tile.RED);
+        }
+
+        log("Tile colors updated for theme: " + theme);
     }
 }
@@ -0,0 +1,47 @@
+/*
+ *
+ *  Copyright (C) 2022 - 2025.  Reda ELFARISSI aka FoKss-LTS
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+
+package domain.configuration;
+
+/**
+ * Per-instance settings of the query/block rate anomaly alerts.
+ *
+ * @param enabled   whether anomalies of this instance raise an alert
+ * @param threshold how many standard deviations from the usual rate count as an anomaly
+ */
+public record AnomalyAlerts(boolean enabled, double threshold) {
+
+    public static final double DEFAULT_THRESHOLD = 4.0;
+
+    // Anything lower alerts on ordinary noise
+    public static final double MIN_THRESHOLD = 2.0;
+
+    public AnomalyAlerts {
+        if (Double.isNaN(threshold) || threshold <= 0) {
+            threshold = DEFAULT_THRESHOLD;
+        }
+        threshold = Math.max(MIN_THRESHOLD, threshold);
+    }
+
+    /**
+     * Alerts enabled with the default threshold.
+     */
+    public static AnomalyAlerts defaults() {
+        return new AnomalyAlerts(true, DEFAULT_THRESHOLD);
+    }
+}
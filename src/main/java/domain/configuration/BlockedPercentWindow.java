@@ -0,0 +1,91 @@
+/*
+ *
+ *  Copyright (C) 2022 - 2025.  Reda ELFARISSI aka FoKss-LTS
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+
+package domain.configuration;
+
+/**
+ * Period the Blocked % (fluid) tile reports on: the servers' own since-midnight figure,
+ * or a sliding window of the last few minutes computed by the widget.
+ */
+public enum BlockedPercentWindow {
+    /**
+     * Since midnight, as reported by the servers.
+     */
+    TODAY("Today", 0),
+
+    LAST_1_MIN("Last 1 min", 1),
+
+    LAST_5_MIN("Last 5 min", 5),
+
+    LAST_15_MIN("Last 15 min", 15);
+
+    private final String displayName;
+    private final int minutes;
+
+    BlockedPercentWindow(String displayName, int minutes) {
+        this.displayName = displayName;
+        this.minutes = minutes;
+    }
+
+    /**
+     * Gets the display name for this window.
+     *
+     * @return the human-readable name
+     */
+    public String getDisplayName() {
+        return displayName;
+    }
+
+    /**
+     * @return window length in minutes, 0 for {@link #TODAY}
+     */
+    public int minutes() {
+        return minutes;
+    }
+
+    public long windowMillis() {
+        return minutes * 60_000L;
+    }
+
+    public boolean isSliding() {
+        return minutes > 0;
+    }
+
+    /**
+     * Parses an enum name or display name, case-insensitive.
+     *
+     * @param value the string value to parse
+     * @return the matching window, or TODAY if not found (pre-window settings files)
+     */
+    public static BlockedPercentWindow fromString(String value) {
+        if (value == null || value.isBlank()) {
+            return TODAY;
+        }
+        for (BlockedPercentWindow window : values()) {
+            if (window.name().equalsIgnoreCase(value.trim()) || window.displayName.equalsIgnoreCase(value.trim())) {
+                return window;
+            }
+        }
+        return TODAY;
+    }
+
+    @Override
+    public String toString() {
+        return displayName;
+    }
+}
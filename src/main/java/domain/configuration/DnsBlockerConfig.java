@@ -32,6 +32,7 @@ package domain.configuration;
  *                  Pi-hole
  * @param password  the password used for authentication (Pi-hole app password or
  *                  AdGuard Home password)
+ * @param alerts    rate anomaly alert settings for this instance
  */
 public record DnsBlockerConfig(
         DnsBlockerType platform,
@@ -39,7 +40,8 @@ public record DnsBlockerConfig(
         int port,
         String scheme,
         String username,
-        String password) {
+        String password,
+        AnomalyAlerts alerts) {
 
     // Default configuration values
     public static final DnsBlockerType DEFAULT_PLATFORM = DnsBlockerType.PIHOLE;
@@ -73,6 +75,17 @@ public record DnsBlockerConfig(
         if (port <= 0 || port > 65535) {
             port = DEFAULT_PORT;
         }
+        if (alerts == null) {
+            alerts = AnomalyAlerts.defaults();
+        }
+    }
+
+    /**
+     * Creates a config with the default anomaly alert settings.
+     */
+    public DnsBlockerConfig(DnsBlockerType platform, String ipAddress, int port, String scheme,
+            String username, String password) {
+        this(platform, ipAddress, port, scheme, username, password, null);
     }
 
     /**
@@ -20,11 +20,14 @@ package domain.configuration;
 
 /**
  * Immutable configuration record for widget display settings.
+ * Build one from the 11-argument constructor (or {@link #defaultConfig()}) and set the
+ * optional tiles with the {@code with...} copy methods; the canonical constructor is only
+ * meant for the record machinery.
  *
  * @param size the widget size (Small, Medium, Large, XXL, Full Screen)
  * @param layout the widget layout (Horizontal, Square)
  * @param theme the UI theme (Dark, Light)
- * @param showLive whether to show live data tile
+ * @param showLive whether to show the live (LED / blocking state) tile
  * @param showStatus whether to show status tile
  * @param showFluid whether to show fluid percentage tile
  * @param updateStatusSec status tile update interval in seconds
@@ -32,6 +35,11 @@ package domain.configuration;
  * @param updateActiveSec active tile update interval in seconds
  * @param updateTopXSec Top X tile update interval in seconds
  * @param topX how many domains to display in the Top X Blocked tile
+ * @param showTopX whether to show the Top X Blocked tile
+ * @param showTrend whether to show the queries/blocked trend (sparkline) tile
+ * @param fluidWindow period shown by the Blocked % tile (since midnight or last N minutes)
+ * @param showTopClients whether to show the Top Clients tile
+ * @param showUpstreams whether to show the upstream latency tile
  */
 public record WidgetConfig(
         String size,
@@ -44,7 +52,12 @@ public record WidgetConfig(
         int updateFluidSec,
         int updateActiveSec,
         int updateTopXSec,
-        int topX
+        int topX,
+        boolean showTopX,
+        boolean showTrend,
+        BlockedPercentWindow fluidWindow,
+        boolean showTopClients,
+        boolean showUpstreams
 ) {
     
     // Default values aligned with legacy scheduler behaviour
@@ -85,8 +98,23 @@ public record WidgetConfig(
         if (topX <= 0) {
             topX = DEFAULT_TOPX_COUNT;
         }
+        if (fluidWindow == null) {
+            fluidWindow = BlockedPercentWindow.TODAY;
+        }
     }
-    
+
+    /**
+     * Creates a WidgetConfig with the Top X tile shown and the optional tiles hidden
+     * (legacy settings layout).
+     */
+    public WidgetConfig(String size, String layout, String theme, boolean showLive, boolean showStatus,
+            boolean showFluid, int updateStatusSec, int updateFluidSec, int updateActiveSec, int updateTopXSec,
+            int topX) {
+        this(size, layout, theme, showLive, showStatus, showFluid,
+             updateStatusSec, updateFluidSec, updateActiveSec, updateTopXSec, topX, true, false,
+             BlockedPercentWindow.TODAY, false, false);
+    }
+
     /**
      * Creates a WidgetConfig with default values for display options and intervals.
      */
@@ -109,6 +137,39 @@ public record WidgetConfig(
     public static WidgetConfig defaultConfig() {
         return new WidgetConfig(DEFAULT_SIZE, DEFAULT_LAYOUT, DEFAULT_THEME);
     }
+
+    public WidgetConfig withShowTopX(boolean show) {
+        return new WidgetConfig(size, layout, theme, showLive, showStatus, showFluid, updateStatusSec,
+                updateFluidSec, updateActiveSec, updateTopXSec, topX, show, showTrend, fluidWindow, showTopClients,
+                showUpstreams);
+    }
+
+    public WidgetConfig withShowTrend(boolean show) {
+        return new WidgetConfig(size, layout, theme, showLive, showStatus, showFluid, updateStatusSec,
+                updateFluidSec, updateActiveSec, updateTopXSec, topX, showTopX, show, fluidWindow, showTopClients,
+                showUpstreams);
+    }
+
+    /**
+     * @param window period shown by the Blocked % tile; null means since midnight
+     */
+    public WidgetConfig withFluidWindow(BlockedPercentWindow window) {
+        return new WidgetConfig(size, layout, theme, showLive, showStatus, showFluid, updateStatusSec,
+                updateFluidSec, updateActiveSec, updateTopXSec, topX, showTopX, showTrend, window, showTopClients,
+                showUpstreams);
+    }
+
+    public WidgetConfig withShowTopClients(boolean show) {
+        return new WidgetConfig(size, layout, theme, showLive, showStatus, showFluid, updateStatusSec,
+                updateFluidSec, updateActiveSec, updateTopXSec, topX, showTopX, showTrend, fluidWindow, show,
+                showUpstreams);
+    }
+
+    public WidgetConfig withShowUpstreams(boolean show) {
+        return new WidgetConfig(size, layout, theme, showLive, showStatus, showFluid, updateStatusSec,
+                updateFluidSec, updateActiveSec, updateTopXSec, topX, showTopX, showTrend, fluidWindow,
+                showTopClients, show);
+    }
     
     // Legacy getter methods for backward compatibility
     
@@ -135,6 +196,18 @@ public record WidgetConfig(
     public boolean isShow_fluid() {
         return showFluid;
     }
+
+    public boolean isShow_topx() {
+        return showTopX;
+    }
+
+    /**
+     * Number of tiles enabled for display.
+     */
+    public int visibleTileCount() {
+        return (showLive ? 1 : 0) + (showStatus ? 1 : 0) + (showFluid ? 1 : 0) + (showTopX ? 1 : 0)
+                + (showTrend ? 1 : 0) + (showTopClients ? 1 : 0) + (showUpstreams ? 1 : 0);
+    }
     
     public int getUpdate_status_sec() {
         return updateStatusSec;
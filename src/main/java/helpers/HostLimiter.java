@@ -0,0 +1,470 @@
+/*
+ *
+ *  Copyright (C) 2022 - 2025.  Reda ELFARISSI aka FoKss-LTS
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+
+package helpers;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Caps the number of requests in flight to each host.
+ * Small servers (a Pi-hole on a Pi Zero) slow down sharply under a burst of parallel
+ * requests, which the widget produces when every tile refreshes at once. Requests beyond
+ * the cap wait in a per-host queue, by priority then in arrival order.
+ * <p>
+ * Requests made under {@link #runInteractive(Runnable)} (a click) are served first. A
+ * user's write also preempts the background requests in flight to its host: they are
+ * cancelled, then sent again after it, so a click never waits behind a slow poll and
+ * the polls that raced with the write do not report the state from before it.
+ * <p>
+ * A request carrying a coalescing key that arrives while a request with the same key is
+ * still queued is not sent: its caller waits for the queued one and gets the same result.
+ * The queued request has not been sent yet, so its answer is just as fresh. An interactive
+ * request merged into a background one promotes it, so it never waits at background
+ * priority. Requests queued before a user's write, or while it runs, are not merged into
+ * by later requests: they may be sent before the write lands. Requests without a key
+ * (writes) are always sent.
+ * <p>
+ * Thread-safe. {@link #shared()} is used by every {@link HttpClientUtil} by default; its
+ * cap is read from {@code -Ddnsbloquer.http.maxPerHost} (default {@value #DEFAULT_MAX_IN_FLIGHT}).
+ */
+public final class HostLimiter {
+
+    private static final Logger LOGGER = Logger.getLogger(HostLimiter.class.getName());
+    private static final boolean VERBOSE = Boolean.parseBoolean(System.getProperty("dnsbloquer.verbose", "false"));
+
+    public static final int DEFAULT_MAX_IN_FLIGHT = 2;
+    private static final String MAX_IN_FLIGHT_PROPERTY = "dnsbloquer.http.maxPerHost";
+
+    // Times a background request is re-sent after being preempted before it gives up
+    private static final int MAX_PREEMPTIONS = 3;
+
+    private static final HostLimiter SHARED = new HostLimiter(configuredMaxInFlight());
+
+    // Set while the current thread (and the threads it starts) serves a user action
+    private static final InheritableThreadLocal<Boolean> INTERACTIVE_SCOPE = new InheritableThreadLocal<>();
+
+    /**
+     * Queue order: interactive requests are served before background ones.
+     */
+    public enum Priority {
+        INTERACTIVE, BACKGROUND
+    }
+
+    /**
+     * The guarded request.
+     */
+    @FunctionalInterface
+    public interface Call<T> {
+        T call() throws IOException, InterruptedException;
+    }
+
+    private final int maxInFlight;
+    private final Map<String, HostQueue> hosts = new ConcurrentHashMap<>();
+    // Requests answered by a queued duplicate instead of being sent (diagnostics/tests)
+    private final AtomicLong mergedCount = new AtomicLong();
+
+    public HostLimiter(int maxInFlight) {
+        if (maxInFlight <= 0) {
+            throw new IllegalArgumentException("maxInFlight must be positive: " + maxInFlight);
+        }
+        this.maxInFlight = maxInFlight;
+    }
+
+    public static HostLimiter shared() {
+        return SHARED;
+    }
+
+    private static int configuredMaxInFlight() {
+        String value = System.getProperty(MAX_IN_FLIGHT_PROPERTY);
+        if (value == null || value.isBlank()) {
+            return DEFAULT_MAX_IN_FLIGHT;
+        }
+        try {
+            return Math.max(1, Integer.parseInt(value.trim()));
+        } catch (NumberFormatException e) {
+            LOGGER.log(Level.WARNING, "Ignoring invalid " + MAX_IN_FLIGHT_PROPERTY + ": " + value);
+            return DEFAULT_MAX_IN_FLIGHT;
+        }
+    }
+
+    /**
+     * Runs {@code action} as a user action: its requests, and those of the threads it
+     * starts, are sent at {@link Priority#INTERACTIVE} priority.
+     */
+    public static void runInteractive(Runnable action) {
+        Boolean previous = INTERACTIVE_SCOPE.get();
+        INTERACTIVE_SCOPE.set(Boolean.TRUE);
+        try {
+            action.run();
+        } finally {
+            if (previous == null) {
+                INTERACTIVE_SCOPE.remove();
+            } else {
+                INTERACTIVE_SCOPE.set(previous);
+            }
+        }
+    }
+
+    /**
+     * @return whether the current thread serves a user action
+     */
+    public static boolean isInteractive() {
+        return Boolean.TRUE.equals(INTERACTIVE_SCOPE.get());
+    }
+
+    private static void log(String message) {
+        if (VERBOSE) {
+            LOGGER.log(Level.FINE, () -> "[HostLimiter] " + message);
+        }
+    }
+
+    public int maxInFlight() {
+        return maxInFlight;
+    }
+
+    /**
+     * Runs {@code call} once a permit for {@code host} is free.
+     *
+     * @param host     the host (and port) the request goes to
+     * @param key      coalescing key (method, URI and credentials of a read), or null
+     * @param priority queue priority
+     * @param call     the request
+     * @return the result of {@code call}, or of the queued request this one was merged into
+     */
+    public <T> T execute(String host, String key, Priority priority, Call<T> call)
+            throws IOException, InterruptedException {
+        return execute(host, key, priority, false, call);
+    }
+
+    /**
+     * Runs {@code call} once a permit for {@code host} is free.
+     * With {@code preemptReads} (a user's write), the background requests running against
+     * the host are cancelled so the write gets their permit at once; each of them is sent
+     * again once the write has a permit, and its caller only sees the fresh result.
+     *
+     * @param host         the host (and port) the request goes to
+     * @param key          coalescing key (method, URI and credentials of a read), or null
+     * @param priority     queue priority
+     * @param preemptReads whether to cancel and re-send the background requests in flight
+     * @param call         the request
+     * @return the result of {@code call}, or of the queued request this one was merged into
+     */
+    public <T> T execute(String host, String key, Priority priority, boolean preemptReads, Call<T> call)
+            throws IOException, InterruptedException {
+        Objects.requireNonNull(call, "call");
+        HostQueue queue = hosts.computeIfAbsent(Objects.requireNonNull(host, "host"), _ -> new HostQueue());
+        Priority effective = priority == null ? Priority.BACKGROUND : priority;
+
+        Waiter self;
+        Waiter joined = null;
+        boolean queued = false;
+        synchronized (queue) {
+            if (preemptReads) {
+                preemptRunning(queue, host);
+                forgetQueuedReads(queue);
+            }
+            Waiter pending = key != null ? queue.queuedByKey.get(key) : null;
+            self = new Waiter(key, effective, queue.nextSequence++, queue.writeEpoch);
+            if (pending != null) {
+                if (pending.priority.compareTo(effective) > 0) {
+                    promote(queue, pending, effective);
+                    log(host + ": promoted queued " + key + " to " + effective);
+                }
+                joined = pending;
+                mergedCount.incrementAndGet();
+            } else if (queue.inFlight < maxInFlight && queue.waiting.isEmpty()) {
+                queue.inFlight++;
+            } else {
+                enqueue(queue, self);
+                queued = true;
+                log(host + ": queued " + (key != null ? key : "request") + " (" + queue.waiting.size() + " waiting)");
+            }
+        }
+
+        if (joined != null) {
+            log(host + ": merged into queued " + key);
+            return awaitResult(joined);
+        }
+        if (queued) {
+            awaitTurn(queue, self);
+        }
+        boolean holdsPermit = true;
+        try {
+            for (int attempt = 0; ; attempt++) {
+                Running running = register(queue, self);
+                T value = null;
+                Throwable failure = null;
+                try {
+                    value = call.call();
+                } catch (IOException | InterruptedException | RuntimeException | Error e) {
+                    failure = e;
+                }
+                if (unregister(queue, running) && attempt < MAX_PREEMPTIONS) {
+                    // Cancelled for a write: whatever came back may predate it, so ask again
+                    log(host + ": re-sending preempted " + (key != null ? key : "request"));
+                    holdsPermit = false;
+                    requeue(queue, self);
+                    awaitTurn(queue, self);
+                    holdsPermit = true;
+                    continue;
+                }
+                if (failure == null) {
+                    self.result.complete(value);
+                    return value;
+                }
+                if (failure instanceof InterruptedException && running != null && running.cancelled) {
+                    // Preempted too often: fail like a timeout rather than interrupting the caller
+                    failure = new InterruptedIOException("request preempted by interactive requests");
+                }
+                self.result.completeExceptionally(failure);
+                rethrow(failure);
+            }
+        } finally {
+            if (preemptReads) {
+                // Reads queued while the write ran may be sent before it lands
+                synchronized (queue) {
+                    forgetQueuedReads(queue);
+                }
+            }
+            if (holdsPermit) {
+                release(queue);
+            }
+        }
+    }
+
+    private static void rethrow(Throwable failure) throws IOException, InterruptedException {
+        switch (failure) {
+            case IOException io -> throw io;
+            case InterruptedException interrupted -> throw interrupted;
+            case RuntimeException runtime -> throw runtime;
+            case Error error -> throw error;
+            default -> throw new IOException(failure);
+        }
+    }
+
+    private static void enqueue(HostQueue queue, Waiter waiter) {
+        waiter.turn = new CompletableFuture<>();
+        queue.waiting.add(waiter);
+        // A request preempted by a write was first sent before it: later requests must not share it
+        if (waiter.key != null && waiter.writeEpoch == queue.writeEpoch) {
+            queue.queuedByKey.putIfAbsent(waiter.key, waiter);
+        }
+    }
+
+    // Guarded by queue: the queued reads stay queued, but no later request merges into them
+    private static void forgetQueuedReads(HostQueue queue) {
+        queue.queuedByKey.clear();
+        queue.writeEpoch++;
+    }
+
+    // Guarded by queue: moves a queued request up to the priority of one merged into it
+    private static void promote(HostQueue queue, Waiter waiter, Priority priority) {
+        queue.waiting.remove(waiter);
+        waiter.priority = priority;
+        queue.waiting.add(waiter);
+    }
+
+    // Guarded by queue: interrupts the background requests being sent
+    private static void preemptRunning(HostQueue queue, String host) {
+        for (Running running : queue.running) {
+            if (!running.cancelled) {
+                running.cancelled = true;
+                running.thread.interrupt();
+                log(host + ": preempting a background request");
+            }
+        }
+    }
+
+    // Only background requests can be preempted
+    private static Running register(HostQueue queue, Waiter self) {
+        synchronized (queue) {
+            if (self.priority != Priority.BACKGROUND) {
+                return null;
+            }
+            Running running = new Running(Thread.currentThread());
+            queue.running.add(running);
+            return running;
+        }
+    }
+
+    /**
+     * @return whether the request was preempted while it was being sent
+     */
+    private static boolean unregister(HostQueue queue, Running running) {
+        if (running == null) {
+            return false;
+        }
+        synchronized (queue) {
+            queue.running.remove(running);
+        }
+        if (running.cancelled) {
+            // Our interrupt is delivered only while registered, so this clears nothing else
+            Thread.interrupted();
+        }
+        return running.cancelled;
+    }
+
+    // Goes back in line (keeping its sequence, so ahead of later background requests)
+    // and hands the permit on, normally to the write that preempted it
+    private static void requeue(HostQueue queue, Waiter self) {
+        synchronized (queue) {
+            enqueue(queue, self);
+        }
+        release(queue);
+    }
+
+    private static void awaitTurn(HostQueue queue, Waiter waiter) throws InterruptedException {
+        try {
+            waiter.turn.get();
+        } catch (InterruptedException e) {
+            boolean granted;
+            synchronized (queue) {
+                granted = !queue.waiting.remove(waiter);
+                if (!granted && waiter.key != null) {
+                    queue.queuedByKey.remove(waiter.key, waiter);
+                }
+            }
+            if (granted) {
+                // The permit arrived while we were being interrupted: pass it on.
+                release(queue);
+            }
+            waiter.result.completeExceptionally(new InterruptedIOException("request cancelled while queued"));
+            throw e;
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("turn is never completed exceptionally", e);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T awaitResult(Waiter waiter) throws IOException, InterruptedException {
+        try {
+            return (T) waiter.result.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException io) {
+                throw io;
+            }
+            if (cause instanceof InterruptedException) {
+                throw new InterruptedIOException("merged request was interrupted");
+            }
+            if (cause instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw new IOException(cause);
+        }
+    }
+
+    // Hands the permit to the next waiter, or returns it to the pool
+    private static void release(HostQueue queue) {
+        Waiter next;
+        synchronized (queue) {
+            next = queue.waiting.poll();
+            if (next == null) {
+                queue.inFlight--;
+                return;
+            }
+            if (next.key != null) {
+                // Once sent, later identical requests queue up again rather than merge
+                queue.queuedByKey.remove(next.key, next);
+            }
+        }
+        next.turn.complete(null);
+    }
+
+    public long getMergedCount() {
+        return mergedCount.get();
+    }
+
+    int inFlight(String host) {
+        HostQueue queue = hosts.get(host);
+        if (queue == null) {
+            return 0;
+        }
+        synchronized (queue) {
+            return queue.inFlight;
+        }
+    }
+
+    int queued(String host) {
+        HostQueue queue = hosts.get(host);
+        if (queue == null) {
+            return 0;
+        }
+        synchronized (queue) {
+            return queue.waiting.size();
+        }
+    }
+
+    private static final class HostQueue {
+        // Guarded by this
+        private final PriorityQueue<Waiter> waiting = new PriorityQueue<>(
+                Comparator.comparing((Waiter w) -> w.priority).thenComparingLong(w -> w.sequence));
+        private final Map<String, Waiter> queuedByKey = new HashMap<>();
+        private final Set<Running> running = new HashSet<>();
+        private int inFlight;
+        private long nextSequence;
+        // Incremented when a user's write starts and ends
+        private long writeEpoch;
+    }
+
+    // A background request being sent, and whether a write has cancelled it
+    private static final class Running {
+        private final Thread thread;
+        private boolean cancelled;
+
+        private Running(Thread thread) {
+            this.thread = thread;
+        }
+    }
+
+    private static final class Waiter {
+        private final String key;
+        private final long sequence;
+        private final long writeEpoch;
+        // Guarded by the host queue; only raised while queued, by a request merged into this one
+        private Priority priority;
+        // Completed when this waiter is given a permit; renewed each time it queues
+        private volatile CompletableFuture<Void> turn = new CompletableFuture<>();
+        // Completed with the response, for the requests merged into this one
+        private final CompletableFuture<Object> result = new CompletableFuture<>();
+
+        private Waiter(String key, Priority priority, long sequence, long writeEpoch) {
+            this.key = key;
+            this.priority = priority;
+            this.sequence = sequence;
+            this.writeEpoch = writeEpoch;
+        }
+    }
+}
@@ -23,6 +23,7 @@ import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.net.URI;
 import java.net.URLEncoder;
 import java.net.http.HttpClient;
@@ -34,26 +35,59 @@ import java.time.Duration;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Locale;
 import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 /**
  * Small HTTP utility tailored for HTTPS/HTTP requests.
  * Provides helpers for common verbs, status/introspection, and JSON parsing.
+ * Requests go through a {@link HostLimiter} (the shared one by default), which bounds
+ * the requests in flight to each host.
+ * <p>
+ * Identical GETs (same URI and credentials) issued while one is already in flight are
+ * not sent again: the callers share its {@link HttpResponsePayload}, including the parsed
+ * JSON body. An interactive GET never shares a background one, which may still be queued
+ * behind other polls, and no GET issued after an interactive write starts shares one
+ * sent before the write ends.
+ * <p>
+ * Requests made under {@link HostLimiter#runInteractive(Runnable)} jump the host queue;
+ * interactive writes also preempt the background reads in flight to the host and get a
+ * shorter timeout.
  */
 public class HttpClientUtil {
 
     private static final Logger LOGGER = Logger.getLogger(HttpClientUtil.class.getName());
     private static final Duration DEFAULT_CONNECT_TIMEOUT = Duration.ofSeconds(5);
     private static final Duration DEFAULT_REQUEST_TIMEOUT = Duration.ofSeconds(10);
+    // A user waits on interactive writes: fail fast instead of holding the click for 10s
+    private static final Duration INTERACTIVE_WRITE_TIMEOUT = Duration.ofSeconds(4);
 
     // Enable verbose logging via system property: -Ddnsbloquer.verbose=true
     public static final boolean VERBOSE = Boolean.parseBoolean(System.getProperty("dnsbloquer.verbose", "false"));
 
+    // Headers that identify who is asking; requests differing only in other headers share a response
+    private static final Set<String> AUTH_HEADERS = Set.of("authorization", "cookie", "x-ftl-sid", "x-ftl-csrf");
+
     private final HttpClient client;
     private final Duration defaultRequestTimeout;
     private final ObjectMapper mapper;
+    private final HostLimiter limiter;
+    // GETs in flight, by coalescing key
+    private final Map<String, SharedGet> inFlightGets = new ConcurrentHashMap<>();
+    // Requests answered by an identical GET in flight instead of being sent (diagnostics/tests)
+    private final AtomicLong sharedResponseCount = new AtomicLong();
+    // The same, summed over every client, and the requests actually sent (metrics endpoint)
+    private static final LongAdder TOTAL_SHARED_RESPONSES = new LongAdder();
+    private static final LongAdder TOTAL_SENT_REQUESTS = new LongAdder();
 
     private static void log(String message) {
         if (VERBOSE) {
@@ -70,6 +104,10 @@ public class HttpClientUtil {
     }
 
     public HttpClientUtil(Duration connectTimeout, Duration requestTimeout, ObjectMapper mapper) {
+        this(connectTimeout, requestTimeout, mapper, HostLimiter.shared());
+    }
+
+    public HttpClientUtil(Duration connectTimeout, Duration requestTimeout, ObjectMapper mapper, HostLimiter limiter) {
         Duration safeConnectTimeout = connectTimeout == null ? DEFAULT_CONNECT_TIMEOUT : connectTimeout;
         Duration safeRequestTimeout = requestTimeout == null ? DEFAULT_REQUEST_TIMEOUT : requestTimeout;
         this.client = HttpClient.newBuilder()
@@ -78,6 +116,7 @@ public class HttpClientUtil {
                 .build();
         this.defaultRequestTimeout = safeRequestTimeout;
         this.mapper = mapper == null ? new ObjectMapper() : mapper;
+        this.limiter = limiter == null ? HostLimiter.shared() : limiter;
     }
 
     public HttpResponsePayload get(String url) throws IOException, InterruptedException {
@@ -136,6 +175,89 @@ public class HttpClientUtil {
             Map<String, String> queryParams,
             Duration timeout) throws IOException, InterruptedException {
         URI uri = buildUri(url, queryParams);
+        String key = coalescingKey(method, uri, headers);
+        boolean interactive = HostLimiter.isInteractive();
+        if (key == null) {
+            if (!interactive) {
+                return exchange(uri, method, headers, body, timeout, null);
+            }
+            // GETs in flight around a user's write may answer with the state from before it
+            inFlightGets.clear();
+            try {
+                return exchange(uri, method, headers, body, timeout, null);
+            } finally {
+                inFlightGets.clear();
+            }
+        }
+
+        SharedGet mine = new SharedGet(new CompletableFuture<>(), interactive);
+        SharedGet inFlight = inFlightGets.putIfAbsent(key, mine);
+        if (inFlight != null && (inFlight.interactive() || !interactive)) {
+            sharedResponseCount.incrementAndGet();
+            TOTAL_SHARED_RESPONSES.increment();
+            log("=== " + method + " " + uri + " already in flight, sharing its response");
+            return awaitShared(inFlight.response());
+        }
+        if (inFlight != null) {
+            // Sent on our own priority instead; later interactive reads share this one
+            inFlightGets.replace(key, inFlight, mine);
+        }
+        try {
+            HttpResponsePayload payload = exchange(uri, method, headers, body, timeout, key);
+            mine.response().complete(payload);
+            return payload;
+        } catch (IOException | InterruptedException | RuntimeException e) {
+            mine.response().completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlightGets.remove(key, mine);
+        }
+    }
+
+    public long getSharedResponseCount() {
+        return sharedResponseCount.get();
+    }
+
+    /**
+     * @return requests of every client answered by an identical GET in flight instead of being sent
+     */
+    public static long getTotalSharedResponseCount() {
+        return TOTAL_SHARED_RESPONSES.sum();
+    }
+
+    /**
+     * @return requests sent by every client, re-sends after a preemption included
+     */
+    public static long getTotalSentCount() {
+        return TOTAL_SENT_REQUESTS.sum();
+    }
+
+    private static HttpResponsePayload awaitShared(CompletableFuture<HttpResponsePayload> inFlight)
+            throws IOException, InterruptedException {
+        try {
+            return inFlight.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException io) {
+                throw io;
+            }
+            if (cause instanceof InterruptedException) {
+                // The sender was interrupted, not us
+                throw new InterruptedIOException("shared request was interrupted");
+            }
+            if (cause instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IOException(cause);
+        }
+    }
+
+    private HttpResponsePayload exchange(URI uri,
+            HttpMethod method,
+            Map<String, String> headers,
+            String body,
+            Duration timeout,
+            String key) throws IOException, InterruptedException {
 
         log(">>> " + method + " " + uri);
         if (headers != null && !headers.isEmpty()) {
@@ -147,15 +269,25 @@ public class HttpClientUtil {
             log("    Body: " + safeBody);
         }
 
-        HttpRequest.Builder builder = HttpRequest.newBuilder(uri)
-                .timeout(timeout == null ? defaultRequestTimeout : timeout);
+        boolean interactive = HostLimiter.isInteractive();
+        boolean interactiveWrite = interactive && method != HttpMethod.GET;
+        Duration effectiveTimeout = timeout != null ? timeout
+                : interactiveWrite && INTERACTIVE_WRITE_TIMEOUT.compareTo(defaultRequestTimeout) < 0
+                        ? INTERACTIVE_WRITE_TIMEOUT
+                        : defaultRequestTimeout;
+        HttpRequest.Builder builder = HttpRequest.newBuilder(uri).timeout(effectiveTimeout);
 
         applyHeaders(builder, headers);
         builder.method(method.name(), buildBodyPublisher(method, body));
 
+        HttpRequest request = builder.build();
         long startTime = System.currentTimeMillis();
-        HttpResponse<String> response = client.send(builder.build(),
-                HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8));
+        HttpResponse<String> response = limiter.execute(hostKey(uri), key,
+                interactive ? HostLimiter.Priority.INTERACTIVE : HostLimiter.Priority.BACKGROUND, interactiveWrite,
+                () -> {
+                    TOTAL_SENT_REQUESTS.increment();
+                    return client.send(request, HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8));
+                });
         long duration = System.currentTimeMillis() - startTime;
 
         log("<<< " + method + " " + uri + " -> " + response.statusCode() + " (" + duration + "ms)");
@@ -172,6 +304,30 @@ public class HttpClientUtil {
         return new HttpResponsePayload(method, uri, response, mapper);
     }
 
+    private static String hostKey(URI uri) {
+        return uri.getHost() + ":" + uri.getPort();
+    }
+
+    /**
+     * Key under which identical reads are merged: method, URI (which may carry a session id)
+     * and auth identity, so two sessions never share a response. Null for writes.
+     */
+    private static String coalescingKey(HttpMethod method, URI uri, Map<String, String> headers) {
+        if (method != HttpMethod.GET) {
+            return null;
+        }
+        Map<String, String> identity = new TreeMap<>();
+        if (headers != null) {
+            headers.forEach((name, value) -> {
+                String normalized = name.toLowerCase(Locale.ROOT);
+                if (AUTH_HEADERS.contains(normalized)) {
+                    identity.put(normalized, value);
+                }
+            });
+        }
+        return method + " " + uri + " " + identity;
+    }
+
     private void applyHeaders(HttpRequest.Builder builder, Map<String, String> headers) {
         if (headers == null || headers.isEmpty())
             return;
@@ -210,12 +366,18 @@ public class HttpClientUtil {
         return URLEncoder.encode(value == null ? "" : value, StandardCharsets.UTF_8);
     }
 
+    // A GET in flight and whether it was sent for a user action
+    private record SharedGet(CompletableFuture<HttpResponsePayload> response, boolean interactive) {
+    }
+
     public enum HttpMethod {
         GET, POST, PUT, DELETE, PATCH
     }
 
     /**
      * Simple response wrapper exposing status, headers, body as text/JSON.
+     * Immutable apart from the JSON body, which is parsed once on first use; the payload
+     * may be shared by several callers, who must not modify that tree.
      */
     public static final class HttpResponsePayload {
         private final HttpMethod method;
@@ -224,6 +386,7 @@ public class HttpClientUtil {
         private final HttpHeaders headers;
         private final String body;
         private final ObjectMapper mapper;
+        private volatile Optional<JsonNode> json;
 
         private HttpResponsePayload(HttpMethod method, URI uri, HttpResponse<String> response, ObjectMapper mapper) {
             this.method = method;
@@ -259,6 +422,15 @@ public class HttpClientUtil {
         }
 
         public Optional<JsonNode> bodyAsJson() {
+            Optional<JsonNode> parsed = json;
+            if (parsed == null) {
+                parsed = parseBody();
+                json = parsed;
+            }
+            return parsed;
+        }
+
+        private Optional<JsonNode> parseBody() {
             if (body == null || body.isBlank())
                 return Optional.empty();
             try {
@@ -0,0 +1,114 @@
+/*
+ *
+ *  Copyright (C) 2022 - 2025.  Reda ELFARISSI aka FoKss-LTS
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+
+package helpers;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Size-bounded cache whose entries also expire after a fixed time to live.
+ * Entries are kept in access order, so once {@code maxEntries} is reached the least
+ * recently used one is evicted; expired entries are dropped when they are looked up.
+ * Thread-safe.
+ *
+ * @param <K> key type
+ * @param <V> value type
+ */
+public final class TtlLruCache<K, V> {
+
+    private record Timed<V>(V value, long expiresAtMillis) {
+    }
+
+    private final int maxEntries;
+    private final long ttlMillis;
+    private final Clock clock;
+    private final LinkedHashMap<K, Timed<V>> entries;
+
+    public TtlLruCache(int maxEntries, Duration ttl) {
+        this(maxEntries, ttl, Clock.systemUTC());
+    }
+
+    public TtlLruCache(int maxEntries, Duration ttl, Clock clock) {
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException("maxEntries must be positive: " + maxEntries);
+        }
+        this.maxEntries = maxEntries;
+        this.ttlMillis = Objects.requireNonNull(ttl, "ttl").toMillis();
+        if (ttlMillis <= 0L) {
+            throw new IllegalArgumentException("ttl must be positive: " + ttl);
+        }
+        this.clock = Objects.requireNonNull(clock, "clock");
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Timed<V>> eldest) {
+                return size() > TtlLruCache.this.maxEntries;
+            }
+        };
+    }
+
+    /**
+     * @return the live value for {@code key}, or empty if absent or expired
+     */
+    public synchronized Optional<V> get(K key) {
+        Timed<V> timed = entries.get(key);
+        if (timed == null) {
+            return Optional.empty();
+        }
+        if (clock.millis() >= timed.expiresAtMillis()) {
+            entries.remove(key);
+            return Optional.empty();
+        }
+        return Optional.of(timed.value());
+    }
+
+    /**
+     * Stores {@code value}, replacing any previous one and restarting its time to live.
+     */
+    public synchronized void put(K key, V value) {
+        Objects.requireNonNull(value, "value");
+        entries.put(key, new Timed<>(value, clock.millis() + ttlMillis));
+    }
+
+    /**
+     * Stores {@code value} with its own time to live, e.g. a shorter one for a negative result.
+     */
+    public synchronized void put(K key, V value, Duration ttl) {
+        Objects.requireNonNull(value, "value");
+        entries.put(key, new Timed<>(value, clock.millis() + Math.max(1L, ttl.toMillis())));
+    }
+
+    public synchronized void remove(K key) {
+        entries.remove(key);
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    /**
+     * @return the number of stored entries, expired ones not yet evicted included
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+}
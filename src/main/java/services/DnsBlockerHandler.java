@@ -18,6 +18,12 @@
 
 package services;
 
+import services.polling.Endpoint;
+
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.Map;
+
 /**
  * Common interface for DNS blocker API handlers.
  * Implementations exist for Pi-hole and AdGuard Home platforms.
@@ -96,4 +102,111 @@ public interface DnsBlockerHandler {
      * @return raw JSON response with blocking status, or empty string on failure
      */
     String getDnsBlockingStatus();
+
+    /**
+     * Retrieves the server-side query history as a generic {@code dnsblocker.history.v1} payload:
+     * fixed-width buckets of query and blocked counts, used to backfill the local history.
+     * For Pi-hole: GET /history (10-minute buckets over the last 24h).
+     * For AdGuard Home: the hourly (or daily) arrays of GET /control/stats.
+     *
+     * @return JSON string with the history buckets, or empty string if unsupported or on failure
+     */
+    default String getHistory() {
+        return "";
+    }
+
+    /**
+     * Retrieves the clients that sent the most queries as a generic
+     * {@code dnsblocker.top_clients.v1} payload:
+     * {@code {"clients":[{"ip":"...","name":"...","count":123}]}}. The name is empty when
+     * the blocker does not know one.
+     * For Pi-hole: GET /stats/top_clients.
+     * For AdGuard Home: the {@code top_clients} array of GET /control/stats.
+     *
+     * @param count the number of clients to retrieve
+     * @return JSON string with the top clients, or empty string if unsupported or on failure
+     */
+    default String getTopXClients(int count) {
+        return "";
+    }
+
+    /**
+     * Retrieves the names the blocker knows for its clients as a generic
+     * {@code dnsblocker.client_names.v1} payload: {@code {"clients":[{"ip":"...","name":"..."}]}}.
+     * For Pi-hole: GET /network/devices.
+     * For AdGuard Home: the persistent and runtime clients of GET /control/clients.
+     *
+     * @return JSON string with the known names, or empty string if unsupported or on failure
+     */
+    default String getClientNames() {
+        return "";
+    }
+
+    /**
+     * Retrieves the upstream resolvers the blocker forwards to as a generic
+     * {@code dnsblocker.upstreams.v1} payload:
+     * <pre>
+     * { "schema": "dnsblocker.upstreams.v1",
+     *   "upstreams": [ { "name": "1.1.1.1#53", "count": 123, "response_ms": 12.5 } ],
+     *   "processing_ms": 0.8 }
+     * </pre>
+     * {@code response_ms} and {@code processing_ms} are omitted when the blocker does not report them.
+     * For Pi-hole: GET /stats/upstreams (the blocklist and cache pseudo-upstreams are left out).
+     * For AdGuard Home: the upstream counters and average times of GET /control/stats.
+     *
+     * @return JSON string with the upstreams, or empty string if unsupported or on failure
+     */
+    default String getUpstreams() {
+        return "";
+    }
+
+    /**
+     * Retrieves one page of the query log for a single domain as a generic
+     * {@code dnsblocker.queries.v1} payload, newest first:
+     * <pre>
+     * { "schema": "dnsblocker.queries.v1", "domain": "...",
+     *   "queries": [ { "time": &lt;epoch seconds&gt;, "client": "ip", "client_name": "...",
+     *                  "blocked": true, "status": "...", "list": "..." } ],
+     *   "next_cursor": "..." | null }
+     * </pre>
+     * For Pi-hole: GET /queries?domain=.
+     * For AdGuard Home: GET /control/querylog?search=.
+     *
+     * @param domain   the domain to look up
+     * @param cursor   the {@code next_cursor} of the previous page, or null for the first page
+     * @param pageSize maximum number of queries to return
+     * @return JSON string with the page, or empty string if unsupported or on failure
+     */
+    default String getDomainQueries(String domain, String cursor, int pageSize) {
+        return "";
+    }
+
+    /**
+     * Names the upstream resource (typically the API path) an endpoint's result is read from.
+     * Endpoints sharing a resource are served by one request in {@link #fetchAll}, and the
+     * poll planner schedules them together.
+     *
+     * @param endpoint the endpoint
+     * @return the resource name; by default every endpoint is its own resource
+     */
+    default String resourceOf(Endpoint endpoint) {
+        return endpoint.name();
+    }
+
+    /**
+     * Fetches several endpoints at once, requesting each upstream resource a single time
+     * and deriving every result read from it. The default calls {@link Endpoint#fetch} for
+     * each endpoint, which is right when no two endpoints share a resource.
+     *
+     * @param endpoints the endpoints to fetch
+     * @param topX      number of entries requested by list endpoints
+     * @return the result of each endpoint, empty string on failure
+     */
+    default Map<Endpoint, String> fetchAll(Collection<Endpoint> endpoints, int topX) {
+        Map<Endpoint, String> results = new EnumMap<>(Endpoint.class);
+        for (Endpoint endpoint : endpoints) {
+            results.put(endpoint, endpoint.fetch(this, topX));
+        }
+        return results;
+    }
 }
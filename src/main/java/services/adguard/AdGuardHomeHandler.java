@@ -26,13 +26,22 @@ import domain.configuration.DnsBlockerConfig;
 import helpers.HttpClientUtil;
 import helpers.HttpClientUtil.HttpResponsePayload;
 import services.DnsBlockerHandler;
+import services.polling.Endpoint;
 
 import java.io.IOException;
+import java.time.Clock;
 import java.time.Duration;
 import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.Base64;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.EnumMap;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Optional;
 import java.nio.charset.StandardCharsets;
@@ -57,13 +66,20 @@ public class AdGuardHomeHandler implements DnsBlockerHandler {
     private static final String QUERYLOG_ENDPOINT = "/querylog";
     private static final String DNS_INFO_ENDPOINT = "/dns_info";
     private static final String DNS_CONFIG_ENDPOINT = "/dns_config";
+    private static final String PROTECTION_ENDPOINT = "/protection";
     private static final String FILTERING_STATUS_ENDPOINT = "/filtering/status";
+    private static final String CLIENTS_ENDPOINT = "/clients";
 
     // Generic (platform-agnostic) JSON schemas returned to the UI layer.
     // The widget should not be coupled to Pi-hole field names.
     private static final String SCHEMA_STATS_V1 = "dnsblocker.stats.v1";
     private static final String SCHEMA_TOP_BLOCKED_V1 = "dnsblocker.top_blocked.v1";
     private static final String SCHEMA_BLOCKING_STATUS_V1 = "dnsblocker.blocking_status.v1";
+    private static final String SCHEMA_HISTORY_V1 = "dnsblocker.history.v1";
+    private static final String SCHEMA_QUERIES_V1 = "dnsblocker.queries.v1";
+    private static final String SCHEMA_TOP_CLIENTS_V1 = "dnsblocker.top_clients.v1";
+    private static final String SCHEMA_CLIENT_NAMES_V1 = "dnsblocker.client_names.v1";
+    private static final String SCHEMA_UPSTREAMS_V1 = "dnsblocker.upstreams.v1";
 
     // ==================== Instance Fields ====================
 
@@ -75,6 +91,7 @@ public class AdGuardHomeHandler implements DnsBlockerHandler {
     private final String apiBaseUrl;
     private final HttpClientUtil httpClient;
     private final ObjectMapper objectMapper;
+    private final Clock clock;
 
     // Cached auth header to avoid recalculating on every request
     private final String basicAuthHeader;
@@ -92,6 +109,13 @@ public class AdGuardHomeHandler implements DnsBlockerHandler {
      * Internal constructor for testing with injected HTTP client.
      */
     AdGuardHomeHandler(DnsBlockerConfig config, HttpClientUtil httpClient) {
+        this(config, httpClient, Clock.systemDefaultZone());
+    }
+
+    /**
+     * Internal constructor for testing with injected HTTP client and clock.
+     */
+    AdGuardHomeHandler(DnsBlockerConfig config, HttpClientUtil httpClient, Clock clock) {
         log("=== Initializing AdGuardHomeHandler ===");
         log("Input params - IP: " + config.ipAddress() + ", Port: " + config.port() +
                 ", Scheme: " + config.scheme());
@@ -104,6 +128,7 @@ public class AdGuardHomeHandler implements DnsBlockerHandler {
         this.apiBaseUrl = buildApiBaseUrl();
         this.httpClient = httpClient != null ? httpClient : new HttpClientUtil();
         this.objectMapper = new ObjectMapper();
+        this.clock = clock != null ? clock : Clock.systemDefaultZone();
 
         // Pre-calculate Basic Auth header
         this.basicAuthHeader = createBasicAuthHeader();
@@ -174,24 +199,19 @@ public class AdGuardHomeHandler implements DnsBlockerHandler {
     @Override
     public String getStats() {
         log("=== getStats() called ===");
+        return statsFrom(read(STATS_ENDPOINT));
+    }
 
-        try {
-            HttpResponsePayload response = getApi(STATS_ENDPOINT, Collections.emptyMap());
-            if (!response.isSuccessful()) {
-                log("Failed to get stats - HTTP " + response.statusCode());
-                return "";
-            }
-
-            // Transform AdGuard Home stats to a generic schema understood by the widget
-            return transformStatsToGeneric(response.bodyText());
-
-        } catch (IOException e) {
-            logError("IOException while fetching stats", e);
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            logError("Interrupted while fetching stats", e);
+    private String statsFrom(HttpResponsePayload response) {
+        if (response == null) {
+            return "";
         }
-        return "";
+        if (!response.isSuccessful()) {
+            log("Failed to get stats - HTTP " + response.statusCode());
+            return "";
+        }
+        // Transform AdGuard Home stats to a generic schema understood by the widget
+        return transformStatsToGeneric(response.bodyText());
     }
 
     /**
@@ -291,80 +311,244 @@ public class AdGuardHomeHandler implements DnsBlockerHandler {
     @Override
     public String getVersion() {
         log("=== getVersion() called ===");
+        return versionFrom(read(STATUS_ENDPOINT));
+    }
 
-        try {
-            HttpResponsePayload response = getApi(STATUS_ENDPOINT, Collections.emptyMap());
+    private String versionFrom(HttpResponsePayload response) {
+        if (response == null) {
+            return "";
+        }
+        if (!response.isSuccessful()) {
+            log("Failed to get status for version - HTTP " + response.statusCode());
+            return "";
+        }
 
-            if (!response.isSuccessful()) {
-                log("Failed to get status for version - HTTP " + response.statusCode());
+        Optional<JsonNode> jsonOpt = response.bodyAsJson();
+        if (jsonOpt.isEmpty()) {
+            log("Failed to parse status JSON response");
+            return "";
+        }
+
+        JsonNode json = jsonOpt.get();
+        if (json.has("version")) {
+            return json.get("version").asText("");
+        }
+        return "";
+    }
+
+    @Override
+    public String getTopXBlocked(int count) {
+        log("=== getTopXBlocked(" + count + ") called ===");
+        if (count <= 0) {
+            return "";
+        }
+        return topBlockedFrom(read(STATS_ENDPOINT), count);
+    }
+
+    private String topBlockedFrom(HttpResponsePayload response, int count) {
+        if (response == null) {
+            return "";
+        }
+        if (!response.isSuccessful()) {
+            log("Failed to get stats for top blocked - HTTP " + response.statusCode());
+            return "";
+        }
+
+        Optional<JsonNode> jsonOpt = response.bodyAsJson();
+        if (jsonOpt.isEmpty()) {
+            log("Failed to parse stats JSON response");
+            return "";
+        }
+
+        JsonNode json = jsonOpt.get();
+        // AdGuard Home returns top_blocked_domains array
+        if (json.has("top_blocked_domains")) {
+            log("Found top_blocked_domains in response");
+            JsonNode topBlocked = json.get("top_blocked_domains");
+            return formatTopBlocked(topBlocked, count);
+        }
+
+        // Also try blocked_filtering which might have the data
+        if (json.has("blocked_filtering")) {
+            log("Found blocked_filtering in response");
+            JsonNode blockedFiltering = json.get("blocked_filtering");
+            return formatTopBlocked(blockedFiltering, count);
+        }
+
+        log("No top_blocked_domains found in stats response");
+        return "";
+    }
+
+    /**
+     * Reads the {@code top_clients} array of GET /control/stats ([{"10.0.0.2": 123}, ...]).
+     * AdGuard Home does not name them there: names come from {@link #getClientNames()}.
+     */
+    @Override
+    public String getTopXClients(int count) {
+        log("=== getTopXClients(" + count + ") called ===");
+        if (count <= 0) {
+            return "";
+        }
+        return topClientsFrom(read(STATS_ENDPOINT), count);
+    }
+
+    private String topClientsFrom(HttpResponsePayload response, int count) {
+        if (response == null) {
+            return "";
+        }
+        if (!response.isSuccessful()) {
+            log("Failed to get stats for top clients - HTTP " + response.statusCode());
+            return "";
+        }
+
+        try {
+            JsonNode topClients = objectMapper.readTree(response.bodyText()).path("top_clients");
+            if (!topClients.isArray()) {
                 return "";
             }
+            ObjectNode out = objectMapper.createObjectNode();
+            out.put("schema", SCHEMA_TOP_CLIENTS_V1);
+            out.put("source", "adguard-home");
+            ArrayNode clients = objectMapper.createArrayNode();
+            for (JsonNode entry : topClients) {
+                if (clients.size() >= count) {
+                    break;
+                }
+                var fields = entry.fields();
+                if (fields.hasNext()) {
+                    var field = fields.next();
+                    ObjectNode item = objectMapper.createObjectNode();
+                    item.put("ip", field.getKey());
+                    item.put("name", "");
+                    item.put("count", Math.max(0L, field.getValue().asLong(0L)));
+                    clients.add(item);
+                }
+            }
+            out.set("clients", clients);
+            return objectMapper.writeValueAsString(out);
 
-            Optional<JsonNode> jsonOpt = response.bodyAsJson();
-            if (jsonOpt.isEmpty()) {
-                log("Failed to parse status JSON response");
+        } catch (IOException e) {
+            logError("IOException while reading top clients", e);
+        }
+        return "";
+    }
+
+    /**
+     * Names from GET /control/clients: persistent clients (each of their {@code ids}:
+     * addresses, CIDRs, MACs or ClientIDs) and runtime clients (rDNS, /etc/hosts, ARP, WHOIS).
+     * Persistent names win when both know an address.
+     */
+    @Override
+    public String getClientNames() {
+        log("=== getClientNames() called ===");
+
+        try {
+            HttpResponsePayload response = getApi(CLIENTS_ENDPOINT, Collections.emptyMap());
+            if (!response.isSuccessful()) {
+                log("Failed to get clients - HTTP " + response.statusCode());
                 return "";
             }
 
-            JsonNode json = jsonOpt.get();
-            if (json.has("version")) {
-                return json.get("version").asText("");
+            JsonNode root = objectMapper.readTree(response.bodyText());
+            Map<String, String> names = new LinkedHashMap<>();
+            for (JsonNode client : root.path("clients")) {
+                String name = client.path("name").asText("");
+                for (JsonNode id : client.path("ids")) {
+                    if (!name.isBlank()) {
+                        names.putIfAbsent(id.asText(""), name);
+                    }
+                }
+            }
+            for (JsonNode client : root.path("auto_clients")) {
+                String ip = client.path("ip").asText("");
+                String name = client.path("name").asText("");
+                if (!ip.isBlank() && !name.isBlank()) {
+                    names.putIfAbsent(ip, name);
+                }
             }
 
-            return "";
+            ObjectNode out = objectMapper.createObjectNode();
+            out.put("schema", SCHEMA_CLIENT_NAMES_V1);
+            out.put("source", "adguard-home");
+            ArrayNode clients = objectMapper.createArrayNode();
+            names.forEach((ip, name) -> {
+                if (!ip.isBlank()) {
+                    ObjectNode item = objectMapper.createObjectNode();
+                    item.put("ip", ip);
+                    item.put("name", name);
+                    clients.add(item);
+                }
+            });
+            out.set("clients", clients);
+            return objectMapper.writeValueAsString(out);
 
         } catch (IOException e) {
-            logError("IOException while fetching version", e);
+            logError("IOException while fetching clients", e);
         } catch (InterruptedException e) {
             Thread.currentThread().interrupt();
-            logError("Interrupted while fetching version", e);
+            logError("Interrupted while fetching clients", e);
         }
         return "";
     }
 
+    /**
+     * Upstreams from GET /control/stats: {@code top_upstreams_responses} gives the
+     * query count per upstream and {@code top_upstreams_avg_time} its average response
+     * time, both as lists of single-entry objects keyed by upstream address. Times are
+     * reported in seconds, as is {@code avg_processing_time}.
+     */
     @Override
-    public String getTopXBlocked(int count) {
-        log("=== getTopXBlocked(" + count + ") called ===");
-        if (count <= 0) {
+    public String getUpstreams() {
+        log("=== getUpstreams() called ===");
+        return upstreamsFrom(read(STATS_ENDPOINT));
+    }
+
+    private String upstreamsFrom(HttpResponsePayload response) {
+        if (response == null) {
+            return "";
+        }
+        if (!response.isSuccessful()) {
+            log("Failed to get stats for upstreams - HTTP " + response.statusCode());
             return "";
         }
 
         try {
-            HttpResponsePayload response = getApi(STATS_ENDPOINT, Collections.emptyMap());
-
-            if (!response.isSuccessful()) {
-                log("Failed to get stats for top blocked - HTTP " + response.statusCode());
+            JsonNode root = objectMapper.readTree(response.bodyText());
+            JsonNode responses = root.path("top_upstreams_responses");
+            if (!responses.isArray()) {
                 return "";
             }
-
-            Optional<JsonNode> jsonOpt = response.bodyAsJson();
-            if (jsonOpt.isEmpty()) {
-                log("Failed to parse stats JSON response");
-                return "";
+            Map<String, Double> avgSeconds = new HashMap<>();
+            for (JsonNode entry : root.path("top_upstreams_avg_time")) {
+                entry.fields().forEachRemaining(field -> avgSeconds.put(field.getKey(), field.getValue().asDouble()));
             }
 
-            JsonNode json = jsonOpt.get();
-            // AdGuard Home returns top_blocked_domains array
-            if (json.has("top_blocked_domains")) {
-                log("Found top_blocked_domains in response");
-                JsonNode topBlocked = json.get("top_blocked_domains");
-                return formatTopBlocked(topBlocked, count);
+            ObjectNode out = objectMapper.createObjectNode();
+            out.put("schema", SCHEMA_UPSTREAMS_V1);
+            out.put("source", "adguard-home");
+            ArrayNode upstreams = objectMapper.createArrayNode();
+            for (JsonNode entry : responses) {
+                entry.fields().forEachRemaining(field -> {
+                    ObjectNode item = objectMapper.createObjectNode();
+                    item.put("name", field.getKey());
+                    item.put("count", Math.max(0L, field.getValue().asLong(0L)));
+                    Double seconds = avgSeconds.get(field.getKey());
+                    if (seconds != null) {
+                        item.put("response_ms", seconds * 1000.0);
+                    }
+                    upstreams.add(item);
+                });
             }
-
-            // Also try blocked_filtering which might have the data
-            if (json.has("blocked_filtering")) {
-                log("Found blocked_filtering in response");
-                JsonNode blockedFiltering = json.get("blocked_filtering");
-                return formatTopBlocked(blockedFiltering, count);
+            out.set("upstreams", upstreams);
+            JsonNode processing = root.path("avg_processing_time");
+            if (processing.isNumber()) {
+                out.put("processing_ms", processing.asDouble() * 1000.0);
             }
+            return objectMapper.writeValueAsString(out);
 
-            log("No top_blocked_domains found in stats response");
-            return "";
-
-        } catch (Exception e) {
-            logError("Exception while fetching top blocked domains", e);
+        } catch (IOException e) {
+            logError("IOException while reading upstreams", e);
         }
-
         return "";
     }
 
@@ -559,6 +743,10 @@ public class AdGuardHomeHandler implements DnsBlockerHandler {
     public String setDnsBlocking(boolean blocking, Integer timerSeconds) {
         log("=== setDnsBlocking(blocking=" + blocking + ", timerSeconds=" + timerSeconds + ") called ===");
 
+        if (!blocking && timerSeconds != null && timerSeconds > 0) {
+            return pauseProtection(timerSeconds);
+        }
+
         try {
             // First get current DNS config
             HttpResponsePayload getResponse = getApi(DNS_INFO_ENDPOINT, Collections.emptyMap());
@@ -578,8 +766,7 @@ public class AdGuardHomeHandler implements DnsBlockerHandler {
             ObjectNode updatedConfig = currentConfig.deepCopy();
             updatedConfig.put("protection_enabled", blocking);
 
-            // Note: AdGuard Home doesn't have a timer feature like Pi-hole
-            // We ignore the timerSeconds parameter
+            // Timed pauses go through /control/protection (above); this path has no timer
 
             HttpResponsePayload response = postApi(DNS_CONFIG_ENDPOINT, updatedConfig, Collections.emptyMap());
             if (!response.isSuccessful()) {
@@ -597,12 +784,41 @@ public class AdGuardHomeHandler implements DnsBlockerHandler {
         return "";
     }
 
+    /**
+     * Disables protection for a while: POST /control/protection (AdGuard Home v0.107.27+).
+     * The server turns protection back on by itself when the duration has elapsed.
+     */
+    private String pauseProtection(int timerSeconds) {
+        ObjectNode body = objectMapper.createObjectNode();
+        body.put("enabled", false);
+        body.put("duration", timerSeconds * 1000L);
+        try {
+            HttpResponsePayload response = postApi(PROTECTION_ENDPOINT, body, Collections.emptyMap());
+            if (!response.isSuccessful()) {
+                log("Failed to pause protection - HTTP " + response.statusCode());
+                return "";
+            }
+            return response.bodyText();
+        } catch (IOException e) {
+            logError("IOException while pausing protection", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            logError("Interrupted while pausing protection", e);
+        }
+        return "";
+    }
+
     @Override
     public String getDnsBlockingStatus() {
         log("=== getDnsBlockingStatus() called ===");
+        return blockingStatusFrom(read(STATUS_ENDPOINT));
+    }
 
+    private String blockingStatusFrom(HttpResponsePayload response) {
+        if (response == null) {
+            return "";
+        }
         try {
-            HttpResponsePayload response = getApi(STATUS_ENDPOINT, Collections.emptyMap());
             if (!response.isSuccessful()) {
                 log("Failed to get status - HTTP " + response.statusCode());
                 return "";
@@ -622,6 +838,11 @@ public class AdGuardHomeHandler implements DnsBlockerHandler {
                 } else {
                     blocking.putNull("enabled");
                 }
+                // Milliseconds left of a timed pause (v0.107.27+), as seconds like Pi-hole's timer
+                long pausedMs = agStatus.path("protection_disabled_duration").asLong(0L);
+                if (pausedMs > 0) {
+                    blocking.put("timer", pausedMs / 1000.0);
+                }
                 out.set("blocking", blocking);
 
                 return objectMapper.writeValueAsString(out);
@@ -630,11 +851,245 @@ public class AdGuardHomeHandler implements DnsBlockerHandler {
             return response.bodyText();
 
         } catch (Exception e) {
-            logError("Exception while fetching dns blocking status", e);
+            logError("Exception while reading dns blocking status", e);
         }
         return "";
     }
 
+    /**
+     * Retrieves the query history from the {@code dns_queries} / {@code blocked_filtering}
+     * arrays of GET /control/stats. One entry per time unit (hour, or day for long stats
+     * intervals), oldest first, the last one being the current unit.
+     */
+    @Override
+    public String getHistory() {
+        log("=== getHistory() called ===");
+
+        try {
+            HttpResponsePayload response = getApi(STATS_ENDPOINT, Collections.emptyMap());
+            if (!response.isSuccessful()) {
+                log("Failed to get stats for history - HTTP " + response.statusCode());
+                return "";
+            }
+            return transformHistoryToGeneric(response.bodyText());
+
+        } catch (IOException e) {
+            logError("IOException while fetching history", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            logError("Interrupted while fetching history", e);
+        }
+        return "";
+    }
+
+    /**
+     * Converts the stats arrays to
+     * {"schema":"dnsblocker.history.v1","bucket_seconds":3600,"buckets":[{"start":..,"total":..,"blocked":..}]}.
+     * AdGuard Home does not timestamp the entries: starts are derived from the current
+     * hour (or day, in the local time zone).
+     */
+    private String transformHistoryToGeneric(String adGuardJson) {
+        try {
+            JsonNode agNode = objectMapper.readTree(adGuardJson);
+            JsonNode queries = agNode.path("dns_queries");
+            JsonNode blocked = agNode.path("blocked_filtering");
+            if (!queries.isArray() || queries.isEmpty()) {
+                return "";
+            }
+
+            boolean days = "days".equalsIgnoreCase(agNode.path("time_units").asText("hours"));
+            long unitSeconds = days ? 86_400L : 3_600L;
+            ZonedDateTime now = ZonedDateTime.now(clock);
+            ZonedDateTime current = days
+                    ? now.truncatedTo(ChronoUnit.DAYS)
+                    : now.truncatedTo(ChronoUnit.HOURS);
+
+            ObjectNode out = objectMapper.createObjectNode();
+            out.put("schema", SCHEMA_HISTORY_V1);
+            out.put("source", "adguard-home");
+            out.put("bucket_seconds", unitSeconds);
+            ArrayNode buckets = objectMapper.createArrayNode();
+            int size = queries.size();
+            for (int i = 0; i < size; i++) {
+                long unitsAgo = size - 1L - i;
+                ZonedDateTime start = days ? current.minusDays(unitsAgo) : current.minusHours(unitsAgo);
+                ObjectNode bucket = objectMapper.createObjectNode();
+                bucket.put("start", start.toEpochSecond());
+                bucket.put("total", Math.max(0L, queries.get(i).asLong(0L)));
+                bucket.put("blocked", Math.max(0L, blocked.path(i).asLong(0L)));
+                buckets.add(bucket);
+            }
+            out.set("buckets", buckets);
+            return objectMapper.writeValueAsString(out);
+
+        } catch (Exception e) {
+            logError("Failed to transform AdGuard Home stats to history schema", e);
+            return "";
+        }
+    }
+
+    /**
+     * Pages through GET /control/querylog?search=, newest first. The generic cursor is the
+     * {@code oldest} timestamp of the previous page, passed back as {@code older_than}.
+     * AdGuard Home matches {@code search} as a substring, so other names are dropped here.
+     */
+    @Override
+    public String getDomainQueries(String domain, String cursor, int pageSize) {
+        log("=== getDomainQueries() called ===");
+        if (domain == null || domain.isBlank() || pageSize <= 0) {
+            return "";
+        }
+        try {
+            Map<String, String> queryParams = new HashMap<>();
+            queryParams.put("search", domain);
+            queryParams.put("limit", String.valueOf(pageSize));
+            if (cursor != null && !cursor.isBlank()) {
+                queryParams.put("older_than", cursor);
+            }
+
+            HttpResponsePayload response = getApi(QUERYLOG_ENDPOINT, queryParams);
+            if (!response.isSuccessful()) {
+                log("Failed to get query log - HTTP " + response.statusCode());
+                return "";
+            }
+            return transformQueryLogToGeneric(response.bodyText(), domain, pageSize);
+
+        } catch (IOException e) {
+            logError("IOException while fetching domain queries", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            logError("Interrupted while fetching domain queries", e);
+        }
+        return "";
+    }
+
+    /**
+     * {"data":[{"time":"2024-..+02:00","client":..,"client_info":{"name":..},"question":{"name":..},
+     * "reason":"FilteredBlackList","rules":[{"text":..}]}],"oldest":".."} to the generic
+     * {@code dnsblocker.queries.v1} page.
+     */
+    private String transformQueryLogToGeneric(String adGuardJson, String domain, int pageSize) {
+        try {
+            JsonNode agNode = objectMapper.readTree(adGuardJson);
+            JsonNode data = agNode.path("data");
+            if (!data.isArray()) {
+                return "";
+            }
+
+            String wanted = normalizeDomain(domain);
+            ObjectNode out = objectMapper.createObjectNode();
+            out.put("schema", SCHEMA_QUERIES_V1);
+            out.put("source", "adguard-home");
+            out.put("domain", domain);
+            ArrayNode items = objectMapper.createArrayNode();
+            for (JsonNode entry : data) {
+                if (!wanted.equals(normalizeDomain(entry.path("question").path("name").asText("")))) {
+                    continue;
+                }
+                String reason = entry.path("reason").asText("");
+                boolean blocked = reason.startsWith("Filtered");
+                ObjectNode item = objectMapper.createObjectNode();
+                item.put("time", parseEpochSeconds(entry.path("time").asText("")));
+                item.put("client", entry.path("client").asText(""));
+                item.put("client_name", entry.path("client_info").path("name").asText(""));
+                item.put("blocked", blocked);
+                item.put("status", reason);
+                if (blocked) {
+                    String rule = entry.path("rules").path(0).path("text").asText("");
+                    item.put("list", rule.isBlank() ? reason : rule);
+                }
+                items.add(item);
+            }
+            out.set("queries", items);
+
+            String oldest = agNode.path("oldest").asText("");
+            if (data.size() < pageSize || oldest.isBlank()) {
+                out.putNull("next_cursor");
+            } else {
+                out.put("next_cursor", oldest);
+            }
+            return objectMapper.writeValueAsString(out);
+
+        } catch (Exception e) {
+            logError("Failed to transform AdGuard Home query log to queries schema", e);
+            return "";
+        }
+    }
+
+    private static String normalizeDomain(String name) {
+        String lower = name.trim().toLowerCase(Locale.ROOT);
+        return lower.endsWith(".") ? lower.substring(0, lower.length() - 1) : lower;
+    }
+
+    private static long parseEpochSeconds(String rfc3339) {
+        try {
+            return OffsetDateTime.parse(rfc3339).toEpochSecond();
+        } catch (Exception e) {
+            return 0L;
+        }
+    }
+
+    // ==================== Shared Reads ====================
+
+    /**
+     * /control/stats backs the summary, both top lists and the upstreams; /control/status
+     * the version and the blocking state.
+     */
+    @Override
+    public String resourceOf(Endpoint endpoint) {
+        return switch (endpoint) {
+            case STATS, TOP_BLOCKED, TOP_CLIENTS, UPSTREAMS -> STATS_ENDPOINT;
+            case VERSION, BLOCKING_STATUS -> STATUS_ENDPOINT;
+            default -> DnsBlockerHandler.super.resourceOf(endpoint);
+        };
+    }
+
+    /**
+     * Requests /control/stats and /control/status at most once each, whatever number of
+     * results is derived from them.
+     */
+    @Override
+    public Map<Endpoint, String> fetchAll(Collection<Endpoint> endpoints, int topX) {
+        Map<String, HttpResponsePayload> reads = new HashMap<>();
+        Map<Endpoint, String> results = new EnumMap<>(Endpoint.class);
+        for (Endpoint endpoint : endpoints) {
+            results.put(endpoint, switch (endpoint) {
+                case STATS -> statsFrom(readOnce(reads, STATS_ENDPOINT));
+                case TOP_BLOCKED -> topX <= 0 ? "" : topBlockedFrom(readOnce(reads, STATS_ENDPOINT), topX);
+                case TOP_CLIENTS -> topX <= 0 ? "" : topClientsFrom(readOnce(reads, STATS_ENDPOINT), topX);
+                case UPSTREAMS -> upstreamsFrom(readOnce(reads, STATS_ENDPOINT));
+                case VERSION -> versionFrom(readOnce(reads, STATUS_ENDPOINT));
+                case BLOCKING_STATUS -> blockingStatusFrom(readOnce(reads, STATUS_ENDPOINT));
+                default -> endpoint.fetch(this, topX);
+            });
+        }
+        return results;
+    }
+
+    private HttpResponsePayload readOnce(Map<String, HttpResponsePayload> reads, String endpoint) {
+        if (!reads.containsKey(endpoint)) {
+            reads.put(endpoint, read(endpoint));
+        }
+        return reads.get(endpoint);
+    }
+
+    /**
+     * GETs an endpoint without parameters.
+     *
+     * @return the response, or null if the request failed
+     */
+    private HttpResponsePayload read(String endpoint) {
+        try {
+            return getApi(endpoint, Collections.emptyMap());
+        } catch (IOException e) {
+            logError("IOException while fetching " + endpoint, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            logError("Interrupted while fetching " + endpoint, e);
+        }
+        return null;
+    }
+
     // ==================== Internal Helpers ====================
 
     private Map<String, String> authHeaders() {
@@ -0,0 +1,196 @@
+/*
+ *
+ *  Copyright (C) 2022 - 2025.  Reda ELFARISSI aka FoKss-LTS
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+
+package services.clients;
+
+import helpers.TtlLruCache;
+
+import java.net.InetAddress;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.function.Function;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.regex.Pattern;
+
+/**
+ * Turns client addresses into names without ever blocking the caller.
+ * <p>
+ * Names come first from the blocker itself (its client/network tables, fed through
+ * {@link #learn(Map)}), then from a reverse DNS lookup of the address. {@link #nameFor(String)}
+ * only reads the cache: a miss starts a lookup on the executor and returns null, and the
+ * {@linkplain #setOnResolved(Runnable) resolved callback} fires once a name is found so the
+ * caller can render again. At most {@code maxConcurrentLookups} lookups run at a time; an
+ * address that finds no free slot is simply retried on a later call. Addresses without a
+ * name are cached too, for a shorter time, so they are not looked up on every refresh.
+ * Thread-safe.
+ */
+public final class ClientNameResolver {
+
+    private static final Logger LOGGER = Logger.getLogger(ClientNameResolver.class.getName());
+    private static final boolean VERBOSE = Boolean.parseBoolean(System.getProperty("dnsbloquer.verbose", "false"));
+
+    public static final Duration NAME_TTL = Duration.ofHours(1);
+    public static final Duration MISS_TTL = Duration.ofMinutes(10);
+    public static final int CACHE_ENTRIES = 1024;
+    public static final int DEFAULT_MAX_CONCURRENT_LOOKUPS = 4;
+
+    // Reverse lookups only make sense for address literals; anything else (AdGuard
+    // ClientIDs, host names) would trigger a forward lookup instead.
+    private static final Pattern IPV4 = Pattern.compile("\\d{1,3}(\\.\\d{1,3}){3}");
+    private static final Pattern IPV6 = Pattern.compile("[0-9A-Fa-f:.]*:[0-9A-Fa-f:.]*");
+
+    // Cached names; an empty name is a cached miss
+    private final TtlLruCache<String, String> names;
+    private final Set<String> inFlight = ConcurrentHashMap.newKeySet();
+    private final Semaphore lookupSlots;
+    private final Executor executor;
+    private final Function<String, Optional<String>> reverseLookup;
+    private volatile Runnable onResolved = () -> { };
+
+    public ClientNameResolver(Executor executor) {
+        this(executor, ClientNameResolver::reverseDns, Clock.systemUTC(), DEFAULT_MAX_CONCURRENT_LOOKUPS);
+    }
+
+    ClientNameResolver(Executor executor, Function<String, Optional<String>> reverseLookup, Clock clock,
+            int maxConcurrentLookups) {
+        this.executor = Objects.requireNonNull(executor, "executor");
+        this.reverseLookup = Objects.requireNonNull(reverseLookup, "reverseLookup");
+        this.names = new TtlLruCache<>(CACHE_ENTRIES, NAME_TTL, clock);
+        this.lookupSlots = new Semaphore(Math.max(1, maxConcurrentLookups));
+    }
+
+    private static void log(String message) {
+        if (VERBOSE) {
+            LOGGER.log(Level.FINE, () -> "[ClientNames] " + message);
+        }
+    }
+
+    /**
+     * Called, from a lookup thread, whenever a lookup found a new name.
+     */
+    public void setOnResolved(Runnable action) {
+        onResolved = action == null ? () -> { } : action;
+    }
+
+    /**
+     * Records names the blocker reported (network table, client settings, top clients payload).
+     * They replace cached lookups, including misses.
+     */
+    public void learn(Map<String, String> known) {
+        known.forEach(this::learn);
+    }
+
+    public void learn(String client, String name) {
+        if (client == null || client.isBlank() || name == null || name.isBlank() || name.equals(client)) {
+            return;
+        }
+        names.put(client, name);
+    }
+
+    /**
+     * @return the cached name of {@code client}, or null if none is known yet (a lookup may
+     *         have been started) or the address has no name
+     */
+    public String nameFor(String client) {
+        if (client == null || client.isBlank()) {
+            return null;
+        }
+        Optional<String> cached = names.get(client);
+        if (cached.isPresent()) {
+            return cached.get().isEmpty() ? null : cached.get();
+        }
+        if (!isAddressLiteral(client)) {
+            names.put(client, "", MISS_TTL);
+            return null;
+        }
+        startLookup(client);
+        return null;
+    }
+
+    /**
+     * Forgets every cached name (e.g. after the instances changed).
+     */
+    public void clear() {
+        names.clear();
+    }
+
+    private void startLookup(String client) {
+        if (!inFlight.add(client)) {
+            return;
+        }
+        if (!lookupSlots.tryAcquire()) {
+            // All slots busy: leave it for a later refresh rather than queueing without bound
+            inFlight.remove(client);
+            return;
+        }
+        try {
+            executor.execute(() -> runLookup(client));
+        } catch (RejectedExecutionException e) {
+            lookupSlots.release();
+            inFlight.remove(client);
+        }
+    }
+
+    private void runLookup(String client) {
+        Optional<String> name = Optional.empty();
+        try {
+            name = reverseLookup.apply(client).filter(n -> !n.isBlank() && !n.equals(client));
+        } catch (RuntimeException e) {
+            log("Reverse lookup of " + client + " failed: " + e.getMessage());
+        } finally {
+            // A name learned from the blocker in the meantime wins over the lookup result
+            if (names.get(client).isEmpty()) {
+                names.put(client, name.orElse(""), name.isPresent() ? NAME_TTL : MISS_TTL);
+            }
+            lookupSlots.release();
+            inFlight.remove(client);
+        }
+        log("Resolved " + client + " -> " + name.orElse("(none)"));
+        if (name.isPresent()) {
+            onResolved.run();
+        }
+    }
+
+    static boolean isAddressLiteral(String client) {
+        return IPV4.matcher(client).matches() || IPV6.matcher(client).matches();
+    }
+
+    /**
+     * PTR lookup through the system resolver. Blocking: only called on lookup threads.
+     */
+    static Optional<String> reverseDns(String address) {
+        try {
+            // A literal is parsed without any lookup; getCanonicalHostName does the PTR query
+            // and returns the address itself when there is no name.
+            InetAddress inet = InetAddress.getByName(address);
+            String host = inet.getCanonicalHostName();
+            return host.equals(inet.getHostAddress()) ? Optional.empty() : Optional.of(host);
+        } catch (Exception e) {
+            return Optional.empty();
+        }
+    }
+}
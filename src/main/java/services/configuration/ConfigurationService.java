@@ -20,7 +20,10 @@ package services.configuration;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
+import domain.configuration.AnomalyAlerts;
+import domain.configuration.BlockedPercentWindow;
 import domain.configuration.DnsBlockerConfig;
 import domain.configuration.DnsBlockerType;
 import domain.configuration.WidgetConfig;
@@ -32,12 +35,20 @@ import java.nio.file.Path;
 import java.nio.file.StandardCopyOption;
 import java.nio.file.StandardOpenOption;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 /**
  * Service for reading and writing application configuration.
  * Configuration is stored as JSON in the user's home directory.
+ * <p>
+ * DNS blockers are stored as an ordered {@code Instances} array; the first entry is the
+ * primary instance. Files written before the list existed keep their {@code DNS1} and
+ * {@code DNS2} objects, which are read as a one- or two-entry list and replaced by the
+ * array on the next write.
  */
 public class ConfigurationService {
 
@@ -54,6 +65,7 @@ public class ConfigurationService {
     // JSON keys
     private static final String KEY_DNS1 = "DNS1";
     private static final String KEY_DNS2 = "DNS2";
+    private static final String KEY_INSTANCES = "Instances";
     private static final String KEY_WIDGET = "Widget";
     private static final String KEY_PLATFORM = "Platform";
     private static final String KEY_SCHEME = "Scheme";
@@ -61,6 +73,8 @@ public class ConfigurationService {
     private static final String KEY_PORT = "Port";
     private static final String KEY_USERNAME = "Username";
     private static final String KEY_PASSWORD = "Password";
+    private static final String KEY_ALERTS_ENABLED = "AlertsEnabled";
+    private static final String KEY_ALERT_THRESHOLD = "AlertThreshold";
     private static final String KEY_SIZE = "Size";
     private static final String KEY_LAYOUT = "Layout";
     private static final String KEY_THEME = "Theme";
@@ -69,12 +83,19 @@ public class ConfigurationService {
     private static final String KEY_UPDATE_ACTIVE = "UpdateActiveSec";
     private static final String KEY_UPDATE_TOPX = "UpdateTopXSec";
     private static final String KEY_TOPX = "TopX";
+    private static final String KEY_SHOW_LIVE = "ShowLive";
+    private static final String KEY_SHOW_STATUS = "ShowStatus";
+    private static final String KEY_SHOW_FLUID = "ShowFluid";
+    private static final String KEY_SHOW_TOPX = "ShowTopX";
+    private static final String KEY_SHOW_TREND = "ShowTrend";
+    private static final String KEY_FLUID_WINDOW = "FluidWindow";
+    private static final String KEY_SHOW_TOP_CLIENTS = "ShowTopClients";
+    private static final String KEY_SHOW_UPSTREAMS = "ShowUpstreams";
 
     private final Path configFilePath;
     private final ObjectMapper objectMapper;
 
-    private DnsBlockerConfig configDNS1;
-    private DnsBlockerConfig configDNS2;
+    private List<DnsBlockerConfig> instances = List.of();
     private WidgetConfig widgetConfig;
 
     public ConfigurationService() {
@@ -82,6 +103,13 @@ public class ConfigurationService {
         this.objectMapper = new ObjectMapper();
     }
 
+    /**
+     * The folder holding the settings file and the other per-user data (history...).
+     */
+    public static Path getConfigDirectory() {
+        return Path.of(HOME, FOLDER_NAME);
+    }
+
     private static void log(String message) {
         if (VERBOSE) {
             LOGGER.log(Level.FINE, () -> "[ConfigService] " + message);
@@ -104,13 +132,11 @@ public class ConfigurationService {
         try {
             JsonNode root = objectMapper.readTree(configFilePath.toFile());
 
-            configDNS1 = parseDnsConfig(root.get(KEY_DNS1));
-            configDNS2 = parseDnsConfig(root.get(KEY_DNS2));
+            instances = parseInstances(root);
             widgetConfig = parseWidgetConfig(root.get(KEY_WIDGET));
 
             log("Configuration loaded successfully");
-            log("DNS1: " + (configDNS1 != null ? configDNS1.getIPAddress() : "null"));
-            log("DNS2: " + (configDNS2 != null ? configDNS2.getIPAddress() : "null"));
+            log("Instances: " + instances.stream().map(DnsBlockerConfig::getIPAddress).toList());
 
         } catch (IOException e) {
             LOGGER.log(Level.SEVERE, "Failed to read configuration (will attempt self-heal)", e);
@@ -130,12 +156,12 @@ public class ConfigurationService {
 
         try {
             JsonNode root = objectMapper.readTree(configFilePath.toFile());
-            configDNS1 = parseDnsConfig(root.get(KEY_DNS1));
+            instances = parseInstances(root);
             widgetConfig = parseWidgetConfig(root.get(KEY_WIDGET));
         } catch (Exception e) {
             // Last resort: keep safe defaults in memory.
             LOGGER.log(Level.SEVERE, "Self-heal failed; using in-memory defaults", e);
-            configDNS1 = null;
+            instances = List.of();
             widgetConfig = WidgetConfig.defaultConfig();
         }
     }
@@ -154,8 +180,34 @@ public class ConfigurationService {
         log("Backed up corrupt config to: " + backup);
     }
 
+    private List<DnsBlockerConfig> parseInstances(JsonNode root) {
+        List<DnsBlockerConfig> parsed = new ArrayList<>();
+        JsonNode array = root.get(KEY_INSTANCES);
+        if (array != null && array.isArray()) {
+            for (JsonNode node : array) {
+                DnsBlockerConfig config = parseDnsConfig(node);
+                // Secondary entries without an address are placeholders, not instances.
+                if (config != null && (parsed.isEmpty() || config.hasValidAddress())) {
+                    parsed.add(config);
+                }
+            }
+            return List.copyOf(parsed);
+        }
+
+        // Legacy layout: a primary and an optional secondary object
+        DnsBlockerConfig dns1 = parseDnsConfig(root.get(KEY_DNS1));
+        DnsBlockerConfig dns2 = parseDnsConfig(root.get(KEY_DNS2));
+        if (dns1 != null) {
+            parsed.add(dns1);
+        }
+        if (dns2 != null && dns2.hasValidAddress()) {
+            parsed.add(dns2);
+        }
+        return List.copyOf(parsed);
+    }
+
     private DnsBlockerConfig parseDnsConfig(JsonNode node) {
-        if (node == null) {
+        if (node == null || !node.isObject()) {
             return null;
         }
 
@@ -168,8 +220,11 @@ public class ConfigurationService {
         String scheme = getTextOrDefault(node, KEY_SCHEME, DnsBlockerConfig.DEFAULT_SCHEME);
         String username = getTextOrDefault(node, KEY_USERNAME, DnsBlockerConfig.DEFAULT_USERNAME);
         String password = getTextOrDefault(node, KEY_PASSWORD, "");
+        AnomalyAlerts alerts = new AnomalyAlerts(
+                getBooleanOrDefault(node, KEY_ALERTS_ENABLED, true),
+                getDoubleOrDefault(node, KEY_ALERT_THRESHOLD, AnomalyAlerts.DEFAULT_THRESHOLD));
 
-        return new DnsBlockerConfig(platform, ip, port, scheme, username, password);
+        return new DnsBlockerConfig(platform, ip, port, scheme, username, password, alerts);
     }
 
     private WidgetConfig parseWidgetConfig(JsonNode node) {
@@ -185,9 +240,25 @@ public class ConfigurationService {
         int updateFluid = getIntOrDefault(node, KEY_UPDATE_FLUID, WidgetConfig.DEFAULT_FLUID_UPDATE_SEC);
         int updateActive = getIntOrDefault(node, KEY_UPDATE_ACTIVE, WidgetConfig.DEFAULT_ACTIVE_UPDATE_SEC);
         int updateTopX = getIntOrDefault(node, KEY_UPDATE_TOPX, WidgetConfig.DEFAULT_TOPX_UPDATE_SEC);
-
-        return new WidgetConfig(size, layout, theme, true, true, true, updateStatus, updateFluid, updateActive,
-                updateTopX, topX);
+        // Files written before tile visibility was configurable show every tile.
+        boolean showLive = getBooleanOrDefault(node, KEY_SHOW_LIVE, true);
+        boolean showStatus = getBooleanOrDefault(node, KEY_SHOW_STATUS, true);
+        boolean showFluid = getBooleanOrDefault(node, KEY_SHOW_FLUID, true);
+        boolean showTopX = getBooleanOrDefault(node, KEY_SHOW_TOPX, true);
+        // The trend tile is opt-in.
+        boolean showTrend = getBooleanOrDefault(node, KEY_SHOW_TREND, false);
+        BlockedPercentWindow fluidWindow = BlockedPercentWindow.fromString(getTextOrDefault(node, KEY_FLUID_WINDOW, ""));
+        // The Top Clients tile is opt-in as well.
+        boolean showTopClients = getBooleanOrDefault(node, KEY_SHOW_TOP_CLIENTS, false);
+        boolean showUpstreams = getBooleanOrDefault(node, KEY_SHOW_UPSTREAMS, false);
+
+        return new WidgetConfig(size, layout, theme, showLive, showStatus, showFluid, updateStatus, updateFluid,
+                updateActive, updateTopX, topX)
+                .withShowTopX(showTopX)
+                .withShowTrend(showTrend)
+                .withFluidWindow(fluidWindow)
+                .withShowTopClients(showTopClients)
+                .withShowUpstreams(showUpstreams);
     }
 
     private String getTextOrDefault(JsonNode node, String key, String defaultValue) {
@@ -204,6 +275,20 @@ public class ConfigurationService {
         return node.get(key).asInt(defaultValue);
     }
 
+    private double getDoubleOrDefault(JsonNode node, String key, double defaultValue) {
+        if (node == null || !node.has(key) || node.get(key).isNull()) {
+            return defaultValue;
+        }
+        return node.get(key).asDouble(defaultValue);
+    }
+
+    private boolean getBooleanOrDefault(JsonNode node, String key, boolean defaultValue) {
+        if (node == null || !node.has(key) || node.get(key).isNull()) {
+            return defaultValue;
+        }
+        return node.get(key).asBoolean(defaultValue);
+    }
+
     /**
      * Creates the configuration file with default values.
      */
@@ -219,22 +304,16 @@ public class ConfigurationService {
         }
 
         return writeConfigFile(
-                DnsBlockerType.PIHOLE, DnsBlockerConfig.DEFAULT_SCHEME, DnsBlockerConfig.DEFAULT_IP,
-                DnsBlockerConfig.DEFAULT_PORT, DnsBlockerConfig.DEFAULT_USERNAME, "",
-                // DNS2 params retained for legacy signature but unused.
-                DnsBlockerType.PIHOLE, DnsBlockerConfig.DEFAULT_SCHEME, "",
-                DnsBlockerConfig.DEFAULT_PORT, DnsBlockerConfig.DEFAULT_USERNAME, "",
-                WidgetConfig.DEFAULT_SIZE, WidgetConfig.DEFAULT_LAYOUT, WidgetConfig.DEFAULT_THEME,
-                true, true, true,
-                WidgetConfig.DEFAULT_TOPX_COUNT,
-                WidgetConfig.DEFAULT_STATUS_UPDATE_SEC,
-                WidgetConfig.DEFAULT_FLUID_UPDATE_SEC,
-                WidgetConfig.DEFAULT_ACTIVE_UPDATE_SEC,
-                WidgetConfig.DEFAULT_TOPX_UPDATE_SEC);
+                List.of(new DnsBlockerConfig(DnsBlockerType.PIHOLE, DnsBlockerConfig.DEFAULT_IP,
+                        DnsBlockerConfig.DEFAULT_PORT, DnsBlockerConfig.DEFAULT_SCHEME,
+                        DnsBlockerConfig.DEFAULT_USERNAME, "")),
+                WidgetConfig.defaultConfig());
     }
 
     /**
      * Writes configuration to the settings file.
+     * Legacy positional form for exactly two instances; the Top X tile is written as shown.
+     * New callers should use {@link #writeConfigFile(List, WidgetConfig)}.
      */
     public boolean writeConfigFile(
             DnsBlockerType platform1, String scheme1, String ip1, int port1, String username1, String auth1,
@@ -243,41 +322,71 @@ public class ConfigurationService {
             boolean showLive, boolean showStatus, boolean showFluid,
             int topX,
             int updateStatusSec, int updateFluidSec, int updateActiveSec, int updateTopXSec) {
+        return writeConfigFile(
+                new DnsBlockerConfig(platform1, ip1, port1, scheme1, username1, auth1),
+                new DnsBlockerConfig(platform2, ip2, port2, scheme2, username2, auth2),
+                new WidgetConfig(size, layout, theme, showLive, showStatus, showFluid,
+                        updateStatusSec, updateFluidSec, updateActiveSec, updateTopXSec, topX));
+    }
+
+    /**
+     * Writes configuration to the settings file with a primary and an optional secondary instance.
+     *
+     * @param dns1   primary DNS blocker (null writes an empty placeholder)
+     * @param dns2   secondary DNS blocker (may be null; not written without an address)
+     * @param widget widget display settings (null writes the defaults)
+     * @return true if the file was written
+     */
+    public boolean writeConfigFile(DnsBlockerConfig dns1, DnsBlockerConfig dns2, WidgetConfig widget) {
+        List<DnsBlockerConfig> list = new ArrayList<>();
+        list.add(dns1 != null ? dns1 : new DnsBlockerConfig(null, "", 0, null, null, null));
+        if (dns2 != null && dns2.hasValidAddress()) {
+            list.add(dns2);
+        }
+        return writeConfigFile(list, widget);
+    }
 
+    /**
+     * Writes configuration to the settings file.
+     *
+     * @param dnsBlockers the DNS blockers, primary first; null entries and secondary entries
+     *                    without an address are not written
+     * @param widget      widget display settings (null writes the defaults)
+     * @return true if the file was written
+     */
+    public boolean writeConfigFile(List<DnsBlockerConfig> dnsBlockers, WidgetConfig widget) {
         log("Writing configuration to: " + configFilePath);
 
-        ObjectNode root = objectMapper.createObjectNode();
+        WidgetConfig display = widget != null ? widget : WidgetConfig.defaultConfig();
 
-        // DNS1 configuration
-        ObjectNode dns1Node = objectMapper.createObjectNode();
-        dns1Node.put(KEY_PLATFORM, platform1 != null ? platform1.name() : DnsBlockerType.PIHOLE.name());
-        dns1Node.put(KEY_SCHEME, scheme1);
-        dns1Node.put(KEY_IP, ip1);
-        dns1Node.put(KEY_PORT, port1);
-        dns1Node.put(KEY_USERNAME, username1 != null ? username1 : "");
-        dns1Node.put(KEY_PASSWORD, auth1);
-        root.set(KEY_DNS1, dns1Node);
-
-        // DNS2 configuration
-        ObjectNode dns2Node = objectMapper.createObjectNode();
-        dns2Node.put(KEY_PLATFORM, platform2 != null ? platform2.name() : DnsBlockerType.PIHOLE.name());
-        dns2Node.put(KEY_SCHEME, scheme2);
-        dns2Node.put(KEY_IP, ip2);
-        dns2Node.put(KEY_PORT, port2);
-        dns2Node.put(KEY_USERNAME, username2 != null ? username2 : "");
-        dns2Node.put(KEY_PASSWORD, auth2);
-        root.set(KEY_DNS2, dns2Node);
+        ObjectNode root = objectMapper.createObjectNode();
+        ArrayNode instancesNode = root.putArray(KEY_INSTANCES);
+        if (dnsBlockers != null) {
+            for (DnsBlockerConfig config : dnsBlockers.stream().filter(Objects::nonNull).toList()) {
+                if (instancesNode.isEmpty() || config.hasValidAddress()) {
+                    instancesNode.add(toDnsNode(config));
+                }
+            }
+        }
 
         // Widget configuration
         ObjectNode widgetNode = objectMapper.createObjectNode();
-        widgetNode.put(KEY_SIZE, size);
-        widgetNode.put(KEY_LAYOUT, layout);
-        widgetNode.put(KEY_THEME, theme != null ? theme : WidgetConfig.DEFAULT_THEME);
-        widgetNode.put(KEY_TOPX, topX);
-        widgetNode.put(KEY_UPDATE_STATUS, updateStatusSec);
-        widgetNode.put(KEY_UPDATE_FLUID, updateFluidSec);
-        widgetNode.put(KEY_UPDATE_ACTIVE, updateActiveSec);
-        widgetNode.put(KEY_UPDATE_TOPX, updateTopXSec);
+        widgetNode.put(KEY_SIZE, display.size());
+        widgetNode.put(KEY_LAYOUT, display.layout());
+        widgetNode.put(KEY_THEME, display.theme());
+        widgetNode.put(KEY_TOPX, display.topX());
+        widgetNode.put(KEY_UPDATE_STATUS, display.updateStatusSec());
+        widgetNode.put(KEY_UPDATE_FLUID, display.updateFluidSec());
+        widgetNode.put(KEY_UPDATE_ACTIVE, display.updateActiveSec());
+        widgetNode.put(KEY_UPDATE_TOPX, display.updateTopXSec());
+        widgetNode.put(KEY_SHOW_LIVE, display.showLive());
+        widgetNode.put(KEY_SHOW_STATUS, display.showStatus());
+        widgetNode.put(KEY_SHOW_FLUID, display.showFluid());
+        widgetNode.put(KEY_SHOW_TOPX, display.showTopX());
+        widgetNode.put(KEY_SHOW_TREND, display.showTrend());
+        widgetNode.put(KEY_FLUID_WINDOW, display.fluidWindow().name());
+        widgetNode.put(KEY_SHOW_TOP_CLIENTS, display.showTopClients());
+        widgetNode.put(KEY_SHOW_UPSTREAMS, display.showUpstreams());
         root.set(KEY_WIDGET, widgetNode);
 
         try {
@@ -297,6 +406,19 @@ public class ConfigurationService {
         }
     }
 
+    private ObjectNode toDnsNode(DnsBlockerConfig config) {
+        ObjectNode node = objectMapper.createObjectNode();
+        node.put(KEY_PLATFORM, config.platform().name());
+        node.put(KEY_SCHEME, config.scheme());
+        node.put(KEY_IP, config.ipAddress());
+        node.put(KEY_PORT, config.port());
+        node.put(KEY_USERNAME, config.username());
+        node.put(KEY_PASSWORD, config.password());
+        node.put(KEY_ALERTS_ENABLED, config.alerts().enabled());
+        node.put(KEY_ALERT_THRESHOLD, config.alerts().threshold());
+        return node;
+    }
+
     private void writeStringAtomically(Path target, String content) throws IOException {
         Path parent = target.getParent();
         if (parent != null) {
@@ -317,12 +439,25 @@ public class ConfigurationService {
 
     // ==================== Getters ====================
 
+    /**
+     * @return the configured DNS blockers, primary first (empty until read)
+     */
+    public List<DnsBlockerConfig> getInstances() {
+        return instances;
+    }
+
+    /**
+     * @return the primary DNS blocker, or null if none is configured
+     */
     public DnsBlockerConfig getConfigDNS1() {
-        return configDNS1;
+        return instances.isEmpty() ? null : instances.get(0);
     }
 
+    /**
+     * @return the second DNS blocker, or null if fewer than two are configured
+     */
     public DnsBlockerConfig getConfigDNS2() {
-        return configDNS2;
+        return instances.size() < 2 ? null : instances.get(1);
     }
 
     public WidgetConfig getWidgetConfig() {
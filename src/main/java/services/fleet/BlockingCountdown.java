@@ -0,0 +1,99 @@
+/*
+ *
+ *  Copyright (C) 2022 - 2025.  Reda ELFARISSI aka FoKss-LTS
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+
+package services.fleet;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.function.LongSupplier;
+
+/**
+ * Time left of a timed blocking disable, counted locally.
+ * The deadline is taken once from the timer the server reported and then followed on the
+ * monotonic {@link System#nanoTime()} clock, so the countdown needs no status polls and is
+ * not affected by wall-clock changes. Thread-safe.
+ */
+public final class BlockingCountdown {
+
+    private static final long NOT_RUNNING = Long.MIN_VALUE;
+
+    private final LongSupplier nanoClock;
+    private long deadlineNanos = NOT_RUNNING;
+
+    public BlockingCountdown() {
+        this(System::nanoTime);
+    }
+
+    BlockingCountdown(LongSupplier nanoClock) {
+        this.nanoClock = Objects.requireNonNull(nanoClock, "nanoClock");
+    }
+
+    /**
+     * Starts (or restarts) the countdown.
+     *
+     * @param seconds time left as reported by the server; ignored unless positive
+     * @return whether a countdown is now running
+     */
+    public synchronized boolean start(double seconds) {
+        if (!(seconds > 0)) {
+            return deadlineNanos != NOT_RUNNING;
+        }
+        deadlineNanos = nanoClock.getAsLong() + Math.round(seconds * 1_000_000_000d);
+        return true;
+    }
+
+    public synchronized void cancel() {
+        deadlineNanos = NOT_RUNNING;
+    }
+
+    /**
+     * @return whether a countdown was started and not cancelled, expired or not
+     */
+    public synchronized boolean isRunning() {
+        return deadlineNanos != NOT_RUNNING;
+    }
+
+    public synchronized boolean isExpired() {
+        return deadlineNanos != NOT_RUNNING && nanoClock.getAsLong() - deadlineNanos >= 0;
+    }
+
+    /**
+     * @return the time left, zero when expired or not running
+     */
+    public synchronized Duration remaining() {
+        if (deadlineNanos == NOT_RUNNING) {
+            return Duration.ZERO;
+        }
+        return Duration.ofNanos(Math.max(0L, deadlineNanos - nanoClock.getAsLong()));
+    }
+
+    /**
+     * "m:ss", or "h:mm:ss" from one hour; partial seconds are rounded up so the display
+     * reaches 0:00 only at expiry.
+     */
+    public static String format(Duration remaining) {
+        long seconds = (remaining.toNanos() + 999_999_999L) / 1_000_000_000L;
+        long hours = seconds / 3600;
+        long minutes = (seconds % 3600) / 60;
+        long secs = seconds % 60;
+        return hours > 0
+                ? String.format(Locale.ROOT, "%d:%02d:%02d", hours, minutes, secs)
+                : String.format(Locale.ROOT, "%d:%02d", minutes, secs);
+    }
+}
@@ -0,0 +1,53 @@
+/*
+ *
+ *  Copyright (C) 2022 - 2025.  Reda ELFARISSI aka FoKss-LTS
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+
+package services.fleet;
+
+/**
+ * DNS blocking state of a fleet of instances.
+ */
+public enum BlockingState {
+    ENABLED, DISABLED, MIXED, UNKNOWN;
+
+    /**
+     * Combines the blocking state of every reachable instance: ENABLED or DISABLED when
+     * all known states agree, MIXED when they differ, UNKNOWN when none is known. Null
+     * entries (unreachable instances, unknown state) are ignored. Runs in one pass.
+     */
+    public static BlockingState of(Iterable<Boolean> states) {
+        boolean anyEnabled = false;
+        boolean anyDisabled = false;
+        for (Boolean enabled : states) {
+            if (enabled == null) {
+                continue;
+            }
+            if (enabled) {
+                anyEnabled = true;
+            } else {
+                anyDisabled = true;
+            }
+            if (anyEnabled && anyDisabled) {
+                return MIXED;
+            }
+        }
+        if (anyEnabled) {
+            return ENABLED;
+        }
+        return anyDisabled ? DISABLED : UNKNOWN;
+    }
+}
@@ -0,0 +1,223 @@
+/*
+ *
+ *  Copyright (C) 2022 - 2025.  Reda ELFARISSI aka FoKss-LTS
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+
+package services.fleet;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Serialized blocking writes, one lane per instance.
+ * Every request gets a version from a single counter and becomes the desired state of its
+ * instances. A lane writes one state at a time and then picks up whatever is desired at that
+ * moment, so a burst of clicks collapses into the last one instead of a queue of writes that
+ * may land out of order. A request that was overtaken completes with the outcome of the write
+ * that replaced it.
+ * <p>
+ * The version also guards reads: a status poll that started before the latest request, or
+ * while a write was running, may predate it, and {@link #isSettledSince(long)} tells the
+ * caller to drop it. Outcomes are reported to the listener in version order per instance.
+ */
+public final class BlockingWriteQueue {
+
+    private static final Logger LOGGER = Logger.getLogger(BlockingWriteQueue.class.getName());
+    private static final boolean VERBOSE = Boolean.parseBoolean(System.getProperty("dnsbloquer.verbose", "false"));
+
+    /**
+     * Outcomes of one request.
+     *
+     * @param version  the request's version
+     * @param outcomes one outcome per written instance, in request order
+     */
+    public record Batch(long version, List<BlockingWriter.Outcome> outcomes) {
+    }
+
+    private record Desired(InstanceRegistry.Instance instance, boolean enable, Integer timerSeconds, long version) {
+    }
+
+    private record Waiter(long version, CompletableFuture<BlockingWriter.Outcome> future) {
+    }
+
+    private final BlockingWriter writer;
+    private final Semaphore slots;
+    private final Consumer<BlockingWriter.Outcome> listener;
+    private final AtomicLong versions = new AtomicLong();
+    private final Map<String, Lane> lanes = new ConcurrentHashMap<>();
+    private volatile boolean latestEnable;
+
+    /**
+     * @param writer         writes and reads back one instance
+     * @param maxConcurrency maximum number of instances written at the same time
+     * @param listener       receives every applied outcome, on the lane's thread
+     */
+    public BlockingWriteQueue(BlockingWriter writer, int maxConcurrency, Consumer<BlockingWriter.Outcome> listener) {
+        if (maxConcurrency <= 0) {
+            throw new IllegalArgumentException("maxConcurrency must be > 0");
+        }
+        this.writer = Objects.requireNonNull(writer, "writer");
+        this.slots = new Semaphore(maxConcurrency);
+        this.listener = Objects.requireNonNull(listener, "listener");
+    }
+
+    private static void log(String message) {
+        if (VERBOSE) {
+            LOGGER.log(Level.FINE, () -> "[BlockingWriteQueue] " + message);
+        }
+    }
+
+    /**
+     * Makes {@code enable} the desired state of every instance that has a handler.
+     *
+     * @param timerSeconds seconds after which the server reverts the change, or null for none
+     * @return completes once every instance has applied this request or a newer one
+     */
+    public CompletableFuture<Batch> submit(List<InstanceRegistry.Instance> instances, boolean enable,
+            Integer timerSeconds) {
+        List<CompletableFuture<BlockingWriter.Outcome>> futures = new ArrayList<>();
+        long version;
+        // One version for the whole request, assigned in submission order
+        synchronized (this) {
+            version = versions.incrementAndGet();
+            latestEnable = enable;
+            for (InstanceRegistry.Instance instance : instances) {
+                if (instance != null && instance.handler() != null) {
+                    Lane lane = lanes.computeIfAbsent(instance.id(), _ -> new Lane());
+                    futures.add(lane.offer(new Desired(instance, enable, timerSeconds, version)));
+                }
+            }
+        }
+        log("Request #" + version + " -> " + (enable ? "enable" : "disable") + " on " + futures.size()
+                + " instance(s)");
+        return CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new))
+                .thenApply(_ -> new Batch(version, futures.stream().map(CompletableFuture::join).toList()));
+    }
+
+    /**
+     * @return the version of the latest request (0 before any)
+     */
+    public long latestVersion() {
+        return versions.get();
+    }
+
+    /**
+     * @return the state of the latest request while any instance is still writing, else null
+     */
+    public Boolean pendingTarget() {
+        for (Lane lane : lanes.values()) {
+            if (lane.isBusy()) {
+                return latestEnable;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @param version {@link #latestVersion()} taken before a status read was sent
+     * @return false if a request was made or a write was running since, so the read may be stale
+     */
+    public boolean isSettledSince(long version) {
+        return versions.get() == version && pendingTarget() == null;
+    }
+
+    /**
+     * One instance's writes. Its drain loop runs on a virtual thread only while work is queued.
+     */
+    private final class Lane {
+        private final List<Waiter> waiters = new ArrayList<>();
+        private Desired desired;
+        private long appliedVersion;
+        private boolean draining;
+
+        private CompletableFuture<BlockingWriter.Outcome> offer(Desired next) {
+            CompletableFuture<BlockingWriter.Outcome> future = new CompletableFuture<>();
+            boolean start;
+            synchronized (this) {
+                desired = next;
+                waiters.add(new Waiter(next.version(), future));
+                start = !draining;
+                draining = true;
+            }
+            if (start) {
+                // Inherits the caller's interactive scope, so the writes keep their priority
+                Thread.ofVirtual().name("dnsblocker-write-", next.version()).start(this::drain);
+            }
+            return future;
+        }
+
+        private synchronized boolean isBusy() {
+            return draining;
+        }
+
+        private void drain() {
+            while (true) {
+                Desired next;
+                synchronized (this) {
+                    next = desired;
+                    if (next == null || next.version() <= appliedVersion) {
+                        draining = false;
+                        return;
+                    }
+                }
+                BlockingWriter.Outcome outcome = write(next);
+                synchronized (this) {
+                    appliedVersion = next.version();
+                    try {
+                        listener.accept(outcome);
+                    } catch (RuntimeException e) {
+                        LOGGER.log(Level.WARNING, "Blocking write listener failed", e);
+                    }
+                    // Requests overtaken by this write share its outcome
+                    for (Iterator<Waiter> it = waiters.iterator(); it.hasNext(); ) {
+                        Waiter waiter = it.next();
+                        if (waiter.version() <= next.version()) {
+                            waiter.future().complete(outcome);
+                            it.remove();
+                        }
+                    }
+                }
+            }
+        }
+
+        private BlockingWriter.Outcome write(Desired next) {
+            try {
+                slots.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return new BlockingWriter.Outcome(next.instance(), BlockingWriter.Status.UNREACHABLE, null, "", 0);
+            }
+            try {
+                return writer.write(next.instance(), next.enable(), next.timerSeconds());
+            } catch (RuntimeException e) {
+                LOGGER.log(Level.WARNING, "Blocking write failed for " + next.instance().id(), e);
+                return new BlockingWriter.Outcome(next.instance(), BlockingWriter.Status.UNREACHABLE, null, "", 0);
+            } finally {
+                slots.release();
+            }
+        }
+    }
+}
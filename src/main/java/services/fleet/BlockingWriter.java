@@ -0,0 +1,174 @@
+/*
+ *
+ *  Copyright (C) 2022 - 2025.  Reda ELFARISSI aka FoKss-LTS
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+
+package services.fleet;
+
+import services.DnsBlockerHandler;
+import services.polling.StatsParser;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Writes a DNS blocking state to a fleet and checks that it took.
+ * Every instance is written in parallel, then its blocking status is read back; an instance
+ * that does not report the requested state is written again, up to {@code maxAttempts}
+ * times, before it is reported as failed with the state it actually has.
+ * <p>
+ * Has no UI dependency: callers show the {@link Outcome}s and cache the read-back status.
+ */
+public final class BlockingWriter {
+
+    private static final Logger LOGGER = Logger.getLogger(BlockingWriter.class.getName());
+    private static final boolean VERBOSE = Boolean.parseBoolean(System.getProperty("dnsbloquer.verbose", "false"));
+
+    /**
+     * How a write ended for one instance.
+     */
+    public enum Status {
+        /** The first write was read back with the requested state. */
+        CONFIRMED,
+        /** The requested state was read back after more than one write. */
+        RETRIED,
+        /** The instance answered but kept a different state. */
+        FAILED,
+        /** The blocking status could not be read back. */
+        UNREACHABLE
+    }
+
+    /**
+     * Result of a write to one instance.
+     *
+     * @param instance   the instance written to
+     * @param status     how the write ended
+     * @param actual     the blocking state read back, or null if none could be read
+     * @param statusJson the last blocking status response (empty if none)
+     * @param attempts   number of writes sent
+     */
+    public record Outcome(InstanceRegistry.Instance instance, Status status, Boolean actual, String statusJson,
+            int attempts) {
+
+        public boolean converged() {
+            return status == Status.CONFIRMED || status == Status.RETRIED;
+        }
+    }
+
+    private final int maxConcurrency;
+    private final int maxAttempts;
+    private final Duration retryDelay;
+
+    /**
+     * @param maxConcurrency maximum number of instances written at the same time
+     * @param maxAttempts    writes per instance before giving up (at least 1)
+     * @param retryDelay     pause before writing an instance again
+     */
+    public BlockingWriter(int maxConcurrency, int maxAttempts, Duration retryDelay) {
+        if (maxConcurrency <= 0) {
+            throw new IllegalArgumentException("maxConcurrency must be > 0");
+        }
+        if (maxAttempts <= 0) {
+            throw new IllegalArgumentException("maxAttempts must be > 0");
+        }
+        this.maxConcurrency = maxConcurrency;
+        this.maxAttempts = maxAttempts;
+        this.retryDelay = Objects.requireNonNull(retryDelay, "retryDelay");
+    }
+
+    private static void log(String message) {
+        if (VERBOSE) {
+            LOGGER.log(Level.FINE, () -> "[BlockingWriter] " + message);
+        }
+    }
+
+    /**
+     * Writes {@code enable} to every instance that has a handler and waits for all of them.
+     *
+     * @param timerSeconds seconds after which the server reverts the change, or null for none
+     * @return one outcome per written instance, in registry order
+     */
+    public List<Outcome> writeAll(Collection<InstanceRegistry.Instance> instances, boolean enable,
+            Integer timerSeconds) {
+        List<InstanceRegistry.Instance> targets = new ArrayList<>();
+        for (InstanceRegistry.Instance instance : instances) {
+            if (instance != null && instance.handler() != null) {
+                targets.add(instance);
+            }
+        }
+        ConcurrentHashMap<Integer, Outcome> results = new ConcurrentHashMap<>();
+        FanOut.forEach(targets, maxConcurrency,
+                instance -> results.put(instance.index(), write(instance, enable, timerSeconds)));
+
+        List<Outcome> outcomes = new ArrayList<>(targets.size());
+        for (InstanceRegistry.Instance instance : targets) {
+            // Missing only if the fan-out was interrupted before this instance was handled
+            outcomes.add(results.getOrDefault(instance.index(),
+                    new Outcome(instance, Status.UNREACHABLE, null, "", 0)));
+        }
+        return outcomes;
+    }
+
+    /**
+     * Writes {@code enable} to one instance and reads it back, retrying until it converges.
+     */
+    public Outcome write(InstanceRegistry.Instance instance, boolean enable, Integer timerSeconds) {
+        DnsBlockerHandler handler = instance.handler();
+        String statusJson = "";
+        Boolean actual = null;
+        int attempts = 0;
+        while (attempts < maxAttempts) {
+            if (attempts > 0 && !pause()) {
+                break;
+            }
+            attempts++;
+            handler.setDnsBlocking(enable, timerSeconds);
+            String readBack = handler.getDnsBlockingStatus();
+            Boolean state = StatsParser.parseDnsBlockingEnabled(readBack);
+            if (state != null) {
+                statusJson = readBack;
+                actual = state;
+            }
+            if (state != null && state == enable) {
+                log(instance.id() + " -> " + (enable ? "enabled" : "disabled") + " after " + attempts + " write(s)");
+                return new Outcome(instance, attempts == 1 ? Status.CONFIRMED : Status.RETRIED, state, statusJson,
+                        attempts);
+            }
+            log(instance.id() + " reports " + state + " after write " + attempts);
+        }
+        return new Outcome(instance, actual == null ? Status.UNREACHABLE : Status.FAILED, actual, statusJson,
+                attempts);
+    }
+
+    private boolean pause() {
+        if (retryDelay.isZero() || retryDelay.isNegative()) {
+            return !Thread.currentThread().isInterrupted();
+        }
+        try {
+            Thread.sleep(retryDelay);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
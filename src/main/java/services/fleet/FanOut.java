@@ -0,0 +1,102 @@
+/*
+ *
+ *  Copyright (C) 2022 - 2025.  Reda ELFARISSI aka FoKss-LTS
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+
+package services.fleet;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Runs one action per item on virtual threads, at most {@code maxConcurrency} at a time,
+ * and returns once every item was handled. Used to talk to many DNS blockers at once
+ * without opening a connection to all of them simultaneously.
+ * <p>
+ * Workers pull the next item from a shared index, so a slow instance only holds up its own
+ * worker. An action that throws is logged and does not stop the other items. A single item
+ * (the common one-instance setup) runs on the calling thread.
+ */
+public final class FanOut {
+
+    private static final Logger LOGGER = Logger.getLogger(FanOut.class.getName());
+
+    private FanOut() {
+        throw new UnsupportedOperationException("This is a utility class and cannot be instantiated");
+    }
+
+    /**
+     * Applies {@code action} to every item and waits for all of them. If the calling thread
+     * is interrupted while waiting, the workers are interrupted, no further items are
+     * started and the interrupt flag is restored before returning.
+     *
+     * @param items          the items, handled in iteration order
+     * @param maxConcurrency maximum number of items handled at the same time
+     * @param action         the work for one item
+     */
+    public static <T> void forEach(Collection<? extends T> items, int maxConcurrency, Consumer<? super T> action) {
+        if (maxConcurrency <= 0) {
+            throw new IllegalArgumentException("maxConcurrency must be > 0");
+        }
+        if (items == null || items.isEmpty()) {
+            return;
+        }
+        List<? extends T> list = List.copyOf(items);
+        if (list.size() == 1 || maxConcurrency == 1) {
+            for (T item : list) {
+                if (Thread.currentThread().isInterrupted()) {
+                    return;
+                }
+                runQuietly(action, item);
+            }
+            return;
+        }
+
+        AtomicInteger next = new AtomicInteger();
+        Runnable worker = () -> {
+            int index;
+            while (!Thread.currentThread().isInterrupted() && (index = next.getAndIncrement()) < list.size()) {
+                runQuietly(action, list.get(index));
+            }
+        };
+        int workerCount = Math.min(maxConcurrency, list.size());
+        List<Thread> workers = new ArrayList<>(workerCount);
+        for (int i = 0; i < workerCount; i++) {
+            workers.add(Thread.ofVirtual().name("dnsblocker-fanout-", i).start(worker));
+        }
+        try {
+            for (Thread thread : workers) {
+                thread.join();
+            }
+        } catch (InterruptedException e) {
+            workers.forEach(Thread::interrupt);
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static <T> void runQuietly(Consumer<? super T> action, T item) {
+        try {
+            action.accept(item);
+        } catch (RuntimeException e) {
+            LOGGER.log(Level.WARNING, "Fan-out task failed for " + item, e);
+        }
+    }
+}
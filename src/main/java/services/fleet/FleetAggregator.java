@@ -0,0 +1,161 @@
+/*
+ *
+ *  Copyright (C) 2022 - 2025.  Reda ELFARISSI aka FoKss-LTS
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+
+package services.fleet;
+
+import services.polling.SummaryStats;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Running fleet totals, updated one instance at a time.
+ * Each instance's last contribution is remembered, so a new snapshot only applies its
+ * delta to the sums (O(1)) and to a counted set of block list sizes (O(log n) for the
+ * min/max), instead of re-adding every instance on each tile refresh.
+ * <p>
+ * Writers are serialized; readers call {@link #view()}, which returns the last published
+ * immutable {@link View} without locking, so a view is never half-applied.
+ */
+public final class FleetAggregator {
+
+    /**
+     * Combined counters of the reachable instances.
+     *
+     * @param instances         number of instances contributing
+     * @param totalQueries      sum of their query counters
+     * @param blockedQueries    sum of their blocked counters
+     * @param minDomainsBlocked smallest block list among them (0 when none)
+     * @param maxDomainsBlocked largest block list among them (0 when none)
+     * @param version           incremented on every published change
+     */
+    public record View(int instances, long totalQueries, long blockedQueries, long minDomainsBlocked,
+            long maxDomainsBlocked, long version) {
+
+        static final View EMPTY = new View(0, 0L, 0L, 0L, 0L, 0L);
+
+        public long acceptedQueries() {
+            return Math.max(0L, totalQueries - blockedQueries);
+        }
+
+        public double percentBlocked() {
+            return totalQueries > 0L ? (blockedQueries / (double) totalQueries) * 100.0 : 0.0;
+        }
+
+        public boolean isEmpty() {
+            return instances == 0;
+        }
+    }
+
+    private record Contribution(long totalQueries, long blockedQueries, long domainsBlocked) {
+    }
+
+    // Guarded by this
+    private final Map<String, Contribution> contributions = new HashMap<>();
+    private final TreeMap<Long, Integer> domainsBlockedCounts = new TreeMap<>();
+    private long totalQueries;
+    private long blockedQueries;
+    private long version;
+
+    private volatile View view = View.EMPTY;
+
+    /**
+     * The last published totals. Never blocks.
+     */
+    public View view() {
+        return view;
+    }
+
+    /**
+     * Replaces the contribution of one instance. An unreachable instance (null or inactive
+     * stats) stops contributing. Publishes a new view only if the totals changed.
+     */
+    public synchronized void update(String instanceId, SummaryStats stats) {
+        Objects.requireNonNull(instanceId, "instanceId");
+        Contribution next = stats != null && stats.active()
+                ? new Contribution(stats.totalQueries(), stats.blockedQueries(), stats.domainsBlocked())
+                : null;
+        Contribution previous = next != null ? contributions.put(instanceId, next) : contributions.remove(instanceId);
+        if (Objects.equals(previous, next)) {
+            return;
+        }
+        if (previous != null) {
+            subtract(previous);
+        }
+        if (next != null) {
+            add(next);
+        }
+        publish();
+    }
+
+    public synchronized void remove(String instanceId) {
+        update(instanceId, null);
+    }
+
+    /**
+     * Drops the instances not in {@code instanceIds} (e.g. after a configuration change).
+     */
+    public synchronized void retain(Collection<String> instanceIds) {
+        Set<String> keep = Set.copyOf(instanceIds);
+        boolean changed = contributions.entrySet().removeIf(entry -> {
+            if (keep.contains(entry.getKey())) {
+                return false;
+            }
+            subtract(entry.getValue());
+            return true;
+        });
+        if (changed) {
+            publish();
+        }
+    }
+
+    public synchronized void clear() {
+        if (contributions.isEmpty()) {
+            return;
+        }
+        contributions.clear();
+        domainsBlockedCounts.clear();
+        totalQueries = 0L;
+        blockedQueries = 0L;
+        publish();
+    }
+
+    private void add(Contribution contribution) {
+        totalQueries += contribution.totalQueries();
+        blockedQueries += contribution.blockedQueries();
+        domainsBlockedCounts.merge(contribution.domainsBlocked(), 1, Integer::sum);
+    }
+
+    private void subtract(Contribution contribution) {
+        totalQueries -= contribution.totalQueries();
+        blockedQueries -= contribution.blockedQueries();
+        domainsBlockedCounts.computeIfPresent(contribution.domainsBlocked(), (_, count) -> count > 1 ? count - 1 : null);
+    }
+
+    private void publish() {
+        boolean none = domainsBlockedCounts.isEmpty();
+        view = new View(contributions.size(), totalQueries, blockedQueries,
+                none ? 0L : domainsBlockedCounts.firstKey(),
+                none ? 0L : domainsBlockedCounts.lastKey(),
+                ++version);
+    }
+}
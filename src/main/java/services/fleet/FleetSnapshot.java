@@ -0,0 +1,127 @@
+/*
+ *
+ *  Copyright (C) 2022 - 2025.  Reda ELFARISSI aka FoKss-LTS
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+
+package services.fleet;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import services.polling.Endpoint;
+import services.polling.EndpointCache;
+import services.polling.StatsParser;
+import services.polling.SummaryStats;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * One poll of the whole fleet: the combined totals and each instance's own figures.
+ * Written by the headless poller and served by the metrics endpoint.
+ *
+ * @param time      when the poll finished
+ * @param fleet     totals of the reachable instances
+ * @param blocking  combined blocking state
+ * @param instances per-instance status, in registry order
+ */
+public record FleetSnapshot(Instant time, FleetAggregator.View fleet, BlockingState blocking,
+        List<InstanceStatus> instances) {
+
+    private static final ObjectMapper JSON = new ObjectMapper();
+
+    /**
+     * @param id              the instance's base URL
+     * @param reachable       whether its stats were read
+     * @param blockingEnabled its blocking state, or null if unknown
+     * @param totalQueries    its query counter
+     * @param blockedQueries  its blocked counter
+     * @param domainsBlocked  size of its block list
+     */
+    public record InstanceStatus(String id, boolean reachable, Boolean blockingEnabled, long totalQueries,
+            long blockedQueries, long domainsBlocked) {
+    }
+
+    public FleetSnapshot {
+        Objects.requireNonNull(time, "time");
+        Objects.requireNonNull(fleet, "fleet");
+        Objects.requireNonNull(blocking, "blocking");
+        instances = List.copyOf(instances);
+    }
+
+    /**
+     * Reads each instance's figures from the cached stats and blocking status. An instance
+     * whose status endpoint gave no answer falls back to the state carried by its stats.
+     *
+     * @param fleet the aggregator's current view, already updated with the same stats
+     */
+    public static FleetSnapshot capture(Instant time, InstanceRegistry registry, EndpointCache cache,
+            FleetAggregator.View fleet) {
+        List<InstanceStatus> statuses = new ArrayList<>(registry.size());
+        List<Boolean> states = new ArrayList<>(registry.size());
+        for (InstanceRegistry.Instance instance : registry.instances()) {
+            SummaryStats stats = StatsParser.parseSummaryStats(cache.get(instance.index(), Endpoint.STATS));
+            Boolean enabled = StatsParser.parseDnsBlockingEnabled(
+                    cache.get(instance.index(), Endpoint.BLOCKING_STATUS));
+            if (enabled == null && stats.active()) {
+                enabled = stats.dnsBlockingEnabled();
+            }
+            if (stats.active()) {
+                states.add(enabled);
+            }
+            statuses.add(new InstanceStatus(instance.id(), stats.active(), enabled,
+                    stats.totalQueries(), stats.blockedQueries(), stats.domainsBlocked()));
+        }
+        return new FleetSnapshot(time, fleet, BlockingState.of(states), statuses);
+    }
+
+    /**
+     * Single-line JSON (schema {@code dnsblocker.snapshot.v1}), one document per poll.
+     */
+    public String toJson() {
+        ObjectNode root = JSON.createObjectNode();
+        root.put("schema", "dnsblocker.snapshot.v1");
+        root.put("time", time.toString());
+        root.put("blocking", blocking.name());
+
+        ObjectNode totals = root.putObject("fleet");
+        totals.put("instances", fleet.instances());
+        totals.put("total_queries", fleet.totalQueries());
+        totals.put("blocked_queries", fleet.blockedQueries());
+        totals.put("accepted_queries", fleet.acceptedQueries());
+        totals.put("percent_blocked", fleet.percentBlocked());
+        totals.put("min_domains_blocked", fleet.minDomainsBlocked());
+        totals.put("max_domains_blocked", fleet.maxDomainsBlocked());
+
+        ArrayNode list = root.putArray("instances");
+        for (InstanceStatus status : instances) {
+            ObjectNode node = list.addObject();
+            node.put("id", status.id());
+            node.put("reachable", status.reachable());
+            if (status.blockingEnabled() == null) {
+                node.putNull("blocking_enabled");
+            } else {
+                node.put("blocking_enabled", status.blockingEnabled());
+            }
+            node.put("total_queries", status.totalQueries());
+            node.put("blocked_queries", status.blockedQueries());
+            node.put("domains_blocked", status.domainsBlocked());
+        }
+        return root.toString();
+    }
+}
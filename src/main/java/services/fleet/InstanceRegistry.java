@@ -0,0 +1,205 @@
+/*
+ *
+ *  Copyright (C) 2022 - 2025.  Reda ELFARISSI aka FoKss-LTS
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+
+package services.fleet;
+
+import domain.configuration.DnsBlockerConfig;
+import services.DnsBlockerHandler;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Function;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * The configured DNS blockers and their handlers, in configuration order (the first one
+ * is the primary instance). Immutable: a configuration change builds a new registry that
+ * replaces the old one in a single write, so pollers never see half of a fleet.
+ * <p>
+ * Instances are identified by their base URL, which also keys their history; a second
+ * entry with the same URL is ignored. Entries without an address are skipped.
+ */
+public final class InstanceRegistry {
+
+    private static final Logger LOGGER = Logger.getLogger(InstanceRegistry.class.getName());
+    private static final boolean VERBOSE = Boolean.parseBoolean(System.getProperty("dnsbloquer.verbose", "false"));
+
+    private static final InstanceRegistry EMPTY = new InstanceRegistry(List.of());
+
+    /**
+     * One configured instance.
+     *
+     * @param index   its position in the registry
+     * @param id      stable identifier (the base URL)
+     * @param config  its configuration
+     * @param handler its handler, or null if it could not be created
+     */
+    public record Instance(int index, String id, DnsBlockerConfig config, DnsBlockerHandler handler) {
+    }
+
+    private final List<Instance> instances;
+    private final List<String> ids;
+
+    private InstanceRegistry(List<Instance> instances) {
+        this.instances = List.copyOf(instances);
+        this.ids = this.instances.stream().map(Instance::id).toList();
+    }
+
+    private static void log(String message) {
+        if (VERBOSE) {
+            LOGGER.log(Level.FINE, () -> "[Registry] " + message);
+        }
+    }
+
+    public static InstanceRegistry empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Builds a registry, creating the handlers with at most {@code maxConcurrency} at a time.
+     * Handler creation may authenticate against the instance, so this blocks and must not
+     * run on the FX thread. A handler that fails to build leaves its instance without one
+     * (it then reads as unreachable) instead of failing the whole registry.
+     *
+     * @param configs        the instance configurations, primary first (nulls are ignored)
+     * @param factory        creates the handler of one instance
+     * @param maxConcurrency maximum number of handlers created at the same time
+     */
+    public static InstanceRegistry connect(List<DnsBlockerConfig> configs,
+            Function<DnsBlockerConfig, DnsBlockerHandler> factory, int maxConcurrency) {
+        List<DnsBlockerConfig> unique = new ArrayList<>();
+        Set<String> seen = new HashSet<>();
+        if (configs != null) {
+            for (DnsBlockerConfig config : configs) {
+                if (config == null || !config.hasValidAddress()) {
+                    continue;
+                }
+                if (seen.add(config.buildBaseUrl())) {
+                    unique.add(config);
+                } else {
+                    log("Ignoring duplicate instance " + config.buildBaseUrl());
+                }
+            }
+        }
+        if (unique.isEmpty()) {
+            return EMPTY;
+        }
+
+        AtomicReferenceArray<DnsBlockerHandler> handlers = new AtomicReferenceArray<>(unique.size());
+        List<Integer> indexes = new ArrayList<>(unique.size());
+        for (int i = 0; i < unique.size(); i++) {
+            indexes.add(i);
+        }
+        FanOut.forEach(indexes, maxConcurrency, i -> {
+            DnsBlockerConfig config = unique.get(i);
+            try {
+                handlers.set(i, factory.apply(config));
+                log("Handler created for " + config.buildBaseUrl() + " (" + config.platform() + ")");
+            } catch (RuntimeException e) {
+                LOGGER.log(Level.WARNING, "Cannot create a handler for " + config.buildBaseUrl(), e);
+            }
+        });
+
+        List<Instance> instances = new ArrayList<>(unique.size());
+        for (int i = 0; i < unique.size(); i++) {
+            DnsBlockerConfig config = unique.get(i);
+            instances.add(new Instance(i, config.buildBaseUrl(), config, handlers.get(i)));
+        }
+        return new InstanceRegistry(instances);
+    }
+
+    /**
+     * Builds a registry around existing handlers, one per config (tests, headless use).
+     */
+    public static InstanceRegistry of(List<DnsBlockerConfig> configs, List<DnsBlockerHandler> handlers) {
+        if (configs.size() != handlers.size()) {
+            throw new IllegalArgumentException("one handler per config is required");
+        }
+        List<Instance> instances = new ArrayList<>(configs.size());
+        for (int i = 0; i < configs.size(); i++) {
+            instances.add(new Instance(i, configs.get(i).buildBaseUrl(), configs.get(i), handlers.get(i)));
+        }
+        return new InstanceRegistry(instances);
+    }
+
+    public int size() {
+        return instances.size();
+    }
+
+    public boolean isEmpty() {
+        return instances.isEmpty();
+    }
+
+    /**
+     * @return the instance at {@code index}, or null if there is none
+     */
+    public Instance get(int index) {
+        return index >= 0 && index < instances.size() ? instances.get(index) : null;
+    }
+
+    /**
+     * @return the handler of the instance at {@code index}, or null
+     */
+    public DnsBlockerHandler handler(int index) {
+        Instance instance = get(index);
+        return instance != null ? instance.handler() : null;
+    }
+
+    /**
+     * @return the configuration of the instance at {@code index}, or null
+     */
+    public DnsBlockerConfig config(int index) {
+        Instance instance = get(index);
+        return instance != null ? instance.config() : null;
+    }
+
+    /**
+     * @return the primary instance, or null if the registry is empty
+     */
+    public Instance primary() {
+        return get(0);
+    }
+
+    public List<Instance> instances() {
+        return instances;
+    }
+
+    /**
+     * @return the instance ids in registry order
+     */
+    public List<String> ids() {
+        return ids;
+    }
+
+    /**
+     * @return every handler that could be created, in registry order
+     */
+    public List<DnsBlockerHandler> handlers() {
+        List<DnsBlockerHandler> handlers = new ArrayList<>(instances.size());
+        for (Instance instance : instances) {
+            if (instance.handler() != null) {
+                handlers.add(instance.handler());
+            }
+        }
+        return handlers;
+    }
+}
@@ -0,0 +1,118 @@
+/*
+ *
+ *  Copyright (C) 2022 - 2025.  Reda ELFARISSI aka FoKss-LTS
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+
+package services.headless;
+
+import services.DnsBlockerHandlerFactory;
+import services.configuration.ConfigurationService;
+import services.fleet.InstanceRegistry;
+import services.metrics.ClientMetrics;
+import services.metrics.MetricsExporter;
+
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Entry point of {@code --headless}: reads the same settings file as the widget and polls its
+ * DNS blockers without starting JavaFX. Nothing in this package touches the FX toolkit, so the
+ * mode also runs where no display exists.
+ */
+public final class HeadlessLauncher {
+
+    private static final Logger LOGGER = Logger.getLogger(HeadlessLauncher.class.getName());
+
+    private static final int MAX_PARALLEL_INSTANCES = 8;
+
+    private HeadlessLauncher() {
+        throw new UnsupportedOperationException("This is a utility class and cannot be instantiated");
+    }
+
+    public static void main(String[] args) {
+        int code = run(args);
+        if (code != 0) {
+            System.exit(code);
+        }
+    }
+
+    /**
+     * Runs until the JVM is asked to stop (or after one poll with {@code --once}).
+     *
+     * @return the process exit code
+     */
+    public static int run(String[] args) {
+        HeadlessOptions options;
+        try {
+            options = HeadlessOptions.parse(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println("Usage: --headless [--interval=SECONDS] [--output=-|FILE|URL] [--once]"
+                    + " [--metrics=[HOST:]PORT]");
+            return 2;
+        }
+
+        ConfigurationService configService = new ConfigurationService();
+        configService.readConfiguration();
+        InstanceRegistry registry = InstanceRegistry.connect(configService.getInstances(),
+                DnsBlockerHandlerFactory::createHandler, MAX_PARALLEL_INSTANCES);
+        if (registry.isEmpty()) {
+            LOGGER.log(Level.SEVERE, "No DNS blocker configured in " + ConfigurationService.getConfigDirectory());
+            return 1;
+        }
+        LOGGER.log(Level.INFO, "Headless poller: " + registry.size() + " instance(s), every "
+                + options.interval().toSeconds() + "s to " + options.output());
+
+        HeadlessPoller poller = new HeadlessPoller(registry, SnapshotSink.forTarget(options.output()),
+                options.interval());
+        if (options.once()) {
+            poller.pollOnce();
+            return 0;
+        }
+
+        MetricsExporter exporter = null;
+        if (options.metrics() != null) {
+            try {
+                exporter = MetricsExporter.start(options.metrics(), ClientMetrics.shared());
+                poller.setMetricsExporter(exporter);
+                LOGGER.log(Level.INFO, "Metrics served on http://" + options.metrics().getHostString() + ":"
+                        + exporter.address().getPort() + MetricsExporter.PATH);
+            } catch (IOException e) {
+                LOGGER.log(Level.SEVERE, "Cannot serve metrics on " + options.metrics() + ": " + e.getMessage());
+                return 1;
+            }
+        }
+
+        CountDownLatch stopped = new CountDownLatch(1);
+        final MetricsExporter metrics = exporter;
+        Runtime.getRuntime().addShutdownHook(Thread.ofPlatform().name("dnsblocker-headless-stop").unstarted(() -> {
+            poller.close();
+            if (metrics != null) {
+                metrics.close();
+            }
+            stopped.countDown();
+        }));
+        poller.start();
+        try {
+            stopped.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ *
+ *  Copyright (C) 2022 - 2025.  Reda ELFARISSI aka FoKss-LTS
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+
+package services.headless;
+
+import services.metrics.MetricsExporter;
+
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.Objects;
+
+/**
+ * Command line of the headless poller.
+ * <pre>
+ *   --headless                enables the mode (required)
+ *   --interval=SECONDS        time between polls (default 10, minimum 1)
+ *   --output=TARGET           "-" for stdout (default), a file path, or an http(s) URL to POST to
+ *   --once                    polls once, writes the snapshot and exits
+ *   --metrics=[HOST:]PORT     serves /metrics on that address (host defaults to 127.0.0.1)
+ * </pre>
+ *
+ * @param interval time between polls
+ * @param output   where snapshots are written, see {@link SnapshotSink#forTarget(String)}
+ * @param once     whether to poll a single time
+ * @param metrics  address of the metrics endpoint, or null for none
+ */
+public record HeadlessOptions(Duration interval, String output, boolean once, InetSocketAddress metrics) {
+
+    public static final String FLAG = "--headless";
+    public static final Duration DEFAULT_INTERVAL = Duration.ofSeconds(10);
+    public static final String STDOUT = "-";
+
+    public HeadlessOptions {
+        Objects.requireNonNull(interval, "interval");
+        if (interval.compareTo(Duration.ofSeconds(1)) < 0) {
+            throw new IllegalArgumentException("interval must be at least 1 second");
+        }
+        output = output == null || output.isBlank() ? STDOUT : output;
+    }
+
+    /**
+     * @return whether the arguments ask for the headless mode
+     */
+    public static boolean isRequested(String[] args) {
+        if (args == null) {
+            return false;
+        }
+        for (String arg : args) {
+            if (FLAG.equals(arg)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @throws IllegalArgumentException on an unknown option or an invalid value
+     */
+    public static HeadlessOptions parse(String[] args) {
+        Duration interval = DEFAULT_INTERVAL;
+        String output = STDOUT;
+        boolean once = false;
+        InetSocketAddress metrics = null;
+        for (String arg : args) {
+            if (arg.equals(FLAG)) {
+                continue;
+            }
+            if (arg.equals("--once")) {
+                once = true;
+            } else if (arg.startsWith("--interval=")) {
+                interval = Duration.ofSeconds(parseSeconds(arg.substring("--interval=".length())));
+            } else if (arg.startsWith("--output=")) {
+                output = arg.substring("--output=".length());
+            } else if (arg.startsWith("--metrics=")) {
+                metrics = MetricsExporter.parseAddress(arg.substring("--metrics=".length()));
+            } else {
+                throw new IllegalArgumentException("Unknown option: " + arg);
+            }
+        }
+        return new HeadlessOptions(interval, output, once, metrics);
+    }
+
+    private static long parseSeconds(String value) {
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid interval: " + value, e);
+        }
+    }
+}
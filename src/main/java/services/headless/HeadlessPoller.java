@@ -0,0 +1,207 @@
+/*
+ *
+ *  Copyright (C) 2022 - 2025.  Reda ELFARISSI aka FoKss-LTS
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+
+package services.headless;
+
+import services.DnsBlockerHandler;
+import services.fleet.FanOut;
+import services.fleet.FleetAggregator;
+import services.fleet.FleetSnapshot;
+import services.fleet.InstanceRegistry;
+import services.metrics.ClientMetrics;
+import services.metrics.MetricsExporter;
+import services.polling.DataRequirement;
+import services.polling.Endpoint;
+import services.polling.EndpointCache;
+import services.polling.EndpointKey;
+import services.polling.Metric;
+import services.polling.RequestPlanner;
+import services.polling.StatsParser;
+import services.polling.TileRequirements;
+
+import java.io.IOException;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Polls the fleet without any UI: the same request planner, endpoint cache and fleet
+ * aggregator as the widget, driven by a scheduler on virtual threads. Each poll fetches the
+ * stats and blocking status of every instance in parallel and writes a {@link FleetSnapshot}
+ * to the sink.
+ */
+public final class HeadlessPoller implements AutoCloseable {
+
+    private static final Logger LOGGER = Logger.getLogger(HeadlessPoller.class.getName());
+    private static final boolean VERBOSE = Boolean.parseBoolean(System.getProperty("dnsbloquer.verbose", "false"));
+
+    private static final String SNAPSHOT_ID = "snapshot";
+    private static final int MAX_PARALLEL_INSTANCES = 8;
+
+    private final InstanceRegistry registry;
+    private final SnapshotSink sink;
+    private final Duration interval;
+    private final Clock clock;
+    private final List<EndpointKey> endpoints;
+    private final EndpointCache cache;
+    private final FleetAggregator fleet = new FleetAggregator();
+    private final AtomicBoolean inFlight = new AtomicBoolean();
+
+    private volatile FleetSnapshot latest;
+    private volatile MetricsExporter exporter;
+    private ScheduledExecutorService scheduler;
+
+    public HeadlessPoller(InstanceRegistry registry, SnapshotSink sink, Duration interval) {
+        this(registry, sink, interval, Clock.systemUTC());
+    }
+
+    public HeadlessPoller(InstanceRegistry registry, SnapshotSink sink, Duration interval, Clock clock) {
+        this.registry = Objects.requireNonNull(registry, "registry");
+        this.sink = Objects.requireNonNull(sink, "sink");
+        this.interval = Objects.requireNonNull(interval, "interval");
+        this.clock = Objects.requireNonNull(clock, "clock");
+        this.cache = new EndpointCache(clock);
+        // Declared like a tile, so the planner derives exactly the endpoints the snapshot reads
+        long seconds = Math.max(1L, interval.toSeconds());
+        this.endpoints = RequestPlanner.endpointsFor(TileRequirements.of(SNAPSHOT_ID,
+                DataRequirement.of(Metric.TOTAL_QUERIES, seconds),
+                DataRequirement.of(Metric.BLOCKED_QUERIES, seconds),
+                DataRequirement.of(Metric.DOMAINS_ON_LISTS, seconds),
+                DataRequirement.of(Metric.BLOCKING_ENABLED, seconds)), Math.max(1, registry.size()));
+    }
+
+    private static void log(String message) {
+        if (VERBOSE) {
+            LOGGER.log(Level.FINE, () -> "[Headless] " + message);
+        }
+    }
+
+    /**
+     * Publishes every snapshot to {@code exporter} as well (null stops it). The caller keeps
+     * ownership and closes it.
+     */
+    public void setMetricsExporter(MetricsExporter exporter) {
+        this.exporter = exporter;
+    }
+
+    /**
+     * Polls every instance, updates the totals and writes the snapshot. A failing sink is
+     * logged; the snapshot is still returned.
+     */
+    public FleetSnapshot pollOnce() {
+        Map<Integer, List<Endpoint>> byInstance = new LinkedHashMap<>();
+        for (EndpointKey key : endpoints) {
+            byInstance.computeIfAbsent(key.instance(), _ -> new ArrayList<>()).add(key.endpoint());
+        }
+        FanOut.forEach(byInstance.entrySet(), MAX_PARALLEL_INSTANCES, entry -> {
+            DnsBlockerHandler handler = registry.handler(entry.getKey());
+            for (List<Endpoint> sameResource : Endpoint.byResource(handler, entry.getValue())) {
+                long start = System.nanoTime();
+                Map<Endpoint, String> results = Endpoint.fetchAll(handler, sameResource, 0);
+                long elapsed = System.nanoTime() - start;
+                for (Endpoint endpoint : sameResource) {
+                    String body = results.get(endpoint);
+                    ClientMetrics.shared().recordFetch(endpoint, elapsed, body);
+                    cache.put(new EndpointKey(entry.getKey(), endpoint), body);
+                }
+            }
+        });
+
+        for (InstanceRegistry.Instance instance : registry.instances()) {
+            String statsJson = cache.get(instance.index(), Endpoint.STATS);
+            if (statsJson.isBlank()) {
+                fleet.remove(instance.id());
+            } else {
+                fleet.update(instance.id(), StatsParser.parseSummaryStats(statsJson));
+            }
+        }
+
+        FleetSnapshot snapshot = FleetSnapshot.capture(clock.instant(), registry, cache, fleet.view());
+        latest = snapshot;
+        MetricsExporter metrics = exporter;
+        if (metrics != null) {
+            metrics.publish(snapshot);
+        }
+        try {
+            sink.write(snapshot.toJson());
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Failed to write snapshot: " + e.getMessage());
+        }
+        log("Polled " + snapshot.instances().size() + " instance(s)");
+        return snapshot;
+    }
+
+    /**
+     * @return the last snapshot, or null before the first poll
+     */
+    public FleetSnapshot latest() {
+        return latest;
+    }
+
+    /**
+     * Polls now and then every interval. A poll still running when the next one is due is
+     * not overlapped; that tick is skipped.
+     */
+    public synchronized void start() {
+        if (scheduler != null) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(Thread.ofVirtual()
+                .name("dnsblocker-headless-", 0)
+                .factory());
+        scheduler.scheduleAtFixedRate(() -> {
+            if (!inFlight.compareAndSet(false, true)) {
+                return;
+            }
+            Thread.ofVirtual().name("dnsblocker-headless-poll").start(() -> {
+                try {
+                    pollOnce();
+                } catch (RuntimeException e) {
+                    LOGGER.log(Level.WARNING, "Headless poll failed", e);
+                } finally {
+                    inFlight.set(false);
+                }
+            });
+        }, 0, interval.toMillis(), TimeUnit.MILLISECONDS);
+        log("Polling " + registry.size() + " instance(s) every " + interval.toSeconds() + "s");
+    }
+
+    @Override
+    public synchronized void close() {
+        if (scheduler == null) {
+            return;
+        }
+        scheduler.shutdownNow();
+        try {
+            scheduler.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        scheduler = null;
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ *
+ *  Copyright (C) 2022 - 2025.  Reda ELFARISSI aka FoKss-LTS
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+
+package services.headless;
+
+import helpers.HttpClientUtil;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+
+/**
+ * Where the headless poller writes each snapshot (as one line of JSON).
+ */
+@FunctionalInterface
+public interface SnapshotSink {
+
+    void write(String json) throws IOException;
+
+    /**
+     * @param target "-" for stdout, an http(s) URL to POST each snapshot to, otherwise a file
+     *               path that is replaced by the latest snapshot
+     */
+    static SnapshotSink forTarget(String target) {
+        if (target == null || target.isBlank() || target.equals(HeadlessOptions.STDOUT)) {
+            return toStream(System.out);
+        }
+        if (target.startsWith("http://") || target.startsWith("https://")) {
+            return toUrl(target, new HttpClientUtil());
+        }
+        return toFile(Path.of(target));
+    }
+
+    /**
+     * One line per snapshot (NDJSON), flushed so a pipe sees it immediately.
+     */
+    static SnapshotSink toStream(PrintStream out) {
+        return json -> {
+            out.println(json);
+            out.flush();
+        };
+    }
+
+    /**
+     * Replaces the file with each snapshot; readers never see a partly written file.
+     */
+    static SnapshotSink toFile(Path file) {
+        Path absolute = file.toAbsolutePath();
+        return json -> {
+            Path parent = absolute.getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            Path tmp = absolute.resolveSibling(absolute.getFileName() + ".tmp");
+            Files.writeString(tmp, json + System.lineSeparator(), StandardCharsets.UTF_8);
+            try {
+                Files.move(tmp, absolute, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tmp, absolute, StandardCopyOption.REPLACE_EXISTING);
+            }
+        };
+    }
+
+    /**
+     * POSTs each snapshot as {@code application/json}; a non-2xx answer is reported as an error.
+     */
+    static SnapshotSink toUrl(String url, HttpClientUtil http) {
+        return json -> {
+            try {
+                HttpClientUtil.HttpResponsePayload response =
+                        http.post(url, json, Map.of("Content-Type", "application/json"));
+                if (!response.isSuccessful()) {
+                    throw new IOException("Snapshot endpoint answered HTTP " + response.statusCode());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while posting snapshot", e);
+            }
+        };
+    }
+}
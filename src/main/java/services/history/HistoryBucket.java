@@ -0,0 +1,30 @@
+/*
+ *
+ *  Copyright (C) 2022 - 2025.  Reda ELFARISSI aka FoKss-LTS
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+
+
+package services.history;
+
+/**
+ * Counts of one server-side history bucket.
+ *
+ * @param startMillis bucket start (epoch millis)
+ * @param queries     queries counted in the bucket
+ * @param blocked     blocked queries counted in the bucket
+ */
+public record HistoryBucket(long startMillis, long queries, long blocked) {
+}
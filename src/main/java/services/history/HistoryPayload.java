@@ -0,0 +1,89 @@
+/*
+ *
+ *  Copyright (C) 2022 - 2025.  Reda ELFARISSI aka FoKss-LTS
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+
+
+package services.history;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Parsed {@code dnsblocker.history.v1} payload, as returned by
+ * {@link services.DnsBlockerHandler#getHistory()}:
+ * <pre>
+ * { "schema": "dnsblocker.history.v1", "bucket_seconds": 600,
+ *   "buckets": [ { "start": &lt;epoch seconds&gt;, "total": &lt;long&gt;, "blocked": &lt;long&gt; } ] }
+ * </pre>
+ *
+ * @param bucketMillis width of every bucket
+ * @param buckets      buckets ordered by start
+ */
+public record HistoryPayload(long bucketMillis, List<HistoryBucket> buckets) {
+
+    private static final Logger LOGGER = Logger.getLogger(HistoryPayload.class.getName());
+    private static final ObjectMapper JSON = new ObjectMapper();
+
+    private static final HistoryPayload EMPTY = new HistoryPayload(0L, List.of());
+
+    public HistoryPayload {
+        buckets = List.copyOf(buckets);
+    }
+
+    public static HistoryPayload empty() {
+        return EMPTY;
+    }
+
+    public boolean isEmpty() {
+        return bucketMillis <= 0L || buckets.isEmpty();
+    }
+
+    /**
+     * @return the parsed payload, or {@link #empty()} for an empty or malformed one
+     */
+    public static HistoryPayload parse(String json) {
+        if (json == null || json.isBlank()) {
+            return EMPTY;
+        }
+        try {
+            JsonNode root = JSON.readTree(json);
+            long bucketSeconds = root.path("bucket_seconds").asLong(0L);
+            JsonNode items = root.path("buckets");
+            if (bucketSeconds <= 0L || !items.isArray()) {
+                return EMPTY;
+            }
+            List<HistoryBucket> buckets = new ArrayList<>(items.size());
+            for (JsonNode item : items) {
+                buckets.add(new HistoryBucket(
+                        item.path("start").asLong(0L) * 1000L,
+                        Math.max(0L, item.path("total").asLong(0L)),
+                        Math.max(0L, item.path("blocked").asLong(0L))));
+            }
+            buckets.sort(Comparator.comparingLong(HistoryBucket::startMillis));
+            return new HistoryPayload(bucketSeconds * 1000L, buckets);
+        } catch (Exception e) {
+            LOGGER.log(Level.WARNING, "Failed to parse history JSON", e);
+            return EMPTY;
+        }
+    }
+}
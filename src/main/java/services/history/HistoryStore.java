@@ -0,0 +1,417 @@
+/*
+ *
+ *  Copyright (C) 2022 - 2025.  Reda ELFARISSI aka FoKss-LTS
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+
+
+package services.history;
+
+import services.metrics.CounterResets;
+import services.polling.SummaryStats;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Persistent, bounded history of query and block counts, one directory per instance.
+ * <p>
+ * Each stats poll is turned into the number of queries and blocked queries since the
+ * previous poll (pairs broken by a counter reset are skipped, see {@link CounterResets})
+ * and appended to the {@link Resolution#RAW} tier. Minute, hour and day rollups are
+ * derived as samples arrive. Every tier is a memory-mapped {@link TierFile}, so data
+ * written before a crash of the application is kept, and a torn block is detected and
+ * dropped on the next start.
+ * <p>
+ * I/O failures are logged and never propagated to the poll path. Thread-safe.
+ */
+public final class HistoryStore implements AutoCloseable {
+
+    private static final Logger LOGGER = Logger.getLogger(HistoryStore.class.getName());
+    private static final boolean VERBOSE = Boolean.parseBoolean(System.getProperty("dnsbloquer.verbose", "false"));
+
+    /**
+     * Sub-folder of the configuration folder holding the history.
+     */
+    public static final String DIRECTORY_NAME = "history";
+
+    // Polls further apart than this are not turned into counts
+    private static final long MAX_SAMPLE_GAP_MILLIS = 5 * 60_000L;
+    // Live polls held back for a backfill that never comes are released past this many
+    private static final int MAX_HELD_SAMPLES = 4_096;
+
+    /**
+     * Receives history samples without boxing them.
+     */
+    @FunctionalInterface
+    public interface SampleConsumer {
+        /**
+         * @param timeMillis poll time for {@link Resolution#RAW}, bucket start for rollups
+         * @param queries    queries counted in the sample
+         * @param blocked    blocked queries counted in the sample
+         */
+        void accept(long timeMillis, long queries, long blocked);
+    }
+
+    private final Path directory;
+    private final Map<String, InstanceStore> instances = new ConcurrentHashMap<>();
+    private volatile boolean closed;
+
+    private HistoryStore(Path directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Opens the store rooted at {@code directory}, creating it if needed.
+     * Instance files are opened lazily on first use.
+     */
+    public static HistoryStore open(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        return new HistoryStore(directory);
+    }
+
+    private static void log(String message) {
+        if (VERBOSE) {
+            LOGGER.log(Level.FINE, () -> "[History] " + message);
+        }
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Records one stats poll of an instance. Inactive results are ignored.
+     */
+    public void record(String instanceId, long timeMillis, SummaryStats stats) {
+        if (stats == null || !stats.active()) {
+            return;
+        }
+        InstanceStore store = instance(instanceId);
+        if (store != null) {
+            store.record(timeMillis, stats.totalQueries(), stats.blockedQueries());
+        }
+    }
+
+    /**
+     * Keeps the live polls of an instance out of the history until
+     * {@link #releaseLiveSamples(String)}, so a backfill that completes after polling has
+     * started still merges its older buckets first. Call it before polling starts.
+     */
+    public void holdLiveSamples(String instanceId) {
+        InstanceStore store = instance(instanceId);
+        if (store != null) {
+            store.hold();
+        }
+    }
+
+    /**
+     * Stores the live polls held back by {@link #holdLiveSamples(String)}, in order, and
+     * stops holding. Harmless when nothing is held.
+     */
+    public void releaseLiveSamples(String instanceId) {
+        InstanceStore store = instance(instanceId);
+        if (store != null) {
+            store.release();
+        }
+    }
+
+    /**
+     * Merges server-side history buckets into the local history.
+     * <p>
+     * Only buckets that start after everything stored locally and that ended before the
+     * first poll of this session are taken, so nothing is counted twice. Live polls stored
+     * before the backfill end the local history, so hold them back with
+     * {@link #holdLiveSamples(String)} until it is done; re-running it is
+     * harmless. Each bucket is fed to the finest rollup whose width divides the bucket width
+     * (10-minute Pi-hole buckets are spread evenly over their minutes, hourly AdGuard Home
+     * buckets go to the hour tier) and cascades to the coarser tiers like live data.
+     *
+     * @param nowMillis current time, used as the upper bound before the first poll
+     * @return number of buckets merged
+     */
+    public int backfill(String instanceId, HistoryPayload payload, long nowMillis) {
+        if (payload == null || payload.isEmpty()) {
+            return 0;
+        }
+        InstanceStore store = instance(instanceId);
+        if (store == null) {
+            return 0;
+        }
+        int merged = store.backfill(payload, nowMillis);
+        log("Backfilled " + merged + " bucket(s) for " + instanceId);
+        return merged;
+    }
+
+    /**
+     * @return time of the newest locally stored sample across all tiers, or
+     *         {@link Long#MIN_VALUE} if the instance has no history
+     */
+    public long lastRecordedTime(String instanceId) {
+        InstanceStore store = instance(instanceId);
+        return store == null ? Long.MIN_VALUE : store.lastRecordedTime();
+    }
+
+    /**
+     * Visits the samples of a tier with {@code fromMillis <= time <= toMillis}, oldest first.
+     * Rollup tiers only contain closed buckets.
+     */
+    public void read(String instanceId, Resolution resolution, long fromMillis, long toMillis,
+            SampleConsumer consumer) {
+        InstanceStore store = instance(instanceId);
+        if (store != null) {
+            store.tiers.get(resolution).read(fromMillis, toMillis, consumer);
+        }
+    }
+
+    /**
+     * @return time of the newest sample of the tier, or {@link Long#MIN_VALUE} if none
+     */
+    public long lastTime(String instanceId, Resolution resolution) {
+        InstanceStore store = instance(instanceId);
+        return store == null ? Long.MIN_VALUE : store.tiers.get(resolution).lastTime();
+    }
+
+    /**
+     * Forces written blocks to disk.
+     */
+    public void flush() {
+        for (InstanceStore store : instances.values()) {
+            store.tiers.values().forEach(TierFile::flush);
+        }
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        for (InstanceStore store : instances.values()) {
+            store.close();
+        }
+        instances.clear();
+    }
+
+    private InstanceStore instance(String instanceId) {
+        if (closed || instanceId == null || instanceId.isBlank()) {
+            return null;
+        }
+        try {
+            return instances.computeIfAbsent(instanceId, this::openInstance);
+        } catch (UncheckedIOException e) {
+            LOGGER.log(Level.WARNING, "History unavailable for " + instanceId + ": " + e.getCause().getMessage());
+            return null;
+        }
+    }
+
+    private InstanceStore openInstance(String instanceId) {
+        Path instanceDirectory = directory.resolve(directoryName(instanceId));
+        try {
+            Files.createDirectories(instanceDirectory);
+            Map<Resolution, TierFile> tiers = new EnumMap<>(Resolution.class);
+            try {
+                for (Resolution resolution : Resolution.values()) {
+                    tiers.put(resolution,
+                            TierFile.open(instanceDirectory.resolve(resolution.fileName()), resolution.retainedBlocks()));
+                }
+            } catch (IOException e) {
+                for (TierFile file : tiers.values()) {
+                    closeQuietly(file);
+                }
+                throw e;
+            }
+            log("Opened history of " + instanceId + " in " + instanceDirectory);
+            return new InstanceStore(tiers);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Instance ids are base URLs; keep only characters that are safe in a folder name.
+     */
+    static String directoryName(String instanceId) {
+        return instanceId.replaceAll("[^A-Za-z0-9._-]", "_");
+    }
+
+    private static void closeQuietly(TierFile file) {
+        try {
+            file.close();
+        } catch (IOException e) {
+            log("Failed to close history file: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Tier files and rollup state of one instance.
+     */
+    private static final class InstanceStore {
+        private final Map<Resolution, TierFile> tiers;
+        private final Rollup minutes;
+        private final Rollup hours;
+        private final Rollup days;
+
+        // First poll of this session; server buckets after it would overlap live data
+        private long sessionStart = Long.MIN_VALUE;
+
+        // Live polls waiting for a backfill (time, total, blocked), or null when not holding
+        private List<long[]> held;
+
+        // Last poll, to turn cumulative counters into per-poll counts
+        private long lastTime = Long.MIN_VALUE;
+        private long lastQueries;
+        private long lastBlocked;
+
+        private InstanceStore(Map<Resolution, TierFile> tiers) {
+            this.tiers = tiers;
+            this.days = new Rollup(Resolution.DAY, tiers.get(Resolution.DAY), null);
+            this.hours = new Rollup(Resolution.HOUR, tiers.get(Resolution.HOUR), days);
+            this.minutes = new Rollup(Resolution.MINUTE, tiers.get(Resolution.MINUTE), hours);
+
+            // Open buckets were only in memory: rebuild them coarsest first, so buckets
+            // closed while replaying a finer tier cascade into an up-to-date parent.
+            days.rebuildFrom(tiers.get(Resolution.HOUR));
+            hours.rebuildFrom(tiers.get(Resolution.MINUTE));
+            minutes.rebuildFrom(tiers.get(Resolution.RAW));
+        }
+
+        private synchronized void record(long timeMillis, long totalQueries, long blockedQueries) {
+            if (sessionStart == Long.MIN_VALUE) {
+                sessionStart = timeMillis;
+            }
+            if (held != null) {
+                held.add(new long[] { timeMillis, totalQueries, blockedQueries });
+                if (held.size() >= MAX_HELD_SAMPLES) {
+                    release();
+                }
+                return;
+            }
+            store(timeMillis, totalQueries, blockedQueries);
+        }
+
+        private synchronized void hold() {
+            if (held == null) {
+                held = new ArrayList<>();
+            }
+        }
+
+        private synchronized void release() {
+            List<long[]> samples = held;
+            held = null;
+            if (samples != null) {
+                for (long[] sample : samples) {
+                    store(sample[0], sample[1], sample[2]);
+                }
+            }
+        }
+
+        private void store(long timeMillis, long totalQueries, long blockedQueries) {
+            boolean continuous = lastTime != Long.MIN_VALUE
+                    && CounterResets.isContinuous(lastTime, lastQueries, timeMillis, totalQueries, MAX_SAMPLE_GAP_MILLIS)
+                    && blockedQueries >= lastBlocked;
+            if (continuous) {
+                long queries = totalQueries - lastQueries;
+                long blocked = blockedQueries - lastBlocked;
+                if (tiers.get(Resolution.RAW).append(timeMillis, queries, blocked)) {
+                    minutes.add(timeMillis, queries, blocked);
+                }
+            }
+            if (timeMillis >= lastTime) {
+                lastTime = timeMillis;
+                lastQueries = totalQueries;
+                lastBlocked = blockedQueries;
+            }
+        }
+
+        private synchronized int backfill(HistoryPayload payload, long nowMillis) {
+            long width = payload.bucketMillis();
+            Rollup target = null;
+            long pieceMillis = 0L;
+            for (Resolution resolution : new Resolution[] { Resolution.DAY, Resolution.HOUR, Resolution.MINUTE }) {
+                if (width % resolution.bucketMillis() == 0L) {
+                    target = rollupFor(resolution);
+                    pieceMillis = resolution.bucketMillis();
+                    break;
+                }
+            }
+            if (target == null) {
+                return 0;
+            }
+
+            long notAfter = sessionStart != Long.MIN_VALUE ? sessionStart : nowMillis;
+            long newestLocal = lastRecordedTime();
+            int pieces = (int) (width / pieceMillis);
+            int merged = 0;
+            for (HistoryBucket bucket : payload.buckets()) {
+                long start = bucket.startMillis();
+                if (start <= newestLocal || start + width > notAfter) {
+                    continue;
+                }
+                if (merged == 0) {
+                    // Everything local is older than the merged buckets: close the finer
+                    // open buckets so they cascade before the backfilled ones
+                    if (target != minutes) {
+                        minutes.flush();
+                    }
+                    if (target == days) {
+                        hours.flush();
+                    }
+                }
+                for (int i = 0; i < pieces; i++) {
+                    // Spread evenly; the remainder goes to the last piece so sums stay exact
+                    boolean last = i == pieces - 1;
+                    long queries = bucket.queries() / pieces + (last ? bucket.queries() % pieces : 0L);
+                    long blocked = bucket.blocked() / pieces + (last ? bucket.blocked() % pieces : 0L);
+                    target.add(start + i * pieceMillis, queries, blocked);
+                }
+                newestLocal = start;
+                merged++;
+            }
+            return merged;
+        }
+
+        private Rollup rollupFor(Resolution resolution) {
+            return switch (resolution) {
+                case MINUTE -> minutes;
+                case HOUR -> hours;
+                case DAY -> days;
+                case RAW -> throw new IllegalArgumentException("RAW has no rollup");
+            };
+        }
+
+        private long lastRecordedTime() {
+            long newest = Long.MIN_VALUE;
+            for (TierFile file : tiers.values()) {
+                newest = Math.max(newest, file.lastTime());
+            }
+            return Math.max(newest, Math.max(minutes.openBucketStart(),
+                    Math.max(hours.openBucketStart(), days.openBucketStart())));
+        }
+
+        private synchronized void close() {
+            release();
+            for (TierFile file : tiers.values()) {
+                closeQuietly(file);
+            }
+        }
+    }
+}
@@ -0,0 +1,68 @@
+/*
+ *
+ *  Copyright (C) 2022 - 2025.  Reda ELFARISSI aka FoKss-LTS
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+
+
+package services.history;
+
+/**
+ * Tiers of the persistent history. RAW holds one sample per stats poll; the others are
+ * rollups whose samples are the query/blocked counts of one bucket, stamped with the
+ * bucket start.
+ * <p>
+ * Each tier is a fixed ring of blocks, which bounds disk usage (about 3 MiB per instance)
+ * and sets the retention: roughly 3 weeks of raw polls at a 5 s interval, 4 months of
+ * minutes, more than a year of hours and decades of days.
+ */
+public enum Resolution {
+    RAW(0L, "raw", 512),
+    MINUTE(60_000L, "1m", 256),
+    HOUR(3_600_000L, "1h", 16),
+    DAY(86_400_000L, "1d", 4);
+
+    private final long bucketMillis;
+    private final String fileStem;
+    private final int retainedBlocks;
+
+    Resolution(long bucketMillis, String fileStem, int retainedBlocks) {
+        this.bucketMillis = bucketMillis;
+        this.fileStem = fileStem;
+        this.retainedBlocks = retainedBlocks;
+    }
+
+    /**
+     * @return bucket width, 0 for {@link #RAW}
+     */
+    public long bucketMillis() {
+        return bucketMillis;
+    }
+
+    String fileName() {
+        return fileStem + ".tsdb";
+    }
+
+    int retainedBlocks() {
+        return retainedBlocks;
+    }
+
+    /**
+     * @return the start of the bucket containing {@code timeMillis}
+     */
+    long bucketStart(long timeMillis) {
+        return bucketMillis == 0L ? timeMillis : Math.floorDiv(timeMillis, bucketMillis) * bucketMillis;
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ *
+ *  Copyright (C) 2022 - 2025.  Reda ELFARISSI aka FoKss-LTS
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+
+
+package services.history;
+
+/**
+ * Accumulates the samples of one bucket and appends the bucket to its tier (and to the
+ * next coarser rollup) once a sample from a later bucket arrives.
+ * The open bucket only lives in memory; it is rebuilt from the finer tier on startup.
+ */
+final class Rollup {
+
+    private final Resolution resolution;
+    private final TierFile file;
+    private final Rollup next;
+
+    private long bucketStart = Long.MIN_VALUE;
+    private long queries;
+    private long blocked;
+
+    Rollup(Resolution resolution, TierFile file, Rollup next) {
+        this.resolution = resolution;
+        this.file = file;
+        this.next = next;
+    }
+
+    void add(long timeMillis, long sampleQueries, long sampleBlocked) {
+        long start = resolution.bucketStart(timeMillis);
+        if (start > bucketStart) {
+            emit();
+            bucketStart = start;
+            queries = 0L;
+            blocked = 0L;
+        }
+        // A late sample for an already closed bucket is folded into the open one.
+        queries += sampleQueries;
+        blocked += sampleBlocked;
+    }
+
+    /**
+     * Closes the open bucket now instead of waiting for a later sample.
+     */
+    void flush() {
+        emit();
+        bucketStart = Long.MIN_VALUE;
+        queries = 0L;
+        blocked = 0L;
+    }
+
+    /**
+     * @return start of the bucket being accumulated, or {@link Long#MIN_VALUE} if none
+     */
+    long openBucketStart() {
+        return bucketStart;
+    }
+
+    /**
+     * Replays the finer tier's samples that this rollup has not persisted yet.
+     */
+    void rebuildFrom(TierFile finer) {
+        long persisted = file.lastTime();
+        long from = persisted == Long.MIN_VALUE ? Long.MIN_VALUE : persisted + resolution.bucketMillis();
+        finer.read(from, Long.MAX_VALUE, this::add);
+    }
+
+    private void emit() {
+        if (bucketStart == Long.MIN_VALUE) {
+            return;
+        }
+        // A bucket the tier already has something newer than is not cascaded either
+        if (file.append(bucketStart, queries, blocked) && next != null) {
+            next.add(bucketStart, queries, blocked);
+        }
+    }
+}
@@ -0,0 +1,418 @@
+/*
+ *
+ *  Copyright (C) 2022 - 2025.  Reda ELFARISSI aka FoKss-LTS
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+
+
+package services.history;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+/**
+ * One tier of the history: a memory-mapped ring of fixed-size blocks.
+ * <p>
+ * Blocks are only ever appended; once the ring is full the oldest block is reclaimed,
+ * which is the retention policy. Each block holds a header and a compressed payload:
+ * timestamps are delta-of-delta encoded and values delta encoded, all as zig-zag varints,
+ * so a regular poll costs a few bytes per sample.
+ * <p>
+ * Header layout:
+ * <pre>
+ *  0 int  magic        (written last)
+ *  4 int  sample count
+ *  8 long sequence     (block number since the file was created; slot = sequence % capacity)
+ * 16 long first time
+ * 24 long last time
+ * 32 int  payload length
+ * 36 int  CRC32 of the payload
+ * </pre>
+ * On open every block is validated (magic, CRC, decoded count and last time must match the
+ * header) and the newest contiguous chain of valid blocks is kept, so a block torn by a crash
+ * is dropped instead of corrupting reads. An in-memory copy of each block's first time makes
+ * range reads a binary search followed by a sequential decode.
+ * <p>
+ * Thread-safe.
+ */
+final class TierFile implements AutoCloseable {
+
+    static final int BLOCK_SIZE = 4096;
+    static final int HEADER_SIZE = 40;
+    private static final int PAYLOAD_CAPACITY = BLOCK_SIZE - HEADER_SIZE;
+    private static final int MAGIC = 0x44424831; // "DBH1"
+    private static final int MAX_SAMPLE_BYTES = 30; // three 10-byte varints
+
+    private static final int OFF_MAGIC = 0;
+    private static final int OFF_COUNT = 4;
+    private static final int OFF_SEQUENCE = 8;
+    private static final int OFF_FIRST_TIME = 16;
+    private static final int OFF_LAST_TIME = 24;
+    private static final int OFF_PAYLOAD_LENGTH = 32;
+    private static final int OFF_CRC = 36;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final int capacity;
+    private final long[] firstTimes;
+
+    // Valid blocks are the sequences [oldestSequence, headSequence]; -1 when empty
+    private long oldestSequence = -1L;
+    private long headSequence = -1L;
+
+    // Encoder state of the head block
+    private int headCount;
+    private int headPayloadLength;
+    private long headLastTime;
+    private long previousDelta;
+    private long previousQueries;
+    private long previousBlocked;
+    private final CRC32 headCrc = new CRC32();
+    private final byte[] scratch = new byte[MAX_SAMPLE_BYTES];
+
+    // Decoder cursor, reused to keep reads allocation-free
+    private int cursor;
+    private int cursorEnd;
+    private boolean cursorOverrun;
+    private long decodedTime;
+    private long decodedDelta;
+    private long decodedQueries;
+    private long decodedBlocked;
+
+    private TierFile(FileChannel channel, MappedByteBuffer buffer, int capacity) {
+        this.channel = channel;
+        this.buffer = buffer;
+        this.capacity = capacity;
+        this.firstTimes = new long[capacity];
+    }
+
+    /**
+     * Opens (or creates) a tier file holding at most {@code capacity} blocks.
+     * A file written with a different capacity is discarded.
+     */
+    static TierFile open(Path path, int capacity) throws IOException {
+        long size = (long) capacity * BLOCK_SIZE;
+        FileChannel channel = FileChannel.open(path,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            if (channel.size() != size) {
+                channel.truncate(0);
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            TierFile file = new TierFile(channel, buffer, capacity);
+            file.recover();
+            return file;
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    // ==================== Reads ====================
+
+    synchronized boolean isEmpty() {
+        return headSequence < 0;
+    }
+
+    /**
+     * @return time of the newest sample, or {@link Long#MIN_VALUE} if empty
+     */
+    synchronized long lastTime() {
+        return headSequence < 0 ? Long.MIN_VALUE : headLastTime;
+    }
+
+    /**
+     * @return time of the oldest retained sample, or {@link Long#MIN_VALUE} if empty
+     */
+    synchronized long firstTime() {
+        return headSequence < 0 ? Long.MIN_VALUE : firstTimes[slot(oldestSequence)];
+    }
+
+    /**
+     * Visits the samples with {@code fromMillis <= time <= toMillis}, oldest first.
+     */
+    synchronized void read(long fromMillis, long toMillis, HistoryStore.SampleConsumer consumer) {
+        if (headSequence < 0 || fromMillis > toMillis) {
+            return;
+        }
+        for (long sequence = startSequence(fromMillis); sequence <= headSequence; sequence++) {
+            int slot = slot(sequence);
+            if (firstTimes[slot] > toMillis) {
+                return;
+            }
+            int count = buffer.getInt(base(slot) + OFF_COUNT);
+            beginDecode(slot);
+            for (int i = 0; i < count; i++) {
+                decodeNext(i);
+                if (decodedTime > toMillis) {
+                    return;
+                }
+                if (decodedTime >= fromMillis) {
+                    consumer.accept(decodedTime, decodedQueries, decodedBlocked);
+                }
+            }
+        }
+    }
+
+    // Last block whose first time is <= fromMillis (or the oldest block).
+    private long startSequence(long fromMillis) {
+        long low = oldestSequence;
+        long high = headSequence;
+        long result = oldestSequence;
+        while (low <= high) {
+            long mid = (low + high) >>> 1;
+            if (firstTimes[slot(mid)] <= fromMillis) {
+                result = mid;
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return result;
+    }
+
+    // ==================== Writes ====================
+
+    /**
+     * Appends a sample. Samples older than the newest one are rejected.
+     *
+     * @return false if the sample was rejected
+     */
+    synchronized boolean append(long timeMillis, long queries, long blocked) {
+        if (headSequence >= 0 && timeMillis < headLastTime) {
+            return false;
+        }
+        int length = headSequence >= 0 ? encode(timeMillis, queries, blocked) : 0;
+        if (headSequence < 0 || headPayloadLength + length > PAYLOAD_CAPACITY) {
+            startBlock(timeMillis);
+            length = encode(timeMillis, queries, blocked);
+        }
+
+        int base = base(slot(headSequence));
+        buffer.put(base + HEADER_SIZE + headPayloadLength, scratch, 0, length);
+        headCrc.update(scratch, 0, length);
+
+        if (headCount > 0) {
+            previousDelta = timeMillis - headLastTime;
+        }
+        headCount++;
+        headPayloadLength += length;
+        headLastTime = timeMillis;
+        previousQueries = queries;
+        previousBlocked = blocked;
+
+        buffer.putInt(base + OFF_COUNT, headCount);
+        buffer.putLong(base + OFF_LAST_TIME, headLastTime);
+        buffer.putInt(base + OFF_PAYLOAD_LENGTH, headPayloadLength);
+        buffer.putInt(base + OFF_CRC, (int) headCrc.getValue());
+        buffer.putInt(base + OFF_MAGIC, MAGIC);
+        return true;
+    }
+
+    private void startBlock(long timeMillis) {
+        if (headSequence >= 0) {
+            // Seal the previous block on disk before reusing any slot
+            buffer.force(base(slot(headSequence)), BLOCK_SIZE);
+        }
+        headSequence++;
+        if (oldestSequence < 0) {
+            oldestSequence = 0;
+        } else if (headSequence - oldestSequence >= capacity) {
+            oldestSequence = headSequence - capacity + 1;
+        }
+
+        int slot = slot(headSequence);
+        int base = base(slot);
+        buffer.putInt(base + OFF_MAGIC, 0);
+        buffer.putLong(base + OFF_SEQUENCE, headSequence);
+        buffer.putLong(base + OFF_FIRST_TIME, timeMillis);
+        firstTimes[slot] = timeMillis;
+
+        headCount = 0;
+        headPayloadLength = 0;
+        headLastTime = timeMillis;
+        previousDelta = 0L;
+        previousQueries = 0L;
+        previousBlocked = 0L;
+        headCrc.reset();
+    }
+
+    // First sample: raw time and values; then time delta-of-delta and value deltas.
+    private int encode(long timeMillis, long queries, long blocked) {
+        int length = 0;
+        if (headCount == 0) {
+            length = putVarint(length, zigzag(timeMillis));
+        } else {
+            long delta = timeMillis - headLastTime;
+            length = putVarint(length, zigzag(headCount == 1 ? delta : delta - previousDelta));
+        }
+        length = putVarint(length, zigzag(queries - previousQueries));
+        return putVarint(length, zigzag(blocked - previousBlocked));
+    }
+
+    private int putVarint(int offset, long value) {
+        while ((value & ~0x7FL) != 0L) {
+            scratch[offset++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        scratch[offset++] = (byte) value;
+        return offset;
+    }
+
+    synchronized void flush() {
+        buffer.force();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        buffer.force();
+        channel.close();
+    }
+
+    // ==================== Recovery ====================
+
+    private void recover() {
+        long[] sequences = new long[capacity];
+        long newest = -1L;
+        for (int slot = 0; slot < capacity; slot++) {
+            sequences[slot] = validate(slot);
+            newest = Math.max(newest, sequences[slot]);
+        }
+        if (newest < 0) {
+            return;
+        }
+
+        long oldest = newest;
+        while (oldest > 0 && newest - (oldest - 1) < capacity && sequences[slot(oldest - 1)] == oldest - 1) {
+            oldest--;
+        }
+        oldestSequence = oldest;
+        headSequence = newest;
+
+        // Resume encoding into the head block
+        int slot = slot(newest);
+        int base = base(slot);
+        headCount = buffer.getInt(base + OFF_COUNT);
+        headPayloadLength = buffer.getInt(base + OFF_PAYLOAD_LENGTH);
+        beginDecode(slot);
+        for (int i = 0; i < headCount; i++) {
+            decodeNext(i);
+        }
+        headLastTime = decodedTime;
+        previousDelta = decodedDelta;
+        previousQueries = decodedQueries;
+        previousBlocked = decodedBlocked;
+        headCrc.reset();
+        headCrc.update(buffer.slice(base + HEADER_SIZE, headPayloadLength));
+    }
+
+    /**
+     * @return the block's sequence if it is intact, -1 otherwise
+     */
+    private long validate(int slot) {
+        int base = base(slot);
+        if (buffer.getInt(base + OFF_MAGIC) != MAGIC) {
+            return -1L;
+        }
+        int count = buffer.getInt(base + OFF_COUNT);
+        int payloadLength = buffer.getInt(base + OFF_PAYLOAD_LENGTH);
+        long sequence = buffer.getLong(base + OFF_SEQUENCE);
+        if (count <= 0 || payloadLength <= 0 || payloadLength > PAYLOAD_CAPACITY
+                || sequence < 0 || slot(sequence) != slot) {
+            return -1L;
+        }
+        CRC32 crc = new CRC32();
+        crc.update(buffer.slice(base + HEADER_SIZE, payloadLength));
+        if ((int) crc.getValue() != buffer.getInt(base + OFF_CRC)) {
+            return -1L;
+        }
+
+        beginDecode(slot);
+        long first = Long.MIN_VALUE;
+        for (int i = 0; i < count && !cursorOverrun; i++) {
+            decodeNext(i);
+            if (i == 0) {
+                first = decodedTime;
+            }
+        }
+        if (cursorOverrun
+                || cursor != base + HEADER_SIZE + payloadLength
+                || first != buffer.getLong(base + OFF_FIRST_TIME)
+                || decodedTime != buffer.getLong(base + OFF_LAST_TIME)) {
+            return -1L;
+        }
+        firstTimes[slot] = first;
+        return sequence;
+    }
+
+    // ==================== Decoding ====================
+
+    private void beginDecode(int slot) {
+        cursor = base(slot) + HEADER_SIZE;
+        cursorEnd = base(slot) + BLOCK_SIZE;
+        cursorOverrun = false;
+        decodedTime = 0L;
+        decodedDelta = 0L;
+        decodedQueries = 0L;
+        decodedBlocked = 0L;
+    }
+
+    private void decodeNext(int index) {
+        long time = unzigzag(readVarint());
+        if (index == 0) {
+            decodedTime = time;
+        } else {
+            decodedDelta = index == 1 ? time : decodedDelta + time;
+            decodedTime += decodedDelta;
+        }
+        decodedQueries += unzigzag(readVarint());
+        decodedBlocked += unzigzag(readVarint());
+    }
+
+    private long readVarint() {
+        long result = 0L;
+        int shift = 0;
+        while (cursor < cursorEnd && shift < 64) {
+            byte b = buffer.get(cursor++);
+            result |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return result;
+            }
+            shift += 7;
+        }
+        cursorOverrun = true;
+        return 0L;
+    }
+
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private int slot(long sequence) {
+        return (int) (sequence % capacity);
+    }
+
+    private static int base(int slot) {
+        return slot * BLOCK_SIZE;
+    }
+}
@@ -0,0 +1,143 @@
+/*
+ *
+ *  Copyright (C) 2022 - 2025.  Reda ELFARISSI aka FoKss-LTS
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+
+package services.metrics;
+
+/**
+ * Streaming z-score of a rate series against its own recent behaviour.
+ * <p>
+ * Keeps an exponentially weighted mean and variance (time-aware, like
+ * {@link RateEstimator}) and scores each sample before folding it in, so one update is
+ * O(1) with no stored history. Samples are clipped to a few standard deviations before
+ * they update the baseline: a flood is reported for as long as it lasts instead of
+ * becoming the new normal within minutes.
+ * <p>
+ * Scores are NaN until the baseline has seen enough samples and time. A gap longer than
+ * {@code maxGapMillis} (sleep, unreachable server) restarts the warm-up. Thread-safe.
+ */
+public final class AnomalyDetector {
+
+    public static final long DEFAULT_TAU_MILLIS = 30 * 60_000L;
+    public static final long DEFAULT_WARMUP_MILLIS = 10 * 60_000L;
+    public static final int DEFAULT_WARMUP_SAMPLES = 30;
+
+    // Baseline updates are clipped to mean +/- this many standard deviations
+    private static final double CLIP_STDDEVS = 4.0;
+    // Noise floor so a nearly constant series does not turn every wiggle into an anomaly
+    private static final double RELATIVE_STDDEV_FLOOR = 0.05;
+    private static final double ABSOLUTE_STDDEV_FLOOR = 0.01;
+
+    private final double tauMillis;
+    private final long warmupMillis;
+    private final int warmupSamples;
+    private final long maxGapMillis;
+
+    private int samples;
+    private long firstTime;
+    private long lastTime;
+    private double mean;
+    private double variance;
+    private double zScore = Double.NaN;
+
+    public AnomalyDetector() {
+        this(DEFAULT_TAU_MILLIS, DEFAULT_WARMUP_MILLIS, DEFAULT_WARMUP_SAMPLES,
+                RateEstimator.DEFAULT_MAX_GAP_MILLIS);
+    }
+
+    /**
+     * @param tauMillis     time constant of the baseline mean and variance
+     * @param warmupMillis  minimum time covered by the baseline before scores are reported
+     * @param warmupSamples minimum number of samples before scores are reported
+     * @param maxGapMillis  a longer gap between samples restarts the warm-up
+     */
+    public AnomalyDetector(long tauMillis, long warmupMillis, int warmupSamples, long maxGapMillis) {
+        if (tauMillis <= 0 || maxGapMillis <= 0 || warmupSamples < 1) {
+            throw new IllegalArgumentException("tauMillis, maxGapMillis and warmupSamples must be > 0");
+        }
+        this.tauMillis = tauMillis;
+        this.warmupMillis = warmupMillis;
+        this.warmupSamples = warmupSamples;
+        this.maxGapMillis = maxGapMillis;
+    }
+
+    /**
+     * Scores a sample against the baseline, then folds it into the baseline.
+     *
+     * @return the sample's z-score, NaN while warming up
+     */
+    public synchronized double update(long timeMillis, double value) {
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            return zScore;
+        }
+        long elapsed = timeMillis - lastTime;
+        if (samples == 0 || elapsed > maxGapMillis || elapsed < 0) {
+            restart(timeMillis, value);
+            return zScore;
+        }
+        if (elapsed == 0) {
+            return zScore;
+        }
+
+        double stdDev = stdDev();
+        boolean warm = samples >= warmupSamples && timeMillis - firstTime >= warmupMillis;
+        zScore = warm ? (value - mean) / stdDev : Double.NaN;
+
+        double clipped = Math.max(mean - CLIP_STDDEVS * stdDev, Math.min(mean + CLIP_STDDEVS * stdDev, value));
+        double alpha = 1.0 - Math.exp(-elapsed / tauMillis);
+        double diff = clipped - mean;
+        double increment = alpha * diff;
+        mean += increment;
+        variance = (1.0 - alpha) * (variance + diff * increment);
+        samples++;
+        lastTime = timeMillis;
+        return zScore;
+    }
+
+    /**
+     * @return the z-score of the latest sample, NaN while warming up
+     */
+    public synchronized double zScore() {
+        return zScore;
+    }
+
+    /**
+     * @return the baseline mean, NaN before the first sample
+     */
+    public synchronized double mean() {
+        return samples == 0 ? Double.NaN : mean;
+    }
+
+    public synchronized void reset() {
+        samples = 0;
+        zScore = Double.NaN;
+    }
+
+    private void restart(long timeMillis, double value) {
+        samples = 1;
+        firstTime = timeMillis;
+        lastTime = timeMillis;
+        mean = value;
+        variance = 0.0;
+        zScore = Double.NaN;
+    }
+
+    private double stdDev() {
+        double floor = Math.max(ABSOLUTE_STDDEV_FLOOR, RELATIVE_STDDEV_FLOOR * Math.abs(mean));
+        return Math.max(floor, Math.sqrt(variance));
+    }
+}
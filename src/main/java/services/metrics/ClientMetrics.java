@@ -0,0 +1,119 @@
+/*
+ *
+ *  Copyright (C) 2022 - 2025.  Reda ELFARISSI aka FoKss-LTS
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+
+package services.metrics;
+
+import services.polling.Endpoint;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Client-side figures of the polling itself: requests per endpoint, failed ones and a
+ * latency histogram. Recording is a few {@link LongAdder} increments, so poll threads never
+ * contend; readers get a slightly moving but never torn view. Thread-safe.
+ * <p>
+ * {@link #shared()} is fed by both the widget and the headless poller.
+ */
+public final class ClientMetrics {
+
+    /**
+     * Upper bounds (seconds) of the latency histogram buckets; the last bucket is unbounded.
+     */
+    static final double[] LATENCY_BUCKETS = {0.05, 0.1, 0.25, 0.5, 1.0, 2.5, 5.0, 10.0};
+
+    private static final ClientMetrics SHARED = new ClientMetrics();
+
+    private final EndpointMetrics[] endpoints = new EndpointMetrics[Endpoint.values().length];
+
+    public ClientMetrics() {
+        for (int i = 0; i < endpoints.length; i++) {
+            endpoints[i] = new EndpointMetrics();
+        }
+    }
+
+    public static ClientMetrics shared() {
+        return SHARED;
+    }
+
+    /**
+     * Records one endpoint fetch.
+     *
+     * @param endpoint the fetched endpoint
+     * @param nanos    how long the handler call took
+     * @param body     its result; a blank one (what handlers return on failure) counts as an error
+     */
+    public void recordFetch(Endpoint endpoint, long nanos, String body) {
+        EndpointMetrics metrics = endpoints[endpoint.ordinal()];
+        metrics.requests.increment();
+        if (body == null || body.isBlank()) {
+            metrics.errors.increment();
+        }
+        long elapsed = Math.max(0L, nanos);
+        metrics.latencyNanos.add(elapsed);
+        double seconds = elapsed / (double) TimeUnit.SECONDS.toNanos(1);
+        int bucket = 0;
+        while (bucket < LATENCY_BUCKETS.length && seconds > LATENCY_BUCKETS[bucket]) {
+            bucket++;
+        }
+        metrics.buckets[bucket].increment();
+    }
+
+    public long requests(Endpoint endpoint) {
+        return endpoints[endpoint.ordinal()].requests.sum();
+    }
+
+    public long errors(Endpoint endpoint) {
+        return endpoints[endpoint.ordinal()].errors.sum();
+    }
+
+    /**
+     * @return the summed latency of every fetch of {@code endpoint}, in seconds
+     */
+    public double latencySeconds(Endpoint endpoint) {
+        return endpoints[endpoint.ordinal()].latencyNanos.sum() / (double) TimeUnit.SECONDS.toNanos(1);
+    }
+
+    /**
+     * @return cumulative bucket counts, one per {@link #LATENCY_BUCKETS} bound plus the
+     *         unbounded one
+     */
+    long[] cumulativeBuckets(Endpoint endpoint) {
+        LongAdder[] buckets = endpoints[endpoint.ordinal()].buckets;
+        long[] cumulative = new long[buckets.length];
+        long running = 0L;
+        for (int i = 0; i < buckets.length; i++) {
+            running += buckets[i].sum();
+            cumulative[i] = running;
+        }
+        return cumulative;
+    }
+
+    private static final class EndpointMetrics {
+        private final LongAdder requests = new LongAdder();
+        private final LongAdder errors = new LongAdder();
+        private final LongAdder latencyNanos = new LongAdder();
+        private final LongAdder[] buckets = new LongAdder[LATENCY_BUCKETS.length + 1];
+
+        private EndpointMetrics() {
+            for (int i = 0; i < buckets.length; i++) {
+                buckets[i] = new LongAdder();
+            }
+        }
+    }
+}
@@ -0,0 +1,196 @@
+/*
+ *
+ *  Copyright (C) 2022 - 2025.  Reda ELFARISSI aka FoKss-LTS
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+
+package services.metrics;
+
+import java.util.Arrays;
+
+/**
+ * Min/max decimation of a time series to a fixed number of columns (one per pixel).
+ * Each column covers an equal slice of a sliding time window and keeps the first, last,
+ * minimum and maximum value that fell into it, so drawing a column is one vertical
+ * stroke no matter how many samples it holds and no spike is lost.
+ * <p>
+ * Column boundaries are aligned to multiples of the column width, so a column never
+ * changes its time range; the window only advances (whole columns at a time) when a
+ * sample lands past its right edge. Not thread-safe.
+ */
+public final class ColumnDecimator {
+
+    /**
+     * Returned by {@link #add(long, double)} for samples older than the window.
+     */
+    public static final int OUTSIDE = -1;
+
+    private final long windowMillis;
+    private int columns;
+    private long columnMillis;
+    private long originMillis = Long.MIN_VALUE;
+    private double[] first;
+    private double[] last;
+    private double[] min;
+    private double[] max;
+
+    /**
+     * @param windowMillis time span shown across all columns
+     * @param columns      number of columns (usually the plot width in pixels)
+     */
+    public ColumnDecimator(long windowMillis, int columns) {
+        if (windowMillis <= 0) {
+            throw new IllegalArgumentException("windowMillis must be > 0");
+        }
+        this.windowMillis = windowMillis;
+        resize(columns);
+    }
+
+    /**
+     * Changes the number of columns. The content is dropped; callers replay their samples.
+     */
+    public void resize(int newColumns) {
+        columns = Math.max(1, newColumns);
+        columnMillis = Math.max(1L, (windowMillis + columns - 1) / columns);
+        first = new double[columns];
+        last = new double[columns];
+        min = new double[columns];
+        max = new double[columns];
+        clear();
+    }
+
+    public void clear() {
+        clearColumns();
+        originMillis = Long.MIN_VALUE;
+    }
+
+    private void clearColumns() {
+        Arrays.fill(first, Double.NaN);
+        Arrays.fill(last, Double.NaN);
+        Arrays.fill(min, Double.NaN);
+        Arrays.fill(max, Double.NaN);
+    }
+
+    /**
+     * Adds a sample, advancing the window if the sample is past its right edge.
+     *
+     * @return the column the sample landed in, or {@link #OUTSIDE} if it is older than the window
+     */
+    public int add(long timeMillis, double value) {
+        if (Double.isNaN(value)) {
+            return OUTSIDE;
+        }
+        advanceTo(timeMillis);
+        if (timeMillis < originMillis) {
+            return OUTSIDE;
+        }
+        int column = (int) ((timeMillis - originMillis) / columnMillis);
+        if (Double.isNaN(first[column])) {
+            first[column] = value;
+            min[column] = value;
+            max[column] = value;
+        } else {
+            min[column] = Math.min(min[column], value);
+            max[column] = Math.max(max[column], value);
+        }
+        last[column] = value;
+        return column;
+    }
+
+    /**
+     * Advances the window (never backwards) so {@code timeMillis} falls into the last column.
+     * Used to keep several decimators drawn side by side on the same columns.
+     */
+    public void advanceTo(long timeMillis) {
+        if (originMillis == Long.MIN_VALUE) {
+            originMillis = windowStart(timeMillis);
+            return;
+        }
+        if (timeMillis < originMillis) {
+            return;
+        }
+        long by = (timeMillis - originMillis) / columnMillis - columns + 1;
+        if (by >= columns) {
+            clearColumns();
+            originMillis = windowStart(timeMillis);
+        } else if (by > 0) {
+            shift((int) by);
+        }
+    }
+
+    // Moves the window right by fewer than {@code columns} columns; the leftmost ones are dropped.
+    private void shift(int by) {
+        for (double[] values : new double[][] { first, last, min, max }) {
+            System.arraycopy(values, by, values, 0, columns - by);
+            Arrays.fill(values, columns - by, columns, Double.NaN);
+        }
+        originMillis += by * columnMillis;
+    }
+
+    public int columns() {
+        return columns;
+    }
+
+    public long columnMillis() {
+        return columnMillis;
+    }
+
+    /**
+     * @return start time of the leftmost column, or {@link Long#MIN_VALUE} before the first sample
+     */
+    public long originMillis() {
+        return originMillis;
+    }
+
+    /**
+     * @return start of the time range the window currently covers (for replaying samples)
+     */
+    public long windowStart(long latestMillis) {
+        return (Math.floorDiv(latestMillis, columnMillis) - columns + 1) * columnMillis;
+    }
+
+    public boolean hasData(int column) {
+        return !Double.isNaN(first[column]);
+    }
+
+    public double first(int column) {
+        return first[column];
+    }
+
+    public double last(int column) {
+        return last[column];
+    }
+
+    public double min(int column) {
+        return min[column];
+    }
+
+    public double max(int column) {
+        return max[column];
+    }
+
+    /**
+     * @return largest value in the window, or NaN if the window is empty
+     */
+    public double max() {
+        double result = Double.NaN;
+        for (double value : max) {
+            if (!Double.isNaN(value) && (Double.isNaN(result) || value > result)) {
+                result = value;
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,50 @@
+/*
+ *
+ *  Copyright (C) 2022 - 2025.  Reda ELFARISSI aka FoKss-LTS
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+
+
+package services.metrics;
+
+/**
+ * Decides whether two snapshots of a "today" style counter can be subtracted.
+ * <p>
+ * The platforms' counters are not monotonic: Pi-hole resets at midnight and when FTL
+ * restarts, and AdGuard Home reports a rolling stats interval whose oldest hour drops out
+ * every hour. A pair is only usable when the counter did not go down, the pair does not
+ * straddle an hour boundary (midnight and interval rollovers both happen there) and the
+ * samples are not too far apart (sleep, unreachable server).
+ */
+public final class CounterResets {
+
+    private static final long HOUR_MILLIS = 3_600_000L;
+
+    private CounterResets() {
+        throw new UnsupportedOperationException("This is a utility class and cannot be instantiated");
+    }
+
+    /**
+     * @return true if {@code toValue - fromValue} is the real increase between the two samples
+     */
+    public static boolean isContinuous(long fromMillis, double fromValue, long toMillis, double toValue,
+            long maxGapMillis) {
+        long elapsed = toMillis - fromMillis;
+        return elapsed > 0
+                && elapsed <= maxGapMillis
+                && toValue >= fromValue
+                && Math.floorDiv(fromMillis, HOUR_MILLIS) == Math.floorDiv(toMillis, HOUR_MILLIS);
+    }
+}
@@ -0,0 +1,43 @@
+/*
+ *
+ *  Copyright (C) 2022 - 2025.  Reda ELFARISSI aka FoKss-LTS
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+
+
+package services.metrics;
+
+/**
+ * Point-in-time view of one instance: the latest polled counters plus the derived rates
+ * recent blocked shares and anomaly scores.
+ *
+ * @param instanceId       instance identifier (its base URL)
+ * @param timeMillis       when the latest stats were polled (epoch millis)
+ * @param totalQueries     latest cumulative query counter
+ * @param blockedQueries   latest cumulative blocked counter
+ * @param percentBlocked   latest blocked share in percent
+ * @param queriesPerSecond smoothed query rate, NaN until known
+ * @param blocksPerSecond  smoothed block rate, NaN until known
+ * @param percentBlocked1m blocked share of the last minute, NaN without queries in it
+ * @param percentBlocked5m blocked share of the last 5 minutes, NaN without queries in it
+ * @param percentBlocked15m blocked share of the last 15 minutes, NaN without queries in it
+ * @param queryRateZ       z-score of the query rate against its baseline, NaN while warming up
+ * @param blockShareZ      z-score of the blocked share against its baseline, NaN while warming up
+ */
+public record InstanceSnapshot(String instanceId, long timeMillis, long totalQueries, long blockedQueries,
+        double percentBlocked, double queriesPerSecond, double blocksPerSecond,
+        double percentBlocked1m, double percentBlocked5m, double percentBlocked15m,
+        double queryRateZ, double blockShareZ) {
+}
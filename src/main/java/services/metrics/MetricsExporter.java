@@ -0,0 +1,338 @@
+/*
+ *
+ *  Copyright (C) 2022 - 2025.  Reda ELFARISSI aka FoKss-LTS
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+
+package services.metrics;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import helpers.HostLimiter;
+import helpers.HttpClientUtil;
+import services.fleet.BlockingState;
+import services.fleet.FleetSnapshot;
+import services.polling.Endpoint;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Serves {@code GET /metrics} in the Prometheus text exposition format: the latest
+ * {@link FleetSnapshot} and the {@link ClientMetrics} of the polling.
+ * <p>
+ * The body is rendered by {@link #publish}, once per poll, and kept as one immutable byte
+ * array behind a volatile field. A scrape only copies that array to the socket: it never
+ * reaches a DNS blocker, never waits for a poll and allocates nothing but the exchange
+ * itself. Between polls a scrape therefore sees the figures as of the last one.
+ * <p>
+ * Meant for a local scraper; it binds to the loopback interface unless told otherwise.
+ */
+public final class MetricsExporter implements AutoCloseable {
+
+    private static final Logger LOGGER = Logger.getLogger(MetricsExporter.class.getName());
+    private static final boolean VERBOSE = Boolean.parseBoolean(System.getProperty("dnsbloquer.verbose", "false"));
+
+    public static final String PATH = "/metrics";
+    public static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+    /**
+     * System property enabling the exporter in the widget: {@code PORT} or {@code HOST:PORT}.
+     */
+    public static final String PROPERTY = "dnsbloquer.metrics";
+    public static final String DEFAULT_HOST = "127.0.0.1";
+
+    private final HttpServer server;
+    private final ClientMetrics metrics;
+    private volatile byte[] body;
+
+    private MetricsExporter(HttpServer server, ClientMetrics metrics) {
+        this.server = server;
+        this.metrics = metrics;
+        this.body = render(null, metrics, RequestCounts.current()).getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Binds the server and starts serving. Until the first {@link #publish} only the client
+     * metrics are exposed.
+     *
+     * @throws IOException if the address cannot be bound
+     */
+    public static MetricsExporter start(InetSocketAddress address, ClientMetrics metrics) throws IOException {
+        Objects.requireNonNull(address, "address");
+        Objects.requireNonNull(metrics, "metrics");
+        HttpServer server = HttpServer.create(address, 0);
+        MetricsExporter exporter = new MetricsExporter(server, metrics);
+        server.createContext("/", exporter::handle);
+        // Scrapes are a single array copy, the server's own dispatcher thread is enough
+        server.setExecutor(null);
+        server.start();
+        log("Serving " + PATH + " on " + exporter.address());
+        return exporter;
+    }
+
+    private static void log(String message) {
+        if (VERBOSE) {
+            LOGGER.log(Level.FINE, () -> "[Metrics] " + message);
+        }
+    }
+
+    /**
+     * Parses {@code PORT} or {@code HOST:PORT}; a bare port binds to {@value #DEFAULT_HOST}.
+     *
+     * @throws IllegalArgumentException on a malformed value or a port out of range
+     */
+    public static InetSocketAddress parseAddress(String value) {
+        if (value == null || value.isBlank()) {
+            throw new IllegalArgumentException("Missing metrics address");
+        }
+        String trimmed = value.trim();
+        int colon = trimmed.lastIndexOf(':');
+        String host = colon < 0 ? DEFAULT_HOST : trimmed.substring(0, colon);
+        String port = colon < 0 ? trimmed : trimmed.substring(colon + 1);
+        if (host.startsWith("[") && host.endsWith("]")) {
+            host = host.substring(1, host.length() - 1);
+        }
+        try {
+            int number = Integer.parseInt(port);
+            if (number < 0 || number > 65535 || host.isEmpty()) {
+                throw new IllegalArgumentException("Invalid metrics address: " + value);
+            }
+            return new InetSocketAddress(host, number);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid metrics address: " + value, e);
+        }
+    }
+
+    /**
+     * @return the bound address (with the actual port when started on port 0)
+     */
+    public InetSocketAddress address() {
+        return server.getAddress();
+    }
+
+    /**
+     * Renders a new body from {@code snapshot} and the client metrics. Called by the poller
+     * after each poll; scrapes served meanwhile keep getting the previous body.
+     */
+    public void publish(FleetSnapshot snapshot) {
+        body = render(snapshot, metrics, RequestCounts.current()).getBytes(StandardCharsets.UTF_8);
+    }
+
+    byte[] body() {
+        return body;
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            if (!PATH.equals(exchange.getRequestURI().getPath())) {
+                exchange.sendResponseHeaders(404, -1);
+                return;
+            }
+            String method = exchange.getRequestMethod();
+            boolean head = "HEAD".equals(method);
+            if (!head && !"GET".equals(method)) {
+                exchange.getResponseHeaders().set("Allow", "GET, HEAD");
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+            byte[] current = body;
+            exchange.getResponseHeaders().set("Content-Type", CONTENT_TYPE);
+            if (head) {
+                exchange.sendResponseHeaders(200, -1);
+                return;
+            }
+            exchange.sendResponseHeaders(200, current.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(current);
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        log("Stopped");
+    }
+
+    /**
+     * HTTP requests sent, and those saved because an identical one answered them.
+     *
+     * @param sent   requests sent to a server
+     * @param shared reads answered by an identical GET already in flight
+     * @param merged reads answered by an identical request still queued for its host
+     */
+    record RequestCounts(long sent, long shared, long merged) {
+
+        static RequestCounts current() {
+            return new RequestCounts(HttpClientUtil.getTotalSentCount(), HttpClientUtil.getTotalSharedResponseCount(),
+                    HostLimiter.shared().getMergedCount());
+        }
+    }
+
+    /**
+     * Builds the exposition text.
+     *
+     * @param snapshot the latest poll, or null before the first one
+     */
+    static String render(FleetSnapshot snapshot, ClientMetrics metrics, RequestCounts requests) {
+        StringBuilder out = new StringBuilder(4096);
+        if (snapshot != null) {
+            renderSnapshot(out, snapshot);
+        }
+
+        header(out, "dnsblocker_client_requests_total", "counter", "Endpoint fetches made by the poller.");
+        for (Endpoint endpoint : Endpoint.values()) {
+            if (metrics.requests(endpoint) > 0) {
+                sample(out, "dnsblocker_client_requests_total", "endpoint", label(endpoint),
+                        metrics.requests(endpoint));
+            }
+        }
+        header(out, "dnsblocker_client_errors_total", "counter", "Endpoint fetches that returned no data.");
+        for (Endpoint endpoint : Endpoint.values()) {
+            if (metrics.requests(endpoint) > 0) {
+                sample(out, "dnsblocker_client_errors_total", "endpoint", label(endpoint), metrics.errors(endpoint));
+            }
+        }
+        String histogram = "dnsblocker_client_request_duration_seconds";
+        header(out, histogram, "histogram", "Time taken by endpoint fetches, queueing included.");
+        for (Endpoint endpoint : Endpoint.values()) {
+            long[] buckets = metrics.cumulativeBuckets(endpoint);
+            long count = buckets[buckets.length - 1];
+            if (count == 0) {
+                continue;
+            }
+            String name = label(endpoint);
+            for (int i = 0; i < buckets.length; i++) {
+                String bound = i < ClientMetrics.LATENCY_BUCKETS.length
+                        ? number(ClientMetrics.LATENCY_BUCKETS[i]) : "+Inf";
+                out.append(histogram).append("_bucket{endpoint=\"").append(name)
+                        .append("\",le=\"").append(bound).append("\"} ").append(buckets[i]).append('\n');
+            }
+            sample(out, histogram + "_sum", "endpoint", name, metrics.latencySeconds(endpoint));
+            sample(out, histogram + "_count", "endpoint", name, count);
+        }
+
+        // saved / (saved + sent) is the share of reads that never reached a server
+        header(out, "dnsblocker_client_http_requests_sent_total", "counter", "HTTP requests sent to the servers.");
+        sample(out, "dnsblocker_client_http_requests_sent_total", requests.sent());
+        header(out, "dnsblocker_client_http_requests_saved_total", "counter",
+                "Reads answered by an identical request instead of being sent.");
+        sample(out, "dnsblocker_client_http_requests_saved_total", "reason", "in_flight", requests.shared());
+        sample(out, "dnsblocker_client_http_requests_saved_total", "reason", "queued", requests.merged());
+        return out.toString();
+    }
+
+    private static void renderSnapshot(StringBuilder out, FleetSnapshot snapshot) {
+        header(out, "dnsblocker_snapshot_timestamp_seconds", "gauge", "When the last poll finished.");
+        sample(out, "dnsblocker_snapshot_timestamp_seconds", snapshot.time().toEpochMilli() / 1000.0);
+
+        header(out, "dnsblocker_up", "gauge", "Whether the instance's stats were read on the last poll.");
+        for (FleetSnapshot.InstanceStatus status : snapshot.instances()) {
+            sample(out, "dnsblocker_up", "instance", status.id(), status.reachable() ? 1 : 0);
+        }
+        header(out, "dnsblocker_blocking_enabled", "gauge", "Whether DNS blocking is on; absent when unknown.");
+        for (FleetSnapshot.InstanceStatus status : snapshot.instances()) {
+            if (status.blockingEnabled() != null) {
+                sample(out, "dnsblocker_blocking_enabled", "instance", status.id(),
+                        status.blockingEnabled() ? 1 : 0);
+            }
+        }
+        // The blockers' counters restart every day, so they are exposed as gauges
+        header(out, "dnsblocker_queries", "gauge", "Queries counted by the instance today.");
+        for (FleetSnapshot.InstanceStatus status : snapshot.instances()) {
+            if (status.reachable()) {
+                sample(out, "dnsblocker_queries", "instance", status.id(), status.totalQueries());
+            }
+        }
+        header(out, "dnsblocker_blocked_queries", "gauge", "Queries blocked by the instance today.");
+        for (FleetSnapshot.InstanceStatus status : snapshot.instances()) {
+            if (status.reachable()) {
+                sample(out, "dnsblocker_blocked_queries", "instance", status.id(), status.blockedQueries());
+            }
+        }
+        header(out, "dnsblocker_domains_blocked", "gauge", "Domains on the instance's block lists.");
+        for (FleetSnapshot.InstanceStatus status : snapshot.instances()) {
+            if (status.reachable()) {
+                sample(out, "dnsblocker_domains_blocked", "instance", status.id(), status.domainsBlocked());
+            }
+        }
+
+        header(out, "dnsblocker_fleet_instances", "gauge", "Instances in the fleet totals.");
+        sample(out, "dnsblocker_fleet_instances", snapshot.fleet().instances());
+        header(out, "dnsblocker_fleet_queries", "gauge", "Queries counted today by the fleet.");
+        sample(out, "dnsblocker_fleet_queries", snapshot.fleet().totalQueries());
+        header(out, "dnsblocker_fleet_blocked_queries", "gauge", "Queries blocked today by the fleet.");
+        sample(out, "dnsblocker_fleet_blocked_queries", snapshot.fleet().blockedQueries());
+        header(out, "dnsblocker_fleet_percent_blocked", "gauge", "Share of the fleet's queries blocked today.");
+        sample(out, "dnsblocker_fleet_percent_blocked", snapshot.fleet().percentBlocked());
+        header(out, "dnsblocker_fleet_blocking_state", "gauge", "Combined blocking state, 1 for the current one.");
+        for (BlockingState state : BlockingState.values()) {
+            sample(out, "dnsblocker_fleet_blocking_state", "state", state.name().toLowerCase(Locale.ROOT),
+                    state == snapshot.blocking() ? 1 : 0);
+        }
+    }
+
+    private static String label(Endpoint endpoint) {
+        return endpoint.name().toLowerCase(Locale.ROOT);
+    }
+
+    private static void header(StringBuilder out, String name, String type, String help) {
+        out.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        out.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+    }
+
+    private static void sample(StringBuilder out, String name, double value) {
+        out.append(name).append(' ').append(number(value)).append('\n');
+    }
+
+    private static void sample(StringBuilder out, String name, String labelName, String labelValue, double value) {
+        out.append(name).append('{').append(labelName).append("=\"");
+        escapeLabel(out, labelValue);
+        out.append("\"} ").append(number(value)).append('\n');
+    }
+
+    static String number(double value) {
+        if (Double.isNaN(value)) {
+            return "NaN";
+        }
+        if (Double.isInfinite(value)) {
+            return value > 0 ? "+Inf" : "-Inf";
+        }
+        if (value == Math.rint(value) && Math.abs(value) < 1e15) {
+            return Long.toString((long) value);
+        }
+        // Plain digits: Double.toString switches to exponents from 1e7 (every timestamp)
+        return BigDecimal.valueOf(value).toPlainString();
+    }
+
+    private static void escapeLabel(StringBuilder out, String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '\\' -> out.append("\\\\");
+                case '"' -> out.append("\\\"");
+                case '\n' -> out.append("\\n");
+                default -> out.append(c);
+            }
+        }
+    }
+}
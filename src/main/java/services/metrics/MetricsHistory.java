@@ -0,0 +1,316 @@
+/*
+ *
+ *  Copyright (C) 2022 - 2025.  Reda ELFARISSI aka FoKss-LTS
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+
+
+package services.metrics;
+
+import services.polling.SummaryStats;
+import services.polling.UpstreamStats;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory history of the polled headline stats, one set of series per instance.
+ * Each successful stats poll appends one sample to the total, blocked and percent series
+ * of its instance, updates its query and block rate estimators, scores the new rates for
+ * anomalies and adds the counter increase to its recent-window buckets. Upstream polls,
+ * which run on their own slower schedule, append the response times of the instance's
+ * resolvers. Thread-safe.
+ */
+public final class MetricsHistory {
+
+    /**
+     * Samples kept per series: about 5.5 hours at the default 5 s stats interval.
+     */
+    public static final int DEFAULT_CAPACITY = 4096;
+
+    /**
+     * Samples kept per upstream series: a day at the default 60 s upstream interval.
+     */
+    public static final int UPSTREAM_CAPACITY = 1440;
+
+    /**
+     * Distinct upstreams tracked per instance; resolvers seen after that are not recorded.
+     */
+    public static final int MAX_UPSTREAMS = 16;
+
+    private static final long MINUTE_MILLIS = 60_000L;
+
+    /**
+     * The series of one instance.
+     */
+    public static final class InstanceHistory {
+        private final RingSeries totalQueries;
+        private final RingSeries blockedQueries;
+        private final RingSeries percentBlocked;
+        private final RateEstimator queryRate = new RateEstimator();
+        private final RateEstimator blockRate = new RateEstimator();
+        private final WindowedCounts recent = new WindowedCounts();
+        private final AnomalyDetector queryRateAnomaly = new AnomalyDetector();
+        private final AnomalyDetector blockShareAnomaly = new AnomalyDetector();
+        private final RingSeries upstreamResponseMs;
+        private final Map<String, RingSeries> upstreamResponseMsByName = new LinkedHashMap<>();
+
+        private InstanceHistory(int capacity) {
+            this.totalQueries = new RingSeries(capacity);
+            this.blockedQueries = new RingSeries(capacity);
+            this.percentBlocked = new RingSeries(capacity);
+            this.upstreamResponseMs = new RingSeries(Math.min(capacity, UPSTREAM_CAPACITY));
+        }
+
+        public RingSeries totalQueries() {
+            return totalQueries;
+        }
+
+        public RingSeries blockedQueries() {
+            return blockedQueries;
+        }
+
+        public RingSeries percentBlocked() {
+            return percentBlocked;
+        }
+
+        /**
+         * @return smoothed queries per second, NaN until known
+         */
+        public double queriesPerSecond() {
+            return queryRate.rate();
+        }
+
+        /**
+         * @return smoothed blocked queries per second, NaN until known
+         */
+        public double blocksPerSecond() {
+            return blockRate.rate();
+        }
+
+        /**
+         * @return query and blocked counts of the last minutes, built from counter increases
+         */
+        public WindowedCounts recent() {
+            return recent;
+        }
+
+        /**
+         * @return the mean upstream response time in milliseconds, weighted by query counts
+         */
+        public RingSeries upstreamResponseMs() {
+            return upstreamResponseMs;
+        }
+
+        /**
+         * @return the response time series of one upstream, or null if it was never recorded
+         */
+        public synchronized RingSeries upstreamResponseMs(String upstream) {
+            return upstreamResponseMsByName.get(upstream);
+        }
+
+        /**
+         * @return the upstreams with a response time series, in the order they were first seen
+         */
+        public synchronized List<String> upstreamNames() {
+            return List.copyOf(upstreamResponseMsByName.keySet());
+        }
+
+        private synchronized void appendUpstreams(long timeMillis, UpstreamStats stats) {
+            double mean = stats.responseMs();
+            if (!Double.isNaN(mean)) {
+                upstreamResponseMs.append(timeMillis, mean);
+            }
+            for (UpstreamStats.Upstream upstream : stats.upstreams()) {
+                if (Double.isNaN(upstream.responseMs())) {
+                    continue;
+                }
+                RingSeries series = upstreamResponseMsByName.get(upstream.name());
+                if (series == null) {
+                    if (upstreamResponseMsByName.size() >= MAX_UPSTREAMS) {
+                        continue;
+                    }
+                    series = new RingSeries(upstreamResponseMs.capacity());
+                    upstreamResponseMsByName.put(upstream.name(), series);
+                }
+                series.append(timeMillis, upstream.responseMs());
+            }
+        }
+
+        private synchronized void append(long timeMillis, SummaryStats stats) {
+            long lastTime = totalQueries.latestTime();
+            if (lastTime != Long.MIN_VALUE
+                    && CounterResets.isContinuous(lastTime, totalQueries.latestValue(),
+                            timeMillis, stats.totalQueries(), RateEstimator.DEFAULT_MAX_GAP_MILLIS)
+                    && stats.blockedQueries() >= blockedQueries.latestValue()) {
+                recent.add(timeMillis, stats.totalQueries() - (long) totalQueries.latestValue(),
+                        stats.blockedQueries() - (long) blockedQueries.latestValue());
+            }
+            totalQueries.append(timeMillis, stats.totalQueries());
+            blockedQueries.append(timeMillis, stats.blockedQueries());
+            percentBlocked.append(timeMillis, stats.percentBlocked());
+            double queries = queryRate.update(timeMillis, stats.totalQueries());
+            double blocks = blockRate.update(timeMillis, stats.blockedQueries());
+            // Scored on every tick from the rates just computed: no extra state, no extra polling.
+            if (!Double.isNaN(queries)) {
+                queryRateAnomaly.update(timeMillis, queries);
+                if (queries > 0 && !Double.isNaN(blocks)) {
+                    blockShareAnomaly.update(timeMillis, blocks * 100.0 / queries);
+                }
+            }
+        }
+
+        private synchronized InstanceSnapshot snapshot(String instanceId) {
+            if (totalQueries.isEmpty()) {
+                return null;
+            }
+            long time = totalQueries.latestTime();
+            return new InstanceSnapshot(instanceId, time,
+                    (long) totalQueries.latestValue(), (long) blockedQueries.latestValue(),
+                    percentBlocked.latestValue(), queryRate.rate(), blockRate.rate(),
+                    recent.percentBlocked(MINUTE_MILLIS, time),
+                    recent.percentBlocked(5 * MINUTE_MILLIS, time),
+                    recent.percentBlocked(15 * MINUTE_MILLIS, time),
+                    queryRateAnomaly.zScore(), blockShareAnomaly.zScore());
+        }
+    }
+
+    private final Map<String, InstanceHistory> instances = new ConcurrentHashMap<>();
+    private final int capacity;
+
+    public MetricsHistory() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public MetricsHistory(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be > 0");
+        }
+        this.capacity = capacity;
+    }
+
+    /**
+     * Appends one poll result. Inactive (unreachable or unparseable) results are skipped
+     * so gaps stay gaps rather than dropping to zero.
+     */
+    public void record(String instanceId, long timeMillis, SummaryStats stats) {
+        if (instanceId == null || stats == null || !stats.active()) {
+            return;
+        }
+        instances.computeIfAbsent(instanceId, _ -> new InstanceHistory(capacity)).append(timeMillis, stats);
+    }
+
+    /**
+     * Appends one upstream poll result. Empty results are skipped.
+     */
+    public void recordUpstreams(String instanceId, long timeMillis, UpstreamStats stats) {
+        if (instanceId == null || stats == null || stats.isEmpty()) {
+            return;
+        }
+        instances.computeIfAbsent(instanceId, _ -> new InstanceHistory(capacity)).appendUpstreams(timeMillis, stats);
+    }
+
+    /**
+     * @return the series of the instance, or null if nothing was recorded for it
+     */
+    public InstanceHistory get(String instanceId) {
+        return instanceId == null ? null : instances.get(instanceId);
+    }
+
+    /**
+     * @return the latest snapshot of the instance, or null if nothing was recorded for it
+     */
+    public InstanceSnapshot snapshot(String instanceId) {
+        InstanceHistory history = get(instanceId);
+        return history == null ? null : history.snapshot(instanceId);
+    }
+
+    /**
+     * @return the latest snapshot of every instance with recorded stats, ordered by instance id
+     */
+    public List<InstanceSnapshot> snapshot() {
+        List<InstanceSnapshot> result = new ArrayList<>();
+        instances.forEach((id, history) -> {
+            InstanceSnapshot snapshot = history.snapshot(id);
+            if (snapshot != null) {
+                result.add(snapshot);
+            }
+        });
+        result.sort(Comparator.comparing(InstanceSnapshot::instanceId));
+        return List.copyOf(result);
+    }
+
+    /**
+     * Blocked share of the given instances over the window ending at {@code nowMillis},
+     * computed from their summed counts rather than by averaging their percentages.
+     *
+     * @return percent blocked, NaN if the instances saw no queries in the window
+     */
+    public double percentBlocked(Collection<String> instanceIds, long windowMillis, long nowMillis) {
+        long queries = 0;
+        long blocked = 0;
+        for (String id : instanceIds) {
+            InstanceHistory history = get(id);
+            if (history != null) {
+                queries += history.recent.queries(windowMillis, nowMillis);
+                blocked += history.recent.blocked(windowMillis, nowMillis);
+            }
+        }
+        return WindowedCounts.percent(queries, blocked);
+    }
+
+    /**
+     * Mean upstream response time of the given instances over the window ending at
+     * {@code nowMillis}: the average of each instance's samples, averaged across instances.
+     *
+     * @return milliseconds, NaN if no instance has a sample in the window
+     */
+    public double upstreamResponseMs(Collection<String> instanceIds, long windowMillis, long nowMillis) {
+        double sum = 0.0;
+        int count = 0;
+        for (String id : instanceIds) {
+            InstanceHistory history = get(id);
+            if (history != null) {
+                double average = history.upstreamResponseMs.average(nowMillis - windowMillis);
+                if (!Double.isNaN(average)) {
+                    sum += average;
+                    count++;
+                }
+            }
+        }
+        return count > 0 ? sum / count : Double.NaN;
+    }
+
+    public Set<String> instanceIds() {
+        return Set.copyOf(instances.keySet());
+    }
+
+    /**
+     * Drops the history of instances that are no longer configured.
+     */
+    public void retainInstances(Collection<String> instanceIds) {
+        instances.keySet().retainAll(Set.copyOf(instanceIds));
+    }
+
+    public void clear() {
+        instances.clear();
+    }
+}
@@ -0,0 +1,73 @@
+/*
+ *
+ *  Copyright (C) 2022 - 2025.  Reda ELFARISSI aka FoKss-LTS
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+
+package services.metrics;
+
+/**
+ * Alert state of one instance, derived from the z-scores of its query rate and
+ * blocked share. An alert is raised when a score crosses the threshold and only
+ * cleared once it is back under half of it, so a score hovering around the
+ * threshold does not flap.
+ */
+public enum RateAnomaly {
+    NONE(""),
+
+    /**
+     * Queries per second far above normal, e.g. a client flooding DNS.
+     */
+    QUERY_SPIKE("Query flood"),
+
+    /**
+     * Blocked share far below normal, e.g. blocklists lost after a failed gravity update.
+     */
+    BLOCK_RATE_DROP("Block rate collapsed");
+
+    // Fraction of the threshold a score must fall under to clear the alert
+    private static final double CLEAR_RATIO = 0.5;
+
+    private final String label;
+
+    RateAnomaly(String label) {
+        this.label = label;
+    }
+
+    public String label() {
+        return label;
+    }
+
+    /**
+     * Next state given the previous one and the latest scores. NaN scores never alert.
+     *
+     * @param threshold z-score magnitude that raises an alert
+     */
+    public static RateAnomaly evaluate(RateAnomaly previous, double queryZ, double blockShareZ, double threshold) {
+        if (queryZ >= threshold) {
+            return QUERY_SPIKE;
+        }
+        if (blockShareZ <= -threshold) {
+            return BLOCK_RATE_DROP;
+        }
+        if (previous == QUERY_SPIKE && queryZ >= threshold * CLEAR_RATIO) {
+            return QUERY_SPIKE;
+        }
+        if (previous == BLOCK_RATE_DROP && blockShareZ <= -threshold * CLEAR_RATIO) {
+            return BLOCK_RATE_DROP;
+        }
+        return NONE;
+    }
+}
@@ -0,0 +1,112 @@
+/*
+ *
+ *  Copyright (C) 2022 - 2025.  Reda ELFARISSI aka FoKss-LTS
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+
+
+package services.metrics;
+
+/**
+ * Smoothed per-second rate of a cumulative counter, fed with successive counter snapshots.
+ * <p>
+ * Each pair of samples gives an instantaneous rate that is folded into an exponentially
+ * weighted moving average. The smoothing factor depends on the elapsed time
+ * ({@code alpha = 1 - exp(-dt / tau)}), so irregular poll intervals weigh correctly.
+ * <p>
+ * Sample pairs that {@link CounterResets} does not consider continuous (counter reset,
+ * hour rollover, long gap) are not used: the estimator re-baselines on the new sample and
+ * keeps its current rate.
+ * <p>
+ * Thread-safe.
+ */
+public final class RateEstimator {
+
+    public static final long DEFAULT_TAU_MILLIS = 60_000L;
+    public static final long DEFAULT_MAX_GAP_MILLIS = 5 * 60_000L;
+
+    private final double tauMillis;
+    private final long maxGapMillis;
+
+    private boolean hasBaseline;
+    private long lastTime;
+    private double lastValue;
+    private double rate = Double.NaN;
+
+    public RateEstimator() {
+        this(DEFAULT_TAU_MILLIS, DEFAULT_MAX_GAP_MILLIS);
+    }
+
+    /**
+     * @param tauMillis    time constant of the average; larger is smoother but slower to react
+     * @param maxGapMillis sample pairs further apart than this are not used
+     */
+    public RateEstimator(long tauMillis, long maxGapMillis) {
+        if (tauMillis <= 0 || maxGapMillis <= 0) {
+            throw new IllegalArgumentException("tauMillis and maxGapMillis must be > 0");
+        }
+        this.tauMillis = tauMillis;
+        this.maxGapMillis = maxGapMillis;
+    }
+
+    /**
+     * Feeds one counter snapshot.
+     *
+     * @return the smoothed rate per second after this sample, NaN until two usable samples were seen
+     */
+    public synchronized double update(long timeMillis, double counter) {
+        if (!hasBaseline) {
+            rebaseline(timeMillis, counter);
+            return rate;
+        }
+        long elapsed = timeMillis - lastTime;
+        if (elapsed <= 0) {
+            // Same poll seen twice (or clock went back): nothing to learn from it
+            return rate;
+        }
+        if (!CounterResets.isContinuous(lastTime, lastValue, timeMillis, counter, maxGapMillis)) {
+            rebaseline(timeMillis, counter);
+            return rate;
+        }
+
+        double instant = (counter - lastValue) * 1000.0 / elapsed;
+        if (Double.isNaN(rate)) {
+            rate = instant;
+        } else {
+            double alpha = 1.0 - Math.exp(-elapsed / tauMillis);
+            rate += alpha * (instant - rate);
+        }
+        rebaseline(timeMillis, counter);
+        return rate;
+    }
+
+    /**
+     * @return the current smoothed rate per second, NaN if not known yet
+     */
+    public synchronized double rate() {
+        return rate;
+    }
+
+    public synchronized void reset() {
+        hasBaseline = false;
+        rate = Double.NaN;
+    }
+
+    private void rebaseline(long timeMillis, double counter) {
+        hasBaseline = true;
+        lastTime = timeMillis;
+        lastValue = counter;
+    }
+}
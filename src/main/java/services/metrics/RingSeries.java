@@ -0,0 +1,238 @@
+/*
+ *
+ *  Copyright (C) 2022 - 2025.  Reda ELFARISSI aka FoKss-LTS
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+
+
+package services.metrics;
+
+/**
+ * Fixed-capacity time series backed by two primitive arrays.
+ * <p>
+ * Appends are O(1) and overwrite the oldest sample once the ring is full. Samples are
+ * kept in timestamp order, so the start of a window is found by binary search and every
+ * windowed read is a single pass over primitives: no boxing, no iterator, no allocation
+ * per sample. Empty windows yield {@link Double#NaN}.
+ * <p>
+ * Thread-safe: a poll thread appends while UI or export code reads.
+ */
+public final class RingSeries {
+
+    /**
+     * Receives samples without boxing them.
+     */
+    @FunctionalInterface
+    public interface SampleConsumer {
+        void accept(long timeMillis, double value);
+    }
+
+    private final long[] times;
+    private final double[] values;
+    private int head;
+    private int size;
+
+    /**
+     * @param capacity maximum number of samples kept; the oldest are overwritten first
+     */
+    public RingSeries(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be > 0");
+        }
+        this.times = new long[capacity];
+        this.values = new double[capacity];
+    }
+
+    public int capacity() {
+        return times.length;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    public synchronized boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Appends a sample. Samples older than the latest one are rejected so the series
+     * stays ordered.
+     *
+     * @return false if the sample was rejected
+     */
+    public synchronized boolean append(long timeMillis, double value) {
+        if (size > 0 && timeMillis < times[physical(size - 1)]) {
+            return false;
+        }
+        if (size < times.length) {
+            int slot = physical(size);
+            times[slot] = timeMillis;
+            values[slot] = value;
+            size++;
+        } else {
+            times[head] = timeMillis;
+            values[head] = value;
+            head = head + 1 == times.length ? 0 : head + 1;
+        }
+        return true;
+    }
+
+    /**
+     * Appends a sample only if it is newer than the latest one; the check and the append
+     * are atomic, so concurrent writers of the same sample keep a single copy.
+     *
+     * @return false if the series already holds a sample at or after {@code timeMillis}
+     */
+    public synchronized boolean appendIfNewer(long timeMillis, double value) {
+        if (size > 0 && timeMillis <= times[physical(size - 1)]) {
+            return false;
+        }
+        return append(timeMillis, value);
+    }
+
+    /**
+     * Appends a sample to this series and one to {@code paired} at the same time, only if it
+     * is newer than the latest sample of this series. Both appends happen under this
+     * series' lock, so two series kept in step never interleave samples of concurrent writers.
+     *
+     * @return false if this series already holds a sample at or after {@code timeMillis}
+     */
+    public synchronized boolean appendIfNewer(long timeMillis, double value, RingSeries paired, double pairedValue) {
+        if (!appendIfNewer(timeMillis, value)) {
+            return false;
+        }
+        paired.append(timeMillis, pairedValue);
+        return true;
+    }
+
+    public synchronized void clear() {
+        head = 0;
+        size = 0;
+    }
+
+    /**
+     * @return timestamp of the newest sample, or {@link Long#MIN_VALUE} if empty
+     */
+    public synchronized long latestTime() {
+        return size == 0 ? Long.MIN_VALUE : times[physical(size - 1)];
+    }
+
+    /**
+     * @return value of the newest sample, or NaN if empty
+     */
+    public synchronized double latestValue() {
+        return size == 0 ? Double.NaN : values[physical(size - 1)];
+    }
+
+    /**
+     * @return number of samples at or after {@code fromMillis}
+     */
+    public synchronized int count(long fromMillis) {
+        return size - lowerBound(fromMillis);
+    }
+
+    public synchronized double min(long fromMillis) {
+        int start = lowerBound(fromMillis);
+        if (start == size) {
+            return Double.NaN;
+        }
+        double min = Double.POSITIVE_INFINITY;
+        for (int i = start; i < size; i++) {
+            min = Math.min(min, values[physical(i)]);
+        }
+        return min;
+    }
+
+    public synchronized double max(long fromMillis) {
+        int start = lowerBound(fromMillis);
+        if (start == size) {
+            return Double.NaN;
+        }
+        double max = Double.NEGATIVE_INFINITY;
+        for (int i = start; i < size; i++) {
+            max = Math.max(max, values[physical(i)]);
+        }
+        return max;
+    }
+
+    public synchronized double average(long fromMillis) {
+        int start = lowerBound(fromMillis);
+        if (start == size) {
+            return Double.NaN;
+        }
+        double sum = 0.0;
+        for (int i = start; i < size; i++) {
+            sum += values[physical(i)];
+        }
+        return sum / (size - start);
+    }
+
+    /**
+     * Per-second rate of a monotonic counter over the window. A decrease between two
+     * samples is treated as a counter reset (daily reset, service restart): the new value
+     * is counted from zero instead of producing a negative delta.
+     *
+     * @return the rate, or NaN if the window holds fewer than two samples or spans no time
+     */
+    public synchronized double ratePerSecond(long fromMillis) {
+        int start = lowerBound(fromMillis);
+        if (size - start < 2) {
+            return Double.NaN;
+        }
+        long elapsed = times[physical(size - 1)] - times[physical(start)];
+        if (elapsed <= 0) {
+            return Double.NaN;
+        }
+        double increase = 0.0;
+        double previous = values[physical(start)];
+        for (int i = start + 1; i < size; i++) {
+            double current = values[physical(i)];
+            increase += current >= previous ? current - previous : current;
+            previous = current;
+        }
+        return increase * 1000.0 / elapsed;
+    }
+
+    /**
+     * Visits the samples at or after {@code fromMillis}, oldest first.
+     */
+    public synchronized void forEach(long fromMillis, SampleConsumer consumer) {
+        for (int i = lowerBound(fromMillis); i < size; i++) {
+            int slot = physical(i);
+            consumer.accept(times[slot], values[slot]);
+        }
+    }
+
+    // Logical index (0 = oldest) of the first sample with time >= fromMillis.
+    private int lowerBound(long fromMillis) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (times[physical(mid)] < fromMillis) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private int physical(int logical) {
+        int slot = head + logical;
+        return slot >= times.length ? slot - times.length : slot;
+    }
+}
@@ -0,0 +1,135 @@
+/*
+ *
+ *  Copyright (C) 2022 - 2025.  Reda ELFARISSI aka FoKss-LTS
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+
+package services.metrics;
+
+import java.util.Arrays;
+
+/**
+ * Query and blocked counts of the last few minutes in a fixed ring of time buckets.
+ * Each poll adds the counter increase since the previous poll to the bucket of its
+ * timestamp; a window sum only visits the buckets it covers, so "blocked percent over
+ * the last N minutes" costs a handful of additions regardless of the poll rate.
+ * Buckets are reused in place once they fall out of the ring. Thread-safe.
+ */
+public final class WindowedCounts {
+
+    /**
+     * Width of one bucket: the 1 minute window spans six of them.
+     */
+    public static final long DEFAULT_BUCKET_MILLIS = 10_000L;
+
+    /**
+     * Number of buckets: with the default width the longest window is 15 minutes.
+     */
+    public static final int DEFAULT_BUCKETS = 90;
+
+    private final long bucketMillis;
+    // Bucket number (time / bucketMillis) each slot currently holds, Long.MIN_VALUE if unused
+    private final long[] slots;
+    private final long[] queries;
+    private final long[] blocked;
+
+    public WindowedCounts() {
+        this(DEFAULT_BUCKET_MILLIS, DEFAULT_BUCKETS);
+    }
+
+    public WindowedCounts(long bucketMillis, int buckets) {
+        if (bucketMillis <= 0 || buckets <= 0) {
+            throw new IllegalArgumentException("bucketMillis and buckets must be > 0");
+        }
+        this.bucketMillis = bucketMillis;
+        this.slots = new long[buckets];
+        this.queries = new long[buckets];
+        this.blocked = new long[buckets];
+        Arrays.fill(slots, Long.MIN_VALUE);
+    }
+
+    /**
+     * @return the longest window the ring can answer for
+     */
+    public long spanMillis() {
+        return bucketMillis * slots.length;
+    }
+
+    /**
+     * Adds the increase observed by the poll at {@code timeMillis}.
+     */
+    public synchronized void add(long timeMillis, long queryDelta, long blockedDelta) {
+        long bucket = Math.floorDiv(timeMillis, bucketMillis);
+        int index = (int) Math.floorMod(bucket, (long) slots.length);
+        if (slots[index] != bucket) {
+            if (slots[index] > bucket) {
+                // Older than anything the ring still holds
+                return;
+            }
+            slots[index] = bucket;
+            queries[index] = 0;
+            blocked[index] = 0;
+        }
+        queries[index] += queryDelta;
+        blocked[index] += blockedDelta;
+    }
+
+    /**
+     * @return queries counted in the {@code windowMillis} ending at {@code nowMillis}
+     */
+    public synchronized long queries(long windowMillis, long nowMillis) {
+        return sum(queries, windowMillis, nowMillis);
+    }
+
+    /**
+     * @return blocked queries counted in the {@code windowMillis} ending at {@code nowMillis}
+     */
+    public synchronized long blocked(long windowMillis, long nowMillis) {
+        return sum(blocked, windowMillis, nowMillis);
+    }
+
+    /**
+     * @return blocked share of the window in percent, NaN if it saw no queries
+     */
+    public synchronized double percentBlocked(long windowMillis, long nowMillis) {
+        return percent(queries(windowMillis, nowMillis), blocked(windowMillis, nowMillis));
+    }
+
+    /**
+     * @return {@code blocked} as a percentage of {@code queries}, NaN if there were none
+     */
+    public static double percent(long queries, long blocked) {
+        return queries > 0 ? blocked * 100.0 / queries : Double.NaN;
+    }
+
+    public synchronized void clear() {
+        Arrays.fill(slots, Long.MIN_VALUE);
+    }
+
+    // Buckets in (nowBucket - n, nowBucket], n = window length in buckets (at most the ring).
+    private long sum(long[] values, long windowMillis, long nowMillis) {
+        long newest = Math.floorDiv(nowMillis, bucketMillis);
+        long count = Math.min(slots.length, Math.max(1L, (windowMillis + bucketMillis - 1) / bucketMillis));
+        long oldest = newest - count + 1;
+        long total = 0;
+        for (long bucket = oldest; bucket <= newest; bucket++) {
+            int index = (int) Math.floorMod(bucket, (long) slots.length);
+            if (slots[index] == bucket) {
+                total += values[index];
+            }
+        }
+        return total;
+    }
+}
@@ -27,15 +27,20 @@ import helpers.HttpClientUtil;
 import helpers.HttpClientUtil.HttpResponsePayload;
 import services.DnsBlockerHandler;
 import services.configuration.ConfigurationService;
+import services.polling.Endpoint;
 
 import java.io.IOException;
 import java.time.Clock;
 import java.time.Duration;
 import java.time.Instant;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.EnumMap;
 import java.util.HashMap;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -57,6 +62,11 @@ public class PiHoleHandler implements DnsBlockerHandler {
     private static final String STATS_SUMMARY_ENDPOINT = "/stats/summary";
     private static final String STATS_RECENT_BLOCKED_ENDPOINT = "/stats/recent_blocked";
     private static final String STATS_TOP_DOMAINS_ENDPOINT = "/stats/top_domains";
+    private static final String STATS_TOP_CLIENTS_ENDPOINT = "/stats/top_clients";
+    private static final String NETWORK_DEVICES_ENDPOINT = "/network/devices";
+    private static final String STATS_UPSTREAMS_ENDPOINT = "/stats/upstreams";
+    private static final String HISTORY_ENDPOINT = "/history";
+    private static final String QUERIES_ENDPOINT = "/queries";
 
     // POST endpoints
     private static final String DNS_BLOCKING_ENDPOINT = "/dns/blocking";
@@ -68,6 +78,21 @@ public class PiHoleHandler implements DnsBlockerHandler {
     private static final String SCHEMA_STATS_V1 = "dnsblocker.stats.v1";
     private static final String SCHEMA_TOP_BLOCKED_V1 = "dnsblocker.top_blocked.v1";
     private static final String SCHEMA_BLOCKING_STATUS_V1 = "dnsblocker.blocking_status.v1";
+    private static final String SCHEMA_HISTORY_V1 = "dnsblocker.history.v1";
+    private static final String SCHEMA_QUERIES_V1 = "dnsblocker.queries.v1";
+    private static final String SCHEMA_TOP_CLIENTS_V1 = "dnsblocker.top_clients.v1";
+    private static final String SCHEMA_CLIENT_NAMES_V1 = "dnsblocker.client_names.v1";
+    private static final String SCHEMA_UPSTREAMS_V1 = "dnsblocker.upstreams.v1";
+
+    // FTL aggregates its query history in 10-minute slots
+    private static final long HISTORY_BUCKET_SECONDS = 600L;
+
+    // FTL query statuses that mean the query was blocked (anything else was answered)
+    private static final Set<String> BLOCKED_STATUSES = Set.of(
+            "GRAVITY", "REGEX", "DENYLIST", "BLACKLIST",
+            "GRAVITY_CNAME", "REGEX_CNAME", "DENYLIST_CNAME", "BLACKLIST_CNAME",
+            "EXTERNAL_BLOCKED_IP", "EXTERNAL_BLOCKED_NULL", "EXTERNAL_BLOCKED_NXRA",
+            "EXTERNAL_BLOCKED_EDE15", "SPECIAL_DOMAIN", "DBBUSY");
 
     private static final ObjectMapper JSON = new ObjectMapper();
 
@@ -285,21 +310,33 @@ public class PiHoleHandler implements DnsBlockerHandler {
     public String getPiHoleStats() {
         log("=== getPiHoleStats() called ===");
         log("Session ID: " + maskSessionId(sessionId));
+        return summaryBody(readSummary());
+    }
+
+    private String summaryBody(HttpResponsePayload response) {
+        if (response == null) {
+            return "";
+        }
+        if (!response.isSuccessful()) {
+            log("Failed to get stats - HTTP " + response.statusCode());
+            return "";
+        }
+        return response.bodyText();
+    }
 
+    /**
+     * @return the /stats/summary response, or null if the request failed
+     */
+    private HttpResponsePayload readSummary() {
         try {
-            HttpResponsePayload response = getApi(STATS_SUMMARY_ENDPOINT, Collections.emptyMap());
-            if (!response.isSuccessful()) {
-                log("Failed to get stats - HTTP " + response.statusCode());
-                return "";
-            }
-            return response.bodyText();
+            return getApi(STATS_SUMMARY_ENDPOINT, Collections.emptyMap());
         } catch (IOException e) {
             logError("IOException while fetching stats summary", e);
         } catch (InterruptedException e) {
             Thread.currentThread().interrupt();
             logError("Interrupted while fetching stats summary", e);
         }
-        return "";
+        return null;
     }
 
     private String transformSummaryToGeneric(String piHoleSummaryJson) {
@@ -550,48 +587,237 @@ public class PiHoleHandler implements DnsBlockerHandler {
         }
     }
 
-    /**
-     * Retrieves the gravity last update time as a formatted string.
-     */
     @Override
-    public String getGravityLastUpdate() {
-        log("=== getGravityLastUpdate() called ===");
+    public String getTopXClients(int count) {
+        log("=== getTopXClients(" + count + ") called ===");
+        if (count <= 0) {
+            return "";
+        }
 
         try {
-            HttpResponsePayload response = getApi(STATS_SUMMARY_ENDPOINT, Collections.emptyMap());
-
+            HttpResponsePayload response = getApi(STATS_TOP_CLIENTS_ENDPOINT,
+                    Map.of("count", String.valueOf(count)));
             if (!response.isSuccessful()) {
-                log("Failed to get stats for gravity last update - HTTP " + response.statusCode());
+                log("Failed to get top clients - HTTP " + response.statusCode());
                 return "";
             }
+            return transformTopClientsToGeneric(response.bodyText());
 
-            Optional<JsonNode> jsonOpt = response.bodyAsJson();
-            if (jsonOpt.isEmpty()) {
-                log("Failed to parse stats JSON response");
+        } catch (IOException e) {
+            logError("IOException while fetching top clients", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            logError("Interrupted while fetching top clients", e);
+        }
+        return "";
+    }
+
+    /**
+     * {"clients":[{"name":"laptop","ip":"10.0.0.2","count":123}]} to the generic
+     * {@code dnsblocker.top_clients.v1} payload. FTL already resolves client names.
+     */
+    private String transformTopClientsToGeneric(String piHoleTopClientsJson) {
+        if (piHoleTopClientsJson == null || piHoleTopClientsJson.isBlank()) {
+            return "";
+        }
+        try {
+            JsonNode clients = JSON.readTree(piHoleTopClientsJson).path("clients");
+            if (!clients.isArray()) {
                 return "";
             }
 
-            JsonNode gravity = jsonOpt.get().get("gravity");
-            long lastUpdate = 0L;
-            if (gravity != null && gravity.has("last_update")) {
-                lastUpdate = gravity.get("last_update").asLong(0L);
+            ObjectNode out = JSON.createObjectNode();
+            out.put("schema", SCHEMA_TOP_CLIENTS_V1);
+            out.put("source", "pihole");
+            ArrayNode items = JSON.createArrayNode();
+            for (JsonNode client : clients) {
+                String ip = client.path("ip").asText("");
+                if (ip.isBlank()) {
+                    continue;
+                }
+                ObjectNode item = JSON.createObjectNode();
+                item.put("ip", ip);
+                item.put("name", client.path("name").asText(""));
+                item.put("count", Math.max(0L, client.path("count").asLong(0L)));
+                items.add(item);
             }
+            out.set("clients", items);
+            return JSON.writeValueAsString(out);
+        } catch (Exception e) {
+            logError("Failed to transform Pi-hole top clients to generic schema", e);
+            return "";
+        }
+    }
 
-            if (lastUpdate <= 0L) {
-                return "Gravity: unknown";
+    /**
+     * Names from the network table (GET /network/devices): every address of a device
+     * that FTL resolved a host name for.
+     */
+    @Override
+    public String getClientNames() {
+        log("=== getClientNames() called ===");
+        try {
+            HttpResponsePayload response = getApi(NETWORK_DEVICES_ENDPOINT, Collections.emptyMap());
+            if (!response.isSuccessful()) {
+                log("Failed to get network devices - HTTP " + response.statusCode());
+                return "";
+            }
+
+            JsonNode devices = JSON.readTree(response.bodyText()).path("devices");
+            if (!devices.isArray()) {
+                return "";
+            }
+            ObjectNode out = JSON.createObjectNode();
+            out.put("schema", SCHEMA_CLIENT_NAMES_V1);
+            out.put("source", "pihole");
+            ArrayNode items = JSON.createArrayNode();
+            for (JsonNode device : devices) {
+                for (JsonNode address : device.path("ips")) {
+                    String ip = address.path("ip").asText("");
+                    String name = address.path("name").asText("");
+                    if (!ip.isBlank() && !name.isBlank()) {
+                        ObjectNode item = JSON.createObjectNode();
+                        item.put("ip", ip);
+                        item.put("name", name);
+                        items.add(item);
+                    }
+                }
+            }
+            out.set("clients", items);
+            return JSON.writeValueAsString(out);
+
+        } catch (IOException e) {
+            logError("IOException while fetching network devices", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            logError("Interrupted while fetching network devices", e);
+        }
+        return "";
+    }
+
+    /**
+     * Upstream counters and response times (GET /stats/upstreams). FTL lists queries
+     * answered from the blocklist and cache as pseudo-upstreams with port -1; those are
+     * not resolvers and are left out. Response times are reported in seconds.
+     */
+    @Override
+    public String getUpstreams() {
+        log("=== getUpstreams() called ===");
+        try {
+            HttpResponsePayload response = getApi(STATS_UPSTREAMS_ENDPOINT, Collections.emptyMap());
+            if (!response.isSuccessful()) {
+                log("Failed to get upstreams - HTTP " + response.statusCode());
+                return "";
             }
 
-            return formatRelativeEpochSeconds(lastUpdate);
+            JsonNode upstreams = JSON.readTree(response.bodyText()).path("upstreams");
+            if (!upstreams.isArray()) {
+                return "";
+            }
+            ObjectNode out = JSON.createObjectNode();
+            out.put("schema", SCHEMA_UPSTREAMS_V1);
+            out.put("source", "pihole");
+            ArrayNode items = JSON.createArrayNode();
+            for (JsonNode upstream : upstreams) {
+                int port = upstream.path("port").asInt(-1);
+                String ip = upstream.path("ip").asText("");
+                if (port < 0 || ip.isBlank()) {
+                    continue;
+                }
+                String name = upstream.path("name").asText("");
+                ObjectNode item = JSON.createObjectNode();
+                item.put("name", (name.isBlank() ? ip : name) + "#" + port);
+                item.put("count", Math.max(0L, upstream.path("count").asLong(0L)));
+                JsonNode seconds = upstream.path("statistics").path("response");
+                if (seconds.isNumber()) {
+                    item.put("response_ms", seconds.asDouble() * 1000.0);
+                }
+                items.add(item);
+            }
+            out.set("upstreams", items);
+            return JSON.writeValueAsString(out);
 
         } catch (IOException e) {
-            logError("IOException while fetching gravity last update", e);
+            logError("IOException while fetching upstreams", e);
         } catch (InterruptedException e) {
             Thread.currentThread().interrupt();
-            logError("Interrupted while fetching gravity last update", e);
+            logError("Interrupted while fetching upstreams", e);
         }
         return "";
     }
 
+    /**
+     * Retrieves the gravity last update time as a formatted string.
+     */
+    @Override
+    public String getGravityLastUpdate() {
+        log("=== getGravityLastUpdate() called ===");
+        return gravityLastUpdateFrom(readSummary());
+    }
+
+    private String gravityLastUpdateFrom(HttpResponsePayload response) {
+        if (response == null) {
+            return "";
+        }
+        if (!response.isSuccessful()) {
+            log("Failed to get stats for gravity last update - HTTP " + response.statusCode());
+            return "";
+        }
+
+        Optional<JsonNode> jsonOpt = response.bodyAsJson();
+        if (jsonOpt.isEmpty()) {
+            log("Failed to parse stats JSON response");
+            return "";
+        }
+
+        JsonNode gravity = jsonOpt.get().get("gravity");
+        long lastUpdate = 0L;
+        if (gravity != null && gravity.has("last_update")) {
+            lastUpdate = gravity.get("last_update").asLong(0L);
+        }
+
+        if (lastUpdate <= 0L) {
+            return "Gravity: unknown";
+        }
+
+        return formatRelativeEpochSeconds(lastUpdate);
+    }
+
+    /**
+     * The summary and the gravity update time both come from /stats/summary.
+     */
+    @Override
+    public String resourceOf(Endpoint endpoint) {
+        return switch (endpoint) {
+            case STATS, GRAVITY_LAST_UPDATE -> STATS_SUMMARY_ENDPOINT;
+            default -> DnsBlockerHandler.super.resourceOf(endpoint);
+        };
+    }
+
+    /**
+     * Requests /stats/summary at most once for the summary and the gravity update time.
+     */
+    @Override
+    public Map<Endpoint, String> fetchAll(Collection<Endpoint> endpoints, int topX) {
+        HttpResponsePayload summary = null;
+        boolean summaryRead = false;
+        Map<Endpoint, String> results = new EnumMap<>(Endpoint.class);
+        for (Endpoint endpoint : endpoints) {
+            if (endpoint != Endpoint.STATS && endpoint != Endpoint.GRAVITY_LAST_UPDATE) {
+                results.put(endpoint, endpoint.fetch(this, topX));
+                continue;
+            }
+            if (!summaryRead) {
+                summary = readSummary();
+                summaryRead = true;
+            }
+            results.put(endpoint, endpoint == Endpoint.STATS
+                    ? transformSummaryToGeneric(summaryBody(summary))
+                    : gravityLastUpdateFrom(summary));
+        }
+        return results;
+    }
+
     /**
      * Changes current blocking status (Pi-hole v6+): POST /dns/blocking
      *
@@ -656,7 +882,7 @@ public class PiHoleHandler implements DnsBlockerHandler {
         }
         try {
             JsonNode root = JSON.readTree(piHoleBlockingJson);
-            // Pi-hole v6: {"blocking":"enabled"/"disabled"} or boolean-like strings.
+            // Pi-hole v6: {"blocking":"enabled"/"disabled","timer":seconds|null} or boolean-like strings.
             JsonNode n = root.path("blocking");
             Boolean enabled = null;
             if (n != null && !n.isMissingNode() && !n.isNull()) {
@@ -680,6 +906,11 @@ public class PiHoleHandler implements DnsBlockerHandler {
             } else {
                 blocking.put("enabled", enabled);
             }
+            // Seconds left before a timed change reverts
+            JsonNode timer = root.path("timer");
+            if (timer.isNumber()) {
+                blocking.put("timer", timer.asDouble());
+            }
             out.set("blocking", blocking);
             return JSON.writeValueAsString(out);
         } catch (Exception e) {
@@ -688,6 +919,165 @@ public class PiHoleHandler implements DnsBlockerHandler {
         }
     }
 
+    /**
+     * Retrieves the query history (Pi-hole v6+): GET /history, 10-minute buckets over the last 24h.
+     */
+    @Override
+    public String getHistory() {
+        log("=== getHistory() called ===");
+        try {
+            HttpResponsePayload response = getApi(HISTORY_ENDPOINT, Collections.emptyMap());
+            if (!response.isSuccessful()) {
+                log("Failed to get history - HTTP " + response.statusCode());
+                return "";
+            }
+            return transformHistoryToGeneric(response.bodyText());
+        } catch (IOException e) {
+            logError("IOException while fetching history", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            logError("Interrupted while fetching history", e);
+        }
+        return "";
+    }
+
+    /**
+     * {"history":[{"timestamp":1511819900.5,"total":2134,"blocked":413,...}]} to
+     * {"schema":"dnsblocker.history.v1","bucket_seconds":600,"buckets":[{"start":..,"total":..,"blocked":..}]}.
+     * FTL stamps slots with their middle; starts are re-aligned on the slot grid.
+     */
+    private String transformHistoryToGeneric(String piHoleHistoryJson) {
+        if (piHoleHistoryJson == null || piHoleHistoryJson.isBlank()) {
+            return "";
+        }
+        try {
+            JsonNode history = JSON.readTree(piHoleHistoryJson).path("history");
+            if (!history.isArray()) {
+                return "";
+            }
+
+            ObjectNode out = JSON.createObjectNode();
+            out.put("schema", SCHEMA_HISTORY_V1);
+            out.put("source", "pihole");
+            out.put("bucket_seconds", HISTORY_BUCKET_SECONDS);
+            ArrayNode buckets = JSON.createArrayNode();
+            for (JsonNode item : history) {
+                long timestamp = (long) item.path("timestamp").asDouble(0.0);
+                if (timestamp <= 0L) {
+                    continue;
+                }
+                ObjectNode bucket = JSON.createObjectNode();
+                bucket.put("start", Math.floorDiv(timestamp, HISTORY_BUCKET_SECONDS) * HISTORY_BUCKET_SECONDS);
+                bucket.put("total", Math.max(0L, item.path("total").asLong(0L)));
+                bucket.put("blocked", Math.max(0L, item.path("blocked").asLong(0L)));
+                buckets.add(bucket);
+            }
+            out.set("buckets", buckets);
+            return JSON.writeValueAsString(out);
+        } catch (Exception e) {
+            logError("Failed to transform Pi-hole history to generic schema", e);
+            return "";
+        }
+    }
+
+    /**
+     * Pages through GET /queries?domain=. FTL pins a result set with the {@code cursor} of
+     * the first response; following pages pass it back with a {@code start} offset, which
+     * is what the generic cursor encodes ("&lt;cursor&gt;:&lt;start&gt;").
+     */
+    @Override
+    public String getDomainQueries(String domain, String cursor, int pageSize) {
+        log("=== getDomainQueries() called ===");
+        if (domain == null || domain.isBlank() || pageSize <= 0) {
+            return "";
+        }
+        try {
+            Map<String, String> params = new HashMap<>();
+            params.put("domain", domain);
+            params.put("length", String.valueOf(pageSize));
+            long start = 0L;
+            if (cursor != null && !cursor.isBlank()) {
+                int sep = cursor.indexOf(':');
+                if (sep <= 0) {
+                    log("Ignoring malformed query cursor: " + cursor);
+                    return "";
+                }
+                params.put("cursor", cursor.substring(0, sep));
+                start = Long.parseLong(cursor.substring(sep + 1));
+            }
+            params.put("start", String.valueOf(start));
+
+            HttpResponsePayload response = getApi(QUERIES_ENDPOINT, params);
+            if (!response.isSuccessful()) {
+                log("Failed to get queries - HTTP " + response.statusCode());
+                return "";
+            }
+            return transformQueriesToGeneric(response.bodyText(), domain, start, pageSize);
+        } catch (NumberFormatException e) {
+            log("Ignoring malformed query cursor: " + cursor);
+        } catch (IOException e) {
+            logError("IOException while fetching domain queries", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            logError("Interrupted while fetching domain queries", e);
+        }
+        return "";
+    }
+
+    /**
+     * {"queries":[{"time":..,"status":"GRAVITY","client":{"ip":..,"name":..},"list_id":3}],
+     * "cursor":..,"recordsFiltered":..} to the generic {@code dnsblocker.queries.v1} page.
+     */
+    private String transformQueriesToGeneric(String piHoleQueriesJson, String domain, long start, int pageSize) {
+        if (piHoleQueriesJson == null || piHoleQueriesJson.isBlank()) {
+            return "";
+        }
+        try {
+            JsonNode root = JSON.readTree(piHoleQueriesJson);
+            JsonNode queries = root.path("queries");
+            if (!queries.isArray()) {
+                return "";
+            }
+
+            ObjectNode out = JSON.createObjectNode();
+            out.put("schema", SCHEMA_QUERIES_V1);
+            out.put("source", "pihole");
+            out.put("domain", domain);
+            ArrayNode items = JSON.createArrayNode();
+            for (JsonNode query : queries) {
+                String status = query.path("status").asText("");
+                boolean blocked = BLOCKED_STATUSES.contains(status);
+                ObjectNode item = JSON.createObjectNode();
+                item.put("time", (long) query.path("time").asDouble(0.0));
+                item.put("client", query.path("client").path("ip").asText(""));
+                item.put("client_name", query.path("client").path("name").asText(""));
+                item.put("blocked", blocked);
+                item.put("status", status);
+                if (blocked) {
+                    JsonNode listId = query.path("list_id");
+                    item.put("list", listId.isNumber()
+                            ? status.toLowerCase(Locale.ROOT) + " #" + listId.asLong()
+                            : status.toLowerCase(Locale.ROOT));
+                }
+                items.add(item);
+            }
+            out.set("queries", items);
+
+            long next = start + queries.size();
+            long filtered = root.path("recordsFiltered").asLong(Long.MAX_VALUE);
+            JsonNode ftlCursor = root.path("cursor");
+            if (queries.size() < pageSize || next >= filtered || ftlCursor.isMissingNode() || ftlCursor.isNull()) {
+                out.putNull("next_cursor");
+            } else {
+                out.put("next_cursor", ftlCursor.asText() + ":" + next);
+            }
+            return JSON.writeValueAsString(out);
+        } catch (Exception e) {
+            logError("Failed to transform Pi-hole queries to generic schema", e);
+            return "";
+        }
+    }
+
     // Minimal JSON path helpers (local to this handler to avoid controller coupling)
     private static String[] path(String... parts) {
         return parts;
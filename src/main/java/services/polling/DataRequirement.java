@@ -0,0 +1,44 @@
+/*
+ *
+ *  Copyright (C) 2022 - 2025.  Reda ELFARISSI aka FoKss-LTS
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+
+
+package services.polling;
+
+import java.time.Duration;
+import java.util.Objects;
+
+/**
+ * A metric a tile displays and how old it may be before it must be refreshed.
+ *
+ * @param metric the metric
+ * @param maxAge the maximum acceptable age of the value (strictly positive)
+ */
+public record DataRequirement(Metric metric, Duration maxAge) {
+
+    public DataRequirement {
+        Objects.requireNonNull(metric, "metric");
+        Objects.requireNonNull(maxAge, "maxAge");
+        if (maxAge.isZero() || maxAge.isNegative()) {
+            throw new IllegalArgumentException("maxAge must be positive: " + maxAge);
+        }
+    }
+
+    public static DataRequirement of(Metric metric, long maxAgeSeconds) {
+        return new DataRequirement(metric, Duration.ofSeconds(maxAgeSeconds));
+    }
+}
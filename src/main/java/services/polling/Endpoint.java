@@ -0,0 +1,111 @@
+/*
+ *
+ *  Copyright (C) 2022 - 2025.  Reda ELFARISSI aka FoKss-LTS
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+
+
+package services.polling;
+
+import services.DnsBlockerHandler;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Results exposed by a {@link DnsBlockerHandler}, each derived from one upstream resource.
+ * Several endpoints may share a resource (AdGuard Home's /control/stats backs the summary,
+ * the top lists and the upstreams): {@link #fetchAll} reads such a resource once for all of
+ * them, so the cost of a poll is the number of distinct resources, not of endpoints.
+ */
+public enum Endpoint {
+    STATS,
+    BLOCKING_STATUS,
+    LAST_BLOCKED,
+    VERSION,
+    GRAVITY_LAST_UPDATE,
+    TOP_BLOCKED,
+    TOP_CLIENTS,
+    CLIENT_NAMES,
+    UPSTREAMS;
+
+    /**
+     * Performs the handler call backing this endpoint.
+     *
+     * @param handler the instance handler (may be null)
+     * @param topX    number of entries requested by list endpoints
+     * @return the raw handler result, or empty string if there is no handler
+     */
+    public String fetch(DnsBlockerHandler handler, int topX) {
+        if (handler == null) {
+            return "";
+        }
+        String result = switch (this) {
+            case STATS -> handler.getStats();
+            case BLOCKING_STATUS -> handler.getDnsBlockingStatus();
+            case LAST_BLOCKED -> handler.getLastBlocked();
+            case VERSION -> handler.getVersion();
+            case GRAVITY_LAST_UPDATE -> handler.getGravityLastUpdate();
+            case TOP_BLOCKED -> handler.getTopXBlocked(Math.max(1, topX));
+            case TOP_CLIENTS -> handler.getTopXClients(Math.max(1, topX));
+            case CLIENT_NAMES -> handler.getClientNames();
+            case UPSTREAMS -> handler.getUpstreams();
+        };
+        return result == null ? "" : result;
+    }
+
+    /**
+     * @return the upstream resource {@code handler} reads this endpoint from (the endpoint
+     *         name when there is no handler)
+     */
+    public String resource(DnsBlockerHandler handler) {
+        return handler == null ? name() : handler.resourceOf(this);
+    }
+
+    /**
+     * Fetches several endpoints of one instance, reading each upstream resource once.
+     *
+     * @param handler   the instance handler (may be null)
+     * @param endpoints the endpoints to fetch
+     * @param topX      number of entries requested by list endpoints
+     * @return the raw result of every endpoint, empty string on failure or without handler
+     */
+    public static Map<Endpoint, String> fetchAll(DnsBlockerHandler handler, Collection<Endpoint> endpoints,
+            int topX) {
+        Map<Endpoint, String> fetched = handler == null ? Map.of() : handler.fetchAll(endpoints, Math.max(1, topX));
+        Map<Endpoint, String> results = new EnumMap<>(Endpoint.class);
+        for (Endpoint endpoint : endpoints) {
+            String result = fetched.get(endpoint);
+            results.put(endpoint, result == null ? "" : result);
+        }
+        return results;
+    }
+
+    /**
+     * Groups endpoints by the upstream resource {@code handler} reads them from, in
+     * first-seen order. Each group costs one request through {@link #fetchAll}.
+     */
+    public static List<List<Endpoint>> byResource(DnsBlockerHandler handler, Collection<Endpoint> endpoints) {
+        Map<String, List<Endpoint>> groups = new LinkedHashMap<>();
+        for (Endpoint endpoint : endpoints) {
+            groups.computeIfAbsent(endpoint.resource(handler), _ -> new ArrayList<>()).add(endpoint);
+        }
+        return List.copyOf(groups.values());
+    }
+}
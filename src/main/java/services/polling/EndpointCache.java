@@ -0,0 +1,76 @@
+/*
+ *
+ *  Copyright (C) 2022 - 2025.  Reda ELFARISSI aka FoKss-LTS
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+
+
+package services.polling;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Latest raw result of each polled endpoint, shared by every tile that reads it.
+ * Thread-safe; written by poll tasks and read by tile renderers.
+ */
+public final class EndpointCache {
+
+    /**
+     * A cached handler result.
+     *
+     * @param body      raw handler result (empty string on failure, as returned by handlers)
+     * @param fetchedAt when the result was stored
+     */
+    public record Entry(String body, Instant fetchedAt) {
+    }
+
+    private final Map<EndpointKey, Entry> entries = new ConcurrentHashMap<>();
+    private final Clock clock;
+
+    public EndpointCache() {
+        this(Clock.systemUTC());
+    }
+
+    public EndpointCache(Clock clock) {
+        this.clock = Objects.requireNonNull(clock, "clock");
+    }
+
+    public void put(EndpointKey key, String body) {
+        entries.put(key, new Entry(body == null ? "" : body, clock.instant()));
+    }
+
+    /**
+     * @return the cached body, or empty string if the endpoint has not been fetched
+     */
+    public String get(int instance, Endpoint endpoint) {
+        Entry entry = entries.get(new EndpointKey(instance, endpoint));
+        return entry == null ? "" : entry.body();
+    }
+
+    /**
+     * @return the cached entry, or null if the endpoint has not been fetched
+     */
+    public Entry entry(int instance, Endpoint endpoint) {
+        return entries.get(new EndpointKey(instance, endpoint));
+    }
+
+    public void clear() {
+        entries.clear();
+    }
+}
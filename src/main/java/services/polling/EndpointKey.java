@@ -0,0 +1,42 @@
+/*
+ *
+ *  Copyright (C) 2022 - 2025.  Reda ELFARISSI aka FoKss-LTS
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+
+
+package services.polling;
+
+import java.util.Comparator;
+import java.util.Objects;
+
+/**
+ * One endpoint on one instance: the unit of work the poller actually performs.
+ *
+ * @param instance index of the instance (0 is the primary)
+ * @param endpoint the endpoint
+ */
+public record EndpointKey(int instance, Endpoint endpoint) {
+
+    static final Comparator<EndpointKey> ORDER = Comparator.comparingInt(EndpointKey::instance)
+            .thenComparing(EndpointKey::endpoint);
+
+    public EndpointKey {
+        Objects.requireNonNull(endpoint, "endpoint");
+        if (instance < 0) {
+            throw new IllegalArgumentException("instance must be >= 0: " + instance);
+        }
+    }
+}
@@ -0,0 +1,64 @@
+/*
+ *
+ *  Copyright (C) 2022 - 2025.  Reda ELFARISSI aka FoKss-LTS
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+
+
+package services.polling;
+
+/**
+ * Values a tile can ask for, independent of how they are fetched.
+ * Each metric knows the endpoint that carries it and whether it is read from every
+ * configured instance or only from the primary one.
+ */
+public enum Metric {
+    TOTAL_QUERIES(Endpoint.STATS, Scope.ALL_INSTANCES),
+    BLOCKED_QUERIES(Endpoint.STATS, Scope.ALL_INSTANCES),
+    PERCENT_BLOCKED(Endpoint.STATS, Scope.ALL_INSTANCES),
+    DOMAINS_ON_LISTS(Endpoint.STATS, Scope.ALL_INSTANCES),
+    INSTANCE_REACHABLE(Endpoint.STATS, Scope.ALL_INSTANCES),
+    BLOCKING_ENABLED(Endpoint.BLOCKING_STATUS, Scope.ALL_INSTANCES),
+    LAST_BLOCKED_DOMAIN(Endpoint.LAST_BLOCKED, Scope.PRIMARY),
+    API_VERSION(Endpoint.VERSION, Scope.PRIMARY),
+    GRAVITY_LAST_UPDATE(Endpoint.GRAVITY_LAST_UPDATE, Scope.PRIMARY),
+    TOP_BLOCKED_DOMAINS(Endpoint.TOP_BLOCKED, Scope.PRIMARY),
+    TOP_CLIENTS(Endpoint.TOP_CLIENTS, Scope.PRIMARY),
+    CLIENT_NAMES(Endpoint.CLIENT_NAMES, Scope.PRIMARY),
+    UPSTREAM_LATENCY(Endpoint.UPSTREAMS, Scope.ALL_INSTANCES);
+
+    /**
+     * Which instances a metric is read from.
+     */
+    public enum Scope {
+        PRIMARY, ALL_INSTANCES
+    }
+
+    private final Endpoint endpoint;
+    private final Scope scope;
+
+    Metric(Endpoint endpoint, Scope scope) {
+        this.endpoint = endpoint;
+        this.scope = scope;
+    }
+
+    public Endpoint endpoint() {
+        return endpoint;
+    }
+
+    public Scope scope() {
+        return scope;
+    }
+}
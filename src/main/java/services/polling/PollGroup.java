@@ -0,0 +1,39 @@
+/*
+ *
+ *  Copyright (C) 2022 - 2025.  Reda ELFARISSI aka FoKss-LTS
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+
+
+package services.polling;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Endpoints polled together on the same interval, and the tiles to re-render afterwards.
+ *
+ * @param interval  polling interval (the tightest freshness any subscriber asked for)
+ * @param endpoints endpoints fetched on each run, each appearing in exactly one group
+ * @param tileIds   tiles that read at least one of these endpoints
+ */
+public record PollGroup(Duration interval, List<EndpointKey> endpoints, Set<String> tileIds) {
+
+    public PollGroup {
+        endpoints = List.copyOf(endpoints);
+        tileIds = Set.copyOf(tileIds);
+    }
+}
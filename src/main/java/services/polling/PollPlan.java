@@ -0,0 +1,59 @@
+/*
+ *
+ *  Copyright (C) 2022 - 2025.  Reda ELFARISSI aka FoKss-LTS
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+
+
+package services.polling;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Result of {@link RequestPlanner#plan}: the deduplicated set of endpoint polls.
+ *
+ * @param groups      poll groups ordered by ascending interval
+ * @param tileSources endpoints read by each tile, across all groups
+ */
+public record PollPlan(List<PollGroup> groups, Map<String, List<EndpointKey>> tileSources) {
+
+    public PollPlan {
+        groups = List.copyOf(groups);
+        tileSources = Map.copyOf(tileSources);
+    }
+
+    /**
+     * Total number of distinct endpoint polls in the plan.
+     */
+    public int endpointCount() {
+        return groups.stream().mapToInt(g -> g.endpoints().size()).sum();
+    }
+
+    /**
+     * Endpoints a tile depends on (empty when the tile is not part of the plan).
+     */
+    public List<EndpointKey> endpointsFor(String tileId) {
+        return tileSources.getOrDefault(tileId, List.of());
+    }
+
+    /**
+     * The group that polls the given endpoint, if any.
+     */
+    public Optional<PollGroup> groupOf(EndpointKey key) {
+        return groups.stream().filter(g -> g.endpoints().contains(key)).findFirst();
+    }
+}
@@ -0,0 +1,154 @@
+/*
+ *
+ *  Copyright (C) 2022 - 2025.  Reda ELFARISSI aka FoKss-LTS
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+
+
+package services.polling;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Turns tile requirements into the minimal set of endpoint polls.
+ * <p>
+ * Every metric is mapped to its endpoint on each instance it is read from; an endpoint
+ * needed by several tiles is polled once, at the tightest freshness any of them asked
+ * for. Endpoints read from the same upstream resource of an instance are then aligned on
+ * the tightest interval among them, so one request per resource serves them all. Endpoints
+ * sharing an interval are grouped so one run refreshes them together and re-renders the
+ * subscribed tiles once.
+ */
+public final class RequestPlanner {
+
+    /**
+     * Names the upstream resource an endpoint of an instance is read from.
+     */
+    @FunctionalInterface
+    public interface Resources {
+
+        /** Every endpoint is its own resource. */
+        Resources DISTINCT = (instance, endpoint) -> endpoint.name();
+
+        String of(int instance, Endpoint endpoint);
+    }
+
+    /**
+     * Plans the polls for the given tiles, each endpoint being its own resource.
+     *
+     * @param tiles         requirements of every visible tile
+     * @param instanceCount number of configured instances (instance 0 is the primary)
+     * @return the deduplicated poll plan
+     */
+    public static PollPlan plan(Collection<TileRequirements> tiles, int instanceCount) {
+        return plan(tiles, instanceCount, Resources.DISTINCT);
+    }
+
+    /**
+     * Plans the polls for the given tiles.
+     *
+     * @param tiles         requirements of every visible tile
+     * @param instanceCount number of configured instances (instance 0 is the primary)
+     * @param resources     upstream resource of each endpoint
+     * @return the deduplicated poll plan
+     */
+    public static PollPlan plan(Collection<TileRequirements> tiles, int instanceCount, Resources resources) {
+        if (tiles == null || tiles.isEmpty() || instanceCount <= 0) {
+            return new PollPlan(List.of(), Map.of());
+        }
+
+        Map<EndpointKey, Duration> tightest = new HashMap<>();
+        Map<EndpointKey, Set<String>> subscribers = new HashMap<>();
+        Map<String, List<EndpointKey>> tileSources = new HashMap<>();
+
+        for (TileRequirements tile : tiles) {
+            Set<EndpointKey> sources = new LinkedHashSet<>();
+            for (DataRequirement requirement : tile.requirements()) {
+                for (EndpointKey key : keysFor(requirement.metric(), instanceCount)) {
+                    tightest.merge(key, requirement.maxAge(), (a, b) -> a.compareTo(b) <= 0 ? a : b);
+                    subscribers.computeIfAbsent(key, _ -> new LinkedHashSet<>()).add(tile.tileId());
+                    sources.add(key);
+                }
+            }
+            List<EndpointKey> ordered = new ArrayList<>(sources);
+            ordered.sort(EndpointKey.ORDER);
+            tileSources.merge(tile.tileId(), ordered, (a, b) -> {
+                Set<EndpointKey> merged = new LinkedHashSet<>(a);
+                merged.addAll(b);
+                List<EndpointKey> list = new ArrayList<>(merged);
+                list.sort(EndpointKey.ORDER);
+                return list;
+            });
+        }
+
+        // A resource is requested at its tightest interval anyway: the other results read from it come free
+        Map<String, Duration> perResource = new HashMap<>();
+        tightest.forEach((key, interval) -> perResource.merge(resourceKey(key, resources), interval,
+                (a, b) -> a.compareTo(b) <= 0 ? a : b));
+        tightest.replaceAll((key, _) -> perResource.get(resourceKey(key, resources)));
+
+        Map<Duration, List<EndpointKey>> byInterval = new TreeMap<>();
+        tightest.forEach((key, interval) -> byInterval.computeIfAbsent(interval, _ -> new ArrayList<>()).add(key));
+
+        List<PollGroup> groups = new ArrayList<>();
+        byInterval.forEach((interval, keys) -> {
+            keys.sort(EndpointKey.ORDER);
+            Set<String> tileIds = new LinkedHashSet<>();
+            keys.forEach(k -> tileIds.addAll(subscribers.get(k)));
+            groups.add(new PollGroup(interval, keys, tileIds));
+        });
+        return new PollPlan(groups, tileSources);
+    }
+
+    /**
+     * Endpoints a single tile reads, regardless of other tiles. Used for on-demand refreshes.
+     */
+    public static List<EndpointKey> endpointsFor(TileRequirements tile, int instanceCount) {
+        if (tile == null) {
+            return List.of();
+        }
+        return plan(List.of(tile), instanceCount).endpointsFor(tile.tileId());
+    }
+
+    private static String resourceKey(EndpointKey key, Resources resources) {
+        return key.instance() + "/" + resources.of(key.instance(), key.endpoint());
+    }
+
+    private static List<EndpointKey> keysFor(Metric metric, int instanceCount) {
+        if (metric.scope() == Metric.Scope.PRIMARY) {
+            return List.of(new EndpointKey(0, metric.endpoint()));
+        }
+        List<EndpointKey> keys = new ArrayList<>(instanceCount);
+        for (int i = 0; i < instanceCount; i++) {
+            keys.add(new EndpointKey(i, metric.endpoint()));
+        }
+        return keys;
+    }
+
+    /**
+     * Private constructor to prevent instantiation of this utility class.
+     */
+    private RequestPlanner() {
+        throw new UnsupportedOperationException("This is a utility class and cannot be instantiated");
+    }
+}
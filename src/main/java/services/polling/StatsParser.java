@@ -0,0 +1,341 @@
+/*
+ *
+ *  Copyright (C) 2022 - 2025.  Reda ELFARISSI aka FoKss-LTS
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+
+
+package services.polling;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Parses the generic handler payloads (dnsblocker.stats.v1 and friends) into plain values.
+ * Has no UI dependency so it can be shared by the widget, the history and any headless consumer.
+ */
+public final class StatsParser {
+
+    private static final Logger LOGGER = Logger.getLogger(StatsParser.class.getName());
+    private static final boolean VERBOSE = Boolean.parseBoolean(System.getProperty("dnsbloquer.verbose", "false"));
+    private static final ObjectMapper JSON = new ObjectMapper();
+
+    private StatsParser() {
+        throw new UnsupportedOperationException("This is a utility class and cannot be instantiated");
+    }
+
+    private static void log(String message) {
+        if (VERBOSE) {
+            LOGGER.log(Level.FINE, () -> "[StatsParser] " + message);
+        }
+    }
+
+    /**
+     * @return the parsed stats, or {@link SummaryStats#inactive()} for an empty or malformed payload
+     */
+    public static SummaryStats parseSummaryStats(String json) {
+        if (json == null || json.isBlank())
+            return SummaryStats.inactive();
+        try {
+            JsonNode root = JSON.readTree(json);
+
+            long total = firstLong(root,
+                    // Generic schema (dnsblocker.stats.v1) and other nested formats
+                    path("num_dns_queries"),
+                    path("queries", "total"),
+                    path("queries", "total_queries"),
+                    path("dns_queries_today"));
+
+            long blocked = firstLong(root,
+                    // Generic schema (dnsblocker.stats.v1) and other nested formats
+                    path("num_blocked_filtering"),
+                    path("queries", "blocked"),
+                    path("queries", "blocked_queries"),
+                    path("ads_blocked_today"));
+
+            double percent = firstDouble(root,
+                    path("queries", "percent_blocked"),
+                    path("ads_percentage_today"));
+            if ((percent <= 0.0) && total > 0L && blocked >= 0L) {
+                percent = (blocked / (double) total) * 100.0;
+            }
+
+            long domainsBlocked = firstLong(root,
+                    // Generic schema (dnsblocker.stats.v1)
+                    path("blocklist", "size"),
+                    path("domains", "blocked"),
+                    path("domains_being_blocked"),
+                    path("gravity", "domains_being_blocked"));
+
+            Boolean dnsEnabled = parseDnsBlockingEnabled(root);
+
+            return new SummaryStats(true, total, blocked, percent, domainsBlocked, dnsEnabled);
+        } catch (Exception e) {
+            log("WARNING: Failed to parse summary stats JSON: " + e.getMessage());
+            return SummaryStats.inactive();
+        }
+    }
+
+    /**
+     * @return the blocking state carried by a status or stats payload, or null if absent/unparseable
+     */
+    public static Boolean parseDnsBlockingEnabled(String json) {
+        if (json == null || json.isBlank())
+            return null;
+        try {
+            JsonNode root = JSON.readTree(json);
+            return parseDnsBlockingEnabled(root);
+        } catch (Exception ignored) {
+            return null;
+        }
+    }
+
+    private static Boolean parseDnsBlockingEnabled(JsonNode root) {
+        if (root == null)
+            return null;
+
+        // Generic + common patterns:
+        // - blocking.enabled: true/false (generic schema)
+        // - status: "enabled" / "disabled"
+        // - blocking: "enabled" / "disabled"
+        // - blocking: true/false
+        JsonNode statusNode = firstNode(root,
+                path("blocking", "enabled"),
+                path("status"),
+                path("blocking"),
+                path("dns", "blocking"),
+                path("dns", "status"));
+
+        if (statusNode == null || statusNode.isMissingNode() || statusNode.isNull())
+            return null;
+
+        if (statusNode.isBoolean()) {
+            return statusNode.asBoolean();
+        }
+
+        String txt = statusNode.asText("");
+        if (txt.equalsIgnoreCase("enabled"))
+            return true;
+        if (txt.equalsIgnoreCase("disabled"))
+            return false;
+        if (txt.equalsIgnoreCase("true"))
+            return true;
+        if (txt.equalsIgnoreCase("false"))
+            return false;
+
+        return null;
+    }
+
+    /**
+     * @return seconds left before a timed blocking change reverts ({@code blocking.timer} in the
+     * generic schema, {@code timer} from Pi-hole), or null when no timer runs
+     */
+    public static Double parseBlockingTimer(String json) {
+        if (json == null || json.isBlank())
+            return null;
+        try {
+            JsonNode timer = firstNode(JSON.readTree(json),
+                    path("blocking", "timer"),
+                    path("timer"));
+            if (timer == null || !timer.isNumber() || timer.asDouble() <= 0)
+                return null;
+            return timer.asDouble();
+        } catch (Exception ignored) {
+            return null;
+        }
+    }
+
+    /**
+     * @return the domains in payload order, or an empty list for an empty or malformed payload
+     */
+    public static List<TopDomain> parseTopBlockedDomains(String json) {
+        if (json == null || json.isBlank())
+            return List.of();
+        try {
+            JsonNode root = JSON.readTree(json);
+            List<TopDomain> result = new ArrayList<>();
+
+            // Try Pi-hole v6 format: {"domains": [{"domain": "...", "count": 123}]}
+            JsonNode domains = root.path("domains");
+            if (domains.isArray() && domains.size() > 0) {
+                for (JsonNode item : domains) {
+                    String domain = item.path("domain").asText("");
+                    long count = item.path("count").asLong(0L);
+                    if (domain != null && !domain.isBlank()) {
+                        result.add(new TopDomain(domain, Math.max(0L, count)));
+                    }
+                }
+                return result;
+            }
+
+            // Try AdGuard Home format: {"top_ads": {"domain1.com": 123, "domain2.com":
+            // 456}}
+            JsonNode topAds = root.path("top_ads");
+            if (topAds.isObject() && topAds.size() > 0) {
+                var fields = topAds.fields();
+                while (fields.hasNext()) {
+                    var entry = fields.next();
+                    String domain = entry.getKey();
+                    long count = entry.getValue().asLong(0L);
+                    if (domain != null && !domain.isBlank()) {
+                        result.add(new TopDomain(domain, Math.max(0L, count)));
+                    }
+                }
+                return result;
+            }
+
+            return List.of();
+        } catch (Exception e) {
+            LOGGER.log(Level.WARNING, "Failed to parse top domains JSON", e);
+            return List.of();
+        }
+    }
+
+    /**
+     * @return the clients of a {@code dnsblocker.top_clients.v1} payload in payload order,
+     *         or an empty list for an empty or malformed payload
+     */
+    public static List<TopClient> parseTopClients(String json) {
+        if (json == null || json.isBlank())
+            return List.of();
+        try {
+            List<TopClient> result = new ArrayList<>();
+            for (JsonNode item : JSON.readTree(json).path("clients")) {
+                String ip = item.path("ip").asText("");
+                if (!ip.isBlank()) {
+                    result.add(new TopClient(ip, item.path("name").asText(""),
+                            Math.max(0L, item.path("count").asLong(0L))));
+                }
+            }
+            return result;
+        } catch (Exception e) {
+            LOGGER.log(Level.WARNING, "Failed to parse top clients JSON", e);
+            return List.of();
+        }
+    }
+
+    /**
+     * @return address to name of a {@code dnsblocker.client_names.v1} payload, or an empty
+     *         map for an empty or malformed payload
+     */
+    public static Map<String, String> parseClientNames(String json) {
+        if (json == null || json.isBlank())
+            return Map.of();
+        try {
+            Map<String, String> result = new HashMap<>();
+            for (JsonNode item : JSON.readTree(json).path("clients")) {
+                String ip = item.path("ip").asText("");
+                String name = item.path("name").asText("");
+                if (!ip.isBlank() && !name.isBlank()) {
+                    result.putIfAbsent(ip, name);
+                }
+            }
+            return result;
+        } catch (Exception e) {
+            LOGGER.log(Level.WARNING, "Failed to parse client names JSON", e);
+            return Map.of();
+        }
+    }
+
+    /**
+     * @return the upstreams of a {@code dnsblocker.upstreams.v1} payload, busiest first, or
+     *         {@link UpstreamStats#empty()} for an empty or malformed payload
+     */
+    public static UpstreamStats parseUpstreams(String json) {
+        if (json == null || json.isBlank())
+            return UpstreamStats.empty();
+        try {
+            JsonNode root = JSON.readTree(json);
+            List<UpstreamStats.Upstream> upstreams = new ArrayList<>();
+            for (JsonNode item : root.path("upstreams")) {
+                String name = item.path("name").asText("");
+                if (!name.isBlank()) {
+                    upstreams.add(new UpstreamStats.Upstream(name, Math.max(0L, item.path("count").asLong(0L)),
+                            optionalDouble(item.path("response_ms"))));
+                }
+            }
+            upstreams.sort(Comparator.comparingLong(UpstreamStats.Upstream::count).reversed());
+            return new UpstreamStats(upstreams, optionalDouble(root.path("processing_ms")));
+        } catch (Exception e) {
+            LOGGER.log(Level.WARNING, "Failed to parse upstreams JSON", e);
+            return UpstreamStats.empty();
+        }
+    }
+
+    private static double optionalDouble(JsonNode node) {
+        return node.isNumber() ? node.asDouble() : Double.NaN;
+    }
+
+    private static String[] path(String... parts) {
+        return parts;
+    }
+
+    private static JsonNode nodeAt(JsonNode root, String[] path) {
+        JsonNode n = root;
+        for (String p : path) {
+            if (n == null)
+                return null;
+            n = n.path(p);
+        }
+        return n;
+    }
+
+    private static JsonNode firstNode(JsonNode root, String[]... paths) {
+        if (root == null || paths == null)
+            return null;
+        for (String[] p : paths) {
+            JsonNode n = nodeAt(root, p);
+            if (n != null && !n.isMissingNode() && !n.isNull())
+                return n;
+        }
+        return null;
+    }
+
+    private static long firstLong(JsonNode root, String[]... paths) {
+        JsonNode n = firstNode(root, paths);
+        if (n == null)
+            return 0L;
+        if (n.isNumber())
+            return n.asLong(0L);
+        String txt = n.asText("");
+        try {
+            return Long.parseLong(txt);
+        } catch (Exception ignored) {
+            return 0L;
+        }
+    }
+
+    private static double firstDouble(JsonNode root, String[]... paths) {
+        JsonNode n = firstNode(root, paths);
+        if (n == null)
+            return 0.0;
+        if (n.isNumber())
+            return n.asDouble(0.0);
+        String txt = n.asText("");
+        try {
+            return Double.parseDouble(txt);
+        } catch (Exception ignored) {
+            return 0.0;
+        }
+    }
+}
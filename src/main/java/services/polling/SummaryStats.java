@@ -0,0 +1,40 @@
+/*
+ *
+ *  Copyright (C) 2022 - 2025.  Reda ELFARISSI aka FoKss-LTS
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+
+
+package services.polling;
+
+/**
+ * Headline counters of one instance, parsed from its stats endpoint.
+ *
+ * @param active             false when the instance could not be reached or its payload not parsed
+ * @param totalQueries       DNS queries counted since the platform's last reset
+ * @param blockedQueries     blocked queries over the same period
+ * @param percentBlocked     blocked share in percent (0-100)
+ * @param domainsBlocked     number of domains on the block lists
+ * @param dnsBlockingEnabled blocking state when the stats payload carries it, otherwise null
+ */
+public record SummaryStats(boolean active, long totalQueries, long blockedQueries, double percentBlocked,
+        long domainsBlocked, Boolean dnsBlockingEnabled) {
+
+    private static final SummaryStats INACTIVE = new SummaryStats(false, 0L, 0L, 0.0, 0L, null);
+
+    public static SummaryStats inactive() {
+        return INACTIVE;
+    }
+}
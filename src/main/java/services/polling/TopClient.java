@@ -0,0 +1,34 @@
+/*
+ *
+ *  Copyright (C) 2022 - 2025.  Reda ELFARISSI aka FoKss-LTS
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+
+package services.polling;
+
+/**
+ * One entry of a "top clients" list.
+ *
+ * @param ip    client address (or client ID)
+ * @param name  name reported by the blocker, empty if unknown
+ * @param count number of queries it sent
+ */
+public record TopClient(String ip, String name, long count) {
+
+    public TopClient {
+        ip = ip == null ? "" : ip;
+        name = name == null ? "" : name;
+    }
+}
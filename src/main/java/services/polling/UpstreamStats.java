@@ -0,0 +1,123 @@
+/*
+ *
+ *  Copyright (C) 2022 - 2025.  Reda ELFARISSI aka FoKss-LTS
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+
+package services.polling;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * How fast the upstream resolvers answer forwarded queries, from a
+ * {@code dnsblocker.upstreams.v1} payload.
+ *
+ * @param upstreams       the upstream resolvers, busiest first
+ * @param processingMs    the blocker's own average processing time per query, NaN if not reported
+ */
+public record UpstreamStats(List<Upstream> upstreams, double processingMs) {
+
+    private static final UpstreamStats EMPTY = new UpstreamStats(List.of(), Double.NaN);
+
+    /**
+     * One upstream resolver.
+     *
+     * @param name       resolver address or name (e.g. {@code 1.1.1.1#53}, {@code tls://dns.quad9.net})
+     * @param count      queries forwarded to it
+     * @param responseMs its average response time in milliseconds, NaN if not reported
+     */
+    public record Upstream(String name, long count, double responseMs) {
+    }
+
+    public UpstreamStats {
+        upstreams = List.copyOf(upstreams);
+    }
+
+    public static UpstreamStats empty() {
+        return EMPTY;
+    }
+
+    public boolean isEmpty() {
+        return upstreams.isEmpty();
+    }
+
+    public long totalCount() {
+        long total = 0;
+        for (Upstream upstream : upstreams) {
+            total += upstream.count();
+        }
+        return total;
+    }
+
+    /**
+     * @return the share of forwarded queries sent to {@code upstream}, in percent
+     */
+    public double sharePercent(Upstream upstream) {
+        long total = totalCount();
+        return total > 0 ? upstream.count() * 100.0 / total : 0.0;
+    }
+
+    /**
+     * @return the mean response time of all upstreams weighted by their query counts,
+     *         NaN if none reports one
+     */
+    public double responseMs() {
+        double weighted = 0.0;
+        long count = 0;
+        for (Upstream upstream : upstreams) {
+            if (!Double.isNaN(upstream.responseMs()) && upstream.count() > 0) {
+                weighted += upstream.responseMs() * upstream.count();
+                count += upstream.count();
+            }
+        }
+        return count > 0 ? weighted / count : Double.NaN;
+    }
+
+    /**
+     * Combines several instances: counts of a resolver used by more than one are summed
+     * and its response time is weighted by them; processing times are averaged.
+     */
+    public static UpstreamStats merge(Collection<UpstreamStats> all) {
+        Map<String, double[]> byName = new LinkedHashMap<>();
+        double processing = 0.0;
+        int processingCount = 0;
+        for (UpstreamStats stats : all) {
+            if (!Double.isNaN(stats.processingMs())) {
+                processing += stats.processingMs();
+                processingCount++;
+            }
+            for (Upstream upstream : stats.upstreams()) {
+                // count, weighted response sum, weight of the response sum
+                double[] sums = byName.computeIfAbsent(upstream.name(), _ -> new double[3]);
+                sums[0] += upstream.count();
+                if (!Double.isNaN(upstream.responseMs())) {
+                    long weight = Math.max(1L, upstream.count());
+                    sums[1] += upstream.responseMs() * weight;
+                    sums[2] += weight;
+                }
+            }
+        }
+        List<Upstream> merged = new ArrayList<>(byName.size());
+        byName.forEach((name, sums) -> merged.add(
+                new Upstream(name, (long) sums[0], sums[2] > 0 ? sums[1] / sums[2] : Double.NaN)));
+        merged.sort(Comparator.comparingLong(Upstream::count).reversed());
+        return new UpstreamStats(merged, processingCount > 0 ? processing / processingCount : Double.NaN);
+    }
+}
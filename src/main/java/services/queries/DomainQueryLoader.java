@@ -0,0 +1,164 @@
+/*
+ *
+ *  Copyright (C) 2022 - 2025.  Reda ELFARISSI aka FoKss-LTS
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+
+package services.queries;
+
+import helpers.TtlLruCache;
+import services.DnsBlockerHandler;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Loads the {@link DomainSummary} of a domain on demand, one query log page at a time.
+ * Nothing is fetched until a domain is asked for; a listener receives a new summary after
+ * every page so the caller can render progressively. Loading stops at the first query
+ * older than the summary window or after {@code maxPages} pages per instance, so a busy
+ * domain never pulls the whole log. Finished summaries are kept in a small LRU cache
+ * with a time to live.
+ */
+public final class DomainQueryLoader {
+
+    private static final Logger LOGGER = Logger.getLogger(DomainQueryLoader.class.getName());
+    private static final boolean VERBOSE = Boolean.parseBoolean(System.getProperty("dnsbloquer.verbose", "false"));
+
+    public static final int DEFAULT_PAGE_SIZE = 100;
+    public static final int DEFAULT_MAX_PAGES = 10;
+    public static final int CACHE_ENTRIES = 32;
+    public static final Duration CACHE_TTL = Duration.ofMinutes(2);
+
+    private final Executor executor;
+    private final Clock clock;
+    private final int pageSize;
+    private final int maxPages;
+    private final TtlLruCache<String, DomainSummary> cache;
+
+    public DomainQueryLoader(Executor executor) {
+        this(executor, Clock.systemUTC(), DEFAULT_PAGE_SIZE, DEFAULT_MAX_PAGES);
+    }
+
+    DomainQueryLoader(Executor executor, Clock clock, int pageSize, int maxPages) {
+        this.executor = Objects.requireNonNull(executor, "executor");
+        this.clock = Objects.requireNonNull(clock, "clock");
+        this.pageSize = Math.max(1, pageSize);
+        this.maxPages = Math.max(1, maxPages);
+        this.cache = new TtlLruCache<>(CACHE_ENTRIES, CACHE_TTL, clock);
+    }
+
+    private static void log(String message) {
+        if (VERBOSE) {
+            LOGGER.log(Level.FINE, () -> "[DomainQueries] " + message);
+        }
+    }
+
+    /**
+     * Starts loading {@code domain} from every handler. A cached summary is delivered to
+     * the listener right away, on the calling thread; otherwise pages are fetched on the
+     * executor and the listener is called from there, the last call carrying a final
+     * {@link DomainSummary#status() status}.
+     *
+     * @return a future to cancel a load that is no longer wanted (e.g. the popup closed)
+     */
+    public Future<?> load(String domain, List<DnsBlockerHandler> handlers, Consumer<DomainSummary> listener) {
+        String key = domain.toLowerCase(Locale.ROOT);
+        Optional<DomainSummary> cached = cache.get(key);
+        if (cached.isPresent()) {
+            log("Cache hit for " + domain);
+            listener.accept(cached.get());
+            return CompletableFuture.completedFuture(null);
+        }
+        List<DnsBlockerHandler> targets = handlers.stream().filter(Objects::nonNull).toList();
+        FutureTask<Void> task = new FutureTask<>(() -> loadPages(key, domain, targets, listener), null);
+        executor.execute(task);
+        return task;
+    }
+
+    /**
+     * Forgets every cached summary (e.g. after the instances changed).
+     */
+    public void invalidate() {
+        cache.clear();
+    }
+
+    private void loadPages(String key, String domain, List<DnsBlockerHandler> handlers,
+            Consumer<DomainSummary> listener) {
+        DomainSummary.Accumulator accumulator = new DomainSummary.Accumulator(domain, clock.millis());
+        int answered = 0;
+        boolean truncated = false;
+
+        for (DnsBlockerHandler handler : handlers) {
+            String cursor = null;
+            for (int page = 0; ; page++) {
+                if (Thread.currentThread().isInterrupted()) {
+                    log("Load of " + domain + " cancelled");
+                    return;
+                }
+                if (page == maxPages) {
+                    truncated = true;
+                    break;
+                }
+                Optional<QueryPage> parsed = QueryPage.parse(handler.getDomainQueries(domain, cursor, pageSize));
+                if (parsed.isEmpty()) {
+                    // A failure after the first page leaves a partial window behind
+                    truncated |= page > 0;
+                    break;
+                }
+                if (page == 0) {
+                    answered++;
+                }
+                boolean reachedWindowStart = false;
+                for (QueryRecord query : parsed.get().queries()) {
+                    reachedWindowStart |= !accumulator.add(query);
+                }
+                if (Thread.currentThread().isInterrupted()) {
+                    return;
+                }
+                listener.accept(accumulator.snapshot(DomainSummary.Status.LOADING));
+                if (reachedWindowStart || !parsed.get().hasMore()) {
+                    break;
+                }
+                cursor = parsed.get().nextCursor();
+            }
+        }
+
+        if (Thread.currentThread().isInterrupted()) {
+            // An interrupted fetch looks like a failed one: do not cache what it left
+            return;
+        }
+        DomainSummary.Status status = answered == 0
+                ? DomainSummary.Status.FAILED
+                : truncated ? DomainSummary.Status.TRUNCATED : DomainSummary.Status.COMPLETE;
+        DomainSummary summary = accumulator.snapshot(status);
+        if (status != DomainSummary.Status.FAILED) {
+            cache.put(key, summary);
+        }
+        log("Loaded " + domain + ": " + summary.total() + " queries, " + status);
+        listener.accept(summary);
+    }
+}
@@ -0,0 +1,146 @@
+/*
+ *
+ *  Copyright (C) 2022 - 2025.  Reda ELFARISSI aka FoKss-LTS
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+
+package services.queries;
+
+import services.history.HistoryBucket;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * What the query log says about one domain over the last 24 hours: who asked for it,
+ * when, and which lists blocked it. Immutable; {@link DomainQueryLoader} publishes a new
+ * summary after every page it reads, so a popup can render while later pages load.
+ *
+ * @param domain       the domain
+ * @param status       loading progress
+ * @param total        queries seen in the window
+ * @param blocked      blocked queries seen in the window
+ * @param clientCount  distinct clients seen in the window
+ * @param clients      top clients by query count
+ * @param lists        top blocking lists by blocked count
+ * @param timeline     hourly buckets, oldest first
+ */
+public record DomainSummary(String domain, Status status, long total, long blocked, int clientCount,
+        List<Count> clients, List<Count> lists, List<HistoryBucket> timeline) {
+
+    public static final long BUCKET_MILLIS = 3_600_000L;
+    public static final int BUCKETS = 24;
+    public static final int MAX_ROWS = 10;
+
+    public enum Status {
+        /** More pages are being fetched. */
+        LOADING,
+        /** Every page of the window was read. */
+        COMPLETE,
+        /** Loading stopped at the page limit; older queries of the window are missing. */
+        TRUNCATED,
+        /** No instance returned the query log. */
+        FAILED;
+
+        public boolean isFinal() {
+            return this != LOADING;
+        }
+    }
+
+    /**
+     * A name and how often it was seen.
+     */
+    public record Count(String name, long count) {
+    }
+
+    public DomainSummary {
+        clients = List.copyOf(clients);
+        lists = List.copyOf(lists);
+        timeline = List.copyOf(timeline);
+    }
+
+    /**
+    /**
+     * Mutable counterpart filled page by page. Not thread-safe: owned by one load.
+     */
+    static final class Accumulator {
+
+        private final String domain;
+        private final long windowStart;
+        private final long[] totals = new long[BUCKETS];
+        private final long[] blocks = new long[BUCKETS];
+        private final Map<String, Long> clients = new HashMap<>();
+        private final Map<String, Long> lists = new HashMap<>();
+        private long total;
+        private long blocked;
+
+        /**
+         * @param nowMillis the window ends with the hour containing this instant
+         */
+        Accumulator(String domain, long nowMillis) {
+            this.domain = domain;
+            this.windowStart = Math.floorDiv(nowMillis, BUCKET_MILLIS) * BUCKET_MILLIS
+                    - (BUCKETS - 1) * BUCKET_MILLIS;
+        }
+
+        long windowStartMillis() {
+            return windowStart;
+        }
+
+        /**
+         * Counts a query if it falls in the window.
+         *
+         * @return false if the query is older than the window
+         */
+        boolean add(QueryRecord query) {
+            if (query.timeMillis() < windowStart) {
+                return false;
+            }
+            // Clock skew between the widget and a server must not push a query out of range
+            int bucket = (int) Math.min(BUCKETS - 1, (query.timeMillis() - windowStart) / BUCKET_MILLIS);
+            totals[bucket]++;
+            total++;
+            clients.merge(query.clientLabel(), 1L, Long::sum);
+            if (query.blocked()) {
+                blocks[bucket]++;
+                blocked++;
+                if (!query.list().isBlank()) {
+                    lists.merge(query.list(), 1L, Long::sum);
+                }
+            }
+            return true;
+        }
+
+        DomainSummary snapshot(Status status) {
+            List<HistoryBucket> timeline = new ArrayList<>(BUCKETS);
+            for (int i = 0; i < BUCKETS; i++) {
+                timeline.add(new HistoryBucket(windowStart + i * BUCKET_MILLIS, totals[i], blocks[i]));
+            }
+            return new DomainSummary(domain, status, total, blocked, clients.size(),
+                    top(clients), top(lists), timeline);
+        }
+
+        private static List<Count> top(Map<String, Long> counts) {
+            return counts.entrySet().stream()
+                    .map(e -> new Count(e.getKey(), e.getValue()))
+                    .sorted(Comparator.comparingLong(Count::count).reversed().thenComparing(Count::name))
+                    .limit(MAX_ROWS)
+                    .toList();
+        }
+    }
+}
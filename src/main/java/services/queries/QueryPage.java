@@ -0,0 +1,79 @@
+/*
+ *
+ *  Copyright (C) 2022 - 2025.  Reda ELFARISSI aka FoKss-LTS
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+
+package services.queries;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Parsed {@code dnsblocker.queries.v1} page, as returned by
+ * {@link services.DnsBlockerHandler#getDomainQueries(String, String, int)}.
+ *
+ * @param queries    the queries of this page, newest first
+ * @param nextCursor cursor of the following page, or null on the last page
+ */
+public record QueryPage(List<QueryRecord> queries, String nextCursor) {
+
+    private static final Logger LOGGER = Logger.getLogger(QueryPage.class.getName());
+    private static final ObjectMapper JSON = new ObjectMapper();
+
+    public QueryPage {
+        queries = List.copyOf(queries);
+    }
+
+    public boolean hasMore() {
+        return nextCursor != null && !nextCursor.isBlank();
+    }
+
+    /**
+     * @return the parsed page, or empty for an empty or malformed payload (a failed fetch)
+     */
+    public static Optional<QueryPage> parse(String json) {
+        if (json == null || json.isBlank()) {
+            return Optional.empty();
+        }
+        try {
+            JsonNode root = JSON.readTree(json);
+            JsonNode items = root.path("queries");
+            if (!items.isArray()) {
+                return Optional.empty();
+            }
+            List<QueryRecord> queries = new ArrayList<>(items.size());
+            for (JsonNode item : items) {
+                queries.add(new QueryRecord(
+                        item.path("time").asLong(0L) * 1000L,
+                        item.path("client").asText(""),
+                        item.path("client_name").asText(""),
+                        item.path("blocked").asBoolean(false),
+                        item.path("list").asText("")));
+            }
+            JsonNode next = root.path("next_cursor");
+            return Optional.of(new QueryPage(queries, next.isTextual() ? next.asText() : null));
+        } catch (Exception e) {
+            LOGGER.log(Level.WARNING, "Failed to parse queries JSON", e);
+            return Optional.empty();
+        }
+    }
+}
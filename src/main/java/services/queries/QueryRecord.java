@@ -0,0 +1,44 @@
+/*
+ *
+ *  Copyright (C) 2022 - 2025.  Reda ELFARISSI aka FoKss-LTS
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+
+package services.queries;
+
+/**
+ * One query of a {@code dnsblocker.queries.v1} page.
+ *
+ * @param timeMillis when the query was received
+ * @param client     client address
+ * @param clientName client host name as known by the blocker (may be empty)
+ * @param blocked    whether the query was blocked
+ * @param list       the list or rule that blocked it (empty when not blocked)
+ */
+public record QueryRecord(long timeMillis, String client, String clientName, boolean blocked, String list) {
+
+    public QueryRecord {
+        client = client == null ? "" : client;
+        clientName = clientName == null ? "" : clientName;
+        list = list == null ? "" : list;
+    }
+
+    /**
+     * @return the client name when the blocker knows one, its address otherwise
+     */
+    public String clientLabel() {
+        return clientName.isBlank() ? client : clientName;
+    }
+}
@@ -0,0 +1,123 @@
+package controllers;
+
+import javafx.application.Platform;
+import javafx.embed.swing.JFXPanel;
+import javafx.scene.paint.Color;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import services.metrics.RingSeries;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the canvas sparkline view.
+ */
+class SparklineViewTest {
+
+    private static final long WINDOW = 24 * 3_600_000L;
+    private static final long T0 = 1_700_002_800_000L;
+
+    @BeforeAll
+    static void initJavaFX() {
+        new JFXPanel();
+    }
+
+    private static void onFx(Runnable action) throws Exception {
+        CountDownLatch latch = new CountDownLatch(1);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        Platform.runLater(() -> {
+            try {
+                action.run();
+            } catch (Throwable t) {
+                failure.set(t);
+            } finally {
+                latch.countDown();
+            }
+        });
+        assertTrue(latch.await(5, TimeUnit.SECONDS), "FX action timed out");
+        if (failure.get() instanceof AssertionError error) {
+            throw error;
+        }
+        if (failure.get() != null) {
+            throw new AssertionError(failure.get());
+        }
+    }
+
+    private static SparklineView sizedView(RingSeries queries, RingSeries blocked) {
+        SparklineView view = new SparklineView(queries, blocked, WINDOW, Color.BLUE, Color.RED, Color.GRAY);
+        view.getNode().resize(208, 108);
+        return view;
+    }
+
+    @Test
+    void testNewSampleInSameColumnRepaintsOnlyThatColumn() throws Exception {
+        RingSeries queries = new RingSeries(1024);
+        RingSeries blocked = new RingSeries(1024);
+        queries.append(T0, 12.0);
+        blocked.append(T0, 1.0);
+
+        onFx(() -> {
+            SparklineView view = sizedView(queries, blocked);
+            view.refresh();
+            long fullRedraws = view.getFullRedrawCount();
+
+            // 200 columns over 24h: 10 s later is still the same column, same scale.
+            queries.append(T0 + 10_000L, 13.0);
+            blocked.append(T0 + 10_000L, 2.0);
+            view.refresh();
+
+            assertEquals(fullRedraws, view.getFullRedrawCount());
+            assertEquals(1, view.getColumnRedrawCount());
+        });
+    }
+
+    @Test
+    void testScaleChangeRepaintsEverything() throws Exception {
+        RingSeries queries = new RingSeries(1024);
+        RingSeries blocked = new RingSeries(1024);
+        queries.append(T0, 10.0);
+
+        onFx(() -> {
+            SparklineView view = sizedView(queries, blocked);
+            view.refresh();
+            long fullRedraws = view.getFullRedrawCount();
+
+            queries.append(T0 + 10_000L, 500.0);
+            view.refresh();
+
+            assertEquals(fullRedraws + 1, view.getFullRedrawCount());
+        });
+    }
+
+    @Test
+    void testRefreshWithoutNewSamplesDrawsNothing() throws Exception {
+        RingSeries queries = new RingSeries(1024);
+        RingSeries blocked = new RingSeries(1024);
+        queries.append(T0, 10.0);
+
+        onFx(() -> {
+            SparklineView view = sizedView(queries, blocked);
+            view.refresh();
+            long fullRedraws = view.getFullRedrawCount();
+
+            view.refresh();
+
+            assertEquals(fullRedraws, view.getFullRedrawCount());
+            assertEquals(0, view.getColumnRedrawCount());
+        });
+    }
+
+    @Test
+    void testNiceCeiling() {
+        assertEquals(1.0, SparklineView.niceCeiling(0.0));
+        assertEquals(1.0, SparklineView.niceCeiling(Double.NaN));
+        assertEquals(2.0, SparklineView.niceCeiling(1.3));
+        assertEquals(50.0, SparklineView.niceCeiling(42.0));
+        assertEquals(100.0, SparklineView.niceCeiling(51.0));
+        assertEquals(0.5, SparklineView.niceCeiling(0.31), 1e-12);
+    }
+}
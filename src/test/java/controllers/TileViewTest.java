@@ -0,0 +1,72 @@
+package controllers;
+
+import eu.hansolo.tilesfx.Tile;
+import eu.hansolo.tilesfx.TileBuilder;
+import javafx.embed.swing.JFXPanel;
+import javafx.scene.paint.Color;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the diff-aware TileView wrapper.
+ */
+class TileViewTest {
+
+    private Tile tile;
+    private TileView view;
+
+    @BeforeAll
+    static void initJavaFX() {
+        new JFXPanel();
+    }
+
+    @BeforeEach
+    void setUp() {
+        tile = TileBuilder.create().skinType(Tile.SkinType.LED).build();
+        view = new TileView(tile);
+    }
+
+    @Test
+    void testFirstUpdateIsApplied() {
+        view.setTitle("API Version: 6");
+        view.setValue(12.5);
+
+        assertEquals("API Version: 6", tile.getTitle());
+        assertEquals(12.5, tile.getValue(), 0.0001);
+        assertEquals(2, view.getAppliedCount());
+    }
+
+    @Test
+    void testUnchangedValuesAreSkipped() {
+        view.setText("Gravity: 2h ago");
+        view.setActive(true);
+        view.setActiveColor(Color.LIGHTGREEN);
+        long applied = view.getAppliedCount();
+
+        view.setText("Gravity: 2h ago");
+        view.setActive(true);
+        view.setActiveColor(Color.LIGHTGREEN);
+
+        assertEquals(applied, view.getAppliedCount());
+    }
+
+    @Test
+    void testChangedValuesAreForwarded() {
+        view.setLeftValue(100);
+        view.setLeftValue(101);
+        view.setActive(true);
+        view.setActive(false);
+
+        assertEquals(101, tile.getLeftValue(), 0.0001);
+        assertFalse(tile.isActive());
+        assertEquals(4, view.getAppliedCount());
+    }
+
+    @Test
+    void testNullTileRejected() {
+        assertThrows(NullPointerException.class, () -> new TileView(null));
+    }
+}
@@ -0,0 +1,128 @@
+package controllers;
+
+import javafx.application.Platform;
+import javafx.embed.swing.JFXPanel;
+import javafx.scene.Node;
+import javafx.scene.control.Label;
+import javafx.scene.layout.HBox;
+import javafx.scene.paint.Color;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the pooled Top X row view.
+ */
+class TopXListViewTest {
+
+    // Header + spacer row precede the pooled rows
+    private static final int FIXED_ROWS = 2;
+
+    @BeforeAll
+    static void initJavaFX() {
+        new JFXPanel();
+    }
+
+    private static void onFx(Runnable action) throws Exception {
+        CountDownLatch latch = new CountDownLatch(1);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        Platform.runLater(() -> {
+            try {
+                action.run();
+            } catch (Throwable t) {
+                failure.set(t);
+            } finally {
+                latch.countDown();
+            }
+        });
+        assertTrue(latch.await(5, TimeUnit.SECONDS), "FX action timed out");
+        if (failure.get() instanceof AssertionError error) {
+            throw error;
+        }
+        if (failure.get() != null) {
+            throw new AssertionError(failure.get());
+        }
+    }
+
+    private static Label nameLabel(Node row) {
+        return ((HBox) row).getChildren().stream()
+                .filter(Label.class::isInstance)
+                .map(Label.class::cast)
+                .findFirst()
+                .orElseThrow();
+    }
+
+    @Test
+    void testRowsAreReusedAcrossUpdates() throws Exception {
+        onFx(() -> {
+            TopXListView view = new TopXListView("Domain", "Nbr Blocks", 3, Color.WHITE);
+            List<Node> before = List.copyOf(view.getNode().getChildren());
+
+            view.update(List.of(new TopXListView.Entry("a.com", 10), new TopXListView.Entry("b.com", 5)));
+            view.update(List.of(new TopXListView.Entry("c.com", 12), new TopXListView.Entry("a.com", 11)));
+
+            assertEquals(before, view.getNode().getChildren());
+            assertEquals(FIXED_ROWS + 3, view.getNode().getChildren().size());
+            assertEquals("c.com", nameLabel(view.getNode().getChildren().get(FIXED_ROWS)).getText());
+        });
+    }
+
+    @Test
+    void testUnusedRowsAreHidden() throws Exception {
+        onFx(() -> {
+            TopXListView view = new TopXListView("Domain", "Nbr Blocks", 3, Color.WHITE);
+            view.update(List.of(new TopXListView.Entry("a.com", 1)));
+
+            List<Node> children = view.getNode().getChildren();
+            assertTrue(children.get(FIXED_ROWS).isVisible());
+            assertFalse(children.get(FIXED_ROWS + 1).isVisible());
+            assertFalse(children.get(FIXED_ROWS + 2).isManaged());
+        });
+    }
+
+    @Test
+    void testSetCapacityResizesPool() throws Exception {
+        onFx(() -> {
+            TopXListView view = new TopXListView("Domain", "Nbr Blocks", 2, Color.WHITE);
+            Node firstRow = view.getNode().getChildren().get(FIXED_ROWS);
+
+            view.setCapacity(5);
+            assertEquals(FIXED_ROWS + 5, view.getNode().getChildren().size());
+
+            view.setCapacity(1);
+            assertEquals(FIXED_ROWS + 1, view.getNode().getChildren().size());
+            assertSame(firstRow, view.getNode().getChildren().get(FIXED_ROWS));
+        });
+    }
+
+    @Test
+    void testClickReportsFullName() throws Exception {
+        onFx(() -> {
+            TopXListView view = new TopXListView("Domain", "Nbr Blocks", 2, Color.WHITE);
+            List<String> clicked = new ArrayList<>();
+            view.setOnEntryClicked(clicked::add);
+            view.update(List.of(new TopXListView.Entry("a-very-long-domain-name.example.com", 3)));
+
+            List<Node> children = view.getNode().getChildren();
+            children.get(FIXED_ROWS).getOnMouseClicked().handle(null);
+            // Hidden rows are inert
+            children.get(FIXED_ROWS + 1).getOnMouseClicked().handle(null);
+
+            assertEquals(List.of("a-very-long-domain-name.example.com"), clicked);
+        });
+    }
+
+    @Test
+    void testTruncate() {
+        assertEquals("", TopXListView.truncate(null));
+        assertEquals("short.com", TopXListView.truncate("short.com"));
+        assertEquals("a-very-long-domain-n..", TopXListView.truncate("a-very-long-domain-name.example.com"));
+    }
+}
@@ -0,0 +1,160 @@
+package controllers;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for UiUpdateBus. The FX pulse is simulated by calling drain()/onPulse() directly.
+ */
+class UiUpdateBusTest {
+
+    private AtomicInteger wakeUps;
+    private UiUpdateBus bus;
+
+    @BeforeEach
+    void setUp() {
+        wakeUps = new AtomicInteger();
+        bus = new UiUpdateBus(4, _ -> wakeUps.incrementAndGet());
+    }
+
+    @Test
+    void testUpdatesAppliedInOrderOnDrain() {
+        List<String> applied = new ArrayList<>();
+        bus.publish("status", bus.nextSequence(), () -> applied.add("status"));
+        bus.publish("fluid", bus.nextSequence(), () -> applied.add("fluid"));
+
+        assertTrue(applied.isEmpty());
+        assertEquals(2, bus.drain());
+        assertEquals(List.of("status", "fluid"), applied);
+    }
+
+    @Test
+    void testOnlyOneWakeUpWhilePulsing() {
+        bus.publish("a", bus.nextSequence(), () -> {});
+        bus.publish("b", bus.nextSequence(), () -> {});
+        bus.publish("c", bus.nextSequence(), () -> {});
+
+        assertEquals(1, wakeUps.get());
+    }
+
+    @Test
+    void testNewerUpdateInSameFrameWins() {
+        List<String> applied = new ArrayList<>();
+        long first = bus.nextSequence();
+        long second = bus.nextSequence();
+        bus.publish("status", first, () -> applied.add("old"));
+        bus.publish("status", second, () -> applied.add("new"));
+
+        bus.drain();
+        assertEquals(List.of("new"), applied);
+        assertEquals(1, bus.getDroppedCount());
+    }
+
+    @Test
+    void testStaleUpdateDroppedAfterNewerApplied() {
+        List<String> applied = new ArrayList<>();
+        long slowPoll = bus.nextSequence();
+        long fastPoll = bus.nextSequence();
+
+        bus.publish("status", fastPoll, () -> applied.add("fast"));
+        bus.drain();
+        bus.publish("status", slowPoll, () -> applied.add("slow"));
+        bus.drain();
+
+        assertEquals(List.of("fast"), applied);
+        assertEquals(1, bus.getDroppedCount());
+    }
+
+    @Test
+    void testStaleResultArrivingLaterInSameFrameIsDropped() {
+        List<String> applied = new ArrayList<>();
+        long slowPoll = bus.nextSequence();
+        long fastPoll = bus.nextSequence();
+
+        bus.publish("status", fastPoll, () -> applied.add("fast"));
+        bus.publish("status", slowPoll, () -> applied.add("slow"));
+        bus.drain();
+
+        assertEquals(List.of("fast"), applied);
+    }
+
+    @Test
+    void testDrainIsBoundedPerFrame() {
+        List<Integer> applied = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            int key = i;
+            bus.publish(key, bus.nextSequence(), () -> applied.add(key));
+        }
+
+        assertEquals(4, bus.drain());
+        assertEquals(4, applied.size());
+        assertEquals(6, bus.pendingCount());
+
+        bus.drain();
+        bus.drain();
+        assertEquals(10, applied.size());
+        assertEquals(0, bus.pendingCount());
+    }
+
+    @Test
+    void testPulseStopsWhenIdleAndRearmsOnPublish() {
+        bus.publish("a", bus.nextSequence(), () -> {});
+        bus.onPulse();
+        assertEquals(0, bus.pendingCount());
+
+        bus.publish("a", bus.nextSequence(), () -> {});
+        assertEquals(2, wakeUps.get());
+    }
+
+    @Test
+    void testFailingUpdateDoesNotBlockOthers() {
+        List<String> applied = new ArrayList<>();
+        bus.publish("bad", bus.nextSequence(), () -> {
+            throw new IllegalStateException("boom");
+        });
+        bus.publish("good", bus.nextSequence(), () -> applied.add("good"));
+
+        bus.drain();
+        assertEquals(List.of("good"), applied);
+    }
+
+    @Test
+    void testNullArgumentsIgnored() {
+        bus.publish(null, 1, () -> {});
+        bus.publish("key", 1, null);
+        assertEquals(0, bus.pendingCount());
+        assertEquals(0, wakeUps.get());
+    }
+
+    @Test
+    void testInvalidFrameBudgetRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new UiUpdateBus(0, Runnable::run));
+    }
+
+    @Test
+    void testConcurrentProducers() throws InterruptedException {
+        UiUpdateBus shared = new UiUpdateBus(1000, _ -> {});
+        int producers = 8;
+        CountDownLatch done = new CountDownLatch(producers);
+        List<Integer> applied = Collections.synchronizedList(new ArrayList<>());
+        for (int i = 0; i < producers; i++) {
+            int key = i;
+            Thread.ofVirtual().start(() -> {
+                shared.publish(key, shared.nextSequence(), () -> applied.add(key));
+                done.countDown();
+            });
+        }
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        shared.drain();
+        assertEquals(producers, applied.size());
+    }
+}
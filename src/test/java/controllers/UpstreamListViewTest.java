@@ -0,0 +1,73 @@
+package controllers;
+
+import javafx.application.Platform;
+import javafx.embed.swing.JFXPanel;
+import javafx.scene.Node;
+import javafx.scene.paint.Color;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the pooled upstream row view.
+ */
+class UpstreamListViewTest {
+
+    // Header precedes the pooled rows
+    private static final int FIXED_ROWS = 1;
+
+    @BeforeAll
+    static void initJavaFX() {
+        new JFXPanel();
+    }
+
+    private static void onFx(Runnable action) throws Exception {
+        CountDownLatch latch = new CountDownLatch(1);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        Platform.runLater(() -> {
+            try {
+                action.run();
+            } catch (Throwable t) {
+                failure.set(t);
+            } finally {
+                latch.countDown();
+            }
+        });
+        assertTrue(latch.await(5, TimeUnit.SECONDS), "FX action timed out");
+        if (failure.get() instanceof AssertionError error) {
+            throw error;
+        }
+        if (failure.get() != null) {
+            throw new AssertionError(failure.get());
+        }
+    }
+
+    @Test
+    void testRowsAreReusedAndHidden() throws Exception {
+        onFx(() -> {
+            UpstreamListView view = new UpstreamListView(3, Color.WHITE, Color.BLUE);
+            List<Node> before = List.copyOf(view.getNode().getChildren());
+
+            view.update(List.of(new UpstreamListView.Entry("1.1.1.1#53", 12.0, 75.0),
+                    new UpstreamListView.Entry("9.9.9.9#53", Double.NaN, 25.0)));
+
+            List<Node> children = view.getNode().getChildren();
+            assertEquals(before, children);
+            assertTrue(children.get(FIXED_ROWS + 1).isVisible());
+            assertFalse(children.get(FIXED_ROWS + 2).isManaged());
+        });
+    }
+
+    @Test
+    void testValueText() {
+        assertEquals("12 ms  75%", UpstreamListView.valueText(new UpstreamListView.Entry("a", 12.4, 75.0)));
+        assertEquals("2.5 ms  8%", UpstreamListView.valueText(new UpstreamListView.Entry("a", 2.5, 7.6)));
+        assertEquals("- ms  0%", UpstreamListView.valueText(new UpstreamListView.Entry("a", Double.NaN, 0.0)));
+    }
+}
@@ -7,6 +7,8 @@ import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.time.Duration;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 /**
@@ -177,6 +179,13 @@ class WidgetControllerTest {
         });
     }
 
+    @Test
+    void testDurationLabel() {
+        assertEquals("30 seconds", WidgetController.durationLabel(Duration.ofSeconds(30)));
+        assertEquals("5 minutes", WidgetController.durationLabel(Duration.ofMinutes(5)));
+        assertEquals("1 hour", WidgetController.durationLabel(Duration.ofHours(1)));
+    }
+
     // Note: Testing private methods like parseSummaryStats, combineStats, etc.
     // would require reflection or extracting them to package-private/testable
     // methods.
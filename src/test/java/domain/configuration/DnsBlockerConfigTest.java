@@ -169,4 +169,19 @@ class DnsBlockerConfigTest {
         assertTrue(toString.contains("192.168.1.1"));
         assertTrue(toString.contains("80"));
     }
+
+    @Test
+    void testAlertsDefaultToEnabled() {
+        var config = new DnsBlockerConfig("192.168.1.1", 80, "http", "token123");
+
+        assertTrue(config.alerts().enabled());
+        assertEquals(AnomalyAlerts.DEFAULT_THRESHOLD, config.alerts().threshold());
+    }
+
+    @Test
+    void testAlertThresholdIsClamped() {
+        assertEquals(AnomalyAlerts.MIN_THRESHOLD, new AnomalyAlerts(true, 0.5).threshold());
+        assertEquals(AnomalyAlerts.DEFAULT_THRESHOLD, new AnomalyAlerts(true, -1).threshold());
+        assertEquals(6.0, new AnomalyAlerts(false, 6.0).threshold());
+    }
 }
@@ -170,5 +170,84 @@ class WidgetConfigTest {
         assertTrue(toString.contains("Medium"));
         assertTrue(toString.contains("Square"));
     }
-}
 
+    @Test
+    void testLegacyConstructorShowsTopX() {
+        var config = new WidgetConfig("Medium", "Square", "Dark", true, false, true, 5, 15, 60, 5, 2);
+        assertTrue(config.showTopX());
+        assertTrue(config.isShow_topx());
+        assertEquals(3, config.visibleTileCount());
+    }
+
+    @Test
+    void testVisibleTileCount() {
+        var fluidOnly = new WidgetConfig("Medium", "Square", "Dark", false, false, true, 5, 15, 60, 5, 2)
+                .withShowTopX(false);
+        assertEquals(1, fluidOnly.visibleTileCount());
+        assertEquals(4, WidgetConfig.defaultConfig().visibleTileCount());
+    }
+
+    @Test
+    void testTrendTileIsOptIn() {
+        assertFalse(WidgetConfig.defaultConfig().showTrend());
+
+        var withTrend = WidgetConfig.defaultConfig().withShowTrend(true);
+        assertTrue(withTrend.showTrend());
+        assertEquals(5, withTrend.visibleTileCount());
+    }
+
+    @Test
+    void testTopClientsTileIsOptIn() {
+        assertFalse(WidgetConfig.defaultConfig().showTopClients());
+
+        var withClients = WidgetConfig.defaultConfig().withShowTopClients(true);
+        assertTrue(withClients.showTopClients());
+        assertEquals(5, withClients.visibleTileCount());
+        assertFalse(withClients.showUpstreams());
+    }
+
+    @Test
+    void testUpstreamsTileIsOptIn() {
+        assertFalse(WidgetConfig.defaultConfig().showUpstreams());
+
+        var withUpstreams = new WidgetConfig("Medium", "Square", "Dark", false, false, false, 5, 15, 60, 5, 2)
+                .withShowTopX(false)
+                .withShowUpstreams(true);
+        assertTrue(withUpstreams.showUpstreams());
+        assertEquals(1, withUpstreams.visibleTileCount());
+    }
+
+    @Test
+    void testFluidWindowDefaultsToToday() {
+        assertEquals(BlockedPercentWindow.TODAY, WidgetConfig.defaultConfig().fluidWindow());
+
+        var config = WidgetConfig.defaultConfig().withFluidWindow(null);
+        assertEquals(BlockedPercentWindow.TODAY, config.fluidWindow());
+    }
+
+    @Test
+    void testCopyMethodsChangeOnlyTheirField() {
+        var base = new WidgetConfig("Large", "Horizontal", "Light", true, false, true, 10, 20, 30, 40, 3)
+                .withShowTrend(true);
+        var copy = base.withFluidWindow(BlockedPercentWindow.LAST_15_MIN).withShowUpstreams(true);
+
+        assertEquals(BlockedPercentWindow.LAST_15_MIN, copy.fluidWindow());
+        assertTrue(copy.showUpstreams());
+        assertTrue(copy.showTrend());
+        assertTrue(copy.showTopX());
+        assertFalse(copy.showTopClients());
+        assertEquals(base.withFluidWindow(BlockedPercentWindow.LAST_15_MIN).withShowUpstreams(true), copy);
+        assertEquals(3, copy.topX());
+        assertEquals("Horizontal", copy.layout());
+        assertFalse(base.showUpstreams());
+    }
+
+    @Test
+    void testBlockedPercentWindowParsing() {
+        assertEquals(BlockedPercentWindow.LAST_5_MIN, BlockedPercentWindow.fromString("LAST_5_MIN"));
+        assertEquals(BlockedPercentWindow.LAST_15_MIN, BlockedPercentWindow.fromString("last 15 min"));
+        assertEquals(BlockedPercentWindow.TODAY, BlockedPercentWindow.fromString("bogus"));
+        assertEquals(60_000L, BlockedPercentWindow.LAST_1_MIN.windowMillis());
+        assertFalse(BlockedPercentWindow.TODAY.isSliding());
+    }
+}
@@ -0,0 +1,319 @@
+package helpers;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the per-host request limiter.
+ */
+class HostLimiterTest {
+
+    private static final String HOST = "pi.hole:80";
+
+    private static void awaitQueued(HostLimiter limiter, int count) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (limiter.queued(HOST) < count) {
+            assertTrue(System.nanoTime() < deadline, "requests never queued");
+            Thread.sleep(1);
+        }
+    }
+
+    @Test
+    void testCapsRequestsInFlightPerHost() throws Exception {
+        HostLimiter limiter = new HostLimiter(2);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger peak = new AtomicInteger();
+        List<Thread> threads = new CopyOnWriteArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            threads.add(Thread.ofVirtual().start(() -> {
+                try {
+                    limiter.execute(HOST, null, HostLimiter.Priority.BACKGROUND, () -> {
+                        peak.accumulateAndGet(running.incrementAndGet(), Math::max);
+                        Thread.sleep(5);
+                        running.decrementAndGet();
+                        return "";
+                    });
+                } catch (Exception e) {
+                    throw new AssertionError(e);
+                }
+            }));
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(2, peak.get());
+        assertEquals(0, limiter.inFlight(HOST));
+    }
+
+    @Test
+    void testOtherHostsAreNotBlocked() throws Exception {
+        HostLimiter limiter = new HostLimiter(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Thread busy = Thread.ofVirtual().start(() -> {
+            try {
+                limiter.execute(HOST, null, HostLimiter.Priority.BACKGROUND, () -> {
+                    release.await();
+                    return "";
+                });
+            } catch (Exception e) {
+                throw new AssertionError(e);
+            }
+        });
+        while (limiter.inFlight(HOST) == 0) {
+            Thread.sleep(1);
+        }
+
+        assertEquals("ok", limiter.execute("other:80", null, HostLimiter.Priority.BACKGROUND, () -> "ok"));
+
+        release.countDown();
+        busy.join();
+    }
+
+    @Test
+    void testQueuedDuplicateIsMergedAndInteractiveGoesFirst() throws Exception {
+        HostLimiter limiter = new HostLimiter(1);
+        CountDownLatch release = new CountDownLatch(1);
+        List<String> sent = new CopyOnWriteArrayList<>();
+        List<String> results = new CopyOnWriteArrayList<>();
+
+        Thread blocker = Thread.ofVirtual().start(() -> run(limiter, null, HostLimiter.Priority.BACKGROUND, () -> {
+            release.await();
+            return "first";
+        }, results));
+        while (limiter.inFlight(HOST) == 0) {
+            Thread.sleep(1);
+        }
+        Thread stats1 = Thread.ofVirtual().start(() -> run(limiter, "GET /stats", HostLimiter.Priority.BACKGROUND,
+                () -> {
+                    sent.add("stats");
+                    return "stats";
+                }, results));
+        awaitQueued(limiter, 1);
+        Thread stats2 = Thread.ofVirtual().start(() -> run(limiter, "GET /stats", HostLimiter.Priority.BACKGROUND,
+                () -> {
+                    sent.add("stats-again");
+                    return "stats-again";
+                }, results));
+        while (limiter.getMergedCount() == 0) {
+            Thread.sleep(1);
+        }
+        Thread write = Thread.ofVirtual().start(() -> run(limiter, null, HostLimiter.Priority.INTERACTIVE, () -> {
+            sent.add("write");
+            return "write";
+        }, results));
+        awaitQueued(limiter, 2);
+
+        release.countDown();
+        for (Thread thread : List.of(blocker, stats1, stats2, write)) {
+            thread.join();
+        }
+
+        assertEquals(List.of("write", "stats"), sent);
+        assertEquals(2, results.stream().filter("stats"::equals).count());
+    }
+
+    @Test
+    void testInteractiveDuplicatePromotesQueuedBackgroundRead() throws Exception {
+        HostLimiter limiter = new HostLimiter(1);
+        CountDownLatch release = new CountDownLatch(1);
+        List<String> sent = new CopyOnWriteArrayList<>();
+        List<String> results = new CopyOnWriteArrayList<>();
+
+        Thread blocker = Thread.ofVirtual().start(() -> run(limiter, null, HostLimiter.Priority.BACKGROUND, () -> {
+            release.await();
+            return "first";
+        }, results));
+        while (limiter.inFlight(HOST) == 0) {
+            Thread.sleep(1);
+        }
+        Thread topX = Thread.ofVirtual().start(() -> run(limiter, "GET /top", HostLimiter.Priority.BACKGROUND, () -> {
+            sent.add("top");
+            return "top";
+        }, results));
+        awaitQueued(limiter, 1);
+        Thread poll = Thread.ofVirtual().start(() -> run(limiter, "GET /blocking", HostLimiter.Priority.BACKGROUND,
+                () -> {
+                    sent.add("blocking");
+                    return "blocking";
+                }, results));
+        awaitQueued(limiter, 2);
+        Thread click = Thread.ofVirtual().start(() -> run(limiter, "GET /blocking", HostLimiter.Priority.INTERACTIVE,
+                () -> {
+                    sent.add("blocking-again");
+                    return "blocking-again";
+                }, results));
+        while (limiter.getMergedCount() == 0) {
+            Thread.sleep(1);
+        }
+
+        release.countDown();
+        for (Thread thread : List.of(blocker, topX, poll, click)) {
+            thread.join();
+        }
+
+        // The merged read no longer waits behind the other background poll
+        assertEquals(List.of("blocking", "top"), sent);
+        assertEquals(2, results.stream().filter("blocking"::equals).count());
+    }
+
+    @Test
+    void testReadDuringWriteDoesNotShareReadQueuedBeforeIt() throws Exception {
+        HostLimiter limiter = new HostLimiter(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch writeDone = new CountDownLatch(1);
+        List<String> sent = new CopyOnWriteArrayList<>();
+        List<String> results = new CopyOnWriteArrayList<>();
+
+        // Interactive, so the write does not preempt it
+        Thread blocker = Thread.ofVirtual().start(() -> run(limiter, null, HostLimiter.Priority.INTERACTIVE, () -> {
+            release.await();
+            return "first";
+        }, results));
+        while (limiter.inFlight(HOST) == 0) {
+            Thread.sleep(1);
+        }
+        Thread poll = Thread.ofVirtual().start(() -> run(limiter, "GET /blocking", HostLimiter.Priority.BACKGROUND,
+                () -> {
+                    sent.add("poll");
+                    return "before write";
+                }, results));
+        awaitQueued(limiter, 1);
+        Thread write = Thread.ofVirtual().start(() -> {
+            try {
+                limiter.execute(HOST, null, HostLimiter.Priority.INTERACTIVE, true, () -> {
+                    sent.add("write");
+                    writing.countDown();
+                    writeDone.await();
+                    return "written";
+                });
+            } catch (Exception e) {
+                throw new AssertionError(e);
+            }
+        });
+        awaitQueued(limiter, 2);
+        release.countDown();
+        assertTrue(writing.await(5, TimeUnit.SECONDS));
+
+        Thread readBack = Thread.ofVirtual().start(() -> run(limiter, "GET /blocking",
+                HostLimiter.Priority.INTERACTIVE, () -> {
+                    sent.add("read-back");
+                    return "after write";
+                }, results));
+        awaitQueued(limiter, 2);
+        writeDone.countDown();
+        for (Thread thread : List.of(blocker, poll, write, readBack)) {
+            thread.join();
+        }
+
+        assertEquals(0, limiter.getMergedCount());
+        assertEquals(List.of("write", "read-back", "poll"), sent);
+        assertTrue(results.contains("after write"));
+    }
+
+    @Test
+    void testInterruptedWaiterLeavesTheQueue() throws Exception {
+        HostLimiter limiter = new HostLimiter(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Thread blocker = Thread.ofVirtual().start(() -> run(limiter, null, HostLimiter.Priority.BACKGROUND, () -> {
+            release.await();
+            return "";
+        }, new CopyOnWriteArrayList<>()));
+        while (limiter.inFlight(HOST) == 0) {
+            Thread.sleep(1);
+        }
+        AtomicInteger interrupted = new AtomicInteger();
+        Thread waiter = Thread.ofVirtual().start(() -> {
+            try {
+                limiter.execute(HOST, "GET /stats", HostLimiter.Priority.BACKGROUND, () -> "never");
+            } catch (InterruptedException e) {
+                interrupted.incrementAndGet();
+            } catch (Exception e) {
+                throw new AssertionError(e);
+            }
+        });
+        awaitQueued(limiter, 1);
+
+        waiter.interrupt();
+        waiter.join();
+        release.countDown();
+        blocker.join();
+
+        assertEquals(1, interrupted.get());
+        assertEquals(0, limiter.queued(HOST));
+        assertEquals(0, limiter.inFlight(HOST));
+    }
+
+    @Test
+    void testWritePreemptsRunningReadWhichIsSentAgainAfterIt() throws Exception {
+        HostLimiter limiter = new HostLimiter(1);
+        List<String> events = new CopyOnWriteArrayList<>();
+        AtomicInteger attempts = new AtomicInteger();
+        List<String> results = new CopyOnWriteArrayList<>();
+
+        Thread poll = Thread.ofVirtual().start(() -> run(limiter, "GET /stats", HostLimiter.Priority.BACKGROUND, () -> {
+            int attempt = attempts.incrementAndGet();
+            if (attempt == 1) {
+                // A slow poll: only returns when preempted
+                events.add("poll started");
+                Thread.sleep(TimeUnit.SECONDS.toMillis(30));
+            }
+            events.add("poll sent again");
+            return "fresh";
+        }, results));
+        while (limiter.inFlight(HOST) == 0 || events.isEmpty()) {
+            Thread.sleep(1);
+        }
+
+        String written = limiter.execute(HOST, null, HostLimiter.Priority.INTERACTIVE, true, () -> {
+            events.add("write");
+            return "written";
+        });
+        poll.join();
+
+        assertEquals("written", written);
+        assertEquals(List.of("poll started", "write", "poll sent again"), events);
+        assertEquals(List.of("fresh"), results);
+        assertFalse(poll.isInterrupted());
+        assertEquals(0, limiter.inFlight(HOST));
+    }
+
+    @Test
+    void testInteractiveScopeIsInheritedAndRestored() throws Exception {
+        assertFalse(HostLimiter.isInteractive());
+        AtomicInteger seen = new AtomicInteger();
+
+        HostLimiter.runInteractive(() -> {
+            Thread child = Thread.ofVirtual().start(() -> {
+                if (HostLimiter.isInteractive()) {
+                    seen.incrementAndGet();
+                }
+            });
+            try {
+                child.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+
+        assertEquals(1, seen.get());
+        assertFalse(HostLimiter.isInteractive());
+    }
+
+    private static void run(HostLimiter limiter, String key, HostLimiter.Priority priority,
+            HostLimiter.Call<String> call, List<String> results) {
+        try {
+            results.add(limiter.execute(HOST, key, priority, call));
+        } catch (Exception e) {
+            throw new AssertionError(e);
+        }
+    }
+}
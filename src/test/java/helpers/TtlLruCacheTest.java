@@ -0,0 +1,114 @@
+package helpers;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for TtlLruCache.
+ */
+class TtlLruCacheTest {
+
+    /**
+     * Clock whose time only moves when the test says so.
+     */
+    private static final class ManualClock extends Clock {
+        private long millis = 1_700_000_000_000L;
+
+        void advance(Duration duration) {
+            millis += duration.toMillis();
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return Instant.ofEpochMilli(millis);
+        }
+    }
+
+    @Test
+    void testEntriesExpireAfterTtl() {
+        ManualClock clock = new ManualClock();
+        TtlLruCache<String, Integer> cache = new TtlLruCache<>(4, Duration.ofSeconds(10), clock);
+        cache.put("a", 1);
+
+        clock.advance(Duration.ofSeconds(9));
+        assertEquals(Optional.of(1), cache.get("a"));
+
+        clock.advance(Duration.ofSeconds(1));
+        assertEquals(Optional.empty(), cache.get("a"));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void testLeastRecentlyUsedEntryIsEvicted() {
+        TtlLruCache<String, Integer> cache = new TtlLruCache<>(2, Duration.ofMinutes(1), new ManualClock());
+        cache.put("a", 1);
+        cache.put("b", 2);
+        // Reading "a" makes "b" the eldest
+        cache.get("a");
+        cache.put("c", 3);
+
+        assertEquals(2, cache.size());
+        assertTrue(cache.get("a").isPresent());
+        assertTrue(cache.get("b").isEmpty());
+        assertTrue(cache.get("c").isPresent());
+    }
+
+    @Test
+    void testPutRestartsTtl() {
+        ManualClock clock = new ManualClock();
+        TtlLruCache<String, Integer> cache = new TtlLruCache<>(2, Duration.ofSeconds(10), clock);
+        cache.put("a", 1);
+        clock.advance(Duration.ofSeconds(8));
+        cache.put("a", 2);
+        clock.advance(Duration.ofSeconds(8));
+
+        assertEquals(Optional.of(2), cache.get("a"));
+    }
+
+    @Test
+    void testPerEntryTtl() {
+        ManualClock clock = new ManualClock();
+        TtlLruCache<String, String> cache = new TtlLruCache<>(4, Duration.ofMinutes(10), clock);
+        cache.put("hit", "name");
+        cache.put("miss", "", Duration.ofMinutes(1));
+
+        clock.advance(Duration.ofMinutes(2));
+        assertTrue(cache.get("hit").isPresent());
+        assertTrue(cache.get("miss").isEmpty());
+    }
+
+    @Test
+    void testClearAndRemove() {
+        TtlLruCache<String, Integer> cache = new TtlLruCache<>(4, Duration.ofMinutes(1), new ManualClock());
+        cache.put("a", 1);
+        cache.put("b", 2);
+        cache.remove("a");
+        assertTrue(cache.get("a").isEmpty());
+        cache.clear();
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void testRejectsInvalidBounds() {
+        assertThrows(IllegalArgumentException.class, () -> new TtlLruCache<String, String>(0, Duration.ofSeconds(1)));
+        assertThrows(IllegalArgumentException.class, () -> new TtlLruCache<String, String>(1, Duration.ZERO));
+    }
+}
@@ -13,13 +13,28 @@ import java.io.IOException;
 import java.io.OutputStream;
 import java.net.InetSocketAddress;
 import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
 import java.util.Base64;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
 
 import com.sun.net.httpserver.HttpExchange;
 import com.sun.net.httpserver.HttpServer;
+import services.polling.DataRequirement;
+import services.polling.Endpoint;
+import services.polling.EndpointKey;
+import services.polling.Metric;
+import services.polling.PollGroup;
+import services.polling.PollPlan;
+import services.polling.RequestPlanner;
+import services.polling.TileRequirements;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -360,6 +375,142 @@ class AdGuardHomeHandlerTest {
             assertNotNull(result);
             assertTrue(result.contains("\"enabled\":false"));
         }
+
+        @Test
+        @DisplayName("getDnsBlockingStatus should report the time left of a pause in seconds")
+        void getDnsBlockingStatusShouldReportPauseTimer() {
+            server.createContext("/control/status", exchange -> {
+                respondJson(exchange, 200,
+                        "{\"protection_enabled\":false,\"protection_disabled_duration\":29500}");
+            });
+
+            DnsBlockerConfig config = new DnsBlockerConfig(
+                    DnsBlockerType.ADGUARD_HOME, "localhost", port, "http", "admin", "pass");
+            AdGuardHomeHandler handler = new AdGuardHomeHandler(config, new HttpClientUtil());
+
+            String result = handler.getDnsBlockingStatus();
+
+            assertTrue(result.contains("\"timer\":29.5"));
+        }
+
+        @Test
+        @DisplayName("setDnsBlocking with a timer should pause protection for that duration")
+        void setDnsBlockingWithTimerShouldPauseProtection() {
+            AtomicReference<String> bodyRef = new AtomicReference<>();
+            server.createContext("/control/protection", exchange -> {
+                bodyRef.set(new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8));
+                respondJson(exchange, 200, "OK");
+            });
+
+            DnsBlockerConfig config = new DnsBlockerConfig(
+                    DnsBlockerType.ADGUARD_HOME, "localhost", port, "http", "admin", "pass");
+            AdGuardHomeHandler handler = new AdGuardHomeHandler(config, new HttpClientUtil());
+
+            handler.setDnsBlocking(false, 300);
+
+            assertNotNull(bodyRef.get());
+            assertTrue(bodyRef.get().contains("\"enabled\":false"));
+            assertTrue(bodyRef.get().contains("\"duration\":300000"));
+        }
+
+        @Test
+        @DisplayName("getHistory should map hourly arrays to buckets ending with the current hour")
+        void getHistoryShouldMapHourlyArrays() {
+            server.createContext("/control/stats", exchange -> {
+                respondJson(exchange, 200,
+                        "{\"time_units\":\"hours\",\"dns_queries\":[10,20,30],\"blocked_filtering\":[1,2,3]}");
+            });
+
+            DnsBlockerConfig config = new DnsBlockerConfig(
+                    DnsBlockerType.ADGUARD_HOME, "localhost", port, "http", "admin", "pass");
+            Clock clock = Clock.fixed(Instant.parse("2026-03-01T10:25:00Z"), ZoneOffset.UTC);
+            AdGuardHomeHandler handler = new AdGuardHomeHandler(config, new HttpClientUtil(), clock);
+
+            String result = handler.getHistory();
+
+            assertTrue(result.contains("\"schema\":\"dnsblocker.history.v1\""));
+            assertTrue(result.contains("\"bucket_seconds\":3600"));
+            long currentHour = Instant.parse("2026-03-01T10:00:00Z").getEpochSecond();
+            assertTrue(result.contains("{\"start\":" + (currentHour - 7200) + ",\"total\":10,\"blocked\":1}"));
+            assertTrue(result.contains("{\"start\":" + currentHour + ",\"total\":30,\"blocked\":3}"));
+        }
+
+        @Test
+        @DisplayName("getTopXClients and getClientNames should map stats and client tables")
+        void getTopClientsAndNamesShouldMapGenericSchemas() {
+            server.createContext("/control/stats", exchange -> respondJson(exchange, 200,
+                    "{\"top_clients\":[{\"10.0.0.2\":30},{\"10.0.0.3\":20},{\"10.0.0.4\":10}]}"));
+            server.createContext("/control/clients", exchange -> respondJson(exchange, 200,
+                    "{\"clients\":[{\"name\":\"Laptop\",\"ids\":[\"10.0.0.2\",\"aa:bb:cc:dd:ee:ff\"]}],"
+                            + "\"auto_clients\":[{\"name\":\"laptop.lan\",\"ip\":\"10.0.0.2\",\"source\":\"rdns\"},"
+                            + "{\"name\":\"phone.lan\",\"ip\":\"10.0.0.3\",\"source\":\"rdns\"}]}"));
+
+            DnsBlockerConfig config = new DnsBlockerConfig(
+                    DnsBlockerType.ADGUARD_HOME, "localhost", port, "http", "admin", "pass");
+            AdGuardHomeHandler handler = new AdGuardHomeHandler(config, new HttpClientUtil());
+
+            String clients = handler.getTopXClients(2);
+            assertTrue(clients.contains("\"schema\":\"dnsblocker.top_clients.v1\""));
+            assertTrue(clients.contains("{\"ip\":\"10.0.0.3\",\"name\":\"\",\"count\":20}"));
+            assertFalse(clients.contains("10.0.0.4"));
+
+            String names = handler.getClientNames();
+            assertTrue(names.contains("\"schema\":\"dnsblocker.client_names.v1\""));
+            // Persistent names win over runtime ones
+            assertTrue(names.contains("{\"ip\":\"10.0.0.2\",\"name\":\"Laptop\"}"));
+            assertTrue(names.contains("{\"ip\":\"10.0.0.3\",\"name\":\"phone.lan\"}"));
+        }
+
+        @Test
+        @DisplayName("getUpstreams should join upstream counts with their average times")
+        void getUpstreamsShouldMapStats() {
+            server.createContext("/control/stats", exchange -> respondJson(exchange, 200,
+                    "{\"top_upstreams_responses\":[{\"1.1.1.1:53\":30},{\"tls://dns.quad9.net\":10}],"
+                            + "\"top_upstreams_avg_time\":[{\"1.1.1.1:53\":0.5}],"
+                            + "\"avg_processing_time\":0.25}"));
+
+            DnsBlockerConfig config = new DnsBlockerConfig(
+                    DnsBlockerType.ADGUARD_HOME, "localhost", port, "http", "admin", "pass");
+            AdGuardHomeHandler handler = new AdGuardHomeHandler(config, new HttpClientUtil());
+
+            String upstreams = handler.getUpstreams();
+            assertTrue(upstreams.contains("\"schema\":\"dnsblocker.upstreams.v1\""));
+            assertTrue(upstreams.contains("{\"name\":\"1.1.1.1:53\",\"count\":30,\"response_ms\":500.0}"));
+            assertTrue(upstreams.contains("{\"name\":\"tls://dns.quad9.net\",\"count\":10}"));
+            assertTrue(upstreams.contains("\"processing_ms\":250.0"));
+        }
+
+        @Test
+        @DisplayName("getDomainQueries should keep exact matches and page with older_than")
+        void getDomainQueriesShouldMapQueryLog() {
+            AtomicReference<String> query = new AtomicReference<>();
+            server.createContext("/control/querylog", exchange -> {
+                query.set(exchange.getRequestURI().getQuery());
+                respondJson(exchange, 200, "{\"data\":["
+                        + "{\"time\":\"2026-03-01T10:20:00+01:00\",\"client\":\"10.0.0.2\","
+                        + "\"client_info\":{\"name\":\"laptop\"},\"question\":{\"name\":\"ads.example.\"},"
+                        + "\"reason\":\"FilteredBlackList\",\"rules\":[{\"filter_list_id\":1,\"text\":\"||ads.example^\"}]},"
+                        + "{\"time\":\"2026-03-01T10:19:00+01:00\",\"client\":\"10.0.0.3\","
+                        + "\"question\":{\"name\":\"cdn.ads.example\"},\"reason\":\"NotFilteredNotFound\"}],"
+                        + "\"oldest\":\"2026-03-01T10:19:00+01:00\"}");
+            });
+
+            DnsBlockerConfig config = new DnsBlockerConfig(
+                    DnsBlockerType.ADGUARD_HOME, "localhost", port, "http", "admin", "pass");
+            AdGuardHomeHandler handler = new AdGuardHomeHandler(config, new HttpClientUtil());
+
+            String result = handler.getDomainQueries("ads.example", "2026-03-01T10:30:00+01:00", 2);
+
+            assertTrue(query.get().contains("search=ads.example"));
+            assertTrue(query.get().contains("older_than=2026-03-01T10:30:00+01:00"));
+            assertTrue(result.contains("\"schema\":\"dnsblocker.queries.v1\""));
+            long time = Instant.parse("2026-03-01T09:20:00Z").getEpochSecond();
+            assertTrue(result.contains("{\"time\":" + time + ",\"client\":\"10.0.0.2\",\"client_name\":\"laptop\","
+                    + "\"blocked\":true,\"status\":\"FilteredBlackList\",\"list\":\"||ads.example^\"}"));
+            // Substring matches of another name are dropped
+            assertFalse(result.contains("10.0.0.3"));
+            assertTrue(result.contains("\"next_cursor\":\"2026-03-01T10:19:00+01:00\""));
+        }
     }
 
     // ==================== Authentication Tests ====================
@@ -447,6 +598,97 @@ class AdGuardHomeHandlerTest {
         }
     }
 
+
+    // ==================== Shared Read Tests ====================
+
+    @Nested
+    @DisplayName("Shared Reads")
+    class SharedReadTests {
+
+        private final Map<String, AtomicInteger> requests = new ConcurrentHashMap<>();
+
+        private void countingContext(String path, String body) {
+            server.createContext(path, exchange -> {
+                requests.computeIfAbsent(path, _ -> new AtomicInteger()).incrementAndGet();
+                respondJson(exchange, 200, body);
+            });
+        }
+
+        private int requestsTo(String path) {
+            AtomicInteger count = requests.get(path);
+            return count == null ? 0 : count.get();
+        }
+
+        /** Fetches one poll group the way a poll tick does: one batch per upstream resource. */
+        private Map<Endpoint, String> tick(AdGuardHomeHandler handler, PollGroup group) {
+            List<Endpoint> endpoints = group.endpoints().stream().map(EndpointKey::endpoint).toList();
+            Map<Endpoint, String> results = new EnumMap<>(Endpoint.class);
+            for (List<Endpoint> sameResource : Endpoint.byResource(handler, endpoints)) {
+                results.putAll(Endpoint.fetchAll(handler, sameResource, 5));
+            }
+            return results;
+        }
+
+        @Test
+        @DisplayName("A poll tick requests /control/stats and /control/status once each")
+        void pollTickRequestsEachResourceOnce() {
+            countingContext("/control/stats", "{\"num_dns_queries\":100,\"num_blocked_filtering\":25,"
+                    + "\"top_blocked_domains\":[{\"ads.example\":7}],"
+                    + "\"top_upstreams_responses\":[{\"1.1.1.1:53\":30}]}");
+            countingContext("/control/status", "{\"version\":\"0.107.0\",\"protection_enabled\":true}");
+
+            DnsBlockerConfig config = new DnsBlockerConfig(
+                    DnsBlockerType.ADGUARD_HOME, "localhost", port, "http", "admin", "pass");
+            AdGuardHomeHandler handler = new AdGuardHomeHandler(config, new HttpClientUtil());
+
+            PollPlan plan = RequestPlanner.plan(List.of(
+                    TileRequirements.of("status", DataRequirement.of(Metric.TOTAL_QUERIES, 5)),
+                    TileRequirements.of("top", DataRequirement.of(Metric.TOP_BLOCKED_DOMAINS, 15)),
+                    TileRequirements.of("upstreams", DataRequirement.of(Metric.UPSTREAM_LATENCY, 60)),
+                    TileRequirements.of("led", DataRequirement.of(Metric.BLOCKING_ENABLED, 10),
+                            DataRequirement.of(Metric.API_VERSION, 60))),
+                    1, (instance, endpoint) -> endpoint.resource(handler));
+
+            // Results of one resource share its schedule, so every group is a single request
+            assertEquals(2, plan.groups().size());
+            Map<Endpoint, String> results = new EnumMap<>(Endpoint.class);
+            for (PollGroup group : plan.groups()) {
+                results.putAll(tick(handler, group));
+            }
+
+            assertEquals(1, requestsTo("/control/stats"));
+            assertEquals(1, requestsTo("/control/status"));
+            assertTrue(results.get(Endpoint.STATS).contains("\"total\":100"));
+            assertTrue(results.get(Endpoint.TOP_BLOCKED).contains("ads.example"));
+            assertTrue(results.get(Endpoint.UPSTREAMS).contains("1.1.1.1:53"));
+            assertEquals("0.107.0", results.get(Endpoint.VERSION));
+            assertTrue(results.get(Endpoint.BLOCKING_STATUS).contains("\"enabled\":true"));
+        }
+
+        @Test
+        @DisplayName("Top clients are read from the stats response the summary already requests")
+        void topClientsShareTheStatsRequest() {
+            countingContext("/control/stats", "{\"num_dns_queries\":100,\"num_blocked_filtering\":25,"
+                    + "\"top_clients\":[{\"10.0.0.2\":30},{\"10.0.0.3\":20}]}");
+
+            DnsBlockerConfig config = new DnsBlockerConfig(
+                    DnsBlockerType.ADGUARD_HOME, "localhost", port, "http", "admin", "pass");
+            AdGuardHomeHandler handler = new AdGuardHomeHandler(config, new HttpClientUtil());
+
+            PollPlan plan = RequestPlanner.plan(List.of(
+                    TileRequirements.of("status", DataRequirement.of(Metric.TOTAL_QUERIES, 5)),
+                    TileRequirements.of("clients", DataRequirement.of(Metric.TOP_CLIENTS, 15))),
+                    1, (instance, endpoint) -> endpoint.resource(handler));
+            assertEquals(1, plan.groups().size());
+
+            Map<Endpoint, String> results = tick(handler, plan.groups().getFirst());
+
+            assertEquals(1, requestsTo("/control/stats"));
+            assertTrue(results.get(Endpoint.STATS).contains("\"total\":100"));
+            assertTrue(results.get(Endpoint.TOP_CLIENTS).contains("{\"ip\":\"10.0.0.3\",\"name\":\"\",\"count\":20}"));
+        }
+    }
+
     // ==================== Helper Methods ====================
 
     private void respondJson(HttpExchange exchange, int status, String body) throws IOException {
@@ -0,0 +1,132 @@
+package services.clients;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for ClientNameResolver.
+ */
+class ClientNameResolverTest {
+
+    private static final Clock CLOCK = Clock.fixed(Instant.ofEpochMilli(1_700_000_000_000L), ZoneOffset.UTC);
+
+    /**
+     * Executor that holds tasks until the test runs them, to observe in-flight lookups.
+     */
+    private static final class ManualExecutor implements Executor {
+        private final List<Runnable> tasks = new ArrayList<>();
+
+        @Override
+        public void execute(Runnable command) {
+            tasks.add(command);
+        }
+
+        void runAll() {
+            List<Runnable> pending = new ArrayList<>(tasks);
+            tasks.clear();
+            pending.forEach(Runnable::run);
+        }
+    }
+
+    private static ClientNameResolver resolver(ManualExecutor executor, Function<String, Optional<String>> lookup,
+            int slots) {
+        return new ClientNameResolver(executor, lookup, CLOCK, slots);
+    }
+
+    @Test
+    void testMissStartsLookupAndCallsBack() {
+        ManualExecutor executor = new ManualExecutor();
+        AtomicInteger resolved = new AtomicInteger();
+        ClientNameResolver resolver = resolver(executor, _ -> Optional.of("laptop.lan"), 4);
+        resolver.setOnResolved(resolved::incrementAndGet);
+
+        assertNull(resolver.nameFor("10.0.0.2"));
+        // Still in flight: no second lookup
+        assertNull(resolver.nameFor("10.0.0.2"));
+        assertEquals(1, executor.tasks.size());
+
+        executor.runAll();
+        assertEquals(1, resolved.get());
+        assertEquals("laptop.lan", resolver.nameFor("10.0.0.2"));
+        assertTrue(executor.tasks.isEmpty());
+    }
+
+    @Test
+    void testMissesAreCached() {
+        ManualExecutor executor = new ManualExecutor();
+        AtomicInteger lookups = new AtomicInteger();
+        AtomicInteger resolved = new AtomicInteger();
+        ClientNameResolver resolver = resolver(executor, _ -> {
+            lookups.incrementAndGet();
+            return Optional.empty();
+        }, 4);
+        resolver.setOnResolved(resolved::incrementAndGet);
+
+        resolver.nameFor("10.0.0.9");
+        executor.runAll();
+        assertNull(resolver.nameFor("10.0.0.9"));
+        assertTrue(executor.tasks.isEmpty());
+        assertEquals(1, lookups.get());
+        assertEquals(0, resolved.get());
+    }
+
+    @Test
+    void testConcurrentLookupsAreBounded() {
+        ManualExecutor executor = new ManualExecutor();
+        ClientNameResolver resolver = resolver(executor, ip -> Optional.of("host-" + ip), 2);
+
+        resolver.nameFor("10.0.0.1");
+        resolver.nameFor("10.0.0.2");
+        resolver.nameFor("10.0.0.3");
+        assertEquals(2, executor.tasks.size());
+
+        executor.runAll();
+        // The address that found no slot is retried on a later call
+        resolver.nameFor("10.0.0.3");
+        assertEquals(1, executor.tasks.size());
+    }
+
+    @Test
+    void testLearnedNamesWinAndSkipLookups() {
+        ManualExecutor executor = new ManualExecutor();
+        ClientNameResolver resolver = resolver(executor, _ -> Optional.of("rdns.lan"), 4);
+
+        resolver.learn(Map.of("10.0.0.2", "laptop"));
+        assertEquals("laptop", resolver.nameFor("10.0.0.2"));
+        assertTrue(executor.tasks.isEmpty());
+
+        // A name learned while a lookup runs is not overwritten by it
+        resolver.nameFor("10.0.0.3");
+        resolver.learn("10.0.0.3", "phone");
+        executor.runAll();
+        assertEquals("phone", resolver.nameFor("10.0.0.3"));
+
+        resolver.clear();
+        assertNull(resolver.nameFor("10.0.0.2"));
+    }
+
+    @Test
+    void testOnlyAddressLiteralsAreLookedUp() {
+        ManualExecutor executor = new ManualExecutor();
+        ClientNameResolver resolver = resolver(executor, _ -> Optional.of("x"), 4);
+
+        assertNull(resolver.nameFor("my-client-id"));
+        assertTrue(executor.tasks.isEmpty());
+
+        assertTrue(ClientNameResolver.isAddressLiteral("192.168.1.20"));
+        assertTrue(ClientNameResolver.isAddressLiteral("fe80::1"));
+        assertFalse(ClientNameResolver.isAddressLiteral("laptop.lan"));
+    }
+}
@@ -1,5 +1,7 @@
 package services.configuration;
 
+import domain.configuration.AnomalyAlerts;
+import domain.configuration.BlockedPercentWindow;
 import domain.configuration.DnsBlockerConfig;
 import domain.configuration.DnsBlockerType;
 import domain.configuration.WidgetConfig;
@@ -277,6 +279,142 @@ class ConfigurationServiceTest {
         assertEquals(4, widget.topX());
     }
 
+    @Test
+    void testTileVisibilityRoundTrip() {
+        WidgetConfig kiosk = new WidgetConfig("Large", "Square", "Dark", false, false, true,
+                5, 15, 60, 5, 5).withShowTopX(false);
+        assertTrue(configService.writeConfigFile(
+                DnsBlockerConfig.forPiHole("192.168.1.1", 80, "http", "token"), null, kiosk));
+
+        ConfigurationService newService = new ConfigurationService();
+        newService.readConfiguration();
+
+        WidgetConfig widget = newService.getWidgetConfig();
+        assertFalse(widget.showLive());
+        assertFalse(widget.showStatus());
+        assertTrue(widget.showFluid());
+        assertFalse(widget.showTopX());
+        assertFalse(widget.showTrend());
+    }
+
+    @Test
+    void testTrendVisibilityRoundTrip() {
+        WidgetConfig trend = new WidgetConfig("Large", "Square", "Dark", true, true, true,
+                5, 15, 60, 5, 5).withShowTrend(true);
+        assertTrue(configService.writeConfigFile(
+                DnsBlockerConfig.forPiHole("192.168.1.1", 80, "http", "token"), null, trend));
+
+        ConfigurationService newService = new ConfigurationService();
+        newService.readConfiguration();
+
+        assertTrue(newService.getWidgetConfig().showTrend());
+        assertEquals(5, newService.getWidgetConfig().visibleTileCount());
+    }
+
+    @Test
+    void testTopClientsVisibilityRoundTrip() {
+        WidgetConfig clients = new WidgetConfig("Large", "Square", "Dark", false, false, false,
+                5, 15, 60, 5, 5).withShowTopX(false).withShowTopClients(true);
+        assertTrue(configService.writeConfigFile(
+                DnsBlockerConfig.forPiHole("192.168.1.1", 80, "http", "token"), null, clients));
+
+        ConfigurationService newService = new ConfigurationService();
+        newService.readConfiguration();
+
+        assertTrue(newService.getWidgetConfig().showTopClients());
+        assertEquals(1, newService.getWidgetConfig().visibleTileCount());
+    }
+
+    @Test
+    void testUpstreamsVisibilityRoundTrip() {
+        WidgetConfig upstreams = new WidgetConfig("Large", "Square", "Dark", false, false, false,
+                5, 15, 60, 5, 5).withShowTopX(false).withShowUpstreams(true);
+        assertTrue(configService.writeConfigFile(
+                DnsBlockerConfig.forPiHole("192.168.1.1", 80, "http", "token"), null, upstreams));
+
+        ConfigurationService newService = new ConfigurationService();
+        newService.readConfiguration();
+
+        assertTrue(newService.getWidgetConfig().showUpstreams());
+        assertFalse(newService.getWidgetConfig().showTopClients());
+    }
+
+    @Test
+    void testInstanceListRoundTrip() {
+        List<DnsBlockerConfig> fleet = new ArrayList<>();
+        for (int i = 1; i <= 12; i++) {
+            fleet.add(i % 2 == 0
+                    ? DnsBlockerConfig.forAdGuardHome("10.0.0." + i, 3000, "http", "admin", "secret" + i)
+                    : DnsBlockerConfig.forPiHole("10.0.0." + i, 80, "http", "token" + i));
+        }
+        assertTrue(configService.writeConfigFile(fleet, WidgetConfig.defaultConfig()));
+
+        ConfigurationService newService = new ConfigurationService();
+        newService.readConfiguration();
+
+        assertEquals(fleet, newService.getInstances());
+        assertEquals("10.0.0.1", newService.getConfigDNS1().getIPAddress());
+        assertEquals(DnsBlockerType.ADGUARD_HOME, newService.getConfigDNS2().platform());
+    }
+
+    @Test
+    void testLegacyDnsPairIsReadAsInstanceList() throws IOException {
+        Files.createDirectories(configFilePath.getParent());
+        Files.writeString(configFilePath, """
+                {"DNS1":{"IP":"192.168.1.1","Password":"a"},
+                 "DNS2":{"IP":"192.168.1.2","Password":"b"},
+                 "Widget":{"Size":"Medium","Layout":"Square"}}
+                """);
+
+        configService.readConfiguration();
+
+        assertEquals(List.of("192.168.1.1", "192.168.1.2"),
+                configService.getInstances().stream().map(DnsBlockerConfig::getIPAddress).toList());
+    }
+
+    @Test
+    void testAlertSettingsRoundTrip() {
+        DnsBlockerConfig quiet = new DnsBlockerConfig(DnsBlockerType.PIHOLE, "192.168.1.1", 80, "http", "",
+                "token", new AnomalyAlerts(false, 6.0));
+        assertTrue(configService.writeConfigFile(quiet, null, WidgetConfig.defaultConfig()));
+
+        ConfigurationService newService = new ConfigurationService();
+        newService.readConfiguration();
+
+        assertEquals(new AnomalyAlerts(false, 6.0), newService.getConfigDNS1().alerts());
+    }
+
+    @Test
+    void testFluidWindowRoundTrip() {
+        WidgetConfig windowed = new WidgetConfig("Large", "Square", "Dark", true, true, true,
+                5, 15, 60, 5, 5).withFluidWindow(BlockedPercentWindow.LAST_5_MIN);
+        assertTrue(configService.writeConfigFile(
+                DnsBlockerConfig.forPiHole("192.168.1.1", 80, "http", "token"), null, windowed));
+
+        ConfigurationService newService = new ConfigurationService();
+        newService.readConfiguration();
+
+        assertEquals(BlockedPercentWindow.LAST_5_MIN, newService.getWidgetConfig().fluidWindow());
+    }
+
+    @Test
+    void testMissingVisibilityKeysDefaultToShown() throws IOException {
+        Files.createDirectories(configFilePath.getParent());
+        Files.writeString(configFilePath, """
+                {"DNS1":{"IP":"192.168.1.1"},"Widget":{"Size":"Medium","Layout":"Square"}}
+                """);
+
+        configService.readConfiguration();
+
+        WidgetConfig widget = configService.getWidgetConfig();
+        assertTrue(widget.showLive());
+        assertTrue(widget.showStatus());
+        assertTrue(widget.showFluid());
+        assertTrue(widget.showTopX());
+        assertFalse(widget.showTrend());
+        assertEquals(BlockedPercentWindow.TODAY, widget.fluidWindow());
+    }
+
     @Test
     void testSaveEmptyConfiguration() {
         boolean result = configService.saveEmptyConfiguration();
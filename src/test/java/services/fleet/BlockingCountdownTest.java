@@ -0,0 +1,55 @@
+package services.fleet;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the local blocking countdown.
+ */
+class BlockingCountdownTest {
+
+    private static final long SECOND = 1_000_000_000L;
+
+    @Test
+    void testCountsDownOnTheMonotonicClock() {
+        AtomicLong now = new AtomicLong(-5 * SECOND);
+        BlockingCountdown countdown = new BlockingCountdown(now::get);
+
+        assertTrue(countdown.start(30));
+        now.addAndGet(10 * SECOND);
+
+        assertTrue(countdown.isRunning());
+        assertFalse(countdown.isExpired());
+        assertEquals(Duration.ofSeconds(20), countdown.remaining());
+
+        now.addAndGet(20 * SECOND);
+        assertTrue(countdown.isExpired());
+        assertEquals(Duration.ZERO, countdown.remaining());
+    }
+
+    @Test
+    void testNonPositiveTimerDoesNotStartAndCancelStops() {
+        BlockingCountdown countdown = new BlockingCountdown(() -> 0L);
+
+        assertFalse(countdown.start(0));
+        assertFalse(countdown.start(Double.NaN));
+        assertTrue(countdown.start(1.5));
+
+        countdown.cancel();
+        assertFalse(countdown.isRunning());
+        assertFalse(countdown.isExpired());
+        assertEquals(Duration.ZERO, countdown.remaining());
+    }
+
+    @Test
+    void testFormatRoundsUpPartialSeconds() {
+        assertEquals("0:30", BlockingCountdown.format(Duration.ofMillis(29_100)));
+        assertEquals("5:00", BlockingCountdown.format(Duration.ofMinutes(5)));
+        assertEquals("1:00:00", BlockingCountdown.format(Duration.ofHours(1)));
+        assertEquals("0:00", BlockingCountdown.format(Duration.ZERO));
+    }
+}
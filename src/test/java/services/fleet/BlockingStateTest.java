@@ -0,0 +1,32 @@
+package services.fleet;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the fleet blocking state.
+ */
+class BlockingStateTest {
+
+    @Test
+    void testAgreeingInstances() {
+        assertEquals(BlockingState.ENABLED, BlockingState.of(List.of(true, true, true)));
+        assertEquals(BlockingState.DISABLED, BlockingState.of(List.of(false, false)));
+    }
+
+    @Test
+    void testDisagreeingInstancesAreMixed() {
+        assertEquals(BlockingState.MIXED, BlockingState.of(List.of(true, true, false)));
+    }
+
+    @Test
+    void testUnknownStatesAreIgnored() {
+        assertEquals(BlockingState.DISABLED, BlockingState.of(Arrays.asList(null, false, null)));
+        assertEquals(BlockingState.UNKNOWN, BlockingState.of(Arrays.asList(null, null)));
+        assertEquals(BlockingState.UNKNOWN, BlockingState.of(List.of()));
+    }
+}
@@ -0,0 +1,151 @@
+package services.fleet;
+
+import domain.configuration.DnsBlockerConfig;
+import org.junit.jupiter.api.Test;
+import services.DnsBlockerHandler;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the serialized blocking write queue.
+ */
+class BlockingWriteQueueTest {
+
+    private static InstanceRegistry.Instance instance(int index, DnsBlockerHandler handler) {
+        DnsBlockerConfig config = DnsBlockerConfig.forPiHole("10.0.0." + (index + 1), 80, "http", "token");
+        return new InstanceRegistry.Instance(index, "http://10.0.0." + (index + 1) + ":80", config, handler);
+    }
+
+    private static BlockingWriteQueue queue(List<BlockingWriter.Outcome> applied) {
+        return new BlockingWriteQueue(new BlockingWriter(4, 1, Duration.ZERO), 4, applied::add);
+    }
+
+    @Test
+    void testBurstCollapsesIntoTheLastRequest() throws Exception {
+        GatedHandler handler = new GatedHandler();
+        List<BlockingWriter.Outcome> applied = new CopyOnWriteArrayList<>();
+        BlockingWriteQueue queue = queue(applied);
+        List<InstanceRegistry.Instance> fleet = List.of(instance(0, handler));
+
+        CompletableFuture<BlockingWriteQueue.Batch> first = queue.submit(fleet, false, null);
+        assertTrue(handler.firstWriteStarted.await(5, TimeUnit.SECONDS));
+        CompletableFuture<BlockingWriteQueue.Batch> second = queue.submit(fleet, true, null);
+        CompletableFuture<BlockingWriteQueue.Batch> third = queue.submit(fleet, false, null);
+        handler.release.countDown();
+
+        BlockingWriteQueue.Batch last = third.get(5, TimeUnit.SECONDS);
+        assertEquals(List.of(false, false), handler.writes);
+        assertEquals(3, last.version());
+        assertEquals(Boolean.FALSE, last.outcomes().get(0).actual());
+        // The overtaken request shares the outcome of the write that replaced it
+        assertSame(last.outcomes().get(0), second.get(5, TimeUnit.SECONDS).outcomes().get(0));
+        assertEquals(1, first.get(5, TimeUnit.SECONDS).version());
+        assertEquals(2, applied.size());
+    }
+
+    @Test
+    void testPendingTargetAndStaleReadsAcrossAWrite() throws Exception {
+        GatedHandler handler = new GatedHandler();
+        BlockingWriteQueue queue = queue(new CopyOnWriteArrayList<>());
+        long before = queue.latestVersion();
+        assertTrue(queue.isSettledSince(before));
+        assertNull(queue.pendingTarget());
+
+        CompletableFuture<BlockingWriteQueue.Batch> request = queue.submit(List.of(instance(0, handler)), false, 30);
+        assertTrue(handler.firstWriteStarted.await(5, TimeUnit.SECONDS));
+        assertEquals(Boolean.FALSE, queue.pendingTarget());
+        assertFalse(queue.isSettledSince(queue.latestVersion()));
+
+        handler.release.countDown();
+        request.get(5, TimeUnit.SECONDS);
+        awaitIdle(queue);
+
+        // A read sent before the write stays stale; one sent after it is accepted
+        assertFalse(queue.isSettledSince(before));
+        assertTrue(queue.isSettledSince(queue.latestVersion()));
+    }
+
+    @Test
+    void testInstancesWithoutHandlerAreSkipped() throws Exception {
+        BlockingWriteQueue queue = queue(new CopyOnWriteArrayList<>());
+
+        BlockingWriteQueue.Batch batch = queue.submit(List.of(instance(0, null)), true, null).get(5, TimeUnit.SECONDS);
+
+        assertTrue(batch.outcomes().isEmpty());
+        assertNull(queue.pendingTarget());
+    }
+
+    private static void awaitIdle(BlockingWriteQueue queue) throws InterruptedException {
+        // The lane marks itself idle just after completing its last request
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (queue.pendingTarget() != null && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertNull(queue.pendingTarget());
+    }
+
+    /**
+     * Holds its first write until released and records every write.
+     */
+    private static final class GatedHandler implements DnsBlockerHandler {
+        private final CountDownLatch firstWriteStarted = new CountDownLatch(1);
+        private final CountDownLatch release = new CountDownLatch(1);
+        private final List<Boolean> writes = new CopyOnWriteArrayList<>();
+        private volatile boolean enabled = true;
+
+        @Override
+        public boolean authenticate() {
+            return true;
+        }
+
+        @Override
+        public String getStats() {
+            return "";
+        }
+
+        @Override
+        public String getLastBlocked() {
+            return "";
+        }
+
+        @Override
+        public String getVersion() {
+            return "";
+        }
+
+        @Override
+        public String getTopXBlocked(int count) {
+            return "";
+        }
+
+        @Override
+        public String getGravityLastUpdate() {
+            return "";
+        }
+
+        @Override
+        public String setDnsBlocking(boolean blocking, Integer timerSeconds) {
+            writes.add(blocking);
+            firstWriteStarted.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            enabled = blocking;
+            return "";
+        }
+
+        @Override
+        public String getDnsBlockingStatus() {
+            return "{\"blocking\":{\"enabled\":" + enabled + "}}";
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package services.fleet;
+
+import domain.configuration.DnsBlockerConfig;
+import org.junit.jupiter.api.Test;
+import services.DnsBlockerHandler;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the fleet blocking writer.
+ */
+class BlockingWriterTest {
+
+    private static InstanceRegistry.Instance instance(int index, DnsBlockerHandler handler) {
+        DnsBlockerConfig config = DnsBlockerConfig.forPiHole("10.0.0." + (index + 1), 80, "http", "token");
+        return new InstanceRegistry.Instance(index, "http://10.0.0." + (index + 1) + ":80", config, handler);
+    }
+
+    @Test
+    void testConvergedInstancesAreConfirmedOrRetried() {
+        FakeHandler immediate = new FakeHandler(0);
+        FakeHandler lagging = new FakeHandler(1);
+        BlockingWriter writer = new BlockingWriter(4, 3, Duration.ZERO);
+
+        List<BlockingWriter.Outcome> outcomes =
+                writer.writeAll(List.of(instance(0, immediate), instance(1, lagging)), false, null);
+
+        assertEquals(2, outcomes.size());
+        assertEquals(BlockingWriter.Status.CONFIRMED, outcomes.get(0).status());
+        assertEquals(1, outcomes.get(0).attempts());
+        assertEquals(BlockingWriter.Status.RETRIED, outcomes.get(1).status());
+        assertEquals(2, outcomes.get(1).attempts());
+        assertEquals(Boolean.FALSE, outcomes.get(1).actual());
+        assertTrue(outcomes.get(1).converged());
+        assertTrue(outcomes.get(1).statusJson().contains("false"));
+    }
+
+    @Test
+    void testStuckInstanceFailsWithItsActualState() {
+        FakeHandler stuck = new FakeHandler(Integer.MAX_VALUE);
+        BlockingWriter writer = new BlockingWriter(4, 3, Duration.ZERO);
+
+        BlockingWriter.Outcome outcome = writer.write(instance(0, stuck), false, null);
+
+        assertEquals(BlockingWriter.Status.FAILED, outcome.status());
+        assertEquals(Boolean.TRUE, outcome.actual());
+        assertEquals(3, outcome.attempts());
+        assertEquals(3, stuck.writes.get());
+        assertFalse(outcome.converged());
+    }
+
+    @Test
+    void testUnreadableStatusIsUnreachableAndHandlerlessInstancesAreSkipped() {
+        FakeHandler silent = new FakeHandler(0);
+        silent.reachable = false;
+        BlockingWriter writer = new BlockingWriter(2, 2, Duration.ZERO);
+
+        List<BlockingWriter.Outcome> outcomes =
+                writer.writeAll(List.of(instance(0, silent), instance(1, null)), true, 30);
+
+        assertEquals(1, outcomes.size());
+        assertEquals(BlockingWriter.Status.UNREACHABLE, outcomes.get(0).status());
+        assertNull(outcomes.get(0).actual());
+        assertEquals("", outcomes.get(0).statusJson());
+        assertEquals(Integer.valueOf(30), silent.lastTimer);
+    }
+
+    @Test
+    void testInvalidSettingsAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new BlockingWriter(0, 1, Duration.ZERO));
+        assertThrows(IllegalArgumentException.class, () -> new BlockingWriter(1, 0, Duration.ZERO));
+    }
+
+    /**
+     * Starts enabled and ignores the first {@code ignoredWrites} writes.
+     */
+    private static final class FakeHandler implements DnsBlockerHandler {
+        private final int ignoredWrites;
+        private final AtomicInteger writes = new AtomicInteger();
+        private volatile boolean enabled = true;
+        private volatile boolean reachable = true;
+        private volatile Integer lastTimer;
+
+        private FakeHandler(int ignoredWrites) {
+            this.ignoredWrites = ignoredWrites;
+        }
+
+        @Override
+        public boolean authenticate() {
+            return true;
+        }
+
+        @Override
+        public String getStats() {
+            return "";
+        }
+
+        @Override
+        public String getLastBlocked() {
+            return "";
+        }
+
+        @Override
+        public String getVersion() {
+            return "";
+        }
+
+        @Override
+        public String getTopXBlocked(int count) {
+            return "";
+        }
+
+        @Override
+        public String getGravityLastUpdate() {
+            return "";
+        }
+
+        @Override
+        public String setDnsBlocking(boolean blocking, Integer timerSeconds) {
+            lastTimer = timerSeconds;
+            if (writes.incrementAndGet() > ignoredWrites) {
+                enabled = blocking;
+            }
+            return "";
+        }
+
+        @Override
+        public String getDnsBlockingStatus() {
+            return reachable ? "{\"blocking\":{\"enabled\":" + enabled + "}}" : "";
+        }
+    }
+}
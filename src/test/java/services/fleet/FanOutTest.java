@@ -0,0 +1,69 @@
+package services.fleet;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the bounded parallel fan-out.
+ */
+class FanOutTest {
+
+    @Test
+    void testRunsEveryItemWithBoundedConcurrency() {
+        List<Integer> items = IntStream.range(0, 40).boxed().toList();
+        Set<Integer> seen = ConcurrentHashMap.newKeySet();
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger peak = new AtomicInteger();
+
+        FanOut.forEach(items, 4, item -> {
+            peak.accumulateAndGet(running.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(5);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            running.decrementAndGet();
+            seen.add(item);
+        });
+
+        assertEquals(40, seen.size());
+        assertTrue(peak.get() <= 4, "peak concurrency was " + peak.get());
+        assertTrue(peak.get() > 1, "items never ran in parallel");
+    }
+
+    @Test
+    void testFailingItemDoesNotStopTheOthers() {
+        Set<Integer> seen = ConcurrentHashMap.newKeySet();
+
+        FanOut.forEach(List.of(1, 2, 3, 4), 2, item -> {
+            if (item == 2) {
+                throw new IllegalStateException("boom");
+            }
+            seen.add(item);
+        });
+
+        assertEquals(Set.of(1, 3, 4), seen);
+    }
+
+    @Test
+    void testSingleItemRunsOnCallerThread() {
+        List<Thread> threads = new ArrayList<>();
+
+        FanOut.forEach(List.of("only"), 8, _ -> threads.add(Thread.currentThread()));
+
+        assertEquals(List.of(Thread.currentThread()), threads);
+    }
+
+    @Test
+    void testRejectsNonPositiveConcurrency() {
+        assertThrows(IllegalArgumentException.class, () -> FanOut.forEach(List.of(1), 0, _ -> { }));
+    }
+}
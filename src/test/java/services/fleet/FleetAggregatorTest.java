@@ -0,0 +1,115 @@
+package services.fleet;
+
+import org.junit.jupiter.api.Test;
+import services.polling.SummaryStats;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the incremental fleet totals.
+ */
+class FleetAggregatorTest {
+
+    private static SummaryStats stats(long total, long blocked, long domains) {
+        return new SummaryStats(true, total, blocked, 0.0, domains, true);
+    }
+
+    @Test
+    void testNewSnapshotReplacesOnlyItsInstance() {
+        FleetAggregator aggregator = new FleetAggregator();
+        aggregator.update("a", stats(100, 10, 1_000));
+        aggregator.update("b", stats(300, 90, 5_000));
+        aggregator.update("a", stats(200, 30, 2_000));
+
+        FleetAggregator.View view = aggregator.view();
+        assertEquals(2, view.instances());
+        assertEquals(500, view.totalQueries());
+        assertEquals(120, view.blockedQueries());
+        assertEquals(380, view.acceptedQueries());
+        assertEquals(24.0, view.percentBlocked(), 1e-9);
+        assertEquals(2_000, view.minDomainsBlocked());
+        assertEquals(5_000, view.maxDomainsBlocked());
+    }
+
+    @Test
+    void testUnreachableInstanceStopsContributing() {
+        FleetAggregator aggregator = new FleetAggregator();
+        aggregator.update("a", stats(100, 10, 1_000));
+        aggregator.update("b", stats(300, 90, 5_000));
+
+        aggregator.update("b", SummaryStats.inactive());
+
+        FleetAggregator.View view = aggregator.view();
+        assertEquals(1, view.instances());
+        assertEquals(100, view.totalQueries());
+        assertEquals(1_000, view.maxDomainsBlocked());
+    }
+
+    @Test
+    void testSharedExtremesSurviveRemovalOfOneHolder() {
+        FleetAggregator aggregator = new FleetAggregator();
+        aggregator.update("a", stats(1, 0, 7_000));
+        aggregator.update("b", stats(1, 0, 7_000));
+        aggregator.update("c", stats(1, 0, 3_000));
+
+        aggregator.remove("a");
+        assertEquals(7_000, aggregator.view().maxDomainsBlocked());
+
+        aggregator.retain(List.of("c"));
+        assertEquals(3_000, aggregator.view().maxDomainsBlocked());
+        assertEquals(1, aggregator.view().instances());
+    }
+
+    @Test
+    void testUnchangedSnapshotDoesNotPublish() {
+        FleetAggregator aggregator = new FleetAggregator();
+        aggregator.update("a", stats(100, 10, 1_000));
+        FleetAggregator.View before = aggregator.view();
+
+        aggregator.update("a", stats(100, 10, 1_000));
+        aggregator.remove("unknown");
+
+        assertSame(before, aggregator.view());
+    }
+
+    @Test
+    void testClearEmptiesTheView() {
+        FleetAggregator aggregator = new FleetAggregator();
+        aggregator.update("a", stats(100, 10, 1_000));
+
+        aggregator.clear();
+
+        assertTrue(aggregator.view().isEmpty());
+        assertEquals(0.0, aggregator.view().percentBlocked());
+    }
+
+    @Test
+    void testReadersNeverSeeHalfAppliedUpdates() throws InterruptedException {
+        FleetAggregator aggregator = new FleetAggregator();
+        // Every snapshot keeps blocked == total / 4, so any consistent view is exactly 25%
+        AtomicBoolean done = new AtomicBoolean();
+        AtomicBoolean torn = new AtomicBoolean();
+        CountDownLatch started = new CountDownLatch(1);
+        Thread reader = Thread.ofVirtual().start(() -> {
+            started.countDown();
+            while (!done.get()) {
+                FleetAggregator.View view = aggregator.view();
+                if (view.totalQueries() != 4 * view.blockedQueries()) {
+                    torn.set(true);
+                }
+            }
+        });
+        started.await();
+        for (int i = 1; i <= 20_000; i++) {
+            aggregator.update("host-" + (i % 12), stats(4L * i, i, i));
+        }
+        done.set(true);
+        reader.join();
+
+        assertFalse(torn.get());
+    }
+}
@@ -0,0 +1,109 @@
+package services.fleet;
+
+import domain.configuration.DnsBlockerConfig;
+import org.junit.jupiter.api.Test;
+import services.DnsBlockerHandler;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the instance registry.
+ */
+class InstanceRegistryTest {
+
+    private static DnsBlockerConfig piHole(String ip) {
+        return DnsBlockerConfig.forPiHole(ip, 80, "http", "token");
+    }
+
+    @Test
+    void testConnectKeepsOrderAndSkipsDuplicatesAndBlanks() {
+        List<DnsBlockerConfig> configs = Arrays.asList(
+                piHole("10.0.0.1"), null, piHole(""), piHole("10.0.0.2"), piHole("10.0.0.1"), piHole("10.0.0.3"));
+
+        InstanceRegistry registry = InstanceRegistry.connect(configs, StubHandler::new, 4);
+
+        assertEquals(3, registry.size());
+        assertEquals(List.of("http://10.0.0.1:80", "http://10.0.0.2:80", "http://10.0.0.3:80"), registry.ids());
+        assertEquals(1, registry.get(1).index());
+        assertEquals("10.0.0.2", ((StubHandler) registry.handler(1)).config.getIPAddress());
+        assertSame(registry.get(0), registry.primary());
+    }
+
+    @Test
+    void testFailingFactoryLeavesInstanceWithoutHandler() {
+        List<DnsBlockerConfig> configs = List.of(piHole("10.0.0.1"), piHole("10.0.0.2"), piHole("10.0.0.3"));
+
+        InstanceRegistry registry = InstanceRegistry.connect(configs, config -> {
+            if (config.getIPAddress().equals("10.0.0.2")) {
+                throw new IllegalStateException("unreachable");
+            }
+            return new StubHandler(config);
+        }, 2);
+
+        assertEquals(3, registry.size());
+        assertNull(registry.handler(1));
+        assertEquals(2, registry.handlers().size());
+    }
+
+    @Test
+    void testOutOfRangeLookupsAreNull() {
+        InstanceRegistry registry = InstanceRegistry.connect(List.of(piHole("10.0.0.1")), StubHandler::new, 1);
+
+        assertNull(registry.get(5));
+        assertNull(registry.handler(-1));
+        assertNull(registry.config(1));
+        assertTrue(InstanceRegistry.connect(new ArrayList<>(), StubHandler::new, 1).isEmpty());
+    }
+
+    private static final class StubHandler implements DnsBlockerHandler {
+        private final DnsBlockerConfig config;
+
+        private StubHandler(DnsBlockerConfig config) {
+            this.config = config;
+        }
+
+        @Override
+        public boolean authenticate() {
+            return true;
+        }
+
+        @Override
+        public String getStats() {
+            return "";
+        }
+
+        @Override
+        public String getLastBlocked() {
+            return "";
+        }
+
+        @Override
+        public String getVersion() {
+            return "";
+        }
+
+        @Override
+        public String getTopXBlocked(int count) {
+            return "";
+        }
+
+        @Override
+        public String getGravityLastUpdate() {
+            return "";
+        }
+
+        @Override
+        public String setDnsBlocking(boolean blocking, Integer timerSeconds) {
+            return "";
+        }
+
+        @Override
+        public String getDnsBlockingStatus() {
+            return "";
+        }
+    }
+}
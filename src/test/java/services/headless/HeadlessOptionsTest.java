@@ -0,0 +1,56 @@
+package services.headless;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the headless command line.
+ */
+class HeadlessOptionsTest {
+
+    @Test
+    void testIsRequested() {
+        assertTrue(HeadlessOptions.isRequested(new String[]{"--once", "--headless"}));
+        assertFalse(HeadlessOptions.isRequested(new String[]{"--once"}));
+        assertFalse(HeadlessOptions.isRequested(null));
+    }
+
+    @Test
+    void testDefaults() {
+        HeadlessOptions options = HeadlessOptions.parse(new String[]{"--headless"});
+
+        assertEquals(HeadlessOptions.DEFAULT_INTERVAL, options.interval());
+        assertEquals(HeadlessOptions.STDOUT, options.output());
+        assertFalse(options.once());
+    }
+
+    @Test
+    void testParsesAllOptions() {
+        HeadlessOptions options = HeadlessOptions.parse(
+                new String[]{"--headless", "--interval=30", "--output=/tmp/fleet.json", "--once"});
+
+        assertEquals(Duration.ofSeconds(30), options.interval());
+        assertEquals("/tmp/fleet.json", options.output());
+        assertTrue(options.once());
+        assertNull(options.metrics());
+    }
+
+    @Test
+    void testParsesMetricsAddress() {
+        HeadlessOptions options = HeadlessOptions.parse(new String[]{"--headless", "--metrics=9617"});
+
+        assertEquals("127.0.0.1", options.metrics().getHostString());
+        assertEquals(9617, options.metrics().getPort());
+        assertThrows(IllegalArgumentException.class, () -> HeadlessOptions.parse(new String[]{"--metrics=port"}));
+    }
+
+    @Test
+    void testRejectsInvalidArguments() {
+        assertThrows(IllegalArgumentException.class, () -> HeadlessOptions.parse(new String[]{"--interval=0"}));
+        assertThrows(IllegalArgumentException.class, () -> HeadlessOptions.parse(new String[]{"--interval=soon"}));
+        assertThrows(IllegalArgumentException.class, () -> HeadlessOptions.parse(new String[]{"--verbose"}));
+    }
+}
@@ -0,0 +1,148 @@
+package services.headless;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import domain.configuration.DnsBlockerConfig;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import services.DnsBlockerHandler;
+import services.fleet.BlockingState;
+import services.fleet.FleetSnapshot;
+import services.fleet.InstanceRegistry;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the headless poller.
+ */
+class HeadlessPollerTest {
+
+    private static final Clock CLOCK = Clock.fixed(Instant.parse("2026-01-01T12:00:00Z"), ZoneOffset.UTC);
+
+    private static InstanceRegistry registry(DnsBlockerHandler... handlers) {
+        List<DnsBlockerConfig> configs = new ArrayList<>();
+        for (int i = 0; i < handlers.length; i++) {
+            configs.add(DnsBlockerConfig.forPiHole("10.0.0." + (i + 1), 80, "http", "token"));
+        }
+        return InstanceRegistry.of(configs, List.of(handlers));
+    }
+
+    @Test
+    void testPollCombinesInstancesAndWritesJson() throws Exception {
+        List<String> written = new CopyOnWriteArrayList<>();
+        InstanceRegistry registry = registry(new FakeHandler(100, 25, true), new FakeHandler(300, 75, false));
+
+        try (HeadlessPoller poller = new HeadlessPoller(registry, written::add, Duration.ofSeconds(10), CLOCK)) {
+            FleetSnapshot snapshot = poller.pollOnce();
+
+            assertEquals(2, snapshot.fleet().instances());
+            assertEquals(400, snapshot.fleet().totalQueries());
+            assertEquals(100, snapshot.fleet().blockedQueries());
+            assertEquals(BlockingState.MIXED, snapshot.blocking());
+            assertSame(snapshot, poller.latest());
+
+            assertEquals(1, written.size());
+            JsonNode json = new ObjectMapper().readTree(written.get(0));
+            assertEquals("dnsblocker.snapshot.v1", json.path("schema").asText());
+            assertEquals("2026-01-01T12:00:00Z", json.path("time").asText());
+            assertEquals(25.0, json.path("fleet").path("percent_blocked").asDouble(), 1e-9);
+            assertFalse(json.path("instances").get(1).path("blocking_enabled").asBoolean());
+        }
+    }
+
+    @Test
+    void testUnreachableInstanceLeavesTheTotals() {
+        FakeHandler flaky = new FakeHandler(100, 10, true);
+        InstanceRegistry registry = registry(new FakeHandler(50, 5, true), flaky);
+
+        try (HeadlessPoller poller = new HeadlessPoller(registry, _ -> { }, Duration.ofSeconds(10), CLOCK)) {
+            poller.pollOnce();
+            flaky.reachable = false;
+            FleetSnapshot snapshot = poller.pollOnce();
+
+            assertEquals(1, snapshot.fleet().instances());
+            assertEquals(50, snapshot.fleet().totalQueries());
+            assertFalse(snapshot.instances().get(1).reachable());
+            assertNull(snapshot.instances().get(1).blockingEnabled());
+            assertEquals(BlockingState.ENABLED, snapshot.blocking());
+        }
+    }
+
+    @Test
+    void testFileSinkReplacesTheFile(@TempDir Path dir) throws Exception {
+        Path file = dir.resolve("out").resolve("fleet.json");
+        SnapshotSink sink = SnapshotSink.forTarget(file.toString());
+
+        sink.write("{\"a\":1}");
+        sink.write("{\"a\":2}");
+
+        assertEquals("{\"a\":2}", Files.readString(file).trim());
+        assertFalse(Files.exists(dir.resolve("out").resolve("fleet.json.tmp")));
+    }
+
+    private static final class FakeHandler implements DnsBlockerHandler {
+        private final long total;
+        private final long blocked;
+        private final boolean enabled;
+        private volatile boolean reachable = true;
+
+        private FakeHandler(long total, long blocked, boolean enabled) {
+            this.total = total;
+            this.blocked = blocked;
+            this.enabled = enabled;
+        }
+
+        @Override
+        public boolean authenticate() {
+            return true;
+        }
+
+        @Override
+        public String getStats() {
+            return reachable
+                    ? "{\"num_dns_queries\":" + total + ",\"num_blocked_filtering\":" + blocked
+                            + ",\"blocklist\":{\"size\":1000}}"
+                    : "";
+        }
+
+        @Override
+        public String getLastBlocked() {
+            return "";
+        }
+
+        @Override
+        public String getVersion() {
+            return "";
+        }
+
+        @Override
+        public String getTopXBlocked(int count) {
+            return "";
+        }
+
+        @Override
+        public String getGravityLastUpdate() {
+            return "";
+        }
+
+        @Override
+        public String setDnsBlocking(boolean blocking, Integer timerSeconds) {
+            return "";
+        }
+
+        @Override
+        public String getDnsBlockingStatus() {
+            return reachable ? "{\"blocking\":{\"enabled\":" + enabled + "}}" : "";
+        }
+    }
+}
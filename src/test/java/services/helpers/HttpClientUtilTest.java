@@ -12,7 +12,12 @@ import java.net.URI;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import helpers.HostLimiter;
 import helpers.HttpClientUtil;
 import com.sun.net.httpserver.HttpExchange;
 import com.sun.net.httpserver.HttpHandler;
@@ -33,7 +38,7 @@ class HttpClientUtilTest {
     @BeforeEach
     void setUp() throws IOException {
         server = HttpServer.create(new InetSocketAddress(0), 0);
-        server.setExecutor(Executors.newSingleThreadExecutor());
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
         server.start();
         port = server.getAddress().getPort();
         client = new HttpClientUtil();
@@ -87,6 +92,157 @@ class HttpClientUtilTest {
         assertTrue(body.contains("b=x+y") || body.contains("b=x%20y"));
     }
 
+    @Test
+    void concurrentIdenticalGetsShareOneRequest() throws Exception {
+        AtomicInteger hits = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        server.createContext("/stats", exchange -> {
+            hits.incrementAndGet();
+            awaitQuietly(release);
+            respond(exchange, 200, "{\"total\":42}");
+        });
+        Map<String, String> auth = Map.of("X-FTL-SID", "session-1");
+        AtomicReference<HttpClientUtil.HttpResponsePayload> first = new AtomicReference<>();
+        long sentBefore = HttpClientUtil.getTotalSentCount();
+        long sharedBefore = HttpClientUtil.getTotalSharedResponseCount();
+
+        Thread sender = Thread.ofVirtual().start(() -> first.set(getQuietly(baseUrl("/stats"), auth)));
+        while (hits.get() == 0) {
+            Thread.sleep(1);
+        }
+        AtomicReference<HttpClientUtil.HttpResponsePayload> second = new AtomicReference<>();
+        Thread follower = Thread.ofVirtual().start(() -> second.set(getQuietly(baseUrl("/stats"),
+                Map.of("X-FTL-SID", "session-1", "Accept", "application/json"))));
+        while (client.getSharedResponseCount() == 0) {
+            Thread.sleep(1);
+        }
+        release.countDown();
+        sender.join();
+        follower.join();
+
+        assertEquals(1, hits.get());
+        assertEquals(1, HttpClientUtil.getTotalSentCount() - sentBefore);
+        assertEquals(1, HttpClientUtil.getTotalSharedResponseCount() - sharedBefore);
+        assertSame(first.get(), second.get());
+        assertSame(first.get().bodyAsJson().orElseThrow(), first.get().bodyAsJson().orElseThrow());
+    }
+
+    @Test
+    void getsWithDifferentCredentialsAreNotShared() throws Exception {
+        AtomicInteger hits = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        server.createContext("/stats", exchange -> {
+            if (hits.incrementAndGet() == 1) {
+                awaitQuietly(release);
+            }
+            respond(exchange, 200, exchange.getRequestHeaders().getFirst("Authorization"));
+        });
+
+        Thread first = Thread.ofVirtual().start(() -> getQuietly(baseUrl("/stats"), Map.of("Authorization", "Basic a")));
+        while (hits.get() == 0) {
+            Thread.sleep(1);
+        }
+        AtomicReference<String> second = new AtomicReference<>();
+        Thread other = Thread.ofVirtual().start(
+                () -> second.set(getQuietly(baseUrl("/stats"), Map.of("Authorization", "Basic b")).bodyText()));
+        Thread.sleep(100);
+        release.countDown();
+        first.join();
+        other.join();
+
+        assertEquals(2, hits.get());
+        assertEquals("Basic b", second.get());
+        assertEquals(0, client.getSharedResponseCount());
+    }
+
+    @Test
+    void interactiveGetDoesNotShareBackgroundGet() throws Exception {
+        AtomicInteger hits = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        server.createContext("/stats", exchange -> {
+            int hit = hits.incrementAndGet();
+            if (hit == 1) {
+                awaitQuietly(release);
+            }
+            respond(exchange, 200, "call-" + hit);
+        });
+        client = new HttpClientUtil(null, null, null, new HostLimiter(2));
+
+        Thread poll = Thread.ofVirtual().start(() -> getQuietly(baseUrl("/stats"), Map.of()));
+        while (hits.get() == 0) {
+            Thread.sleep(1);
+        }
+        AtomicReference<String> clicked = new AtomicReference<>();
+        HostLimiter.runInteractive(() -> clicked.set(getQuietly(baseUrl("/stats"), Map.of()).bodyText()));
+        release.countDown();
+        poll.join();
+
+        // Answered without waiting for the background poll
+        assertEquals("call-2", clicked.get());
+        assertEquals(0, client.getSharedResponseCount());
+    }
+
+    @Test
+    void readAfterWriteDoesNotSharePreWriteGet() throws Exception {
+        AtomicInteger reads = new AtomicInteger();
+        AtomicReference<String> state = new AtomicReference<>("enabled");
+        CountDownLatch release = new CountDownLatch(1);
+        server.createContext("/dns/blocking", exchange -> {
+            if ("POST".equals(exchange.getRequestMethod())) {
+                state.set("disabled");
+                respond(exchange, 200, "disabled");
+                return;
+            }
+            String seen = state.get();
+            if (reads.incrementAndGet() <= 2) {
+                // The poll and its re-send after preemption: both read before the write landed
+                awaitQuietly(release);
+                seen = "enabled";
+            }
+            respond(exchange, 200, seen);
+        });
+        client = new HttpClientUtil(null, null, null, new HostLimiter(2));
+
+        Thread poll = Thread.ofVirtual().start(() -> getQuietly(baseUrl("/dns/blocking"), Map.of()));
+        while (reads.get() == 0) {
+            Thread.sleep(1);
+        }
+        AtomicReference<String> readBack = new AtomicReference<>();
+        HostLimiter.runInteractive(() -> {
+            try {
+                client.post(baseUrl("/dns/blocking"), "{}", Map.of());
+            } catch (Exception e) {
+                throw new AssertionError(e);
+            }
+            // The preempted poll is sent again and still in flight
+            while (reads.get() < 2) {
+                Thread.onSpinWait();
+            }
+            readBack.set(getQuietly(baseUrl("/dns/blocking"), Map.of()).bodyText());
+        });
+        release.countDown();
+        poll.join();
+
+        assertEquals("disabled", readBack.get());
+        assertEquals(3, reads.get());
+    }
+
+    private HttpClientUtil.HttpResponsePayload getQuietly(String url, Map<String, String> headers) {
+        try {
+            return client.get(url, Map.of(), headers);
+        } catch (Exception e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
     private String baseUrl(String path) {
         return "http://localhost:" + port + path;
     }
@@ -0,0 +1,206 @@
+package services.history;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import services.polling.SummaryStats;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for HistoryStore.
+ */
+class HistoryStoreTest {
+
+    private static final String INSTANCE = "http://192.168.1.2:80";
+    // Start of an hour, so the tests control bucket and hour boundaries
+    private static final long T0 = 1_700_002_800_000L;
+
+    @TempDir
+    Path tempDir;
+
+    private static SummaryStats stats(long total, long blocked) {
+        return new SummaryStats(true, total, blocked, 0.0, 0L, null);
+    }
+
+    private static List<long[]> read(HistoryStore store, Resolution resolution) {
+        List<long[]> samples = new ArrayList<>();
+        store.read(INSTANCE, resolution, Long.MIN_VALUE, Long.MAX_VALUE,
+                (t, q, b) -> samples.add(new long[] { t, q, b }));
+        return samples;
+    }
+
+    @Test
+    @DisplayName("Polls are stored as per-interval counts")
+    void testRecordsIncrements() throws Exception {
+        try (HistoryStore store = HistoryStore.open(tempDir)) {
+            store.record(INSTANCE, T0, stats(100, 10));
+            store.record(INSTANCE, T0 + 5_000, stats(130, 12));
+            store.record(INSTANCE, T0 + 10_000, stats(150, 20));
+
+            List<long[]> raw = read(store, Resolution.RAW);
+            assertEquals(2, raw.size());
+            assertArrayEquals(new long[] { T0 + 5_000, 30, 2 }, raw.get(0));
+            assertArrayEquals(new long[] { T0 + 10_000, 20, 8 }, raw.get(1));
+        }
+    }
+
+    @Test
+    @DisplayName("Counter resets are skipped rather than stored as negative counts")
+    void testCounterResetSkipped() throws Exception {
+        try (HistoryStore store = HistoryStore.open(tempDir)) {
+            store.record(INSTANCE, T0, stats(1000, 100));
+            store.record(INSTANCE, T0 + 5_000, stats(3, 0));
+            store.record(INSTANCE, T0 + 10_000, stats(10, 1));
+
+            List<long[]> raw = read(store, Resolution.RAW);
+            assertEquals(1, raw.size());
+            assertArrayEquals(new long[] { T0 + 10_000, 7, 1 }, raw.get(0));
+        }
+    }
+
+    @Test
+    @DisplayName("Closed minute buckets roll up into the minute tier")
+    void testMinuteRollup() throws Exception {
+        try (HistoryStore store = HistoryStore.open(tempDir)) {
+            long total = 0;
+            for (int i = 0; i <= 30; i++) {
+                store.record(INSTANCE, T0 + i * 5_000L, stats(total, total / 10));
+                total += 10;
+            }
+
+            List<long[]> minutes = read(store, Resolution.MINUTE);
+            // Minute 0 holds polls 1..11, minute 1 holds 12..23; minute 2 is still open
+            assertEquals(2, minutes.size());
+            assertArrayEquals(new long[] { T0, 110, 11 }, minutes.get(0));
+            assertArrayEquals(new long[] { T0 + 60_000, 120, 12 }, minutes.get(1));
+        }
+    }
+
+    @Test
+    @DisplayName("History and open rollup buckets survive a restart")
+    void testReopenRebuildsOpenBuckets() throws Exception {
+        try (HistoryStore store = HistoryStore.open(tempDir)) {
+            store.record(INSTANCE, T0, stats(0, 0));
+            store.record(INSTANCE, T0 + 10_000, stats(40, 4));
+        }
+        try (HistoryStore store = HistoryStore.open(tempDir)) {
+            assertEquals(1, read(store, Resolution.RAW).size());
+            // First poll after a restart only re-baselines
+            store.record(INSTANCE, T0 + 20_000, stats(100, 10));
+            store.record(INSTANCE, T0 + 30_000, stats(110, 11));
+            store.record(INSTANCE, T0 + 65_000, stats(120, 12));
+
+            List<long[]> minutes = read(store, Resolution.MINUTE);
+            assertEquals(1, minutes.size());
+            assertArrayEquals(new long[] { T0, 50, 5 }, minutes.get(0));
+        }
+    }
+
+    @Test
+    void testInstanceFolderNameIsSanitized() throws Exception {
+        try (HistoryStore store = HistoryStore.open(tempDir)) {
+            store.record(INSTANCE, T0, stats(0, 0));
+        }
+        assertTrue(Files.isDirectory(tempDir.resolve("http___192.168.1.2_80")));
+        assertTrue(Files.exists(tempDir.resolve("http___192.168.1.2_80").resolve("1h.tsdb")));
+    }
+
+    @Test
+    void testInactiveStatsIgnored() throws Exception {
+        try (HistoryStore store = HistoryStore.open(tempDir)) {
+            store.record(INSTANCE, T0, SummaryStats.inactive());
+            assertEquals(Long.MIN_VALUE, store.lastTime(INSTANCE, Resolution.RAW));
+        }
+    }
+
+    @Test
+    @DisplayName("10-minute server buckets are spread over minutes and roll up")
+    void testBackfillTenMinuteBuckets() throws Exception {
+        HistoryPayload payload = new HistoryPayload(600_000L, List.of(
+                new HistoryBucket(T0, 105, 12),
+                new HistoryBucket(T0 + 600_000L, 50, 5),
+                // Still open on the server at "now": not merged
+                new HistoryBucket(T0 + 1_200_000L, 7, 0)));
+        try (HistoryStore store = HistoryStore.open(tempDir)) {
+            assertEquals(2, store.backfill(INSTANCE, payload, T0 + 1_500_000L));
+
+            List<long[]> minutes = read(store, Resolution.MINUTE);
+            // The last minute stays open until later data closes it
+            assertEquals(19, minutes.size());
+            assertArrayEquals(new long[] { T0, 10, 1 }, minutes.get(0));
+            assertArrayEquals(new long[] { T0 + 540_000L, 15, 3 }, minutes.get(9));
+            assertEquals(105 + 45, minutes.stream().mapToLong(m -> m[1]).sum());
+        }
+    }
+
+    @Test
+    @DisplayName("Backfill never overlaps local data and is idempotent")
+    void testBackfillIsIncremental() throws Exception {
+        HistoryPayload payload = new HistoryPayload(3_600_000L, List.of(
+                new HistoryBucket(T0, 1000, 100),
+                new HistoryBucket(T0 + 3_600_000L, 2000, 200),
+                new HistoryBucket(T0 + 7_200_000L, 3000, 300)));
+        try (HistoryStore store = HistoryStore.open(tempDir)) {
+            // Local data already covers part of the first hour
+            store.record(INSTANCE, T0 + 60_000L, stats(0, 0));
+            store.record(INSTANCE, T0 + 65_000L, stats(10, 1));
+        }
+        try (HistoryStore store = HistoryStore.open(tempDir)) {
+            long now = T0 + 3 * 3_600_000L + 60_000L;
+            assertEquals(2, store.backfill(INSTANCE, payload, now));
+            assertEquals(0, store.backfill(INSTANCE, payload, now));
+
+            List<long[]> hours = read(store, Resolution.HOUR);
+            // Hour 0 (local partial) closed by the backfilled hour 1; hour 2 still open
+            assertEquals(2, hours.size());
+            assertArrayEquals(new long[] { T0, 10, 1 }, hours.get(0));
+            assertArrayEquals(new long[] { T0 + 3_600_000L, 2000, 200 }, hours.get(1));
+        }
+    }
+
+    @Test
+    @DisplayName("Live polls held during the backfill do not hide the gap behind them")
+    void testBackfillAfterHeldLivePolls() throws Exception {
+        HistoryPayload payload = new HistoryPayload(3_600_000L, List.of(
+                new HistoryBucket(T0, 1000, 100),
+                new HistoryBucket(T0 + 3_600_000L, 2000, 200),
+                new HistoryBucket(T0 + 7_200_000L, 3000, 300)));
+        try (HistoryStore store = HistoryStore.open(tempDir)) {
+            store.record(INSTANCE, T0 + 60_000L, stats(0, 0));
+            store.record(INSTANCE, T0 + 65_000L, stats(10, 1));
+        }
+        try (HistoryStore store = HistoryStore.open(tempDir)) {
+            store.holdLiveSamples(INSTANCE);
+            // Two live polls of the new session arrive before the server history does
+            long sessionStart = T0 + 3 * 3_600_000L + 60_000L;
+            store.record(INSTANCE, sessionStart, stats(5000, 500));
+            store.record(INSTANCE, sessionStart + 5_000L, stats(5020, 501));
+
+            assertEquals(2, store.backfill(INSTANCE, payload, sessionStart + 10_000L));
+            store.releaseLiveSamples(INSTANCE);
+            assertEquals(0, store.backfill(INSTANCE, payload, sessionStart + 10_000L));
+
+            List<long[]> hours = read(store, Resolution.HOUR);
+            assertEquals(2, hours.size());
+            assertArrayEquals(new long[] { T0 + 3_600_000L, 2000, 200 }, hours.get(1));
+            // The held polls are stored after the merged buckets
+            assertArrayEquals(new long[] { sessionStart + 5_000L, 20, 1 }, read(store, Resolution.RAW).getLast());
+        }
+    }
+
+    @Test
+    void testBackfillStopsAtSessionStart() throws Exception {
+        HistoryPayload payload = new HistoryPayload(3_600_000L, List.of(new HistoryBucket(T0, 1000, 100)));
+        try (HistoryStore store = HistoryStore.open(tempDir)) {
+            // First poll happened inside the bucket: those queries are counted live
+            store.record(INSTANCE, T0 + 1_800_000L, stats(500, 50));
+            assertEquals(0, store.backfill(INSTANCE, payload, T0 + 7_200_000L));
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package services.history;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.RandomAccessFile;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for TierFile.
+ */
+class TierFileTest {
+
+    @TempDir
+    Path tempDir;
+
+    private record Sample(long time, long queries, long blocked) {
+    }
+
+    private static List<Sample> readAll(TierFile file, long from, long to) {
+        List<Sample> samples = new ArrayList<>();
+        file.read(from, to, (t, q, b) -> samples.add(new Sample(t, q, b)));
+        return samples;
+    }
+
+    @Test
+    @DisplayName("Samples round-trip through the compressed encoding")
+    void testRoundTrip() throws Exception {
+        try (TierFile file = TierFile.open(tempDir.resolve("t.tsdb"), 4)) {
+            file.append(1_000L, 10, 1);
+            file.append(6_000L, 7, 0);
+            file.append(11_000L, 250_000, 99);
+            file.append(16_500L, 0, 0);
+
+            assertEquals(List.of(
+                    new Sample(1_000L, 10, 1),
+                    new Sample(6_000L, 7, 0),
+                    new Sample(11_000L, 250_000, 99),
+                    new Sample(16_500L, 0, 0)), readAll(file, Long.MIN_VALUE, Long.MAX_VALUE));
+            assertEquals(16_500L, file.lastTime());
+        }
+    }
+
+    @Test
+    @DisplayName("Range reads return only the requested window across blocks")
+    void testRangeReadAcrossBlocks() throws Exception {
+        try (TierFile file = TierFile.open(tempDir.resolve("t.tsdb"), 64)) {
+            for (int i = 0; i < 5_000; i++) {
+                file.append(i * 5_000L, i % 17, i % 3);
+            }
+            List<Sample> window = readAll(file, 4_000 * 5_000L, 4_002 * 5_000L);
+            assertEquals(List.of(
+                    new Sample(4_000 * 5_000L, 4_000 % 17, 4_000 % 3),
+                    new Sample(4_001 * 5_000L, 4_001 % 17, 4_001 % 3),
+                    new Sample(4_002 * 5_000L, 4_002 % 17, 4_002 % 3)), window);
+        }
+    }
+
+    @Test
+    @DisplayName("Older samples are rejected")
+    void testRejectsOutOfOrder() throws Exception {
+        try (TierFile file = TierFile.open(tempDir.resolve("t.tsdb"), 2)) {
+            assertTrue(file.append(2_000L, 1, 0));
+            assertFalse(file.append(1_000L, 1, 0));
+        }
+    }
+
+    @Test
+    @DisplayName("Data survives reopening and appends resume in the same block")
+    void testReopen() throws Exception {
+        Path path = tempDir.resolve("t.tsdb");
+        try (TierFile file = TierFile.open(path, 4)) {
+            file.append(1_000L, 1, 0);
+            file.append(2_000L, 2, 1);
+        }
+        try (TierFile file = TierFile.open(path, 4)) {
+            assertEquals(2_000L, file.lastTime());
+            file.append(3_000L, 3, 2);
+        }
+        try (TierFile file = TierFile.open(path, 4)) {
+            assertEquals(List.of(
+                    new Sample(1_000L, 1, 0),
+                    new Sample(2_000L, 2, 1),
+                    new Sample(3_000L, 3, 2)), readAll(file, Long.MIN_VALUE, Long.MAX_VALUE));
+        }
+    }
+
+    @Test
+    @DisplayName("Full ring reclaims the oldest blocks")
+    void testRetention() throws Exception {
+        try (TierFile file = TierFile.open(tempDir.resolve("t.tsdb"), 2)) {
+            for (int i = 0; i < 10_000; i++) {
+                file.append(i * 1_000L, 1_000_000L + i, i);
+            }
+            assertEquals(9_999_000L, file.lastTime());
+            assertTrue(file.firstTime() > 0L);
+            List<Sample> samples = readAll(file, Long.MIN_VALUE, Long.MAX_VALUE);
+            assertEquals(samples.get(0).time(), file.firstTime());
+            assertEquals(9_999_000L, samples.get(samples.size() - 1).time());
+        }
+    }
+
+    @Test
+    @DisplayName("A torn block is dropped on open instead of corrupting reads")
+    void testTornBlockDropped() throws Exception {
+        Path path = tempDir.resolve("t.tsdb");
+        try (TierFile file = TierFile.open(path, 4)) {
+            for (int i = 0; i < 2_000; i++) {
+                file.append(i * 1_000L, i, 0);
+            }
+        }
+        // Flip a payload byte of the first block
+        try (RandomAccessFile raf = new RandomAccessFile(path.toFile(), "rw")) {
+            raf.seek(TierFile.HEADER_SIZE + 5);
+            int b = raf.read();
+            raf.seek(TierFile.HEADER_SIZE + 5);
+            raf.write(b ^ 0xFF);
+        }
+        try (TierFile file = TierFile.open(path, 4)) {
+            List<Sample> samples = readAll(file, Long.MIN_VALUE, Long.MAX_VALUE);
+            assertFalse(samples.isEmpty());
+            assertTrue(samples.get(0).time() > 0L);
+            assertEquals(1_999_000L, file.lastTime());
+            for (Sample sample : samples) {
+                assertEquals(sample.time() / 1_000L, sample.queries());
+            }
+        }
+    }
+}
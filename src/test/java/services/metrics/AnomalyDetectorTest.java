@@ -0,0 +1,92 @@
+package services.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the streaming EWMA z-score detector.
+ */
+class AnomalyDetectorTest {
+
+    private static final long T0 = 1_700_002_800_000L;
+    private static final long TICK = 10_000L;
+
+    // One hour of a steady rate alternating between 9 and 11
+    private static long warmUp(AnomalyDetector detector) {
+        long time = T0;
+        for (int i = 0; i < 360; i++) {
+            detector.update(time, i % 2 == 0 ? 9.0 : 11.0);
+            time += TICK;
+        }
+        return time;
+    }
+
+    @Test
+    void testNaNWhileWarmingUp() {
+        AnomalyDetector detector = new AnomalyDetector();
+        for (int i = 0; i < AnomalyDetector.DEFAULT_WARMUP_SAMPLES - 1; i++) {
+            assertTrue(Double.isNaN(detector.update(T0 + i * TICK, 10.0)));
+        }
+    }
+
+    @Test
+    void testSteadySeriesScoresLow() {
+        AnomalyDetector detector = new AnomalyDetector();
+        long time = warmUp(detector);
+
+        double z = detector.update(time, 11.0);
+
+        assertFalse(Double.isNaN(z));
+        assertTrue(Math.abs(z) < 2.0, "z=" + z);
+        assertEquals(10.0, detector.mean(), 0.5);
+    }
+
+    @Test
+    void testSpikeAndDropScoreHigh() {
+        AnomalyDetector detector = new AnomalyDetector();
+        long time = warmUp(detector);
+
+        assertTrue(detector.update(time, 100.0) > 10.0);
+
+        AnomalyDetector other = new AnomalyDetector();
+        long otherTime = warmUp(other);
+        assertTrue(other.update(otherTime, 0.0) < -4.0);
+    }
+
+    @Test
+    void testSustainedFloodIsNotAbsorbedQuickly() {
+        AnomalyDetector detector = new AnomalyDetector();
+        long time = warmUp(detector);
+
+        double z = Double.NaN;
+        // Five minutes of a 10x flood
+        for (int i = 0; i < 30; i++) {
+            z = detector.update(time, 100.0);
+            time += TICK;
+        }
+
+        assertTrue(z > 4.0, "z=" + z);
+    }
+
+    @Test
+    void testLongGapRestartsWarmUp() {
+        AnomalyDetector detector = new AnomalyDetector();
+        long time = warmUp(detector);
+
+        assertTrue(Double.isNaN(detector.update(time + 3_600_000L, 100.0)));
+        assertEquals(100.0, detector.mean());
+    }
+
+    @Test
+    void testInvalidSamplesAreIgnored() {
+        AnomalyDetector detector = new AnomalyDetector();
+        long time = warmUp(detector);
+        double mean = detector.mean();
+
+        detector.update(time, Double.NaN);
+        detector.update(time, Double.POSITIVE_INFINITY);
+
+        assertEquals(mean, detector.mean());
+    }
+}
@@ -0,0 +1,43 @@
+package services.metrics;
+
+import org.junit.jupiter.api.Test;
+import services.polling.Endpoint;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for ClientMetrics.
+ */
+class ClientMetricsTest {
+
+    @Test
+    void testCountsRequestsAndBlankBodiesAsErrors() {
+        ClientMetrics metrics = new ClientMetrics();
+        metrics.recordFetch(Endpoint.STATS, 1_000L, "{}");
+        metrics.recordFetch(Endpoint.STATS, 1_000L, "");
+        metrics.recordFetch(Endpoint.STATS, 1_000L, null);
+
+        assertEquals(3, metrics.requests(Endpoint.STATS));
+        assertEquals(2, metrics.errors(Endpoint.STATS));
+        assertEquals(0, metrics.requests(Endpoint.VERSION));
+    }
+
+    @Test
+    void testHistogramIsCumulative() {
+        ClientMetrics metrics = new ClientMetrics();
+        metrics.recordFetch(Endpoint.STATS, TimeUnit.MILLISECONDS.toNanos(10), "{}");
+        // On a bound: counted in that bucket
+        metrics.recordFetch(Endpoint.STATS, TimeUnit.MILLISECONDS.toNanos(100), "{}");
+        metrics.recordFetch(Endpoint.STATS, TimeUnit.SECONDS.toNanos(30), "{}");
+
+        long[] buckets = metrics.cumulativeBuckets(Endpoint.STATS);
+        assertEquals(ClientMetrics.LATENCY_BUCKETS.length + 1, buckets.length);
+        assertEquals(1, buckets[0]);
+        assertEquals(2, buckets[1]);
+        assertEquals(2, buckets[buckets.length - 2]);
+        assertEquals(3, buckets[buckets.length - 1]);
+        assertEquals(30.11, metrics.latencySeconds(Endpoint.STATS), 1e-9);
+    }
+}
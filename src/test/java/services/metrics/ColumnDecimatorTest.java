@@ -0,0 +1,113 @@
+package services.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the per-column min/max decimation.
+ */
+class ColumnDecimatorTest {
+
+    // 10 columns of 1 s over a 10 s window
+    private static final long WINDOW = 10_000L;
+
+    @Test
+    void testFirstSampleLandsInLastColumn() {
+        ColumnDecimator columns = new ColumnDecimator(WINDOW, 10);
+
+        assertEquals(9, columns.add(100_500L, 3.0));
+        assertEquals(91_000L, columns.originMillis());
+        assertEquals(1_000L, columns.columnMillis());
+        assertFalse(columns.hasData(8));
+    }
+
+    @Test
+    void testColumnKeepsFirstLastMinMax() {
+        ColumnDecimator columns = new ColumnDecimator(WINDOW, 10);
+        columns.add(100_000L, 5.0);
+        columns.add(100_200L, 9.0);
+        columns.add(100_400L, 1.0);
+        columns.add(100_900L, 4.0);
+
+        assertEquals(5.0, columns.first(9));
+        assertEquals(4.0, columns.last(9));
+        assertEquals(1.0, columns.min(9));
+        assertEquals(9.0, columns.max(9));
+    }
+
+    @Test
+    void testWindowShiftsWholeColumns() {
+        ColumnDecimator columns = new ColumnDecimator(WINDOW, 10);
+        columns.add(100_000L, 1.0);
+
+        assertEquals(9, columns.add(102_000L, 2.0));
+        assertEquals(93_000L, columns.originMillis());
+        assertEquals(1.0, columns.max(7));
+        assertEquals(2.0, columns.max(9));
+        assertFalse(columns.hasData(8));
+    }
+
+    @Test
+    void testLargeJumpClearsWindow() {
+        ColumnDecimator columns = new ColumnDecimator(WINDOW, 10);
+        columns.add(100_000L, 7.0);
+        columns.add(500_000L, 1.0);
+
+        assertEquals(1.0, columns.max());
+        for (int i = 0; i < 9; i++) {
+            assertFalse(columns.hasData(i));
+        }
+    }
+
+    @Test
+    void testSamplesOlderThanWindowAreIgnored() {
+        ColumnDecimator columns = new ColumnDecimator(WINDOW, 10);
+        columns.add(100_000L, 1.0);
+
+        assertEquals(ColumnDecimator.OUTSIDE, columns.add(80_000L, 50.0));
+        assertEquals(ColumnDecimator.OUTSIDE, columns.add(100_500L, Double.NaN));
+        assertEquals(1.0, columns.max());
+    }
+
+    @Test
+    void testAdvanceToAlignsDecimators() {
+        ColumnDecimator queries = new ColumnDecimator(WINDOW, 10);
+        ColumnDecimator blocked = new ColumnDecimator(WINDOW, 10);
+        queries.add(105_000L, 4.0);
+        blocked.add(100_000L, 1.0);
+
+        blocked.advanceTo(105_000L);
+
+        assertEquals(queries.originMillis(), blocked.originMillis());
+        assertEquals(1.0, blocked.max(4));
+    }
+
+    @Test
+    void testResizeDropsContent() {
+        ColumnDecimator columns = new ColumnDecimator(WINDOW, 10);
+        columns.add(100_000L, 1.0);
+
+        columns.resize(4);
+
+        assertEquals(4, columns.columns());
+        assertEquals(2_500L, columns.columnMillis());
+        assertTrue(Double.isNaN(columns.max()));
+        assertEquals(Long.MIN_VALUE, columns.originMillis());
+    }
+
+    @Test
+    void testDayOfTenSecondSamplesFitsPixelWidth() {
+        ColumnDecimator columns = new ColumnDecimator(24 * 3_600_000L, 200);
+        long start = 1_700_000_000_000L;
+        for (int i = 0; i < 8_640; i++) {
+            columns.add(start + i * 10_000L, i % 40);
+        }
+
+        // 432 s per column: every column sees a whole 0..39 cycle.
+        assertEquals(200, columns.columns());
+        assertEquals(39.0, columns.max());
+        assertEquals(0.0, columns.min(100));
+        assertEquals(39.0, columns.max(100));
+    }
+}
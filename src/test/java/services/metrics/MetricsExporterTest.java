@@ -0,0 +1,118 @@
+package services.metrics;
+
+import org.junit.jupiter.api.Test;
+import services.fleet.BlockingState;
+import services.fleet.FleetAggregator;
+import services.fleet.FleetSnapshot;
+import services.polling.Endpoint;
+
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for MetricsExporter.
+ */
+class MetricsExporterTest {
+
+    private static FleetSnapshot snapshot() {
+        return new FleetSnapshot(Instant.parse("2026-01-01T12:00:00Z"),
+                new FleetAggregator.View(1, 400L, 100L, 1000L, 1000L, 1L), BlockingState.ENABLED,
+                List.of(new FleetSnapshot.InstanceStatus("http://10.0.0.1:80", true, true, 400L, 100L, 1000L),
+                        new FleetSnapshot.InstanceStatus("http://10.0.0.2:80", false, null, 0L, 0L, 0L)));
+    }
+
+    @Test
+    void testRendersSnapshotAndClientMetrics() {
+        ClientMetrics metrics = new ClientMetrics();
+        metrics.recordFetch(Endpoint.STATS, 20_000_000L, "{}");
+        metrics.recordFetch(Endpoint.STATS, 20_000_000L, "");
+
+        String text = MetricsExporter.render(snapshot(), metrics, new MetricsExporter.RequestCounts(12L, 3L, 7L));
+
+        assertTrue(text.contains("dnsblocker_snapshot_timestamp_seconds 1767268800\n"));
+        assertTrue(text.contains("dnsblocker_up{instance=\"http://10.0.0.1:80\"} 1\n"));
+        assertTrue(text.contains("dnsblocker_up{instance=\"http://10.0.0.2:80\"} 0\n"));
+        // Unknown state and the counters of an unreachable instance are left out
+        assertFalse(text.contains("dnsblocker_blocking_enabled{instance=\"http://10.0.0.2:80\"}"));
+        assertFalse(text.contains("dnsblocker_queries{instance=\"http://10.0.0.2:80\"}"));
+        assertTrue(text.contains("dnsblocker_fleet_percent_blocked 25\n"));
+        assertTrue(text.contains("dnsblocker_fleet_blocking_state{state=\"enabled\"} 1\n"));
+        assertTrue(text.contains("dnsblocker_client_requests_total{endpoint=\"stats\"} 2\n"));
+        assertTrue(text.contains("dnsblocker_client_errors_total{endpoint=\"stats\"} 1\n"));
+        String bucket = "dnsblocker_client_request_duration_seconds_bucket{endpoint=\"stats\",le=";
+        assertTrue(text.contains(bucket + "\"0.05\"} 2\n"));
+        assertTrue(text.contains(bucket + "\"+Inf\"} 2\n"));
+        assertTrue(text.contains("dnsblocker_client_request_duration_seconds_count{endpoint=\"stats\"} 2\n"));
+        assertFalse(text.contains("endpoint=\"version\""));
+        assertTrue(text.contains("dnsblocker_client_http_requests_sent_total 12\n"));
+        assertTrue(text.contains("dnsblocker_client_http_requests_saved_total{reason=\"in_flight\"} 3\n"));
+        assertTrue(text.contains("dnsblocker_client_http_requests_saved_total{reason=\"queued\"} 7\n"));
+    }
+
+    @Test
+    void testEscapesLabelValues() {
+        FleetSnapshot snapshot = new FleetSnapshot(Instant.EPOCH, new FleetAggregator.View(0, 0L, 0L, 0L, 0L, 0L),
+                BlockingState.UNKNOWN, List.of(new FleetSnapshot.InstanceStatus("a\"b\\c", false, null, 0L, 0L, 0L)));
+
+        String text = MetricsExporter.render(snapshot, new ClientMetrics(),
+                new MetricsExporter.RequestCounts(0L, 0L, 0L));
+
+        assertTrue(text.contains("dnsblocker_up{instance=\"a\\\"b\\\\c\"} 0\n"));
+    }
+
+    @Test
+    void testNumberFormat() {
+        assertEquals("42", MetricsExporter.number(42.0));
+        assertEquals("0.25", MetricsExporter.number(0.25));
+        assertEquals("1792366695.369", MetricsExporter.number(1792366695.369));
+        assertEquals("NaN", MetricsExporter.number(Double.NaN));
+        assertEquals("+Inf", MetricsExporter.number(Double.POSITIVE_INFINITY));
+    }
+
+    @Test
+    void testParseAddress() {
+        assertEquals(new InetSocketAddress("127.0.0.1", 9617), MetricsExporter.parseAddress("9617"));
+        assertEquals(new InetSocketAddress("0.0.0.0", 9617), MetricsExporter.parseAddress("0.0.0.0:9617"));
+        assertEquals(new InetSocketAddress("::1", 9617), MetricsExporter.parseAddress("[::1]:9617"));
+        assertThrows(IllegalArgumentException.class, () -> MetricsExporter.parseAddress(""));
+        assertThrows(IllegalArgumentException.class, () -> MetricsExporter.parseAddress("host:"));
+        assertThrows(IllegalArgumentException.class, () -> MetricsExporter.parseAddress("70000"));
+    }
+
+    @Test
+    void testScrapeServesThePublishedBody() throws Exception {
+        ClientMetrics metrics = new ClientMetrics();
+        try (MetricsExporter exporter = MetricsExporter.start(new InetSocketAddress("127.0.0.1", 0), metrics)) {
+            URI base = URI.create("http://127.0.0.1:" + exporter.address().getPort());
+            HttpClient client = HttpClient.newHttpClient();
+
+            HttpResponse<String> before = client.send(HttpRequest.newBuilder(base.resolve("/metrics")).build(),
+                    HttpResponse.BodyHandlers.ofString());
+            assertEquals(200, before.statusCode());
+            assertEquals(MetricsExporter.CONTENT_TYPE, before.headers().firstValue("Content-Type").orElseThrow());
+            assertFalse(before.body().contains("dnsblocker_up"));
+
+            exporter.publish(snapshot());
+            byte[] published = exporter.body();
+            HttpResponse<String> after = client.send(HttpRequest.newBuilder(base.resolve("/metrics")).build(),
+                    HttpResponse.BodyHandlers.ofString());
+            assertTrue(after.body().contains("dnsblocker_up{instance=\"http://10.0.0.1:80\"} 1"));
+            // Scrapes share the pre-rendered buffer
+            assertSame(published, exporter.body());
+
+            HttpResponse<String> other = client.send(HttpRequest.newBuilder(base.resolve("/")).build(),
+                    HttpResponse.BodyHandlers.ofString());
+            assertEquals(404, other.statusCode());
+            HttpResponse<String> post = client.send(HttpRequest.newBuilder(base.resolve("/metrics"))
+                    .POST(HttpRequest.BodyPublishers.noBody()).build(), HttpResponse.BodyHandlers.ofString());
+            assertEquals(405, post.statusCode());
+        }
+    }
+}
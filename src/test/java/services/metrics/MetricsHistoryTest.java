@@ -0,0 +1,135 @@
+package services.metrics;
+
+import org.junit.jupiter.api.Test;
+import services.polling.SummaryStats;
+import services.polling.UpstreamStats;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for MetricsHistory.
+ */
+class MetricsHistoryTest {
+
+    private static SummaryStats stats(long total, long blocked) {
+        return new SummaryStats(true, total, blocked, blocked * 100.0 / total, 0L, null);
+    }
+
+    @Test
+    void testRecordsEachSeriesPerInstance() {
+        MetricsHistory history = new MetricsHistory(16);
+        history.record("http://a:80", 1000L, stats(100, 10));
+        history.record("http://a:80", 2000L, stats(200, 50));
+        history.record("http://b:80", 1000L, stats(40, 4));
+
+        MetricsHistory.InstanceHistory a = history.get("http://a:80");
+        assertNotNull(a);
+        assertEquals(2, a.totalQueries().size());
+        assertEquals(50.0, a.blockedQueries().latestValue());
+        assertEquals(25.0, a.percentBlocked().latestValue(), 1e-9);
+        assertEquals(1, history.get("http://b:80").totalQueries().size());
+    }
+
+    @Test
+    void testInactiveStatsAreSkipped() {
+        MetricsHistory history = new MetricsHistory(16);
+        history.record("http://a:80", 1000L, SummaryStats.inactive());
+        history.record("http://a:80", 1000L, null);
+
+        assertNull(history.get("http://a:80"));
+    }
+
+    @Test
+    void testRetainInstancesDropsRemovedOnes() {
+        MetricsHistory history = new MetricsHistory(16);
+        history.record("http://a:80", 1000L, stats(100, 10));
+        history.record("http://b:80", 1000L, stats(100, 10));
+
+        history.retainInstances(List.of("http://b:80"));
+
+        assertEquals(Set.of("http://b:80"), history.instanceIds());
+    }
+
+    @Test
+    void testSnapshotCarriesLatestCountersAndRates() {
+        MetricsHistory history = new MetricsHistory(16);
+        long t0 = 1_700_002_800_000L;
+        history.record("http://b:80", t0, stats(100, 10));
+        history.record("http://a:80", t0, stats(100, 10));
+        history.record("http://a:80", t0 + 10_000, stats(300, 30));
+
+        InstanceSnapshot a = history.snapshot("http://a:80");
+        assertEquals(300L, a.totalQueries());
+        assertEquals(30L, a.blockedQueries());
+        assertEquals(20.0, a.queriesPerSecond(), 1e-9);
+        assertEquals(2.0, a.blocksPerSecond(), 1e-9);
+        assertTrue(Double.isNaN(history.snapshot("http://b:80").queriesPerSecond()));
+
+        assertEquals(List.of("http://a:80", "http://b:80"),
+                history.snapshot().stream().map(InstanceSnapshot::instanceId).toList());
+        assertNull(history.snapshot("http://c:80"));
+    }
+
+    @Test
+    void testWindowedPercentUsesCounterIncreases() {
+        long t0 = 1_700_002_800_000L;
+        MetricsHistory history = new MetricsHistory(16);
+        // Since-midnight figure stays near 10% while the last minute is 50% blocked
+        history.record("http://a:80", t0, stats(100_000, 10_000));
+        history.record("http://a:80", t0 + 30_000L, stats(100_100, 10_050));
+        history.record("http://b:80", t0, stats(1_000, 100));
+        history.record("http://b:80", t0 + 30_000L, stats(1_100, 100));
+
+        assertEquals(50.0, history.get("http://a:80").recent().percentBlocked(60_000L, t0 + 30_000L), 1e-9);
+        assertEquals(25.0, history.percentBlocked(List.of("http://a:80", "http://b:80"), 60_000L, t0 + 30_000L), 1e-9);
+        assertEquals(50.0, history.snapshot("http://a:80").percentBlocked1m(), 1e-9);
+        assertEquals(10.0, history.snapshot("http://a:80").percentBlocked(), 0.1);
+    }
+
+    @Test
+    void testWindowedPercentSkipsCounterReset() {
+        long t0 = 1_700_002_800_000L;
+        MetricsHistory history = new MetricsHistory(16);
+        history.record("http://a:80", t0, stats(100_000, 10_000));
+        history.record("http://a:80", t0 + 30_000L, stats(50, 40));
+
+        assertTrue(Double.isNaN(history.percentBlocked(List.of("http://a:80"), 60_000L, t0 + 30_000L)));
+    }
+
+    @Test
+    void testUpstreamResponseTimesAreRecordedPerUpstream() {
+        long t0 = 1_700_002_800_000L;
+        MetricsHistory history = new MetricsHistory(16);
+        history.recordUpstreams("http://a:80", t0, new UpstreamStats(List.of(
+                new UpstreamStats.Upstream("1.1.1.1#53", 30, 10.0),
+                new UpstreamStats.Upstream("9.9.9.9#53", 10, Double.NaN)), Double.NaN));
+        history.recordUpstreams("http://a:80", t0 + 60_000L, new UpstreamStats(List.of(
+                new UpstreamStats.Upstream("1.1.1.1#53", 30, 30.0)), Double.NaN));
+        history.recordUpstreams("http://b:80", t0, UpstreamStats.empty());
+
+        MetricsHistory.InstanceHistory a = history.get("http://a:80");
+        assertEquals(List.of("1.1.1.1#53"), a.upstreamNames());
+        assertEquals(2, a.upstreamResponseMs("1.1.1.1#53").size());
+        assertEquals(20.0, a.upstreamResponseMs().average(t0), 1e-9);
+        assertNull(history.get("http://b:80"));
+        // Upstream samples alone do not make a stats snapshot
+        assertNull(history.snapshot("http://a:80"));
+
+        assertEquals(30.0, history.upstreamResponseMs(List.of("http://a:80", "http://b:80"), 30_000L, t0 + 60_000L),
+                1e-9);
+        assertTrue(Double.isNaN(history.upstreamResponseMs(List.of("http://b:80"), 30_000L, t0 + 60_000L)));
+    }
+
+    @Test
+    void testUpstreamSeriesAreBounded() {
+        MetricsHistory history = new MetricsHistory(16);
+        for (int i = 0; i < MetricsHistory.MAX_UPSTREAMS + 3; i++) {
+            history.recordUpstreams("http://a:80", i, new UpstreamStats(List.of(
+                    new UpstreamStats.Upstream("10.0.0." + i + "#53", 1, 5.0)), Double.NaN));
+        }
+        assertEquals(MetricsHistory.MAX_UPSTREAMS, history.get("http://a:80").upstreamNames().size());
+    }
+}
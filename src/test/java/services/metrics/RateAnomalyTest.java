@@ -0,0 +1,40 @@
+package services.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the alert state transitions.
+ */
+class RateAnomalyTest {
+
+    private static final double THRESHOLD = 4.0;
+
+    @Test
+    void testRaisedWhenThresholdCrossed() {
+        assertEquals(RateAnomaly.QUERY_SPIKE, RateAnomaly.evaluate(RateAnomaly.NONE, 5.0, 0.0, THRESHOLD));
+        assertEquals(RateAnomaly.BLOCK_RATE_DROP, RateAnomaly.evaluate(RateAnomaly.NONE, 0.0, -6.0, THRESHOLD));
+        assertEquals(RateAnomaly.NONE, RateAnomaly.evaluate(RateAnomaly.NONE, 3.0, -3.0, THRESHOLD));
+    }
+
+    @Test
+    void testOnlyTheRelevantDirectionAlerts() {
+        // A quiet network or a blocking surge are not alerts
+        assertEquals(RateAnomaly.NONE, RateAnomaly.evaluate(RateAnomaly.NONE, -8.0, 8.0, THRESHOLD));
+    }
+
+    @Test
+    void testHysteresisKeepsAlertUntilHalfThreshold() {
+        assertEquals(RateAnomaly.QUERY_SPIKE, RateAnomaly.evaluate(RateAnomaly.QUERY_SPIKE, 3.0, 0.0, THRESHOLD));
+        assertEquals(RateAnomaly.NONE, RateAnomaly.evaluate(RateAnomaly.QUERY_SPIKE, 1.5, 0.0, THRESHOLD));
+        assertEquals(RateAnomaly.BLOCK_RATE_DROP,
+                RateAnomaly.evaluate(RateAnomaly.BLOCK_RATE_DROP, 0.0, -2.5, THRESHOLD));
+    }
+
+    @Test
+    void testNaNScoresNeverAlert() {
+        assertEquals(RateAnomaly.NONE,
+                RateAnomaly.evaluate(RateAnomaly.QUERY_SPIKE, Double.NaN, Double.NaN, THRESHOLD));
+    }
+}
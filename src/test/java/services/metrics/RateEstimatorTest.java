@@ -0,0 +1,96 @@
+package services.metrics;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for RateEstimator.
+ */
+class RateEstimatorTest {
+
+    // Aligned on an hour boundary so the tests control when an hour is crossed
+    private static final long T0 = 1_700_002_800_000L;
+
+    @Test
+    @DisplayName("Rate is unknown until two samples were seen")
+    void testNeedsTwoSamples() {
+        RateEstimator estimator = new RateEstimator();
+        assertTrue(Double.isNaN(estimator.update(T0, 100)));
+        assertEquals(10.0, estimator.update(T0 + 10_000, 200), 1e-9);
+    }
+
+    @Test
+    @DisplayName("Steady counter converges on its rate")
+    void testSteadyRate() {
+        RateEstimator estimator = new RateEstimator(30_000, 300_000);
+        double counter = 0;
+        for (int i = 0; i <= 60; i++) {
+            estimator.update(T0 + i * 5_000L, counter);
+            counter += 25; // 5 q/s
+        }
+        assertEquals(5.0, estimator.rate(), 1e-9);
+    }
+
+    @Test
+    @DisplayName("EWMA moves toward a new rate without jumping to it")
+    void testSmoothing() {
+        RateEstimator estimator = new RateEstimator(60_000, 300_000);
+        estimator.update(T0, 0);
+        estimator.update(T0 + 5_000, 50);      // 10 q/s
+        double rate = estimator.update(T0 + 10_000, 550); // 100 q/s instantaneous
+
+        assertTrue(rate > 10.0 && rate < 100.0, "rate was " + rate);
+    }
+
+    @Test
+    @DisplayName("Counter reset (midnight / FTL restart) keeps the previous rate")
+    void testCounterReset() {
+        RateEstimator estimator = new RateEstimator();
+        estimator.update(T0, 1000);
+        estimator.update(T0 + 10_000, 1100);
+        double before = estimator.rate();
+
+        assertEquals(before, estimator.update(T0 + 20_000, 5), 1e-9);
+        // Next pair measures from the new baseline
+        estimator.update(T0 + 30_000, 105);
+        assertEquals(10.0, estimator.rate(), 1e-9);
+    }
+
+    @Test
+    @DisplayName("Pairs straddling an hour boundary are not used")
+    void testHourRollover() {
+        RateEstimator estimator = new RateEstimator();
+        estimator.update(T0 + 3_590_000, 0);
+        estimator.update(T0 + 3_595_000, 50); // 10 q/s
+        // AdGuard drops its oldest hour: counter can move by anything here
+        assertEquals(10.0, estimator.update(T0 + 3_605_000, 20), 1e-9);
+    }
+
+    @Test
+    @DisplayName("Long gaps re-baseline instead of averaging over the gap")
+    void testLongGap() {
+        RateEstimator estimator = new RateEstimator(60_000, 60_000);
+        estimator.update(T0, 0);
+        estimator.update(T0 + 10_000, 100);
+        assertEquals(10.0, estimator.update(T0 + 200_000, 100_000), 1e-9);
+    }
+
+    @Test
+    void testDuplicateSampleIgnored() {
+        RateEstimator estimator = new RateEstimator();
+        estimator.update(T0, 0);
+        estimator.update(T0 + 10_000, 100);
+        assertEquals(10.0, estimator.update(T0 + 10_000, 500), 1e-9);
+    }
+
+    @Test
+    void testReset() {
+        RateEstimator estimator = new RateEstimator();
+        estimator.update(T0, 0);
+        estimator.update(T0 + 10_000, 100);
+        estimator.reset();
+        assertTrue(Double.isNaN(estimator.rate()));
+    }
+}
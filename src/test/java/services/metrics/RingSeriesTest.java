@@ -0,0 +1,146 @@
+package services.metrics;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for RingSeries.
+ */
+class RingSeriesTest {
+
+    @Test
+    @DisplayName("Empty series yields NaN for every windowed read")
+    void testEmptySeries() {
+        RingSeries series = new RingSeries(4);
+
+        assertTrue(series.isEmpty());
+        assertEquals(Long.MIN_VALUE, series.latestTime());
+        assertTrue(Double.isNaN(series.latestValue()));
+        assertTrue(Double.isNaN(series.min(0)));
+        assertTrue(Double.isNaN(series.max(0)));
+        assertTrue(Double.isNaN(series.average(0)));
+        assertTrue(Double.isNaN(series.ratePerSecond(0)));
+        assertEquals(0, series.count(0));
+    }
+
+    @Test
+    @DisplayName("Full ring overwrites the oldest samples")
+    void testWrapAround() {
+        RingSeries series = new RingSeries(3);
+        for (int i = 1; i <= 5; i++) {
+            series.append(i * 1000L, i);
+        }
+
+        assertEquals(3, series.size());
+        assertEquals(3.0, series.min(0));
+        assertEquals(5.0, series.max(0));
+        assertEquals(4.0, series.average(0));
+        assertEquals(5000L, series.latestTime());
+        assertEquals(5.0, series.latestValue());
+    }
+
+    @Test
+    @DisplayName("Windowed reads only cover samples at or after the window start")
+    void testWindowStart() {
+        RingSeries series = new RingSeries(8);
+        series.append(1000L, 10);
+        series.append(2000L, 2);
+        series.append(3000L, 6);
+        series.append(4000L, 4);
+
+        assertEquals(3, series.count(2000L));
+        assertEquals(2, series.count(2500L));
+        assertEquals(4.0, series.min(2500L));
+        assertEquals(6.0, series.max(2500L));
+        assertEquals(5.0, series.average(2500L));
+        assertEquals(0, series.count(5000L));
+    }
+
+    @Test
+    @DisplayName("Out-of-order samples are rejected")
+    void testRejectsOlderSamples() {
+        RingSeries series = new RingSeries(4);
+        assertTrue(series.append(2000L, 1));
+        assertFalse(series.append(1000L, 2));
+        assertTrue(series.append(2000L, 3));
+
+        assertEquals(2, series.size());
+        assertEquals(3.0, series.latestValue());
+    }
+
+    @Test
+    @DisplayName("appendIfNewer keeps a single copy of a sample")
+    void testAppendIfNewer() {
+        RingSeries series = new RingSeries(4);
+        assertTrue(series.appendIfNewer(2000L, 1));
+        assertFalse(series.appendIfNewer(2000L, 2));
+        assertFalse(series.appendIfNewer(1000L, 3));
+
+        assertEquals(1, series.size());
+        assertEquals(1.0, series.latestValue());
+    }
+
+    @Test
+    @DisplayName("Paired series stay in step under concurrent writers of the same samples")
+    void testPairedAppendIfNewerIsAtomic() throws InterruptedException {
+        RingSeries queries = new RingSeries(1_000);
+        RingSeries blocked = new RingSeries(1_000);
+        List<Thread> writers = new ArrayList<>();
+        for (int w = 0; w < 8; w++) {
+            writers.add(Thread.ofPlatform().start(() -> {
+                for (int i = 1; i <= 500; i++) {
+                    queries.appendIfNewer(i * 1000L, i, blocked, -i);
+                }
+            }));
+        }
+        for (Thread writer : writers) {
+            writer.join();
+        }
+
+        assertEquals(500, queries.size());
+        assertEquals(500, blocked.size());
+        List<Long> queryTimes = new ArrayList<>();
+        List<Long> blockedTimes = new ArrayList<>();
+        queries.forEach(0, (time, _) -> queryTimes.add(time));
+        blocked.forEach(0, (time, _) -> blockedTimes.add(time));
+        assertEquals(queryTimes, blockedTimes);
+    }
+
+    @Test
+    @DisplayName("Rate of a counter treats a decrease as a reset")
+    void testRateAcrossReset() {
+        RingSeries series = new RingSeries(8);
+        series.append(0L, 100);
+        series.append(10_000L, 200);
+        // Counter reset (midnight / restart), then grows again from zero
+        series.append(20_000L, 50);
+
+        // (100 + 50) over 20 s
+        assertEquals(7.5, series.ratePerSecond(0), 1e-9);
+        assertEquals(5.0, series.ratePerSecond(10_000L), 1e-9);
+        assertTrue(Double.isNaN(series.ratePerSecond(15_000L)));
+    }
+
+    @Test
+    @DisplayName("forEach visits the window oldest first, across the wrap point")
+    void testForEachOrder() {
+        RingSeries series = new RingSeries(3);
+        for (int i = 1; i <= 4; i++) {
+            series.append(i, i * 10);
+        }
+        List<Long> times = new ArrayList<>();
+        series.forEach(3L, (t, _) -> times.add(t));
+
+        assertEquals(List.of(3L, 4L), times);
+    }
+
+    @Test
+    void testInvalidCapacity() {
+        assertThrows(IllegalArgumentException.class, () -> new RingSeries(0));
+    }
+}
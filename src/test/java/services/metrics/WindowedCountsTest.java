@@ -0,0 +1,74 @@
+package services.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the bucketed recent-window counts.
+ */
+class WindowedCountsTest {
+
+    // Hour-aligned so the buckets start on round numbers
+    private static final long T0 = 1_700_002_800_000L;
+    private static final long MINUTE = 60_000L;
+
+    @Test
+    void testWindowSumsOnlyRecentBuckets() {
+        WindowedCounts counts = new WindowedCounts();
+        counts.add(T0, 100, 10);
+        counts.add(T0 + 4 * MINUTE, 100, 50);
+
+        assertEquals(100, counts.queries(MINUTE, T0 + 4 * MINUTE));
+        assertEquals(50.0, counts.percentBlocked(MINUTE, T0 + 4 * MINUTE), 1e-9);
+        assertEquals(30.0, counts.percentBlocked(5 * MINUTE, T0 + 4 * MINUTE), 1e-9);
+    }
+
+    @Test
+    void testSameBucketAccumulates() {
+        WindowedCounts counts = new WindowedCounts();
+        counts.add(T0 + 1_000L, 10, 1);
+        counts.add(T0 + 6_000L, 10, 3);
+
+        assertEquals(20, counts.queries(MINUTE, T0 + 9_000L));
+        assertEquals(4, counts.blocked(MINUTE, T0 + 9_000L));
+    }
+
+    @Test
+    void testBucketsAreRecycledAfterTheSpan() {
+        WindowedCounts counts = new WindowedCounts();
+        counts.add(T0, 100, 100);
+        // Same ring slot, one full span later
+        counts.add(T0 + counts.spanMillis(), 10, 0);
+
+        assertEquals(10, counts.queries(15 * MINUTE, T0 + counts.spanMillis()));
+        assertEquals(0.0, counts.percentBlocked(15 * MINUTE, T0 + counts.spanMillis()), 1e-9);
+    }
+
+    @Test
+    void testStaleSampleDoesNotOverwriteNewerBucket() {
+        WindowedCounts counts = new WindowedCounts();
+        counts.add(T0 + counts.spanMillis(), 10, 0);
+        counts.add(T0, 500, 500);
+
+        assertEquals(0, counts.blocked(15 * MINUTE, T0 + counts.spanMillis()));
+    }
+
+    @Test
+    void testEmptyWindowIsNaN() {
+        WindowedCounts counts = new WindowedCounts();
+        counts.add(T0, 100, 10);
+
+        assertTrue(Double.isNaN(counts.percentBlocked(MINUTE, T0 + 10 * MINUTE)));
+        assertTrue(Double.isNaN(WindowedCounts.percent(0, 0)));
+    }
+
+    @Test
+    void testWindowLongerThanSpanIsClamped() {
+        WindowedCounts counts = new WindowedCounts();
+        counts.add(T0, 100, 10);
+
+        assertEquals(100, counts.queries(60 * MINUTE, T0 + 14 * MINUTE));
+        assertEquals(0, counts.queries(60 * MINUTE, T0 + 16 * MINUTE));
+    }
+}
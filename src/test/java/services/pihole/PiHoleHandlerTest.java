@@ -18,6 +18,7 @@ import java.time.Clock;
 import java.time.Instant;
 import java.time.ZoneOffset;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
@@ -26,6 +27,14 @@ import java.util.concurrent.atomic.AtomicReference;
 
 import com.sun.net.httpserver.HttpExchange;
 import com.sun.net.httpserver.HttpServer;
+import services.polling.DataRequirement;
+import services.polling.Endpoint;
+import services.polling.EndpointKey;
+import services.polling.Metric;
+import services.polling.PollGroup;
+import services.polling.PollPlan;
+import services.polling.RequestPlanner;
+import services.polling.TileRequirements;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -149,6 +158,42 @@ class PiHoleHandlerTest {
         assertEquals("Gravity: 1h 0m ago", formatted);
     }
 
+    @Test
+    void pollTickRequestsSummaryOnceForStatsAndGravity() {
+        Instant now = Instant.parse("2025-01-01T00:00:00Z");
+        long lastUpdate = Instant.parse("2024-12-31T23:00:00Z").getEpochSecond();
+        AtomicInteger summaryCalls = new AtomicInteger();
+        server.createContext("/api/stats/summary", exchange -> {
+            summaryCalls.incrementAndGet();
+            respondJson(exchange, 200, "{\"queries\":{\"total\":100,\"blocked\":25},"
+                    + "\"gravity\":{\"last_update\":" + lastUpdate + "},\"took\":0.001}");
+        });
+
+        PiHoleHandler handler = new PiHoleHandler(
+                DnsBlockerConfig.forPiHole("localhost", port, "http", "pw"),
+                new HttpClientUtil(),
+                Clock.fixed(now, ZoneOffset.UTC),
+                false,
+                false);
+        handler.setSessionId("S");
+
+        PollPlan plan = RequestPlanner.plan(List.of(
+                TileRequirements.of("status", DataRequirement.of(Metric.TOTAL_QUERIES, 5)),
+                TileRequirements.of("led", DataRequirement.of(Metric.GRAVITY_LAST_UPDATE, 60))),
+                1, (instance, endpoint) -> endpoint.resource(handler));
+        PollGroup group = plan.groups().getFirst();
+        assertEquals(1, plan.groups().size());
+
+        List<Endpoint> endpoints = group.endpoints().stream().map(EndpointKey::endpoint).toList();
+        List<List<Endpoint>> batches = Endpoint.byResource(handler, endpoints);
+        assertEquals(1, batches.size());
+        Map<Endpoint, String> results = Endpoint.fetchAll(handler, batches.getFirst(), 5);
+
+        assertEquals(1, summaryCalls.get());
+        assertTrue(results.get(Endpoint.STATS).contains("\"total\":100"));
+        assertEquals("Gravity: 1h 0m ago", results.get(Endpoint.GRAVITY_LAST_UPDATE));
+    }
+
     @Test
     void getPiHoleStatsOmitsSidWhenSessionIsMissing() {
         AtomicReference<String> queryRef = new AtomicReference<>();
@@ -235,6 +280,25 @@ class PiHoleHandlerTest {
         assertTrue(query.contains("sid=SIDXYZ"));
     }
 
+    @Test
+    void getDnsBlockingStatusKeepsTimerOfTimedDisable() {
+        server.createContext("/api/dns/blocking", exchange ->
+                respondJson(exchange, 200, "{\"blocking\":\"disabled\",\"timer\":42.5,\"took\":0.001}"));
+
+        PiHoleHandler handler = new PiHoleHandler(
+                DnsBlockerConfig.forPiHole("localhost", port, "http", "pw"),
+                new HttpClientUtil(),
+                Clock.fixed(Instant.EPOCH, ZoneOffset.UTC),
+                false,
+                false);
+        handler.setSessionId("SIDXYZ");
+
+        String json = handler.getDnsBlockingStatus();
+
+        assertTrue(json.contains("\"enabled\":false"));
+        assertTrue(json.contains("\"timer\":42.5"));
+    }
+
     // ==================== Session Expiry and Retry Tests ====================
 
     @Nested
@@ -490,6 +554,140 @@ class PiHoleHandlerTest {
         }
     }
 
+    @Test
+    void getHistoryAlignsSlotsAndReturnsGenericSchema() {
+        server.createContext("/api/history", exchange -> respondJson(exchange, 200,
+                "{\"history\":[{\"timestamp\":1700000300.0,\"total\":120,\"cached\":5,\"blocked\":30,\"forwarded\":85}],"
+                        + "\"took\":0.001}"));
+
+        PiHoleHandler handler = new PiHoleHandler(
+                DnsBlockerConfig.forPiHole("localhost", port, "http", "pw"),
+                new HttpClientUtil(),
+                Clock.fixed(Instant.EPOCH, ZoneOffset.UTC),
+                false,
+                false);
+        handler.setSessionId("SID123");
+
+        String json = handler.getHistory();
+
+        assertTrue(json.contains("\"schema\":\"dnsblocker.history.v1\""));
+        assertTrue(json.contains("\"bucket_seconds\":600"));
+        // Middle-of-slot timestamp is re-aligned on the slot start
+        assertTrue(json.contains("{\"start\":1699999800,\"total\":120,\"blocked\":30}"));
+    }
+
+    @Test
+    void getDomainQueriesReturnsGenericPageWithCursor() {
+        AtomicReference<String> query = new AtomicReference<>();
+        server.createContext("/api/queries", exchange -> {
+            query.set(exchange.getRequestURI().getQuery());
+            respondJson(exchange, 200,
+                    "{\"queries\":["
+                            + "{\"time\":1700000300.5,\"domain\":\"ads.example\",\"status\":\"GRAVITY\","
+                            + "\"client\":{\"ip\":\"10.0.0.2\",\"name\":\"laptop\"},\"list_id\":3},"
+                            + "{\"time\":1700000200.0,\"domain\":\"ads.example\",\"status\":\"FORWARDED\","
+                            + "\"client\":{\"ip\":\"10.0.0.3\",\"name\":null},\"list_id\":null}],"
+                            + "\"cursor\":4242,\"recordsTotal\":900,\"recordsFiltered\":10,\"took\":0.001}");
+        });
+
+        PiHoleHandler handler = new PiHoleHandler(
+                DnsBlockerConfig.forPiHole("localhost", port, "http", "pw"),
+                new HttpClientUtil(),
+                Clock.fixed(Instant.EPOCH, ZoneOffset.UTC),
+                false,
+                false);
+        handler.setSessionId("SID123");
+
+        String json = handler.getDomainQueries("ads.example", "4242:2", 2);
+
+        assertTrue(query.get().contains("domain=ads.example"));
+        assertTrue(query.get().contains("cursor=4242"));
+        assertTrue(query.get().contains("start=2"));
+        assertTrue(json.contains("\"schema\":\"dnsblocker.queries.v1\""));
+        assertTrue(json.contains("{\"time\":1700000300,\"client\":\"10.0.0.2\",\"client_name\":\"laptop\","
+                + "\"blocked\":true,\"status\":\"GRAVITY\",\"list\":\"gravity #3\"}"));
+        assertTrue(json.contains("\"blocked\":false,\"status\":\"FORWARDED\"}"));
+        assertTrue(json.contains("\"next_cursor\":\"4242:4\""));
+    }
+
+    @Test
+    void getTopXClientsAndClientNamesReturnGenericSchemas() {
+        AtomicReference<String> query = new AtomicReference<>();
+        server.createContext("/api/stats/top_clients", exchange -> {
+            query.set(exchange.getRequestURI().getQuery());
+            respondJson(exchange, 200, "{\"clients\":[{\"name\":\"laptop\",\"ip\":\"10.0.0.2\",\"count\":12},"
+                    + "{\"name\":\"\",\"ip\":\"10.0.0.3\",\"count\":4}],\"took\":0.001}");
+        });
+        server.createContext("/api/network/devices", exchange -> respondJson(exchange, 200,
+                "{\"devices\":[{\"id\":1,\"hwaddr\":\"aa:bb\",\"ips\":[{\"ip\":\"10.0.0.2\",\"name\":\"laptop\"},"
+                        + "{\"ip\":\"fe80::2\",\"name\":null}]}],\"took\":0.001}"));
+
+        PiHoleHandler handler = new PiHoleHandler(
+                DnsBlockerConfig.forPiHole("localhost", port, "http", "pw"),
+                new HttpClientUtil(),
+                Clock.fixed(Instant.EPOCH, ZoneOffset.UTC),
+                false,
+                false);
+        handler.setSessionId("SID123");
+
+        String clients = handler.getTopXClients(2);
+        assertTrue(query.get().contains("count=2"));
+        assertTrue(clients.contains("\"schema\":\"dnsblocker.top_clients.v1\""));
+        assertTrue(clients.contains("{\"ip\":\"10.0.0.2\",\"name\":\"laptop\",\"count\":12}"));
+        assertTrue(clients.contains("{\"ip\":\"10.0.0.3\",\"name\":\"\",\"count\":4}"));
+
+        String names = handler.getClientNames();
+        assertTrue(names.contains("\"schema\":\"dnsblocker.client_names.v1\""));
+        assertTrue(names.contains("{\"ip\":\"10.0.0.2\",\"name\":\"laptop\"}"));
+        assertFalse(names.contains("fe80::2"));
+    }
+
+    @Test
+    void getDomainQueriesEndsOnLastPage() {
+        server.createContext("/api/queries", exchange -> respondJson(exchange, 200,
+                "{\"queries\":[{\"time\":1700000300.5,\"status\":\"CACHE\",\"client\":{\"ip\":\"10.0.0.2\"}}],"
+                        + "\"cursor\":7,\"recordsFiltered\":1,\"took\":0.001}"));
+
+        PiHoleHandler handler = new PiHoleHandler(
+                DnsBlockerConfig.forPiHole("localhost", port, "http", "pw"),
+                new HttpClientUtil(),
+                Clock.fixed(Instant.EPOCH, ZoneOffset.UTC),
+                false,
+                false);
+        handler.setSessionId("SID123");
+
+        assertTrue(handler.getDomainQueries("ads.example", null, 50).contains("\"next_cursor\":null"));
+        assertEquals("", handler.getDomainQueries("ads.example", "not-a-cursor", 50));
+    }
+
+    @Test
+    void getUpstreamsSkipsBlocklistAndCache() {
+        server.createContext("/api/stats/upstreams", exchange -> respondJson(exchange, 200,
+                "{\"upstreams\":[{\"ip\":\"blocklist\",\"name\":\"blocklist\",\"port\":-1,\"count\":40,"
+                        + "\"statistics\":{\"response\":0,\"variance\":0}},"
+                        + "{\"ip\":\"cache\",\"name\":\"cache\",\"port\":-1,\"count\":30,"
+                        + "\"statistics\":{\"response\":0,\"variance\":0}},"
+                        + "{\"ip\":\"8.8.8.8\",\"name\":\"dns.google\",\"port\":53,\"count\":20,"
+                        + "\"statistics\":{\"response\":0.25,\"variance\":0.01}},"
+                        + "{\"ip\":\"9.9.9.9\",\"name\":null,\"port\":53,\"count\":10}],"
+                        + "\"forwarded_queries\":30,\"total_queries\":100,\"took\":0.001}"));
+
+        PiHoleHandler handler = new PiHoleHandler(
+                DnsBlockerConfig.forPiHole("localhost", port, "http", "pw"),
+                new HttpClientUtil(),
+                Clock.fixed(Instant.EPOCH, ZoneOffset.UTC),
+                false,
+                false);
+        handler.setSessionId("SID123");
+
+        String upstreams = handler.getUpstreams();
+        assertTrue(upstreams.contains("\"schema\":\"dnsblocker.upstreams.v1\""));
+        assertTrue(upstreams.contains("{\"name\":\"dns.google#53\",\"count\":20,\"response_ms\":250.0}"));
+        assertTrue(upstreams.contains("{\"name\":\"9.9.9.9#53\",\"count\":10}"));
+        assertFalse(upstreams.contains("blocklist"));
+        assertFalse(upstreams.contains("cache"));
+    }
+
     private void respondJson(HttpExchange exchange, int status, String body) throws IOException {
         byte[] bytes = body == null ? new byte[0] : body.getBytes();
         exchange.getResponseHeaders().add("Content-Type", "application/json");
@@ -0,0 +1,136 @@
+package services.polling;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for RequestPlanner.
+ */
+class RequestPlannerTest {
+
+    private static final TileRequirements STATUS = TileRequirements.of("status",
+            DataRequirement.of(Metric.TOTAL_QUERIES, 5),
+            DataRequirement.of(Metric.BLOCKED_QUERIES, 5),
+            DataRequirement.of(Metric.LAST_BLOCKED_DOMAIN, 5));
+    private static final TileRequirements FLUID = TileRequirements.of("fluid",
+            DataRequirement.of(Metric.PERCENT_BLOCKED, 15));
+    private static final TileRequirements LED = TileRequirements.of("led",
+            DataRequirement.of(Metric.INSTANCE_REACHABLE, 60),
+            DataRequirement.of(Metric.BLOCKING_ENABLED, 60),
+            DataRequirement.of(Metric.API_VERSION, 60),
+            DataRequirement.of(Metric.GRAVITY_LAST_UPDATE, 60));
+
+    @Test
+    @DisplayName("Shared endpoint is polled once at the tightest freshness")
+    void testSharedEndpointDeduplicated() {
+        PollPlan plan = RequestPlanner.plan(List.of(STATUS, FLUID, LED), 1);
+
+        EndpointKey stats = new EndpointKey(0, Endpoint.STATS);
+        PollGroup group = plan.groupOf(stats).orElseThrow();
+        assertEquals(Duration.ofSeconds(5), group.interval());
+        assertEquals(Set.of("status", "fluid", "led"), group.tileIds());
+
+        long statsPolls = plan.groups().stream()
+                .flatMap(g -> g.endpoints().stream())
+                .filter(stats::equals)
+                .count();
+        assertEquals(1, statsPolls);
+    }
+
+    @Test
+    @DisplayName("Endpoints read from one resource are polled together at its tightest freshness")
+    void testSharedResourceAlignsIntervals() {
+        RequestPlanner.Resources summary = (instance, endpoint) ->
+                endpoint == Endpoint.GRAVITY_LAST_UPDATE ? Endpoint.STATS.name() : endpoint.name();
+        PollPlan plan = RequestPlanner.plan(List.of(STATUS, LED), 1, summary);
+
+        PollGroup group = plan.groupOf(new EndpointKey(0, Endpoint.STATS)).orElseThrow();
+        assertEquals(Duration.ofSeconds(5), group.interval());
+        assertTrue(group.endpoints().contains(new EndpointKey(0, Endpoint.GRAVITY_LAST_UPDATE)));
+        assertEquals(Duration.ofSeconds(60),
+                plan.groupOf(new EndpointKey(0, Endpoint.VERSION)).orElseThrow().interval());
+    }
+
+    @Test
+    void testEndpointCountIsMinimal() {
+        PollPlan plan = RequestPlanner.plan(List.of(STATUS, FLUID, LED), 1);
+        // STATS, LAST_BLOCKED, BLOCKING_STATUS, VERSION, GRAVITY_LAST_UPDATE
+        assertEquals(5, plan.endpointCount());
+    }
+
+    @Test
+    void testAddingTileWithKnownMetricsAddsNoEndpoints() {
+        PollPlan before = RequestPlanner.plan(List.of(STATUS, LED), 2);
+        PollPlan after = RequestPlanner.plan(List.of(STATUS, LED, FLUID), 2);
+        assertEquals(before.endpointCount(), after.endpointCount());
+    }
+
+    @Test
+    void testGroupsOrderedByInterval() {
+        PollPlan plan = RequestPlanner.plan(List.of(LED, STATUS), 1);
+        assertEquals(2, plan.groups().size());
+        assertEquals(Duration.ofSeconds(5), plan.groups().get(0).interval());
+        assertEquals(Duration.ofSeconds(60), plan.groups().get(1).interval());
+        assertEquals(Set.of("led"), plan.groups().get(1).tileIds());
+    }
+
+    @Test
+    void testAllInstanceMetricsFanOutPrimaryOnlyDoNot() {
+        PollPlan plan = RequestPlanner.plan(List.of(STATUS), 2);
+        List<EndpointKey> sources = plan.endpointsFor("status");
+
+        assertTrue(sources.contains(new EndpointKey(0, Endpoint.STATS)));
+        assertTrue(sources.contains(new EndpointKey(1, Endpoint.STATS)));
+        assertTrue(sources.contains(new EndpointKey(0, Endpoint.LAST_BLOCKED)));
+        assertFalse(sources.contains(new EndpointKey(1, Endpoint.LAST_BLOCKED)));
+    }
+
+    @Test
+    void testEndpointsForSingleTile() {
+        List<EndpointKey> keys = RequestPlanner.endpointsFor(FLUID, 2);
+        assertEquals(List.of(new EndpointKey(0, Endpoint.STATS), new EndpointKey(1, Endpoint.STATS)), keys);
+    }
+
+    @Test
+    void testEmptyInputs() {
+        assertEquals(0, RequestPlanner.plan(List.of(), 1).endpointCount());
+        assertEquals(0, RequestPlanner.plan(List.of(STATUS), 0).endpointCount());
+        assertTrue(RequestPlanner.plan(null, 1).groups().isEmpty());
+        assertTrue(RequestPlanner.endpointsFor(null, 1).isEmpty());
+    }
+
+    @Test
+    void testInvalidRequirementRejected() {
+        assertThrows(IllegalArgumentException.class, () -> DataRequirement.of(Metric.TOTAL_QUERIES, 0));
+        assertThrows(NullPointerException.class, () -> new DataRequirement(null, Duration.ofSeconds(1)));
+        assertThrows(IllegalArgumentException.class, () -> new EndpointKey(-1, Endpoint.STATS));
+    }
+
+    @Test
+    void testEndpointFetchWithoutHandler() {
+        assertEquals("", Endpoint.STATS.fetch(null, 5));
+    }
+
+    @Test
+    void testEndpointCacheDefaultsToEmpty() {
+        EndpointCache cache = new EndpointCache();
+        assertEquals("", cache.get(0, Endpoint.STATS));
+        assertNull(cache.entry(0, Endpoint.STATS));
+
+        cache.put(new EndpointKey(0, Endpoint.STATS), "{}");
+        assertEquals("{}", cache.get(0, Endpoint.STATS));
+        assertNotNull(cache.entry(0, Endpoint.STATS).fetchedAt());
+
+        cache.put(new EndpointKey(0, Endpoint.VERSION), null);
+        assertEquals("", cache.get(0, Endpoint.VERSION));
+
+        cache.clear();
+        assertEquals("", cache.get(0, Endpoint.STATS));
+    }
+}
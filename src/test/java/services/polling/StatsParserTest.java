@@ -0,0 +1,113 @@
+package services.polling;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for StatsParser.
+ */
+class StatsParserTest {
+
+    @Test
+    void testParseGenericStats() {
+        String json = """
+                {"schema":"dnsblocker.stats.v1","num_dns_queries":200,"num_blocked_filtering":50,
+                 "blocklist":{"size":1234},"blocking":{"enabled":true}}
+                """;
+
+        SummaryStats stats = StatsParser.parseSummaryStats(json);
+
+        assertTrue(stats.active());
+        assertEquals(200L, stats.totalQueries());
+        assertEquals(50L, stats.blockedQueries());
+        assertEquals(25.0, stats.percentBlocked(), 1e-9);
+        assertEquals(1234L, stats.domainsBlocked());
+        assertEquals(Boolean.TRUE, stats.dnsBlockingEnabled());
+    }
+
+    @Test
+    void testParseEmptyOrMalformedStats() {
+        assertFalse(StatsParser.parseSummaryStats("").active());
+        assertFalse(StatsParser.parseSummaryStats(null).active());
+        assertFalse(StatsParser.parseSummaryStats("{not json").active());
+    }
+
+    @Test
+    void testParseDnsBlockingEnabled() {
+        assertEquals(Boolean.FALSE, StatsParser.parseDnsBlockingEnabled("{\"status\":\"disabled\"}"));
+        assertEquals(Boolean.TRUE, StatsParser.parseDnsBlockingEnabled("{\"blocking\":\"enabled\"}"));
+        assertNull(StatsParser.parseDnsBlockingEnabled("{}"));
+        assertNull(StatsParser.parseDnsBlockingEnabled(""));
+    }
+
+    @Test
+    void testParseBlockingTimer() {
+        assertEquals(29.5, StatsParser.parseBlockingTimer("{\"blocking\":{\"enabled\":false,\"timer\":29.5}}"));
+        assertEquals(60.0, StatsParser.parseBlockingTimer("{\"blocking\":\"disabled\",\"timer\":60}"));
+        assertNull(StatsParser.parseBlockingTimer("{\"blocking\":\"enabled\",\"timer\":null}"));
+        assertNull(StatsParser.parseBlockingTimer("{\"blocking\":{\"enabled\":false,\"timer\":0}}"));
+        assertNull(StatsParser.parseBlockingTimer("not json"));
+    }
+
+    @Test
+    void testParseTopBlockedDomains() {
+        List<TopDomain> piHole = StatsParser.parseTopBlockedDomains(
+                "{\"domains\":[{\"domain\":\"ads.com\",\"count\":3},{\"domain\":\"\",\"count\":1}]}");
+        assertEquals(List.of(new TopDomain("ads.com", 3)), piHole);
+
+        List<TopDomain> adGuard = StatsParser.parseTopBlockedDomains("{\"top_ads\":{\"t.com\":7}}");
+        assertEquals(List.of(new TopDomain("t.com", 7)), adGuard);
+
+        assertTrue(StatsParser.parseTopBlockedDomains("{}").isEmpty());
+    }
+
+    @Test
+    void testParseTopClientsAndNames() {
+        List<TopClient> clients = StatsParser.parseTopClients("{\"schema\":\"dnsblocker.top_clients.v1\",\"clients\":["
+                + "{\"ip\":\"10.0.0.2\",\"name\":\"laptop\",\"count\":12},{\"ip\":\"\",\"count\":1},"
+                + "{\"ip\":\"10.0.0.3\",\"count\":-4}]}");
+        assertEquals(List.of(new TopClient("10.0.0.2", "laptop", 12), new TopClient("10.0.0.3", "", 0)), clients);
+
+        assertEquals(Map.of("10.0.0.2", "laptop"), StatsParser.parseClientNames(
+                "{\"clients\":[{\"ip\":\"10.0.0.2\",\"name\":\"laptop\"},{\"ip\":\"10.0.0.3\",\"name\":\"\"}]}"));
+
+        assertTrue(StatsParser.parseTopClients("").isEmpty());
+        assertTrue(StatsParser.parseClientNames("not json").isEmpty());
+    }
+
+    @Test
+    void testParseUpstreams() {
+        UpstreamStats stats = StatsParser.parseUpstreams("{\"schema\":\"dnsblocker.upstreams.v1\",\"upstreams\":["
+                + "{\"name\":\"9.9.9.9#53\",\"count\":10},{\"name\":\"\",\"count\":5},"
+                + "{\"name\":\"1.1.1.1#53\",\"count\":30,\"response_ms\":20.0}],\"processing_ms\":1.5}");
+
+        assertEquals(List.of("1.1.1.1#53", "9.9.9.9#53"),
+                stats.upstreams().stream().map(UpstreamStats.Upstream::name).toList());
+        assertTrue(Double.isNaN(stats.upstreams().get(1).responseMs()));
+        assertEquals(1.5, stats.processingMs(), 1e-9);
+        assertEquals(75.0, stats.sharePercent(stats.upstreams().get(0)), 1e-9);
+        // Upstreams without a time do not drag the weighted mean down
+        assertEquals(20.0, stats.responseMs(), 1e-9);
+
+        assertTrue(StatsParser.parseUpstreams("").isEmpty());
+        assertTrue(Double.isNaN(StatsParser.parseUpstreams("not json").processingMs()));
+    }
+
+    @Test
+    void testMergeUpstreamsWeightsByCount() {
+        UpstreamStats a = new UpstreamStats(List.of(new UpstreamStats.Upstream("1.1.1.1#53", 30, 10.0)), 1.0);
+        UpstreamStats b = new UpstreamStats(List.of(new UpstreamStats.Upstream("1.1.1.1#53", 10, 50.0),
+                new UpstreamStats.Upstream("8.8.8.8#53", 60, 5.0)), Double.NaN);
+
+        UpstreamStats merged = UpstreamStats.merge(List.of(a, b));
+
+        assertEquals(List.of(new UpstreamStats.Upstream("8.8.8.8#53", 60, 5.0),
+                new UpstreamStats.Upstream("1.1.1.1#53", 40, 20.0)), merged.upstreams());
+        assertEquals(1.0, merged.processingMs(), 1e-9);
+        assertEquals(11.0, merged.responseMs(), 1e-9);
+    }
+}
@@ -0,0 +1,181 @@
+package services.queries;
+
+import org.junit.jupiter.api.Test;
+import services.DnsBlockerHandler;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for DomainQueryLoader.
+ */
+class DomainQueryLoaderTest {
+
+    private static final long NOW = 1_700_002_800_000L;
+    private static final Clock CLOCK = Clock.fixed(Instant.ofEpochMilli(NOW), ZoneOffset.UTC);
+
+    /**
+     * Handler serving generated pages; page {@code n} is built by {@code pages}, a null page is a failure.
+     */
+    private static final class PagedHandler implements DnsBlockerHandler {
+        private final IntFunction<String> pages;
+        private final AtomicInteger calls = new AtomicInteger();
+
+        PagedHandler(IntFunction<String> pages) {
+            this.pages = pages;
+        }
+
+        @Override
+        public String getDomainQueries(String domain, String cursor, int pageSize) {
+            int page = cursor == null ? 0 : Integer.parseInt(cursor);
+            calls.incrementAndGet();
+            String json = pages.apply(page);
+            return json == null ? "" : json;
+        }
+
+        // @formatter:off
+        @Override public boolean authenticate() { return true; }
+        @Override public String getStats() { return ""; }
+        @Override public String getLastBlocked() { return ""; }
+        @Override public String getVersion() { return ""; }
+        @Override public String getTopXBlocked(int count) { return ""; }
+        @Override public String getGravityLastUpdate() { return ""; }
+        @Override public String setDnsBlocking(boolean blocking, Integer timerSeconds) { return ""; }
+        @Override public String getDnsBlockingStatus() { return ""; }
+        // @formatter:on
+    }
+
+    /**
+     * A page of {@code count} blocked queries, one minute apart, starting {@code page * count} minutes ago.
+     */
+    private static String page(int page, int count, boolean more) {
+        StringBuilder json = new StringBuilder("{\"queries\":[");
+        for (int i = 0; i < count; i++) {
+            long time = (NOW - (long) (page * count + i) * 60_000L) / 1000L;
+            json.append(i == 0 ? "" : ",")
+                    .append("{\"time\":").append(time)
+                    .append(",\"client\":\"10.0.0.").append(i % 3)
+                    .append("\",\"blocked\":true,\"list\":\"gravity #1\"}");
+        }
+        return json.append("],\"next_cursor\":").append(more ? "\"" + (page + 1) + "\"" : "null").append('}')
+                .toString();
+    }
+
+    private static List<DomainSummary> load(DomainQueryLoader loader, List<DnsBlockerHandler> handlers) {
+        List<DomainSummary> updates = new ArrayList<>();
+        loader.load("ads.example", handlers, updates::add);
+        return updates;
+    }
+
+    @Test
+    void testPublishesEveryPageThenFinalSummary() {
+        PagedHandler handler = new PagedHandler(n -> page(n, 10, n < 2));
+        DomainQueryLoader loader = new DomainQueryLoader(Runnable::run, CLOCK, 10, 10);
+
+        List<DomainSummary> updates = load(loader, List.of(handler));
+
+        assertEquals(4, updates.size());
+        assertEquals(10, updates.get(0).total());
+        assertEquals(DomainSummary.Status.LOADING, updates.get(0).status());
+        DomainSummary last = updates.get(3);
+        assertEquals(DomainSummary.Status.COMPLETE, last.status());
+        assertEquals(30, last.total());
+        assertEquals(3, last.clientCount());
+        assertEquals(3, handler.calls.get());
+    }
+
+    @Test
+    void testStopsAtPageLimit() {
+        PagedHandler handler = new PagedHandler(n -> page(n, 10, true));
+        DomainQueryLoader loader = new DomainQueryLoader(Runnable::run, CLOCK, 10, 2);
+
+        List<DomainSummary> updates = load(loader, List.of(handler));
+
+        assertEquals(2, handler.calls.get());
+        assertEquals(DomainSummary.Status.TRUNCATED, updates.get(updates.size() - 1).status());
+    }
+
+    @Test
+    void testStopsAtWindowStart() {
+        // 100 queries per page are 100 minutes; NOW is on the hour, so the window
+        // starts 23h = 1380 minutes back, within the 14th page
+        PagedHandler handler = new PagedHandler(n -> page(n, 100, true));
+        DomainQueryLoader loader = new DomainQueryLoader(Runnable::run, CLOCK, 100, 50);
+
+        List<DomainSummary> updates = load(loader, List.of(handler));
+
+        assertEquals(14, handler.calls.get());
+        assertEquals(DomainSummary.Status.COMPLETE, updates.get(updates.size() - 1).status());
+    }
+
+    @Test
+    void testMergesInstancesAndSurvivesOneFailure() {
+        PagedHandler ok = new PagedHandler(n -> page(n, 5, false));
+        PagedHandler down = new PagedHandler(_ -> null);
+        DomainQueryLoader loader = new DomainQueryLoader(Runnable::run, CLOCK, 10, 10);
+
+        DomainSummary last = load(loader, List.of(ok, down)).getLast();
+
+        assertEquals(DomainSummary.Status.COMPLETE, last.status());
+        assertEquals(5, last.total());
+    }
+
+    @Test
+    void testFinishedSummaryIsCachedButFailureIsNot() {
+        PagedHandler handler = new PagedHandler(n -> page(n, 5, false));
+        DomainQueryLoader loader = new DomainQueryLoader(Runnable::run, CLOCK, 10, 10);
+
+        load(loader, List.of(handler));
+        List<DomainSummary> cached = load(loader, List.of(handler));
+        assertEquals(1, handler.calls.get());
+        assertEquals(1, cached.size());
+        assertEquals(DomainSummary.Status.COMPLETE, cached.get(0).status());
+
+        loader.invalidate();
+        load(loader, List.of(handler));
+        assertEquals(2, handler.calls.get());
+
+        PagedHandler down = new PagedHandler(_ -> null);
+        DomainQueryLoader failing = new DomainQueryLoader(Runnable::run, CLOCK, 10, 10);
+        assertEquals(DomainSummary.Status.FAILED, load(failing, List.of(down)).getLast().status());
+        load(failing, List.of(down));
+        assertEquals(2, down.calls.get());
+    }
+
+    @Test
+    void testCancelStopsLoading() throws Exception {
+        List<DomainSummary> updates = new CopyOnWriteArrayList<>();
+        AtomicInteger calls = new AtomicInteger();
+        PagedHandler slow = new PagedHandler(n -> {
+            calls.incrementAndGet();
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return null;
+            }
+            return page(n, 10, true);
+        });
+        DomainQueryLoader loader = new DomainQueryLoader(
+                task -> Thread.ofVirtual().start(task), CLOCK, 10, 1_000);
+
+        Future<?> load = loader.load("ads.example", List.of(slow), updates::add);
+        TimeUnit.MILLISECONDS.sleep(120);
+        load.cancel(true);
+        int callsAtCancel = calls.get();
+        TimeUnit.MILLISECONDS.sleep(150);
+
+        assertTrue(calls.get() <= callsAtCancel + 1);
+        assertTrue(updates.stream().noneMatch(s -> s.status().isFinal()));
+    }
+}
@@ -0,0 +1,80 @@
+package services.queries;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for QueryPage parsing and DomainSummary accumulation.
+ */
+class DomainSummaryTest {
+
+    private static final long HOUR = DomainSummary.BUCKET_MILLIS;
+    // 10:30 in some hour; the window ends with that hour
+    private static final long NOW = 1_700_002_800_000L + HOUR / 2;
+
+    private static QueryRecord query(long time, String client, boolean blocked, String list) {
+        return new QueryRecord(time, client, "", blocked, list);
+    }
+
+    @Test
+    void testParseGenericPage() {
+        Optional<QueryPage> page = QueryPage.parse("{\"schema\":\"dnsblocker.queries.v1\",\"queries\":["
+                + "{\"time\":1700000300,\"client\":\"10.0.0.2\",\"client_name\":\"laptop\",\"blocked\":true,"
+                + "\"status\":\"GRAVITY\",\"list\":\"gravity #3\"}],\"next_cursor\":\"7:1\"}");
+
+        assertTrue(page.isPresent());
+        assertTrue(page.get().hasMore());
+        assertEquals(List.of(new QueryRecord(1_700_000_300_000L, "10.0.0.2", "laptop", true, "gravity #3")),
+                page.get().queries());
+        assertEquals("laptop", page.get().queries().get(0).clientLabel());
+    }
+
+    @Test
+    void testParseLastAndFailedPages() {
+        Optional<QueryPage> last = QueryPage.parse("{\"queries\":[],\"next_cursor\":null}");
+        assertTrue(last.isPresent());
+        assertFalse(last.get().hasMore());
+
+        assertTrue(QueryPage.parse("").isEmpty());
+        assertTrue(QueryPage.parse("not json").isEmpty());
+        assertTrue(QueryPage.parse("{\"data\":[]}").isEmpty());
+    }
+
+    @Test
+    void testAccumulatorBucketsClientsAndLists() {
+        DomainSummary.Accumulator accumulator = new DomainSummary.Accumulator("ads.example", NOW);
+        long currentHour = NOW - HOUR / 2;
+
+        assertTrue(accumulator.add(query(NOW, "a", true, "gravity #1")));
+        assertTrue(accumulator.add(query(NOW - HOUR, "a", true, "gravity #1")));
+        assertTrue(accumulator.add(query(NOW - HOUR, "b", false, "")));
+        assertTrue(accumulator.add(query(currentHour - 23 * HOUR, "c", true, "regex #2")));
+        assertFalse(accumulator.add(query(currentHour - 23 * HOUR - 1, "d", true, "x")));
+
+        DomainSummary summary = accumulator.snapshot(DomainSummary.Status.COMPLETE);
+        assertEquals(4, summary.total());
+        assertEquals(3, summary.blocked());
+        assertEquals(3, summary.clientCount());
+        assertEquals(new DomainSummary.Count("a", 2), summary.clients().get(0));
+        assertEquals(List.of(new DomainSummary.Count("gravity #1", 2), new DomainSummary.Count("regex #2", 1)),
+                summary.lists());
+
+        assertEquals(DomainSummary.BUCKETS, summary.timeline().size());
+        assertEquals(currentHour - 23 * HOUR, summary.timeline().get(0).startMillis());
+        assertEquals(1, summary.timeline().get(0).queries());
+        assertEquals(2, summary.timeline().get(22).queries());
+        assertEquals(1, summary.timeline().get(22).blocked());
+        assertEquals(1, summary.timeline().get(23).queries());
+    }
+
+    @Test
+    void testFutureQueriesLandInLastBucket() {
+        DomainSummary.Accumulator accumulator = new DomainSummary.Accumulator("ads.example", NOW);
+        assertTrue(accumulator.add(query(NOW + 5 * HOUR, "a", false, "")));
+        assertEquals(1, accumulator.snapshot(DomainSummary.Status.LOADING).timeline().get(23).queries());
+    }
+}